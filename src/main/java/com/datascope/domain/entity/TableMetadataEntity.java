@@ -34,6 +34,9 @@ public class TableMetadataEntity {
   @Column(name = "index_size")
   private Long indexSize;
 
+  @Column(name = "ddl_fingerprint")
+  private String ddlFingerprint;
+
   @Column(name = "last_analyzed", nullable = false)
   private LocalDateTime lastAnalyzed;
 
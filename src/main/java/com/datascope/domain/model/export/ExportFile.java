@@ -0,0 +1,33 @@
+package com.datascope.domain.model.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+
+/**
+ * 已完成的导出文件
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportFile {
+
+    /**
+     * 下载文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件路径
+     */
+    private Path path;
+
+    /**
+     * 预先压缩的gzip文件路径，没有时为null
+     */
+    private Path gzipPath;
+}
@@ -54,6 +54,12 @@ public class ExportHistory {
     @Column(name = "row_count")
     private Integer rowCount;
 
+    /**
+     * 是否因超过导出行数上限被截断
+     */
+    @Column(name = "truncated")
+    private Boolean truncated;
+
     /**
      * 开始时间
      */
@@ -73,6 +79,12 @@ public class ExportHistory {
     @Enumerated(EnumType.STRING)
     private ExportStatus status;
 
+    /**
+     * 执行导出的节点实例标识
+     */
+    @Column(name = "instance_id", length = 100)
+    private String instanceId;
+
     /**
      * 错误信息
      */
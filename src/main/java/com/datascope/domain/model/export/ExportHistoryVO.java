@@ -46,6 +46,11 @@ public class ExportHistoryVO {
      */
     private Integer rowCount;
     
+    /**
+     * 是否因超过导出行数上限被截断
+     */
+    private Boolean truncated;
+    
     /**
      * 开始时间
      */
@@ -85,6 +90,7 @@ public class ExportHistoryVO {
                 .fileName(entity.getFileName())
                 .fileSize(entity.getFileSize())
                 .rowCount(entity.getRowCount())
+                .truncated(entity.getTruncated())
                 .startTime(entity.getStartTime())
                 .endTime(entity.getEndTime())
                 .status(entity.getStatus())
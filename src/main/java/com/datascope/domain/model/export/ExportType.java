@@ -17,5 +17,25 @@ public enum ExportType {
     /**
      * JSON格式
      */
-    JSON
+    JSON,
+
+    /**
+     * gzip压缩的CSV格式
+     */
+    CSV_GZIP,
+
+    /**
+     * NDJSON格式，每行一个JSON对象
+     */
+    NDJSON,
+
+    /**
+     * gzip压缩的NDJSON格式
+     */
+    NDJSON_GZIP,
+
+    /**
+     * Parquet列式格式
+     */
+    PARQUET
 }
\ No newline at end of file
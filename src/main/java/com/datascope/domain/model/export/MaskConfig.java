@@ -33,4 +33,9 @@ public class MaskConfig {
      * 掩码字符
      */
     private String maskChar;
+
+    /**
+     * 正则表达式，REGEX类型时匹配的部分替换为掩码字符
+     */
+    private String pattern;
 }
\ No newline at end of file
@@ -1,11 +1,17 @@
 package com.datascope.domain.model.metadata;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /** 列元数据 */
 @Data
 public class ColumnMetadata {
-  /** 所属表 */
+  /** 所属表，序列化和生成toString/equals时忽略，避免循环引用 */
+  @JsonIgnore
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
   private TableMetadata table;
 
   /** 列名 */
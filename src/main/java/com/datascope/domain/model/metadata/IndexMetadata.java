@@ -1,13 +1,19 @@
 package com.datascope.domain.model.metadata;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /** 索引元数据 */
 @Data
 public class IndexMetadata {
-  /** 所属表 */
+  /** 所属表(反向引用，不参与序列化和toString/equals) */
+  @JsonIgnore
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
   private TableMetadata table;
 
   /** 索引名 */
@@ -0,0 +1,24 @@
+package com.datascope.domain.model.metadata;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Data;
+
+/** 数据源元数据同步任务状态 */
+@Data
+public class MetadataSyncJobStatus {
+  /** 数据源ID */
+  private String dataSourceId;
+
+  /** 是否正在同步 */
+  private boolean running;
+
+  /** 同步间隔(分钟)，0表示不定时同步 */
+  private long intervalMinutes;
+
+  /** 下次定时同步时间 */
+  private LocalDateTime nextRunAt;
+
+  /** 最近的同步记录，按开始时间倒序 */
+  private List<MetadataSyncRun> recentRuns;
+}
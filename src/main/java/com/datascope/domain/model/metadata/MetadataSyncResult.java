@@ -0,0 +1,25 @@
+package com.datascope.domain.model.metadata;
+
+import lombok.Data;
+
+/** 元数据增量同步结果 */
+@Data
+public class MetadataSyncResult {
+  /** 数据源ID */
+  private String dataSourceId;
+
+  /** 新增的表数量 */
+  private int addedTables;
+
+  /** 结构变化后重新提取的表数量 */
+  private int updatedTables;
+
+  /** 已删除的表数量 */
+  private int deletedTables;
+
+  /** 未变化的表数量 */
+  private int unchangedTables;
+
+  /** 耗时(毫秒) */
+  private long durationMs;
+}
@@ -0,0 +1,66 @@
+package com.datascope.domain.model.metadata;
+
+import java.time.LocalDateTime;
+import javax.persistence.*;
+import lombok.Data;
+
+/** 元数据同步记录 */
+@Data
+@Entity
+@Table(name = "metadata_sync_run")
+public class MetadataSyncRun {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /** 数据源ID */
+  @Column(name = "data_source_id", nullable = false)
+  private String dataSourceId;
+
+  /** 触发方式 */
+  @Column(name = "trigger_type", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private MetadataSyncTrigger trigger;
+
+  /** 状态 */
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  private MetadataSyncRunStatus status;
+
+  /** 执行同步的节点实例标识 */
+  @Column(name = "instance_id", length = 100)
+  private String instanceId;
+
+  /** 开始时间 */
+  @Column(name = "started_at", nullable = false)
+  private LocalDateTime startedAt;
+
+  /** 结束时间 */
+  @Column(name = "finished_at")
+  private LocalDateTime finishedAt;
+
+  /** 耗时(毫秒) */
+  @Column(name = "duration_ms")
+  private Long durationMs;
+
+  /** 新增的表数量 */
+  @Column(name = "added_tables")
+  private Integer addedTables;
+
+  /** 更新的表数量 */
+  @Column(name = "updated_tables")
+  private Integer updatedTables;
+
+  /** 删除的表数量 */
+  @Column(name = "deleted_tables")
+  private Integer deletedTables;
+
+  /** 未变化的表数量 */
+  @Column(name = "unchanged_tables")
+  private Integer unchangedTables;
+
+  /** 错误信息 */
+  @Column(name = "error_message", length = 1000)
+  private String errorMessage;
+}
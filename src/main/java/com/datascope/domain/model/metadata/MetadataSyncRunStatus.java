@@ -0,0 +1,9 @@
+package com.datascope.domain.model.metadata;
+
+/** 元数据同步状态 */
+public enum MetadataSyncRunStatus {
+  QUEUED, // 排队中
+  RUNNING, // 执行中
+  SUCCEEDED, // 成功
+  FAILED // 失败
+}
@@ -0,0 +1,7 @@
+package com.datascope.domain.model.metadata;
+
+/** 元数据同步触发方式 */
+public enum MetadataSyncTrigger {
+  SCHEDULED, // 定时触发
+  MANUAL // 手动触发
+}
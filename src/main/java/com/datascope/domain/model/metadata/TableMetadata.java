@@ -1,10 +1,13 @@
 package com.datascope.domain.model.metadata;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /** 表元数据 */
 @Data
@@ -30,13 +33,19 @@ public class TableMetadata {
   /** 索引大小(字节) */
   private Long indexSize;
 
+  /** DDL指纹，列或索引定义变化时随之变化，用于增量同步 */
+  private String ddlFingerprint;
+
   /** 列信息 */
   private final List<ColumnMetadata> columns = new ArrayList<>();
 
   /** 索引信息 */
   private final List<IndexMetadata> indices = new ArrayList<>();
 
-  /** 列名到列信息的映射 */
+  /** 列名到列信息的映射，由列信息派生 */
+  @JsonIgnore
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
   private final Map<String, ColumnMetadata> columnMap = new HashMap<>();
 
   public void addColumn(ColumnMetadata column) {
@@ -24,6 +24,9 @@ public class DataPreviewRequest {
   /** 采样行数 */
   private Integer sampleSize = 100;
 
+  /** 采样方式 */
+  private SamplingMode samplingMode = SamplingMode.HEAD;
+
   /** 是否包含系统列 */
   private boolean includeSystemColumns = false;
 
@@ -35,4 +38,7 @@ public class DataPreviewRequest {
 
   /** 过滤条件 */
   private String whereClause;
+
+  /** 是否要求精确总行数，默认无过滤条件时返回估算值 */
+  private boolean exactCount = false;
 }
@@ -17,9 +17,15 @@ public class DataPreviewResponse {
   /** 总行数 */
   private Long totalRows;
 
+  /** 总行数是否为精确值，false表示来自统计信息的估算值，无法得到总行数时为空 */
+  private Boolean totalRowsExact;
+
   /** 采样行数 */
   private Integer sampleSize;
 
+  /** 实际使用的采样方式，请求的方式不可用时为退回后的方式 */
+  private SamplingMode samplingMode;
+
   /** 执行时间(毫秒) */
   private Long executionTime;
 }
@@ -0,0 +1,16 @@
+package com.datascope.domain.model.preview;
+
+/** 预览采样方式 */
+public enum SamplingMode {
+  /** 取前N行，代价最低，但结果偏向物理存储顺序靠前的数据 */
+  HEAD,
+
+  /** 数据块采样(TABLESAMPLE SYSTEM等)，按估算行数计算采样比例，数据库不支持时退回HEAD */
+  BLOCK,
+
+  /** 主键区间采样，在主键范围内随机选取若干起点，每个起点沿主键索引读取一小段，没有整数主键时退回HEAD */
+  KEY_RANGE,
+
+  /** 蓄水池采样，流式读取全部(或不超过扫描上限的)行并保留均匀随机的N行，适用于不支持采样子句的数据源 */
+  RESERVOIR
+}
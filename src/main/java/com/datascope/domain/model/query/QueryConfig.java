@@ -70,6 +70,13 @@ public class QueryConfig {
     @Column(name = "max_rows", nullable = false)
     private Integer maxRows;
 
+    /**
+     * 是否缓存查询结果
+     */
+    @Builder.Default
+    @Column(name = "cache_enabled", nullable = false)
+    private Boolean cacheEnabled = false;
+
     /**
      * 创建时间
      */
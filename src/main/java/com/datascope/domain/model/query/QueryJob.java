@@ -0,0 +1,73 @@
+package com.datascope.domain.model.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 异步查询任务
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryJob {
+
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 查询配置ID
+     */
+    private String queryConfigId;
+
+    /**
+     * 数据源ID
+     */
+    private String dataSourceId;
+
+    /**
+     * 查询历史ID(开始执行后生成)
+     */
+    private String historyId;
+
+    /**
+     * 任务状态
+     */
+    private QueryStatus status;
+
+    /**
+     * 提交时间
+     */
+    private LocalDateTime submittedAt;
+
+    /**
+     * 开始执行时间
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime finishedAt;
+
+    /**
+     * 返回行数
+     */
+    private Integer rowCount;
+
+    /**
+     * 执行时间(毫秒)
+     */
+    private Long executionTime;
+
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+}
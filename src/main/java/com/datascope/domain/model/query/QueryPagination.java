@@ -33,4 +33,9 @@ public class QueryPagination {
      * 排序方向
      */
     private String sortDirection;
+
+    /**
+     * 键集分页游标(上一页结果中的 nextCursor)，提供时忽略页码
+     */
+    private String cursor;
 }
\ No newline at end of file
@@ -42,6 +42,16 @@ public class QueryResult {
      */
     private Boolean truncated;
 
+    /**
+     * 下一页的键集分页游标，使用偏移量分页或已是最后一页时为空
+     */
+    private String nextCursor;
+
+    /**
+     * 是否来自结果缓存
+     */
+    private Boolean cached;
+
     /**
      * 查询状态
      */
@@ -4,6 +4,11 @@ package com.datascope.domain.model.query;
  * 查询状态枚举
  */
 public enum QueryStatus {
+    /**
+     * 排队中
+     */
+    PENDING,
+    
     /**
      * 运行中
      */
@@ -22,5 +27,10 @@ public enum QueryStatus {
     /**
      * 超时
      */
-    TIMEOUT
+    TIMEOUT,
+    
+    /**
+     * 已取消
+     */
+    CANCELLED
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package com.datascope.domain.model.query;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * 基于数组的结果行集合
+ * <p>
+ * 列名只保存一份，每行数据以 {@code Object[]} 按列顺序存放，避免每行创建一个重复保存列名的HashMap。
+ * 对外仍表现为 {@code List<Map<String, Object>>}（行以只读视图的形式按需创建），
+ * 序列化后的JSON结构与原先的Map列表完全一致。
+ */
+@JsonSerialize(using = ResultRows.Serializer.class)
+public class ResultRows extends AbstractList<Map<String, Object>> implements RandomAccess {
+
+    /**
+     * 输出的列名（去重后，按首次出现的顺序）
+     */
+    private final String[] keys;
+
+    /**
+     * 每个输出列对应的值下标（同名列取最后一列的值，与Map的覆盖语义一致）
+     */
+    private final int[] valueIndexes;
+
+    /**
+     * 列名到值下标的索引
+     */
+    private final Map<String, Integer> keyIndex;
+
+    /**
+     * 每行的列数
+     */
+    private final int width;
+
+    /**
+     * 行数据
+     */
+    private final List<Object[]> data;
+
+    public ResultRows(List<String> columnNames) {
+        this(columnNames, 16);
+    }
+
+    public ResultRows(List<String> columnNames, int initialCapacity) {
+        this.width = columnNames.size();
+        this.keyIndex = new LinkedHashMap<>();
+        for (int i = 0; i < width; i++) {
+            // 重复的列名保留首次出现的位置，值取最后一列
+            keyIndex.put(columnNames.get(i), i);
+        }
+        this.keys = keyIndex.keySet().toArray(new String[0]);
+        this.valueIndexes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            valueIndexes[i] = keyIndex.get(keys[i]);
+        }
+        this.data = new ArrayList<>(initialCapacity);
+    }
+
+    /**
+     * 添加一行数据，数组按列定义的顺序存放值
+     */
+    public void addRow(Object[] values) {
+        if (values.length != width) {
+            throw new IllegalArgumentException("行数据列数不匹配: 期望 " + width + "，实际 " + values.length);
+        }
+        data.add(values);
+        modCount++;
+    }
+
+    /**
+     * 获取原始行数组
+     */
+    public Object[] getRow(int index) {
+        return data.get(index);
+    }
+
+    /**
+     * 获取列名
+     */
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    @Override
+    public Map<String, Object> get(int index) {
+        return new RowView(data.get(index));
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * 单行数据的只读Map视图
+     */
+    private final class RowView extends AbstractMap<String, Object> {
+
+        private final Object[] values;
+
+        private RowView(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Integer index = keyIndex.get(key);
+            return index == null ? null : values[index];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return keyIndex.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+                        private int position;
+
+                        @Override
+                        public boolean hasNext() {
+                            return position < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (position >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int current = position++;
+                            return new SimpleImmutableEntry<>(keys[current], values[valueIndexes[current]]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+    }
+
+    /**
+     * 按列名对象形式序列化，每行输出一个JSON对象，列名使用预编码的字符串
+     */
+    public static class Serializer extends StdSerializer<ResultRows> {
+
+        private static final long serialVersionUID = 1L;
+
+        public Serializer() {
+            super(ResultRows.class);
+        }
+
+        @Override
+        public void serialize(ResultRows value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            int columnCount = value.keys.length;
+            SerializableString[] names = new SerializableString[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                names[i] = new SerializedString(value.keys[i]);
+            }
+
+            // 同一列的值类型通常一致，按列缓存最近使用的序列化器
+            Class<?>[] valueTypes = new Class<?>[columnCount];
+            @SuppressWarnings("unchecked")
+            JsonSerializer<Object>[] serializers = new JsonSerializer[columnCount];
+
+            gen.writeStartArray(value, value.data.size());
+            for (Object[] row : value.data) {
+                gen.writeStartObject();
+                for (int i = 0; i < columnCount; i++) {
+                    gen.writeFieldName(names[i]);
+                    Object cell = row[value.valueIndexes[i]];
+                    if (cell == null) {
+                        provider.defaultSerializeNull(gen);
+                        continue;
+                    }
+                    Class<?> type = cell.getClass();
+                    if (type != valueTypes[i]) {
+                        valueTypes[i] = type;
+                        serializers[i] = provider.findValueSerializer(type);
+                    }
+                    serializers[i].serialize(cell, gen, provider);
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+}
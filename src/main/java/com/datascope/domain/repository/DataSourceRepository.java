@@ -41,6 +41,10 @@ public interface DataSourceRepository
       @Param("status") DataSourceStatus status,
       Pageable pageable);
 
+  /** 查找所有数据源并加载其属性，用于在事务外读取属性 */
+  @Query("SELECT DISTINCT ds FROM DataSource ds LEFT JOIN FETCH ds.properties")
+  List<DataSource> findAllWithProperties();
+
   /** 根据类型统计数据源数量 */
   long countByType(DataSourceType type);
 
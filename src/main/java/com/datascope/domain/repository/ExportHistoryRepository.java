@@ -0,0 +1,89 @@
+package com.datascope.domain.repository;
+
+import com.datascope.domain.model.export.ExportHistory;
+import com.datascope.domain.model.export.ExportStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 导出历史仓库
+ */
+@Repository
+public interface ExportHistoryRepository extends JpaRepository<ExportHistory, String> {
+
+    /**
+     * 根据导出配置ID查找导出历史
+     */
+    List<ExportHistory> findByExportConfigId(String exportConfigId);
+
+    /**
+     * 分页查询导出历史
+     */
+    @Query("SELECT eh FROM ExportHistory eh WHERE " +
+            "(:exportConfigId IS NULL OR eh.exportConfigId = :exportConfigId) AND " +
+            "(:status IS NULL OR eh.status = :status) AND " +
+            "(:createdBy IS NULL OR eh.createdBy = :createdBy)")
+    Page<ExportHistory> findByConditions(
+            @Param("exportConfigId") String exportConfigId,
+            @Param("status") ExportStatus status,
+            @Param("createdBy") String createdBy,
+            Pageable pageable);
+
+    /**
+     * 将节点未完成的导出标记为失败，用于重启后结束被中断的导出，其他节点执行中的导出不受影响
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportHistory eh SET eh.status = :failed, eh.errorMessage = :message, eh.endTime = :endTime " +
+            "WHERE eh.instanceId = :instanceId AND eh.status IN :statuses")
+    int failUnfinished(
+            @Param("instanceId") String instanceId,
+            @Param("statuses") List<ExportStatus> statuses,
+            @Param("failed") ExportStatus failed,
+            @Param("message") String message,
+            @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 开始执行导出，只有仍处于等待状态(未被取消)时才更新
+     *
+     * @return 更新的行数，0表示导出已不在等待状态
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportHistory eh SET eh.status = :processing, eh.startTime = :startTime " +
+            "WHERE eh.id = :id AND eh.status = :pending")
+    int start(
+            @Param("id") String id,
+            @Param("pending") ExportStatus pending,
+            @Param("processing") ExportStatus processing,
+            @Param("startTime") LocalDateTime startTime);
+
+    /**
+     * 记录导出的结束状态，只有导出仍未结束时才更新，完成和取消并发时只有先到的一方生效
+     *
+     * @return 更新的行数，0表示导出已经结束
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportHistory eh SET eh.status = :status, eh.fileSize = :fileSize, eh.rowCount = :rowCount, " +
+            "eh.truncated = :truncated, eh.errorMessage = :errorMessage, eh.endTime = :endTime " +
+            "WHERE eh.id = :id AND eh.status IN :statuses")
+    int finish(
+            @Param("id") String id,
+            @Param("statuses") List<ExportStatus> statuses,
+            @Param("status") ExportStatus status,
+            @Param("fileSize") Long fileSize,
+            @Param("rowCount") Integer rowCount,
+            @Param("truncated") Boolean truncated,
+            @Param("errorMessage") String errorMessage,
+            @Param("endTime") LocalDateTime endTime);
+}
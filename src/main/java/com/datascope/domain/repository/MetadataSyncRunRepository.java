@@ -0,0 +1,42 @@
+package com.datascope.domain.repository;
+
+import com.datascope.domain.model.metadata.MetadataSyncRun;
+import com.datascope.domain.model.metadata.MetadataSyncRunStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface MetadataSyncRunRepository extends JpaRepository<MetadataSyncRun, Long> {
+
+  /** 数据源最近的同步记录 */
+  List<MetadataSyncRun> findTop20ByDataSourceIdOrderByStartedAtDesc(String dataSourceId);
+
+  /** 数据源最近一次同步记录 */
+  Optional<MetadataSyncRun> findTopByDataSourceIdOrderByStartedAtDesc(String dataSourceId);
+
+  /** 将节点未完成的记录标记为失败，用于重启后结束被中断的同步，其他节点的记录不受影响 */
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE MetadataSyncRun r SET r.status = :failed, r.errorMessage = :message, "
+          + "r.finishedAt = :now WHERE r.instanceId = :instanceId AND r.status IN :statuses")
+  int failUnfinished(
+      @Param("instanceId") String instanceId,
+      @Param("statuses") List<MetadataSyncRunStatus> statuses,
+      @Param("failed") MetadataSyncRunStatus failed,
+      @Param("message") String message,
+      @Param("now") LocalDateTime now);
+
+  /** 删除指定时间之前的同步记录 */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM MetadataSyncRun r WHERE r.startedAt < :time")
+  int deleteStartedBefore(@Param("time") LocalDateTime time);
+}
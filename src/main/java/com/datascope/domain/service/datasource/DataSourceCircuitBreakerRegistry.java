@@ -0,0 +1,127 @@
+package com.datascope.domain.service.datasource;
+
+import com.datascope.infrastructure.util.CircuitBreaker;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/** 数据源熔断器注册表，每个数据源一个熔断器 */
+@Slf4j
+@Component
+public class DataSourceCircuitBreakerRegistry {
+
+  @Value("${datascope.datasource.circuit-breaker.enabled:true}")
+  private boolean enabled;
+
+  @Value("${datascope.datasource.circuit-breaker.window-size:20}")
+  private int windowSize;
+
+  @Value("${datascope.datasource.circuit-breaker.minimum-calls:10}")
+  private int minimumCalls;
+
+  @Value("${datascope.datasource.circuit-breaker.failure-rate-threshold:50}")
+  private int failureRateThreshold;
+
+  @Value("${datascope.datasource.circuit-breaker.slow-call-duration-ms:5000}")
+  private long slowCallDurationMs;
+
+  @Value("${datascope.datasource.circuit-breaker.slow-call-rate-threshold:80}")
+  private int slowCallRateThreshold;
+
+  @Value("${datascope.datasource.circuit-breaker.open-duration-ms:30000}")
+  private long openDurationMs;
+
+  @Value("${datascope.datasource.circuit-breaker.half-open-calls:3}")
+  private int halfOpenCalls;
+
+  private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+  /** 申请访问数据源的许可，熔断器打开时抛出异常 */
+  public void acquirePermission(String dataSourceId) throws SQLTransientConnectionException {
+    if (!enabled) {
+      return;
+    }
+    if (!get(dataSourceId).tryAcquirePermission()) {
+      throw new SQLTransientConnectionException("数据源已熔断，请稍后重试: " + dataSourceId);
+    }
+  }
+
+  /** 记录成功访问 */
+  public void onSuccess(String dataSourceId, long durationMs) {
+    if (enabled) {
+      get(dataSourceId).onSuccess(durationMs);
+    }
+  }
+
+  /** 记录失败访问 */
+  public void onError(String dataSourceId, long durationMs) {
+    if (!enabled) {
+      return;
+    }
+    CircuitBreaker circuitBreaker = get(dataSourceId);
+    circuitBreaker.onError(durationMs);
+    if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+      log.warn("数据源熔断器已打开: {}", dataSourceId);
+    }
+  }
+
+  /**
+   * 记录一次查询的结果，每次查询只调用一次。只有超时和连接类错误记为失败，SQL错误等说明数据源可用，记为成功
+   *
+   * @param e 查询失败的异常，成功或取消时为null
+   */
+  public void onQueryComplete(String dataSourceId, long durationMs, SQLException e) {
+    if (e != null && isDataSourceFailure(e)) {
+      onError(dataSourceId, durationMs);
+    } else {
+      onSuccess(dataSourceId, durationMs);
+    }
+  }
+
+  /** 获取数据源熔断器状态 */
+  public CircuitBreaker.State getState(String dataSourceId) {
+    CircuitBreaker circuitBreaker = circuitBreakers.get(dataSourceId);
+    return circuitBreaker != null ? circuitBreaker.getState() : CircuitBreaker.State.CLOSED;
+  }
+
+  /** 移除数据源熔断器 */
+  public void remove(String dataSourceId) {
+    circuitBreakers.remove(dataSourceId);
+  }
+
+  /** 是否为超时或连接类错误 */
+  public static boolean isDataSourceFailure(SQLException e) {
+    if (e instanceof SQLTimeoutException
+        || e instanceof SQLTransientConnectionException
+        || e instanceof SQLNonTransientConnectionException
+        || e instanceof SQLRecoverableException) {
+      return true;
+    }
+    String sqlState = e.getSQLState();
+    // 08: 连接异常；57014: PostgreSQL语句被取消(超时)；70100: MySQL查询被中断
+    return sqlState != null
+        && (sqlState.startsWith("08") || "57014".equals(sqlState) || "70100".equals(sqlState));
+  }
+
+  private CircuitBreaker get(String dataSourceId) {
+    return circuitBreakers.computeIfAbsent(
+        dataSourceId,
+        id ->
+            new CircuitBreaker(
+                id,
+                windowSize,
+                minimumCalls,
+                failureRateThreshold,
+                slowCallDurationMs,
+                slowCallRateThreshold,
+                openDurationMs,
+                halfOpenCalls));
+  }
+}
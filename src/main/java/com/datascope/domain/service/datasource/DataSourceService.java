@@ -64,4 +64,14 @@ public interface DataSourceService {
    * @throws SQLException 如果获取连接失败
    */
   Connection getConnection(DataSource dataSource) throws SQLException;
+
+  /**
+   * 获取用于执行查询的数据源连接，熔断器只记录获取失败，查询结束后由调用方记录一次查询结果
+   *
+   * @param dataSource 数据源实体
+   * @return 数据库连接
+   * @throws SQLException 如果获取连接失败
+   * @see DataSourceCircuitBreakerRegistry#onQueryComplete(String, long, SQLException)
+   */
+  Connection getQueryConnection(DataSource dataSource) throws SQLException;
 }
@@ -0,0 +1,144 @@
+package com.datascope.domain.service.export;
+
+import com.datascope.domain.model.export.MaskConfig;
+import com.datascope.domain.model.export.MaskType;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 数据掩码
+ * <p>
+ * 按列的掩码配置创建，导出时逐个值调用，正则表达式只编译一次。
+ * 位置按字符计算，值长度不足以保留首尾时只保留第一个字符。
+ */
+public class DataMasker {
+
+    private static final String DEFAULT_MASK_CHAR = "*";
+
+    private final MaskConfig config;
+
+    private final String maskChar;
+
+    private final Pattern pattern;
+
+    private DataMasker(MaskConfig config) {
+        this.config = config;
+        this.maskChar = config.getMaskChar() == null || config.getMaskChar().isEmpty()
+                ? DEFAULT_MASK_CHAR : config.getMaskChar();
+        this.pattern = config.getType() == MaskType.REGEX ? compile(config.getPattern()) : null;
+    }
+
+    /**
+     * 根据掩码配置创建掩码器
+     *
+     * @param config 掩码配置，可以为空
+     * @return 掩码器，不需要掩码时返回null
+     */
+    public static DataMasker of(MaskConfig config) {
+        if (config == null || config.getType() == null || config.getType() == MaskType.NONE) {
+            return null;
+        }
+        return new DataMasker(config);
+    }
+
+    /**
+     * 掩码
+     *
+     * @param value 原始值
+     * @return 掩码后的值
+     */
+    public String mask(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        switch (config.getType()) {
+            case FIXED:
+                int start = config.getStart() != null ? config.getStart() : 0;
+                int end = config.getEnd() != null ? config.getEnd() : value.length();
+                return maskRange(value, start, end);
+            case REGEX:
+                return maskPattern(value);
+            case EMAIL:
+                int at = value.indexOf('@');
+                // 保留用户名首字符和域名
+                return at > 0 ? maskRange(value, 1, at) : keep(value, 1, 0);
+            case PHONE:
+                return keep(value, 3, 4);
+            case ID_CARD:
+                return keep(value, 6, 4);
+            case BANK_CARD:
+                return keep(value, 4, 4);
+            case ADDRESS:
+                return keep(value, 6, 0);
+            case NAME:
+                return keep(value, 1, 0);
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * 保留首尾若干字符，其余替换为掩码字符
+     */
+    private String keep(String value, int head, int tail) {
+        int length = value.length();
+        if (head + tail >= length) {
+            return maskRange(value, 1, length);
+        }
+        return maskRange(value, head, length - tail);
+    }
+
+    /**
+     * 替换[start, end)范围内的字符
+     */
+    private String maskRange(String value, int start, int end) {
+        int from = Math.max(0, start);
+        int to = Math.min(value.length(), end);
+        if (from >= to) {
+            return value;
+        }
+        StringBuilder masked = new StringBuilder(value.length() + (to - from) * (maskChar.length() - 1));
+        masked.append(value, 0, from);
+        for (int i = from; i < to; i++) {
+            masked.append(maskChar);
+        }
+        masked.append(value, to, value.length());
+        return masked.toString();
+    }
+
+    /**
+     * 匹配部分逐字符替换为掩码字符，保持长度不变
+     */
+    private String maskPattern(String value) {
+        Matcher matcher = pattern.matcher(value);
+        if (!matcher.find()) {
+            return value;
+        }
+        StringBuilder masked = new StringBuilder(value.length());
+        int last = 0;
+        do {
+            masked.append(value, last, matcher.start());
+            for (int i = matcher.start(); i < matcher.end(); i++) {
+                masked.append(maskChar);
+            }
+            last = matcher.end();
+        } while (matcher.find());
+        masked.append(value, last, value.length());
+        return masked.toString();
+    }
+
+    private static Pattern compile(String regex) {
+        if (regex == null || regex.isEmpty()) {
+            throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "正则掩码未配置表达式");
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "正则掩码表达式无效: " + regex);
+        }
+    }
+}
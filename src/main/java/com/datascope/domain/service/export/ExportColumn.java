@@ -0,0 +1,308 @@
+package com.datascope.domain.service.export;
+
+import com.datascope.domain.model.export.ColumnConfig;
+import com.datascope.domain.model.metadata.ColumnType;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import lombok.Getter;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 导出列
+ * <p>
+ * 由列配置和结果集元数据解析得到，记录列在结果集中的位置以及格式化、掩码规则，
+ * 导出时逐行调用 {@link #convert(Object)}。
+ */
+public class ExportColumn {
+
+    private static final DateTimeFormatter DEFAULT_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 结果集中的列序号(从1开始)
+     */
+    @Getter
+    private final int index;
+
+    /**
+     * 字段名
+     */
+    @Getter
+    private final String field;
+
+    /**
+     * 列标题
+     */
+    @Getter
+    private final String label;
+
+    /**
+     * 列宽(像素)，未设置时为null
+     */
+    @Getter
+    private final Integer width;
+
+    /**
+     * 列类型，由结果集的JDBC类型按元数据的列类型归类
+     */
+    @Getter
+    private final ColumnType type;
+
+    /**
+     * 精度，未知时为0
+     */
+    @Getter
+    private final int precision;
+
+    /**
+     * 小数位数
+     */
+    @Getter
+    private final int scale;
+
+    private final DateTimeFormatter dateFormat;
+
+    private final String numberFormat;
+
+    private final DataMasker masker;
+
+    /**
+     * DecimalFormat非线程安全，每个导出任务各自创建列，因此可以复用
+     */
+    private DecimalFormat decimalFormat;
+
+    private ExportColumn(ResultSetMetaData metaData, int index, String field, String label, Integer width,
+            String format, DataMasker masker) throws SQLException {
+        this.index = index;
+        this.field = field;
+        this.label = label;
+        this.width = width;
+        this.precision = metaData.getPrecision(index);
+        this.scale = metaData.getScale(index);
+        this.type = columnType(metaData.getColumnType(index), metaData.getColumnTypeName(index), precision);
+        this.masker = masker;
+        DateTimeFormatter dateFormat = null;
+        String numberFormat = null;
+        if (format != null && !format.isEmpty()) {
+            // 只含数字格式符号的按数字格式处理，其余按日期格式处理
+            if (format.matches("[#0,.%\\-]+")) {
+                numberFormat = format;
+            } else {
+                try {
+                    dateFormat = DateTimeFormatter.ofPattern(format);
+                } catch (IllegalArgumentException e) {
+                    throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "列格式无效: " + field + " " + format);
+                }
+            }
+        }
+        this.dateFormat = dateFormat;
+        this.numberFormat = numberFormat;
+    }
+
+    /**
+     * 根据列配置解析导出列
+     * <p>
+     * 没有列配置时按结果集顺序导出全部列；否则只导出未排除的列，按order排序(未设置的排在最后)，
+     * 字段名不区分大小写。
+     *
+     * @param configs 列配置，可以为空
+     * @param metaData 结果集元数据
+     * @return 导出列
+     */
+    public static List<ExportColumn> resolve(List<ColumnConfig> configs, ResultSetMetaData metaData)
+            throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        List<ExportColumn> columns = new ArrayList<>();
+        if (configs == null || configs.isEmpty()) {
+            for (int i = 1; i <= columnCount; i++) {
+                String label = metaData.getColumnLabel(i);
+                columns.add(new ExportColumn(metaData, i, label, label, null, null, null));
+            }
+            return columns;
+        }
+
+        Map<String, Integer> indexes = new HashMap<>(columnCount * 2);
+        for (int i = 1; i <= columnCount; i++) {
+            indexes.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        List<ColumnConfig> exported = new ArrayList<>();
+        for (ColumnConfig config : configs) {
+            if (!Boolean.FALSE.equals(config.getExport())) {
+                exported.add(config);
+            }
+        }
+        exported.sort(Comparator.comparing(ColumnConfig::getOrder, Comparator.nullsLast(Comparator.naturalOrder())));
+        for (ColumnConfig config : exported) {
+            Integer index = config.getField() != null ? indexes.get(config.getField().toLowerCase(Locale.ROOT)) : null;
+            if (index == null) {
+                throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "导出列不存在: " + config.getField());
+            }
+            String label = config.getLabel() != null && !config.getLabel().isEmpty() ? config.getLabel() : config.getField();
+            columns.add(new ExportColumn(metaData, index, config.getField(), label, config.getWidth(), config.getFormat(),
+                    DataMasker.of(config.getMaskConfig())));
+        }
+        if (columns.isEmpty()) {
+            throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "没有需要导出的列");
+        }
+        return columns;
+    }
+
+    /**
+     * 转换单元格的值：应用格式和掩码，日期时间转为文本，二进制转为Base64，其余保持原始类型
+     *
+     * @param value 结果集中的值
+     * @return 导出的值，空值返回null
+     */
+    public Object convert(Object value) {
+        if (value == null) {
+            return null;
+        }
+        Object converted = format(value);
+        if (masker != null) {
+            return masker.mask(converted.toString());
+        }
+        return converted;
+    }
+
+    /**
+     * 是否配置了格式或掩码，配置后导出的值为文本
+     */
+    public boolean isConverted() {
+        return dateFormat != null || numberFormat != null || masker != null;
+    }
+
+    /**
+     * 转换单元格的值并保留原始类型，供列式格式使用
+     * <p>
+     * 配置了格式或掩码时与 {@link #convert(Object)} 相同；否则只把JDBC的日期时间类型转为java.time类型。
+     *
+     * @param value 结果集中的值
+     * @return 导出的值，空值返回null
+     */
+    public Object convertTyped(Object value) {
+        if (value == null || isConverted()) {
+            return convert(value);
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        if (value instanceof Time) {
+            return ((Time) value).toLocalTime();
+        }
+        if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toLocalDateTime();
+        }
+        return value;
+    }
+
+    /**
+     * JDBC类型归类为列类型，与元数据提取的归类一致，未识别的类型按VARCHAR处理
+     */
+    private static ColumnType columnType(int jdbcType, String typeName, int precision) {
+        switch (jdbcType) {
+            case Types.TINYINT:
+                return ColumnType.TINYINT;
+            case Types.SMALLINT:
+                return ColumnType.SMALLINT;
+            case Types.INTEGER:
+                return ColumnType.INTEGER;
+            case Types.BIGINT:
+                return ColumnType.BIGINT;
+            case Types.REAL:
+                return ColumnType.FLOAT;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return ColumnType.DOUBLE;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return ColumnType.DECIMAL;
+            case Types.CHAR:
+            case Types.NCHAR:
+                return ColumnType.CHAR;
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+            case Types.NCLOB:
+                return ColumnType.TEXT;
+            case Types.DATE:
+                return ColumnType.DATE;
+            case Types.TIME:
+            case Types.TIME_WITH_TIMEZONE:
+                return ColumnType.TIME;
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return ColumnType.TIMESTAMP;
+            case Types.BOOLEAN:
+                return ColumnType.BOOLEAN;
+            case Types.BIT:
+                // MySQL的BIT(n)在n大于1时返回字节数组
+                return precision > 1 ? ColumnType.VARBINARY : ColumnType.BOOLEAN;
+            case Types.BINARY:
+                return ColumnType.BINARY;
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                return ColumnType.VARBINARY;
+            case Types.BLOB:
+                return ColumnType.BLOB;
+            default:
+                return "JSON".equalsIgnoreCase(typeName) || "JSONB".equalsIgnoreCase(typeName)
+                        ? ColumnType.JSON : ColumnType.VARCHAR;
+        }
+    }
+
+    private Object format(Object value) {
+        if (value instanceof Timestamp) {
+            value = ((Timestamp) value).toLocalDateTime();
+        } else if (value instanceof java.sql.Date) {
+            value = ((java.sql.Date) value).toLocalDate();
+        } else if (value instanceof Time) {
+            value = ((Time) value).toLocalTime();
+        }
+
+        if (value instanceof TemporalAccessor) {
+            if (dateFormat != null) {
+                try {
+                    return dateFormat.format((TemporalAccessor) value);
+                } catch (DateTimeException e) {
+                    // 格式包含值没有的字段(如日期值使用时间格式)时输出原始值
+                    return value.toString();
+                }
+            }
+            if (value instanceof LocalDateTime) {
+                return DEFAULT_DATE_TIME_FORMAT.format((LocalDateTime) value);
+            }
+            return value.toString();
+        }
+        if (value instanceof Number && numberFormat != null) {
+            if (decimalFormat == null) {
+                decimalFormat = new DecimalFormat(numberFormat, DecimalFormatSymbols.getInstance(Locale.ROOT));
+            }
+            return decimalFormat.format(value);
+        }
+        if (value instanceof byte[]) {
+            return Base64.getEncoder().encodeToString((byte[]) value);
+        }
+        return value;
+    }
+}
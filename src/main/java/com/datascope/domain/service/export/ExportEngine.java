@@ -0,0 +1,336 @@
+package com.datascope.domain.service.export;
+
+import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.domain.model.export.ColumnConfig;
+import com.datascope.domain.model.export.ExportConfig;
+import com.datascope.domain.model.export.FilterCondition;
+import com.datascope.domain.model.export.FilterConfig;
+import com.datascope.domain.model.query.QueryConfig;
+import com.datascope.domain.repository.query.QueryConfigRepository;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.domain.service.export.writer.ExportFileWriter;
+import com.datascope.domain.service.export.writer.ExportFileWriters;
+import com.datascope.domain.service.query.QueryExecutionContext;
+import com.datascope.domain.service.query.QueryTemplateCache;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import com.datascope.infrastructure.dialect.SqlDialect;
+import com.datascope.infrastructure.dialect.SqlDialects;
+import com.datascope.infrastructure.util.BoundSql;
+import com.datascope.infrastructure.util.SqlParameterType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 导出引擎
+ * <p>
+ * 按导出配置查询数据源(指定查询配置时执行查询模板，否则查询配置的表)，以流式游标逐行读取，
+ * 应用列配置的顺序、格式和掩码后直接写出，内存占用与导出行数无关。
+ * 单次导出最多写出 {@code datascope.export.max-rows} 行，超出部分截断。
+ * 执行中的Statement登记到执行上下文，取消时中断查询并停止写出。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExportEngine {
+
+    private final DataSourceService dataSourceService;
+    private final QueryConfigRepository queryConfigRepository;
+    private final QueryTemplateCache templateCache;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 单次导出的最大行数
+     */
+    @Value("${datascope.export.max-rows:50000}")
+    private int maxRows;
+
+    /**
+     * 导出查询的超时时间(秒)
+     */
+    @Value("${datascope.export.timeout:300}")
+    private int timeout;
+
+    /**
+     * 流式查询每批次从数据库读取的行数
+     */
+    @Value("${datascope.query.stream-fetch-size:1000}")
+    private int streamFetchSize;
+
+    /**
+     * 执行导出
+     *
+     * @param config 导出配置
+     * @param outputStream 输出流，由调用方关闭
+     * @return 导出摘要
+     */
+    public ExportSummary export(ExportConfig config, OutputStream outputStream) throws SQLException, IOException {
+        return export(config, outputStream, new QueryExecutionContext());
+    }
+
+    /**
+     * 执行导出，可通过执行上下文取消
+     *
+     * @param config 导出配置
+     * @param outputStream 输出流，由调用方关闭
+     * @param context 执行上下文
+     * @return 导出摘要
+     */
+    public ExportSummary export(ExportConfig config, OutputStream outputStream, QueryExecutionContext context)
+            throws SQLException, IOException {
+        QueryConfig queryConfig = loadQueryConfig(config);
+        // 查询模板按所属数据源的语法编写
+        String dataSourceId = queryConfig != null ? queryConfig.getDataSourceId() : config.getDataSourceId();
+        DataSource dataSource = dataSourceService.get(dataSourceId).toEntity();
+        SqlDialect dialect = SqlDialects.of(dataSource.getType());
+        BoundSql boundSql = queryConfig != null
+                ? templateCache.get(queryConfig).bind(parameterValues(config.getFilterConfig()), null, dialect)
+                : buildTableQuery(config, dialect);
+        log.debug("执行导出查询: configId={}, sql={}", config.getId(), boundSql);
+
+        ExportFileWriter writer = ExportFileWriters.create(config.getExportType(), outputStream, objectMapper);
+        try (Connection connection = dataSourceService.getConnection(dataSource)) {
+            boolean autoCommit = connection.getAutoCommit();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    boundSql.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                boundSql.bind(statement);
+                // 多取一行用于判断是否截断
+                statement.setMaxRows(maxRows < Integer.MAX_VALUE ? maxRows + 1 : maxRows);
+                statement.setQueryTimeout(timeout);
+                configureStreaming(connection, statement, dataSource.getType());
+
+                context.register(statement);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return writeRows(resultSet, config.getColumnConfig(), writer, context);
+                } finally {
+                    context.unregister();
+                }
+            } finally {
+                if (connection.getAutoCommit() != autoCommit) {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+        }
+    }
+
+    /**
+     * 导出查询所在的数据源ID，指定查询配置时为查询配置的数据源
+     *
+     * @param config 导出配置
+     * @return 数据源ID
+     */
+    public String resolveDataSourceId(ExportConfig config) {
+        QueryConfig queryConfig = loadQueryConfig(config);
+        return queryConfig != null ? queryConfig.getDataSourceId() : config.getDataSourceId();
+    }
+
+    private QueryConfig loadQueryConfig(ExportConfig config) {
+        if (!StringUtils.hasText(config.getQueryConfigId())) {
+            return null;
+        }
+        return queryConfigRepository.findById(config.getQueryConfigId())
+                .orElseThrow(() -> new DataScopeException(ErrorCode.RESOURCE_NOT_FOUND, "查询配置不存在"));
+    }
+
+    /**
+     * 逐行转换并写出，每行复用同一个值数组
+     */
+    private ExportSummary writeRows(ResultSet resultSet, List<ColumnConfig> columnConfig, ExportFileWriter writer,
+            QueryExecutionContext context) throws SQLException, IOException {
+        List<ExportColumn> columns = ExportColumn.resolve(columnConfig, resultSet.getMetaData());
+        writer.writeHeader(columns);
+
+        ExportSummary summary = new ExportSummary();
+        boolean typed = writer.typedValues();
+        Object[] values = new Object[columns.size()];
+        while (resultSet.next()) {
+            if (context.isCancelled()) {
+                throw new DataScopeException(ErrorCode.OPERATION_FAILED, "导出已取消");
+            }
+            if (summary.rowCount >= maxRows) {
+                summary.truncated = true;
+                break;
+            }
+            for (int i = 0; i < values.length; i++) {
+                ExportColumn column = columns.get(i);
+                Object value = resultSet.getObject(column.getIndex());
+                values[i] = typed ? column.convertTyped(value) : column.convert(value);
+            }
+            writer.writeRow(values);
+            summary.rowCount++;
+        }
+        writer.finish();
+        return summary;
+    }
+
+    /**
+     * 配置驱动的流式读取方式
+     */
+    private void configureStreaming(Connection connection, PreparedStatement statement, DataSourceType type)
+            throws SQLException {
+        if (type == DataSourceType.MYSQL || type == DataSourceType.DORIS) {
+            // MySQL驱动仅在fetchSize为Integer.MIN_VALUE时逐行读取，否则会一次性加载全部结果
+            statement.setFetchSize(Integer.MIN_VALUE);
+        } else {
+            // PostgreSQL等驱动需要关闭自动提交才会使用服务端游标分批读取
+            connection.setAutoCommit(false);
+            statement.setFetchSize(streamFetchSize);
+        }
+    }
+
+    /**
+     * 查询表，只选择需要导出的列，过滤条件的值以参数形式绑定
+     */
+    BoundSql buildTableQuery(ExportConfig config, SqlDialect dialect) {
+        if (!StringUtils.hasText(config.getTableName())) {
+            throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "导出配置未指定表名或查询配置");
+        }
+        StringBuilder sql = new StringBuilder("SELECT ");
+        Set<String> fields = new LinkedHashSet<>();
+        if (config.getColumnConfig() != null) {
+            for (ColumnConfig column : config.getColumnConfig()) {
+                if (!Boolean.FALSE.equals(column.getExport()) && StringUtils.hasText(column.getField())) {
+                    fields.add(column.getField());
+                }
+            }
+        }
+        if (fields.isEmpty()) {
+            sql.append('*');
+        } else {
+            sql.append(fields.stream().map(dialect::quoteIdentifier).collect(Collectors.joining(", ")));
+        }
+
+        // 表名可以带schema
+        String tableName = config.getTableName();
+        int dot = tableName.indexOf('.');
+        String qualifiedTable = dot > 0
+                ? dialect.qualifyTable(tableName.substring(0, dot), tableName.substring(dot + 1))
+                : dialect.quoteIdentifier(tableName);
+        sql.append(" FROM ").append(qualifiedTable);
+
+        List<BoundSql.Parameter> parameters = new ArrayList<>();
+        FilterConfig filter = config.getFilterConfig();
+        if (filter != null && filter.getConditions() != null && !filter.getConditions().isEmpty()) {
+            String joiner = "OR".equalsIgnoreCase(filter.getOperator()) ? " OR " : " AND ";
+            sql.append(" WHERE ");
+            for (int i = 0; i < filter.getConditions().size(); i++) {
+                if (i > 0) {
+                    sql.append(joiner);
+                }
+                appendCondition(sql, parameters, filter.getConditions().get(i), dialect);
+            }
+        }
+        return new BoundSql(sql.toString(), parameters);
+    }
+
+    private void appendCondition(StringBuilder sql, List<BoundSql.Parameter> parameters, FilterCondition condition,
+            SqlDialect dialect) {
+        if (!StringUtils.hasText(condition.getField())) {
+            throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "过滤条件未指定字段");
+        }
+        String field = condition.getField();
+        String operator = condition.getOperator() != null
+                ? condition.getOperator().trim().toUpperCase(Locale.ROOT).replaceAll("\\s+", " ") : "=";
+        SqlParameterType type = SqlParameterType.of(condition.getValueType());
+        sql.append(dialect.quoteIdentifier(field));
+        switch (operator) {
+            case "=":
+            case ">":
+            case ">=":
+            case "<":
+            case "<=":
+            case "LIKE":
+            case "NOT LIKE":
+                sql.append(' ').append(operator).append(" ?");
+                parameters.add(new BoundSql.Parameter(field, type, requireValue(condition)));
+                break;
+            case "!=":
+            case "<>":
+                sql.append(" <> ?");
+                parameters.add(new BoundSql.Parameter(field, type, requireValue(condition)));
+                break;
+            case "IN":
+            case "NOT IN":
+                Object value = requireValue(condition);
+                Collection<?> values = value instanceof Collection ? (Collection<?>) value : List.of(value);
+                sql.append(' ').append(operator).append(" (");
+                if (values.isEmpty()) {
+                    sql.append("NULL");
+                }
+                int index = 0;
+                for (Object element : values) {
+                    sql.append(index++ == 0 ? "?" : ", ?");
+                    parameters.add(new BoundSql.Parameter(field, type, element));
+                }
+                sql.append(')');
+                break;
+            case "IS NULL":
+            case "IS NOT NULL":
+                sql.append(' ').append(operator);
+                break;
+            default:
+                throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "不支持的过滤操作符: " + condition.getOperator());
+        }
+    }
+
+    private static Object requireValue(FilterCondition condition) {
+        if (condition.getValue() == null) {
+            throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "过滤条件缺少值: " + condition.getField());
+        }
+        return condition.getValue();
+    }
+
+    /**
+     * 查询配置导出时，过滤条件按字段名作为查询模板的参数值
+     */
+    private static Map<String, Object> parameterValues(FilterConfig filter) {
+        Map<String, Object> values = new HashMap<>();
+        if (filter != null && filter.getConditions() != null) {
+            for (FilterCondition condition : filter.getConditions()) {
+                if (condition.getField() != null) {
+                    values.put(condition.getField(), condition.getValue());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 导出摘要
+     */
+    @Getter
+    public static class ExportSummary {
+
+        /**
+         * 写出的行数
+         */
+        private long rowCount;
+
+        /**
+         * 是否超过行数上限被截断
+         */
+        private boolean truncated;
+    }
+}
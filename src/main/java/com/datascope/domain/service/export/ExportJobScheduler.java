@@ -0,0 +1,223 @@
+package com.datascope.domain.service.export;
+
+import com.datascope.domain.service.query.QueryExecutionContext;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 导出任务调度器
+ * <p>
+ * 导出任务在固定大小的线程池中后台执行，避免导出高峰占满请求线程和数据源连接。
+ * 排队的任务按提交用户分组，各用户轮流出队，每个用户同时执行的导出不超过上限，
+ * 一个用户的大量导出不会占满所有线程、阻塞其他用户；
+ * 同一数据源同时执行的导出不超过上限，其余任务继续排队，为交互查询保留连接。
+ * 调度状态保存在进程内。
+ */
+@Slf4j
+@Component
+public class ExportJobScheduler implements DisposableBean {
+
+    private final int workers;
+
+    private final int maxPerUser;
+
+    private final int maxPerDataSource;
+
+    private final int queueCapacity;
+
+    private final ExecutorService executor;
+
+    /**
+     * 以下状态由 {@code this} 保护
+     */
+    private final Map<String, Deque<Job>> queues = new LinkedHashMap<>();
+
+    private final Map<String, Job> jobs = new HashMap<>();
+
+    private final Map<String, Integer> runningByUser = new HashMap<>();
+
+    private final Map<String, Integer> runningByDataSource = new HashMap<>();
+
+    private int running;
+
+    private int queued;
+
+    public ExportJobScheduler(
+            @Value("${datascope.export.job.workers:4}") int workers,
+            @Value("${datascope.export.job.max-per-user:2}") int maxPerUser,
+            @Value("${datascope.export.job.max-per-datasource:2}") int maxPerDataSource,
+            @Value("${datascope.export.job.queue-capacity:200}") int queueCapacity) {
+        this.workers = workers;
+        this.maxPerUser = maxPerUser;
+        this.maxPerDataSource = maxPerDataSource;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadNumber = new AtomicInteger();
+        // 提交到线程池的任务数不超过线程数，排队在调度器中进行
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                workers, workers, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "export-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * 提交导出任务
+     *
+     * @param jobId 任务ID
+     * @param user 提交用户
+     * @param dataSourceId 导出查询的数据源ID
+     * @param task 导出逻辑，参数为任务的执行上下文
+     * @throws DataScopeException 排队任务已满
+     */
+    public synchronized void submit(String jobId, String user, String dataSourceId,
+            Consumer<QueryExecutionContext> task) {
+        if (queued >= queueCapacity) {
+            throw new DataScopeException(ErrorCode.OPERATION_FAILED, "导出任务队列已满，请稍后重试");
+        }
+        Job job = new Job(jobId, user != null ? user : "", dataSourceId != null ? dataSourceId : "", task);
+        jobs.put(jobId, job);
+        queues.computeIfAbsent(job.user, key -> new ArrayDeque<>()).addLast(job);
+        queued++;
+        dispatch();
+    }
+
+    /**
+     * 取消导出任务：排队中的任务直接移除；执行中的任务取消正在执行的查询，由任务自行结束
+     *
+     * @param jobId 任务ID
+     * @return 任务是否从队列中移除(不会再执行)
+     */
+    public synchronized boolean cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        job.context.cancel();
+        if (job.started) {
+            log.info("取消执行中的导出任务: jobId={}", jobId);
+            return false;
+        }
+        Deque<Job> queue = queues.get(job.user);
+        queue.remove(job);
+        if (queue.isEmpty()) {
+            queues.remove(job.user);
+        }
+        queued--;
+        jobs.remove(jobId);
+        log.info("取消排队中的导出任务: jobId={}", jobId);
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            jobs.values().forEach(job -> job.context.cancel());
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * 在线程数以内启动可以执行的任务
+     */
+    private void dispatch() {
+        while (running < workers) {
+            Job job = pollNext();
+            if (job == null) {
+                return;
+            }
+            job.started = true;
+            running++;
+            runningByUser.merge(job.user, 1, Integer::sum);
+            runningByDataSource.merge(job.dataSourceId, 1, Integer::sum);
+            executor.execute(() -> run(job));
+        }
+    }
+
+    /**
+     * 按用户轮流取出第一个所属数据源未达到并发上限的任务，跳过执行中的任务已达上限的用户，
+     * 取出后该用户移到队尾
+     */
+    private Job pollNext() {
+        Iterator<Map.Entry<String, Deque<Job>>> users = queues.entrySet().iterator();
+        while (users.hasNext()) {
+            Map.Entry<String, Deque<Job>> entry = users.next();
+            if (runningByUser.getOrDefault(entry.getKey(), 0) >= maxPerUser) {
+                continue;
+            }
+            Deque<Job> queue = entry.getValue();
+            for (Iterator<Job> iterator = queue.iterator(); iterator.hasNext(); ) {
+                Job job = iterator.next();
+                if (runningByDataSource.getOrDefault(job.dataSourceId, 0) < maxPerDataSource) {
+                    iterator.remove();
+                    users.remove();
+                    if (!queue.isEmpty()) {
+                        queues.put(entry.getKey(), queue);
+                    }
+                    queued--;
+                    return job;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void run(Job job) {
+        try {
+            job.task.accept(job.context);
+        } catch (Exception e) {
+            log.error("导出任务执行失败: jobId={}", job.id, e);
+        } finally {
+            synchronized (this) {
+                running--;
+                runningByUser.computeIfPresent(job.user, (key, count) -> count > 1 ? count - 1 : null);
+                runningByDataSource.computeIfPresent(job.dataSourceId, (key, count) -> count > 1 ? count - 1 : null);
+                jobs.remove(job.id);
+                dispatch();
+            }
+        }
+    }
+
+    private static class Job {
+
+        private final String id;
+
+        private final String user;
+
+        private final String dataSourceId;
+
+        private final Consumer<QueryExecutionContext> task;
+
+        private final QueryExecutionContext context = new QueryExecutionContext();
+
+        private boolean started;
+
+        private Job(String id, String user, String dataSourceId, Consumer<QueryExecutionContext> task) {
+            this.id = id;
+            this.user = user;
+            this.dataSourceId = dataSourceId;
+            this.task = task;
+        }
+    }
+}
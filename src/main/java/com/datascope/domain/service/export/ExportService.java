@@ -2,6 +2,7 @@ package com.datascope.domain.service.export;
 
 import com.datascope.domain.model.export.ExportConfig;
 import com.datascope.domain.model.export.ExportConfigVO;
+import com.datascope.domain.model.export.ExportFile;
 import com.datascope.domain.model.export.ExportHistory;
 import com.datascope.domain.model.export.ExportHistoryVO;
 import com.datascope.domain.model.export.ExportStatus;
@@ -63,9 +64,9 @@ public interface ExportService {
     Page<ExportConfigVO> findExportConfigs(String name, String dataSourceId, String tableName, Pageable pageable);
     
     /**
-     * 执行导出
+     * 提交导出任务，任务在后台排队执行
      * @param configId 配置ID
-     * @return 导出历史记录
+     * @return 导出历史记录，状态为PENDING
      */
     ExportHistoryVO executeExport(String configId);
     
@@ -94,11 +95,11 @@ public interface ExportService {
     ExportHistoryVO cancelExport(String id);
     
     /**
-     * 下载导出文件
+     * 获取已完成的导出文件
      * @param id 历史ID
-     * @return 文件字节数组
+     * @return 导出文件
      */
-    byte[] downloadExportFile(String id);
+    ExportFile getExportFile(String id);
     
     /**
      * 删除导出历史记录
@@ -1,166 +1,407 @@
 package com.datascope.domain.service.export.impl;
 
 import com.datascope.domain.model.export.*;
+import com.datascope.domain.repository.ExportConfigRepository;
+import com.datascope.domain.repository.ExportHistoryRepository;
+import com.datascope.domain.service.export.ExportEngine;
+import com.datascope.domain.service.export.ExportJobScheduler;
 import com.datascope.domain.service.export.ExportService;
+import com.datascope.domain.service.export.writer.ExportFileWriters;
+import com.datascope.domain.service.query.QueryExecutionContext;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import com.datascope.infrastructure.config.InstanceIdentity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * 导出服务实现类
+ * <p>
+ * 导出任务提交到 {@link ExportJobScheduler} 后台执行，历史记录先以PENDING状态保存，执行时更新状态。
+ * 导出文件先写入存储目录下的临时文件，完成后重命名为 {@code <历史ID><扩展名>}，
+ * 下载时按历史记录定位文件，失败或删除历史时一并清理。
+ * 开启预压缩时未压缩的文本格式文件另外生成 {@code .gz} 副本，支持gzip的客户端直接下载压缩文件。
  */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class ExportServiceImpl implements ExportService {
 
-    // 模拟数据
-    private List<ExportConfigVO> configs = new ArrayList<>();
-    private List<ExportHistoryVO> histories = new ArrayList<>();
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * 未结束的导出状态
+     */
+    private static final List<ExportStatus> UNFINISHED = List.of(ExportStatus.PENDING, ExportStatus.PROCESSING);
+
+    private final ExportConfigRepository exportConfigRepository;
+    private final ExportHistoryRepository exportHistoryRepository;
+    private final ExportEngine exportEngine;
+    private final ExportJobScheduler exportJobScheduler;
+    private final InstanceIdentity instanceIdentity;
+
+    /**
+     * 导出文件存储目录
+     */
+    @Value("${datascope.export.storage-path:./export}")
+    private String storagePath;
+
+    /**
+     * 是否为文本格式的导出文件预先生成gzip副本
+     */
+    @Value("${datascope.export.precompress:true}")
+    private boolean precompress;
 
     @Override
+    @Transactional
     public ExportConfigVO createExportConfig(ExportConfigVO exportConfigVO) {
-        // 模拟数据
-        exportConfigVO.setId(UUID.randomUUID().toString());
-        configs.add(exportConfigVO);
-        return exportConfigVO;
+        if (exportConfigRepository.existsByName(exportConfigVO.getName())) {
+            throw new DataScopeException(ErrorCode.DUPLICATE_NAME, "导出配置名称已存在");
+        }
+
+        ExportConfig config = exportConfigVO.toEntity();
+        config.setId(UUID.randomUUID().toString());
+        LocalDateTime now = LocalDateTime.now();
+        config.setCreatedAt(now);
+        config.setUpdatedAt(now);
+        config.setCreatedBy(currentUser());
+        config.setUpdatedBy(config.getCreatedBy());
+        return ExportConfigVO.fromEntity(exportConfigRepository.save(config));
     }
 
     @Override
+    @Transactional
     public ExportConfigVO updateExportConfig(String id, ExportConfigVO exportConfigVO) {
-        // 模拟更新逻辑
-        exportConfigVO.setId(id);
-        return exportConfigVO;
+        ExportConfig config = loadConfig(id);
+        if (!config.getName().equals(exportConfigVO.getName())
+                && exportConfigRepository.existsByName(exportConfigVO.getName())) {
+            throw new DataScopeException(ErrorCode.DUPLICATE_NAME, "导出配置名称已存在");
+        }
+
+        config.setName(exportConfigVO.getName());
+        config.setQueryConfigId(exportConfigVO.getQueryConfigId());
+        config.setDataSourceId(exportConfigVO.getDataSourceId());
+        config.setTableName(exportConfigVO.getTableName());
+        config.setExportType(exportConfigVO.getExportType());
+        config.setColumnConfig(exportConfigVO.getColumnConfig());
+        config.setFilterConfig(exportConfigVO.getFilterConfig());
+        config.setUpdatedAt(LocalDateTime.now());
+        config.setUpdatedBy(currentUser());
+        return ExportConfigVO.fromEntity(exportConfigRepository.save(config));
     }
 
     @Override
+    @Transactional
     public void deleteExportConfig(String id) {
-        // 模拟删除逻辑
-        configs.removeIf(config -> config.getId().equals(id));
+        if (!exportConfigRepository.existsById(id)) {
+            throw new DataScopeException(ErrorCode.EXPORT_CONFIG_NOT_FOUND, "导出配置不存在");
+        }
+        // 历史记录随配置级联删除，导出文件需要单独清理
+        List<ExportHistory> histories = exportHistoryRepository.findByExportConfigId(id);
+        histories.forEach(this::deleteExportFile);
+        exportHistoryRepository.deleteAll(histories);
+        exportConfigRepository.deleteById(id);
     }
 
     @Override
     public ExportConfigVO getExportConfig(String id) {
-        // 模拟查询逻辑
-        return configs.stream()
-                .filter(config -> config.getId().equals(id))
-                .findFirst()
-                .orElse(ExportConfigVO.builder()
-                        .id(id)
-                        .name("示例导出配置")
-                        .dataSourceId("1")
-                        .tableName("users")
-                        .exportType(ExportType.CSV)
-                        .build());
+        return ExportConfigVO.fromEntity(loadConfig(id));
     }
 
     @Override
     public List<ExportConfigVO> getAllExportConfigs() {
-        // 如果没有数据，返回模拟数据
-        if (configs.isEmpty()) {
-            return List.of(
-                    ExportConfigVO.builder().id("1").name("用户数据导出").dataSourceId("1").tableName("users").exportType(ExportType.CSV).build(),
-                    ExportConfigVO.builder().id("2").name("订单数据导出").dataSourceId("1").tableName("orders").exportType(ExportType.EXCEL).build()
-            );
-        }
-        return configs;
+        return exportConfigRepository.findAll().stream()
+                .map(ExportConfigVO::fromEntity)
+                .collect(Collectors.toList());
     }
 
     @Override
     public Page<ExportConfigVO> findExportConfigs(String name, String dataSourceId, String tableName, Pageable pageable) {
-        // 模拟分页查询
-        List<ExportConfigVO> result = new ArrayList<>(getAllExportConfigs());
-        return new PageImpl<>(result, pageable, result.size());
+        return exportConfigRepository.findByConditions(name, dataSourceId, tableName, pageable)
+                .map(ExportConfigVO::fromEntity);
     }
 
     @Override
     public ExportHistoryVO executeExport(String configId) {
-        // 模拟执行导出
-        ExportHistoryVO history = ExportHistoryVO.builder()
+        ExportConfig config = loadConfig(configId);
+        String dataSourceId = exportEngine.resolveDataSourceId(config);
+        LocalDateTime now = LocalDateTime.now();
+        String extension = ExportFileWriters.extension(config.getExportType());
+
+        ExportHistory history = ExportHistory.builder()
                 .id(UUID.randomUUID().toString())
                 .exportConfigId(configId)
-                .configName("示例导出配置")
-                .fileName("export_data.csv")
-                .startTime(LocalDateTime.now())
-                .status(ExportStatus.PROCESSING)
+                .fileName(config.getName() + "_" + FILE_TIME_FORMAT.format(now) + extension)
+                .startTime(now)
+                .status(ExportStatus.PENDING)
+                .instanceId(instanceIdentity.getId())
+                .createdBy(currentUser())
                 .build();
-        
-        histories.add(history);
-        return history;
+        history = exportHistoryRepository.save(history);
+
+        String historyId = history.getId();
+        try {
+            exportJobScheduler.submit(historyId, history.getCreatedBy(), dataSourceId,
+                    context -> runExport(historyId, config, context));
+        } catch (DataScopeException e) {
+            history.setStatus(ExportStatus.FAILED);
+            history.setErrorMessage(e.getMessage());
+            history.setEndTime(LocalDateTime.now());
+            exportHistoryRepository.save(history);
+            throw e;
+        }
+        return toVO(history, config);
+    }
+
+    /**
+     * 执行导出，在导出任务线程中调用
+     */
+    private void runExport(String historyId, ExportConfig config, QueryExecutionContext context) {
+        ExportHistory history = exportHistoryRepository.findById(historyId).orElse(null);
+        if (history == null || history.getStatus() != ExportStatus.PENDING || context.isCancelled()) {
+            return;
+        }
+        // 状态均以条件更新修改，与取消请求并发时不会互相覆盖
+        LocalDateTime startTime = LocalDateTime.now();
+        if (exportHistoryRepository.start(historyId, ExportStatus.PENDING, ExportStatus.PROCESSING, startTime) == 0) {
+            return;
+        }
+        history.setStartTime(startTime);
+        history.setStatus(ExportStatus.PROCESSING);
+
+        Path target = resolveFile(history);
+        Path spool = null;
+        try {
+            Files.createDirectories(target.getParent());
+            spool = Files.createTempFile(target.getParent(), history.getId(), ".part");
+
+            ExportEngine.ExportSummary summary;
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(spool), OUTPUT_BUFFER_SIZE)) {
+                summary = exportEngine.export(config, outputStream, context);
+            }
+            if (context.isCancelled()) {
+                throw new DataScopeException(ErrorCode.OPERATION_FAILED, "导出已取消");
+            }
+            // 写完后再移动到正式位置，下载不会读到未完成的文件
+            Files.move(spool, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (precompress && !ExportFileWriters.compressed(config.getExportType())) {
+                compress(target);
+            }
+
+            history.setFileSize(Files.size(target));
+            history.setRowCount((int) summary.getRowCount());
+            history.setTruncated(summary.isTruncated());
+            history.setStatus(ExportStatus.COMPLETED);
+        } catch (Exception e) {
+            deleteQuietly(spool);
+            if (context.isCancelled()) {
+                log.info("导出已取消: configId={}, historyId={}", config.getId(), historyId);
+                history.setStatus(ExportStatus.CANCELLED);
+            } else {
+                log.error("导出失败: configId={}, historyId={}", config.getId(), historyId, e);
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+                history.setStatus(ExportStatus.FAILED);
+                history.setErrorMessage(message.length() > MAX_ERROR_LENGTH
+                        ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            }
+        }
+        history.setEndTime(LocalDateTime.now());
+        if (!finish(history)) {
+            // 导出已被取消，删除已生成的文件
+            log.info("导出已结束，丢弃导出结果: historyId={}", historyId);
+            deleteExportFile(history);
+        }
+    }
+
+    /**
+     * 启动时结束本节点上次运行遗留的未完成导出，调度状态保存在进程内，其他节点的导出由其自行结束
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedExports() {
+        try {
+            int count = exportHistoryRepository.failUnfinished(
+                    instanceIdentity.getId(), UNFINISHED, ExportStatus.FAILED,
+                    "服务重启，导出中断", LocalDateTime.now());
+            if (count > 0) {
+                log.info("结束被中断的导出任务: {}", count);
+            }
+        } catch (Exception e) {
+            log.warn("结束被中断的导出任务失败: {}", e.getMessage());
+        }
     }
 
     @Override
     public ExportHistoryVO getExportHistory(String id) {
-        // 模拟查询历史
-        return histories.stream()
-                .filter(history -> history.getId().equals(id))
-                .findFirst()
-                .orElse(ExportHistoryVO.builder()
-                        .id(id)
-                        .exportConfigId("1")
-                        .configName("示例导出配置")
-                        .fileName("export_data.csv")
-                        .fileSize(1024L)
-                        .rowCount(100)
-                        .startTime(LocalDateTime.now().minusHours(1))
-                        .endTime(LocalDateTime.now())
-                        .status(ExportStatus.COMPLETED)
-                        .build());
+        ExportHistory history = loadHistory(id);
+        return toVO(history, exportConfigRepository.findById(history.getExportConfigId()).orElse(null));
     }
 
     @Override
     public Page<ExportHistoryVO> findExportHistories(String configId, ExportStatus status, String createdBy, Pageable pageable) {
-        // 模拟查询历史记录
-        List<ExportHistoryVO> result = new ArrayList<>();
-        if (histories.isEmpty()) {
-            // 添加一些模拟数据
-            result.add(ExportHistoryVO.builder()
-                    .id(UUID.randomUUID().toString())
-                    .exportConfigId("1")
-                    .configName("用户数据导出")
-                    .fileName("users_export.csv")
-                    .fileSize(2048L)
-                    .rowCount(200)
-                    .startTime(LocalDateTime.now().minusHours(2))
-                    .endTime(LocalDateTime.now().minusHours(1))
-                    .status(ExportStatus.COMPLETED)
-                    .createdBy("admin")
-                    .build());
-        } else {
-            result.addAll(histories);
-        }
-        
-        return new PageImpl<>(result, pageable, result.size());
+        return exportHistoryRepository.findByConditions(configId, status, createdBy, pageable)
+                .map(history -> toVO(history,
+                        exportConfigRepository.findById(history.getExportConfigId()).orElse(null)));
     }
 
     @Override
     public ExportHistoryVO cancelExport(String id) {
-        // 模拟取消导出
-        ExportHistoryVO history = getExportHistory(id);
+        ExportHistory history = loadHistory(id);
+        if (!UNFINISHED.contains(history.getStatus())) {
+            throw new DataScopeException(ErrorCode.OPERATION_FAILED, "导出任务已结束，无法取消");
+        }
+        // 排队中的任务直接移除；执行中的任务中断查询，清理临时文件后同样记为已取消
+        exportJobScheduler.cancel(id);
         history.setStatus(ExportStatus.CANCELLED);
         history.setEndTime(LocalDateTime.now());
-        return history;
+        if (!finish(history)) {
+            // 导出在取消前已经结束
+            throw new DataScopeException(ErrorCode.OPERATION_FAILED, "导出任务已结束，无法取消");
+        }
+        return ExportHistoryVO.fromEntity(history);
     }
 
     @Override
-    public byte[] downloadExportFile(String id) {
-        // 模拟下载文件
-        return "id,name,email\n1,测试用户,test@example.com".getBytes();
+    public ExportFile getExportFile(String id) {
+        ExportHistory history = loadHistory(id);
+        if (history.getStatus() != ExportStatus.COMPLETED) {
+            throw new DataScopeException(ErrorCode.OPERATION_FAILED, "导出任务未完成");
+        }
+        Path file = resolveFile(history);
+        if (!Files.isRegularFile(file)) {
+            throw new DataScopeException(ErrorCode.RESOURCE_NOT_FOUND, "导出文件不存在");
+        }
+        Path gzipFile = gzipPath(file);
+        return ExportFile.builder()
+                .fileName(history.getFileName())
+                .path(file)
+                .gzipPath(Files.isRegularFile(gzipFile) ? gzipFile : null)
+                .build();
     }
 
     @Override
+    @Transactional
     public void deleteExportHistory(String id) {
-        // 模拟删除历史
-        histories.removeIf(history -> history.getId().equals(id));
+        ExportHistory history = loadHistory(id);
+        deleteExportFile(history);
+        exportHistoryRepository.delete(history);
     }
 
     @Override
+    @Transactional
     public void batchDeleteExportHistories(List<String> ids) {
-        // 模拟批量删除
-        histories.removeIf(history -> ids.contains(history.getId()));
+        List<ExportHistory> histories = exportHistoryRepository.findAllById(ids);
+        histories.forEach(this::deleteExportFile);
+        exportHistoryRepository.deleteAll(histories);
+    }
+
+    private ExportConfig loadConfig(String id) {
+        return exportConfigRepository.findById(id)
+                .orElseThrow(() -> new DataScopeException(ErrorCode.EXPORT_CONFIG_NOT_FOUND, "导出配置不存在"));
+    }
+
+    private ExportHistory loadHistory(String id) {
+        return exportHistoryRepository.findById(id)
+                .orElseThrow(() -> new DataScopeException(ErrorCode.RESOURCE_NOT_FOUND, "导出历史不存在"));
+    }
+
+    /**
+     * 以条件更新记录导出的结束状态
+     *
+     * @return 是否更新成功，导出已经结束时返回false
+     */
+    private boolean finish(ExportHistory history) {
+        return exportHistoryRepository.finish(history.getId(), UNFINISHED, history.getStatus(),
+                history.getFileSize(), history.getRowCount(), history.getTruncated(), history.getErrorMessage(),
+                history.getEndTime()) > 0;
+    }
+
+    private ExportHistoryVO toVO(ExportHistory history, ExportConfig config) {
+        ExportHistoryVO vo = ExportHistoryVO.fromEntity(history);
+        if (config != null) {
+            vo.setConfigName(config.getName());
+        }
+        return vo;
+    }
+
+    /**
+     * 导出文件路径，文件名由历史ID和下载文件名的扩展名组成
+     */
+    private Path resolveFile(ExportHistory history) {
+        String fileName = history.getFileName();
+        int dot = fileName.lastIndexOf('.');
+        return Paths.get(storagePath).resolve(history.getId() + (dot >= 0 ? fileName.substring(dot) : ""));
+    }
+
+    private static Path gzipPath(Path file) {
+        return file.resolveSibling(file.getFileName() + ".gz");
+    }
+
+    /**
+     * 生成gzip副本，同样先写临时文件再移动；压缩失败不影响导出结果
+     */
+    private void compress(Path file) {
+        Path spool = null;
+        try {
+            spool = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".gz.part");
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(spool), OUTPUT_BUFFER_SIZE)) {
+                Files.copy(file, outputStream);
+            }
+            Files.move(spool, gzipPath(file), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("生成导出文件的gzip副本失败: {}: {}", file, e.getMessage());
+            deleteQuietly(spool);
+        }
+    }
+
+    private void deleteExportFile(ExportHistory history) {
+        Path file = resolveFile(history);
+        deleteQuietly(file);
+        deleteQuietly(gzipPath(file));
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除导出文件失败: {}: {}", file, e.getMessage());
+        }
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return "system";
+        }
+        return authentication.getName();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.datascope.domain.service.export.writer;
+
+import com.datascope.domain.service.export.ExportColumn;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * CSV写入器
+ * <p>
+ * UTF-8编码并写出BOM，便于Excel正确识别中文；按RFC 4180转义，以公式字符开头的文本前加单引号，
+ * 防止在表格软件中被当作公式执行。
+ */
+public class CsvExportFileWriter implements ExportFileWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+
+    public CsvExportFileWriter(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    @Override
+    public void writeHeader(List<ExportColumn> columns) throws IOException {
+        writer.write('\uFEFF');
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeText(columns.get(i).getLabel());
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof CharSequence) {
+                writeText(value.toString());
+            } else {
+                writeEscaped(value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeText(String text) throws IOException {
+        if (!text.isEmpty() && isFormulaPrefix(text.charAt(0))) {
+            text = "'" + text;
+        }
+        writeEscaped(text);
+    }
+
+    private void writeEscaped(String text) throws IOException {
+        if (!needsQuote(text)) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuote(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFormulaPrefix(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+}
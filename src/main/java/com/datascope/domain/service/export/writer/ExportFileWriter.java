@@ -0,0 +1,40 @@
+package com.datascope.domain.service.export.writer;
+
+import com.datascope.domain.service.export.ExportColumn;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 导出文件写入器
+ * <p>
+ * 逐行写出导出数据，实现不缓存已写出的行；写入器不关闭底层输出流，由调用方负责。
+ */
+public interface ExportFileWriter {
+
+    /**
+     * 写出表头
+     *
+     * @param columns 导出列
+     */
+    void writeHeader(List<ExportColumn> columns) throws IOException;
+
+    /**
+     * 写出一行，数组在写出后会被复用
+     *
+     * @param values 转换后的值，顺序与导出列一致
+     */
+    void writeRow(Object[] values) throws IOException;
+
+    /**
+     * 写出结尾并刷新缓冲
+     */
+    void finish() throws IOException;
+
+    /**
+     * 是否接收保留原始类型的值(见 {@link ExportColumn#convertTyped(Object)})，列式格式需要按类型写出
+     */
+    default boolean typedValues() {
+        return false;
+    }
+}
@@ -0,0 +1,129 @@
+package com.datascope.domain.service.export.writer;
+
+import com.datascope.domain.model.export.ExportType;
+import com.datascope.domain.service.export.ExportColumn;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 按导出类型创建写入器
+ */
+public final class ExportFileWriters {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private ExportFileWriters() {
+    }
+
+    /**
+     * 创建写入器
+     *
+     * @param type 导出类型
+     * @param outputStream 输出流
+     * @param objectMapper JSON序列化配置
+     * @return 写入器
+     */
+    public static ExportFileWriter create(ExportType type, OutputStream outputStream, ObjectMapper objectMapper)
+            throws IOException {
+        switch (type) {
+            case CSV:
+                return new CsvExportFileWriter(outputStream);
+            case JSON:
+                return new JsonExportFileWriter(outputStream, objectMapper);
+            case EXCEL:
+                return new XlsxExportFileWriter(outputStream);
+            case CSV_GZIP:
+                GZIPOutputStream csvGzip = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+                return new GzipExportFileWriter(new CsvExportFileWriter(csvGzip), csvGzip);
+            case NDJSON:
+                return new JsonExportFileWriter(outputStream, objectMapper, true);
+            case NDJSON_GZIP:
+                GZIPOutputStream jsonGzip = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+                return new GzipExportFileWriter(new JsonExportFileWriter(jsonGzip, objectMapper, true), jsonGzip);
+            case PARQUET:
+                return new ParquetExportFileWriter(outputStream);
+            default:
+                throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "不支持的导出类型: " + type);
+        }
+    }
+
+    /**
+     * 导出文件扩展名
+     *
+     * @param type 导出类型
+     * @return 扩展名，包含点号
+     */
+    public static String extension(ExportType type) {
+        switch (type) {
+            case EXCEL:
+                return ".xlsx";
+            case JSON:
+                return ".json";
+            case CSV_GZIP:
+                return ".csv.gz";
+            case NDJSON:
+                return ".ndjson";
+            case NDJSON_GZIP:
+                return ".ndjson.gz";
+            case PARQUET:
+                return ".parquet";
+            default:
+                return ".csv";
+        }
+    }
+
+    /**
+     * 导出文件本身是否已压缩，已压缩的文件不再生成gzip副本
+     *
+     * @param type 导出类型
+     * @return 是否已压缩
+     */
+    public static boolean compressed(ExportType type) {
+        switch (type) {
+            case EXCEL:
+            case CSV_GZIP:
+            case NDJSON_GZIP:
+            case PARQUET:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 写出gzip压缩的内容，结束时只结束压缩流，不关闭底层输出流
+     */
+    private static final class GzipExportFileWriter implements ExportFileWriter {
+
+        private final ExportFileWriter delegate;
+
+        private final GZIPOutputStream gzip;
+
+        private GzipExportFileWriter(ExportFileWriter delegate, GZIPOutputStream gzip) {
+            this.delegate = delegate;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public void writeHeader(List<ExportColumn> columns) throws IOException {
+            delegate.writeHeader(columns);
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            delegate.writeRow(values);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            delegate.finish();
+            gzip.finish();
+        }
+    }
+}
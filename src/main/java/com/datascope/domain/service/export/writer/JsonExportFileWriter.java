@@ -0,0 +1,79 @@
+package com.datascope.domain.service.export.writer;
+
+import com.datascope.domain.service.export.ExportColumn;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * JSON写入器，输出以列标题为键的对象数组，或每行一个对象的NDJSON
+ */
+public class JsonExportFileWriter implements ExportFileWriter {
+
+    private final JsonGenerator generator;
+
+    private final ObjectWriter valueWriter;
+
+    private final boolean lines;
+
+    private String[] labels;
+
+    public JsonExportFileWriter(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        this(outputStream, objectMapper, false);
+    }
+
+    /**
+     * @param lines 是否按NDJSON格式每行写出一个对象
+     */
+    public JsonExportFileWriter(OutputStream outputStream, ObjectMapper objectMapper, boolean lines)
+            throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        // 写入器不关闭底层输出流
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 值的序列化沿用ObjectMapper的配置
+        this.valueWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.lines = lines;
+        if (lines) {
+            // 行之间由换行分隔，不使用默认的空格分隔符
+            this.generator.setRootValueSeparator(null);
+        }
+    }
+
+    @Override
+    public void writeHeader(List<ExportColumn> columns) throws IOException {
+        labels = new String[columns.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = columns.get(i).getLabel();
+        }
+        if (!lines) {
+            generator.writeStartArray();
+        }
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < values.length; i++) {
+            generator.writeFieldName(labels[i]);
+            valueWriter.writeValue(generator, values[i]);
+        }
+        generator.writeEndObject();
+        if (lines) {
+            generator.writeRaw('\n');
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!lines) {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+}
@@ -0,0 +1,539 @@
+package com.datascope.domain.service.export.writer;
+
+import com.datascope.domain.service.export.ExportColumn;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Parquet写入器
+ * <p>
+ * 按列类型确定Parquet的物理类型和逻辑类型，配置了格式或掩码的列按字符串写出。
+ * 行在内存中按列缓存，缓存达到行组上限后写出一个行组(每列一个GZIP压缩的数据页)，
+ * 内存占用与行组大小有关，与导出行数无关。所有列均可为空，文件尾部写出元数据。
+ */
+public class ParquetExportFileWriter implements ExportFileWriter {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 行组的缓存上限(字节)
+     */
+    static final int ROW_GROUP_SIZE = 16 * 1024 * 1024;
+
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int CODEC_GZIP = 2;
+    private static final int REPETITION_OPTIONAL = 1;
+
+    private final OutputStream outputStream;
+
+    private final int rowGroupSize;
+
+    private final List<ColumnChunk> chunks = new ArrayList<>();
+
+    private final List<byte[]> rowGroups = new ArrayList<>();
+
+    private Column[] columns;
+
+    private long position;
+
+    private int groupRows;
+
+    private long totalRows;
+
+    public ParquetExportFileWriter(OutputStream outputStream) {
+        this(outputStream, ROW_GROUP_SIZE);
+    }
+
+    ParquetExportFileWriter(OutputStream outputStream, int rowGroupSize) {
+        this.outputStream = outputStream;
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    @Override
+    public boolean typedValues() {
+        return true;
+    }
+
+    @Override
+    public void writeHeader(List<ExportColumn> exportColumns) throws IOException {
+        columns = new Column[exportColumns.size()];
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < columns.length; i++) {
+            ExportColumn column = exportColumns.get(i);
+            // 列名在schema中必须唯一
+            String name = column.getLabel();
+            for (int n = 2; !names.add(name); n++) {
+                name = column.getLabel() + "_" + n;
+            }
+            columns[i] = new Column(name, Kind.of(column), column.getPrecision(), column.getScale());
+        }
+        write(MAGIC);
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        long buffered = 0;
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i];
+            column.add(values[i]);
+            buffered += column.bufferedSize();
+        }
+        groupRows++;
+        if (buffered >= rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flushRowGroup();
+        ThriftCompactWriter footer = new ThriftCompactWriter().structBegin()
+                .fieldI32(1, 1);
+        footer.fieldListBegin(2, ThriftCompactWriter.TYPE_STRUCT, columns.length + 1);
+        footer.structBegin().fieldString(4, "schema").fieldI32(5, columns.length).structEnd();
+        for (Column column : columns) {
+            column.writeSchema(footer);
+        }
+        footer.fieldI64(3, totalRows);
+        footer.fieldListBegin(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+        for (byte[] rowGroup : rowGroups) {
+            footer.raw(rowGroup);
+        }
+        footer.fieldString(6, "DataScope").structEnd();
+
+        byte[] metadata = footer.toByteArray();
+        write(metadata);
+        write(new byte[]{(byte) metadata.length, (byte) (metadata.length >>> 8),
+                (byte) (metadata.length >>> 16), (byte) (metadata.length >>> 24)});
+        write(MAGIC);
+        outputStream.flush();
+    }
+
+    /**
+     * 写出缓存的行组，每列写出一个数据页
+     */
+    private void flushRowGroup() throws IOException {
+        if (groupRows == 0) {
+            return;
+        }
+        chunks.clear();
+        long totalSize = 0;
+        for (Column column : columns) {
+            ColumnChunk chunk = column.flush(groupRows);
+            chunks.add(chunk);
+            totalSize += chunk.uncompressedSize;
+        }
+
+        ThriftCompactWriter rowGroup = new ThriftCompactWriter().structBegin();
+        rowGroup.fieldListBegin(1, ThriftCompactWriter.TYPE_STRUCT, chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            ColumnChunk chunk = chunks.get(i);
+            rowGroup.structBegin()
+                    .fieldI64(2, chunk.offset)
+                    .fieldStructBegin(3)
+                    .fieldI32(1, columns[i].kind.physicalType);
+            rowGroup.fieldListBegin(2, ThriftCompactWriter.TYPE_I32, 2).i32(ENCODING_PLAIN).i32(ENCODING_RLE);
+            rowGroup.fieldListBegin(3, ThriftCompactWriter.TYPE_BINARY, 1).string(columns[i].name);
+            rowGroup.fieldI32(4, CODEC_GZIP)
+                    .fieldI64(5, groupRows)
+                    .fieldI64(6, chunk.uncompressedSize)
+                    .fieldI64(7, chunk.compressedSize)
+                    .fieldI64(9, chunk.offset)
+                    .structEnd()
+                    .structEnd();
+        }
+        rowGroup.fieldI64(2, totalSize).fieldI64(3, groupRows).structEnd();
+        rowGroups.add(rowGroup.toByteArray());
+
+        totalRows += groupRows;
+        groupRows = 0;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        outputStream.write(bytes);
+        position += bytes.length;
+    }
+
+    /**
+     * 列类型，对应Parquet的物理类型和逻辑类型
+     */
+    private enum Kind {
+        BOOLEAN(0),
+        INT32(1),
+        INT64(2),
+        FLOAT(4),
+        DOUBLE(5),
+        DECIMAL(2),
+        BINARY_DECIMAL(6),
+        DATE(1),
+        TIMESTAMP(2),
+        STRING(6),
+        BINARY(6);
+
+        private final int physicalType;
+
+        Kind(int physicalType) {
+            this.physicalType = physicalType;
+        }
+
+        static Kind of(ExportColumn column) {
+            if (column.isConverted()) {
+                return STRING;
+            }
+            switch (column.getType()) {
+                case BOOLEAN:
+                    return BOOLEAN;
+                case TINYINT:
+                case SMALLINT:
+                    return INT32;
+                case INTEGER:
+                    // 无符号整数超出int范围，统一按int64写出
+                    return INT64;
+                case BIGINT:
+                    // 无符号bigint(精度20位)超出int64范围，按字节数组存储的DECIMAL写出
+                    return column.getPrecision() > 19 ? BINARY_DECIMAL : INT64;
+                case FLOAT:
+                    return FLOAT;
+                case DOUBLE:
+                    return DOUBLE;
+                case DECIMAL:
+                    // 精度在18位以内的按int64存储，其余按字符串写出以免丢失精度
+                    return column.getPrecision() > 0 && column.getPrecision() <= 18
+                            && column.getScale() >= 0 && column.getScale() <= column.getPrecision()
+                            ? DECIMAL : STRING;
+                case DATE:
+                    return DATE;
+                case DATETIME:
+                case TIMESTAMP:
+                    return TIMESTAMP;
+                case BINARY:
+                case VARBINARY:
+                case BLOB:
+                    return BINARY;
+                default:
+                    return STRING;
+            }
+        }
+    }
+
+    private static final class ColumnChunk {
+
+        private final long offset;
+
+        private final long uncompressedSize;
+
+        private final long compressedSize;
+
+        private ColumnChunk(long offset, long uncompressedSize, long compressedSize) {
+            this.offset = offset;
+            this.uncompressedSize = uncompressedSize;
+            this.compressedSize = compressedSize;
+        }
+    }
+
+    /**
+     * 单列的缓存：定义级别和布尔值按位存储，其余值按PLAIN编码存储
+     */
+    private final class Column {
+
+        private final String name;
+
+        private final Kind kind;
+
+        private final int precision;
+
+        private final int scale;
+
+        private final BitBuffer definitions = new BitBuffer();
+
+        private final BitBuffer booleans = new BitBuffer();
+
+        private final ByteArrayOutputStream values = new ByteArrayOutputStream(8192);
+
+        private Column(String name, Kind kind, int precision, int scale) {
+            this.name = name;
+            this.kind = kind;
+            this.precision = precision;
+            this.scale = scale;
+        }
+
+        long bufferedSize() {
+            return values.size() + definitions.byteLength() + booleans.byteLength();
+        }
+
+        void add(Object value) throws IOException {
+            definitions.add(value != null);
+            if (value == null) {
+                return;
+            }
+            switch (kind) {
+                case BOOLEAN:
+                    booleans.add(value instanceof Boolean ? (Boolean) value : number(value).intValue() != 0);
+                    break;
+                case INT32:
+                    writeInt(number(value).intValue());
+                    break;
+                case INT64:
+                    writeLong(longValue(value));
+                    break;
+                case FLOAT:
+                    writeInt(Float.floatToIntBits(number(value).floatValue()));
+                    break;
+                case DOUBLE:
+                    writeLong(Double.doubleToLongBits(number(value).doubleValue()));
+                    break;
+                case DECIMAL:
+                    writeLong(decimalValue(value));
+                    break;
+                case BINARY_DECIMAL:
+                    writeBytes(unscaledBytes(value));
+                    break;
+                case DATE:
+                    writeInt((int) dateValue(value).toEpochDay());
+                    break;
+                case TIMESTAMP:
+                    writeLong(timestampValue(value));
+                    break;
+                case BINARY:
+                    writeBytes(value instanceof byte[] ? (byte[]) value : value.toString().getBytes(StandardCharsets.UTF_8));
+                    break;
+                default:
+                    String text = value instanceof byte[]
+                            ? Base64.getEncoder().encodeToString((byte[]) value) : value.toString();
+                    writeBytes(text.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        /**
+         * 写出缓存的值作为一个数据页
+         */
+        ColumnChunk flush(int rows) throws IOException {
+            // 页数据：定义级别(长度前缀 + 一个bit-packed分组序列)，随后是非空值
+            int levelGroups = (rows + 7) / 8;
+            ByteArrayOutputStream page = new ByteArrayOutputStream(values.size() + levelGroups + 16);
+            ByteArrayOutputStream levels = new ByteArrayOutputStream(levelGroups + 8);
+            writeVarint(levels, (long) levelGroups << 1 | 1);
+            definitions.writeTo(levels, levelGroups);
+            writeIntLE(page, levels.size());
+            levels.writeTo(page);
+            if (kind == Kind.BOOLEAN) {
+                booleans.writeTo(page, booleans.byteLength());
+            } else {
+                values.writeTo(page);
+            }
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(page.size() / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                page.writeTo(gzip);
+            }
+
+            byte[] header = new ThriftCompactWriter().structBegin()
+                    .fieldI32(1, 0)
+                    .fieldI32(2, page.size())
+                    .fieldI32(3, compressed.size())
+                    .fieldStructBegin(5)
+                    .fieldI32(1, rows)
+                    .fieldI32(2, ENCODING_PLAIN)
+                    .fieldI32(3, ENCODING_RLE)
+                    .fieldI32(4, ENCODING_RLE)
+                    .structEnd()
+                    .structEnd()
+                    .toByteArray();
+
+            long offset = position;
+            write(header);
+            write(compressed.toByteArray());
+
+            definitions.reset();
+            booleans.reset();
+            values.reset();
+            return new ColumnChunk(offset, header.length + page.size(), header.length + compressed.size());
+        }
+
+        void writeSchema(ThriftCompactWriter schema) {
+            schema.structBegin()
+                    .fieldI32(1, kind.physicalType)
+                    .fieldI32(3, REPETITION_OPTIONAL)
+                    .fieldString(4, name);
+            switch (kind) {
+                case STRING:
+                    schema.fieldI32(6, 0).fieldStructBegin(10).fieldStructBegin(1).structEnd().structEnd();
+                    break;
+                case DECIMAL:
+                case BINARY_DECIMAL:
+                    schema.fieldI32(6, 5).fieldI32(7, scale).fieldI32(8, precision)
+                            .fieldStructBegin(10).fieldStructBegin(5)
+                            .fieldI32(1, scale).fieldI32(2, precision)
+                            .structEnd().structEnd();
+                    break;
+                case DATE:
+                    schema.fieldI32(6, 6).fieldStructBegin(10).fieldStructBegin(6).structEnd().structEnd();
+                    break;
+                case TIMESTAMP:
+                    // 数据库的日期时间不带时区，按本地时间(isAdjustedToUTC=false)、微秒精度写出
+                    schema.fieldStructBegin(10).fieldStructBegin(8)
+                            .fieldBool(1, false)
+                            .fieldStructBegin(2).fieldStructBegin(2).structEnd().structEnd()
+                            .structEnd().structEnd();
+                    break;
+                default:
+                    break;
+            }
+            schema.structEnd();
+        }
+
+        private Number number(Object value) throws IOException {
+            if (value instanceof Number) {
+                return (Number) value;
+            }
+            if (value instanceof Boolean) {
+                return (Boolean) value ? 1 : 0;
+            }
+            throw mismatch(value);
+        }
+
+        private long longValue(Object value) throws IOException {
+            if (value instanceof BigInteger) {
+                if (((BigInteger) value).bitLength() > 63) {
+                    throw mismatch(value);
+                }
+                return ((BigInteger) value).longValue();
+            }
+            return number(value).longValue();
+        }
+
+        private long decimalValue(Object value) throws IOException {
+            BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(number(value).toString());
+            try {
+                return decimal.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            } catch (ArithmeticException e) {
+                throw mismatch(value);
+            }
+        }
+
+        /**
+         * 未缩放值的大端补码字节
+         */
+        private byte[] unscaledBytes(Object value) throws IOException {
+            BigDecimal decimal;
+            if (value instanceof BigDecimal) {
+                decimal = (BigDecimal) value;
+            } else if (value instanceof BigInteger) {
+                decimal = new BigDecimal((BigInteger) value);
+            } else {
+                decimal = new BigDecimal(number(value).toString());
+            }
+            BigDecimal scaled = decimal.setScale(scale, RoundingMode.HALF_UP);
+            if (scaled.precision() > precision) {
+                throw mismatch(value);
+            }
+            return scaled.unscaledValue().toByteArray();
+        }
+
+        private LocalDate dateValue(Object value) throws IOException {
+            if (value instanceof LocalDate) {
+                return (LocalDate) value;
+            }
+            if (value instanceof LocalDateTime) {
+                return ((LocalDateTime) value).toLocalDate();
+            }
+            throw mismatch(value);
+        }
+
+        private long timestampValue(Object value) throws IOException {
+            LocalDateTime dateTime;
+            if (value instanceof LocalDateTime) {
+                dateTime = (LocalDateTime) value;
+            } else if (value instanceof LocalDate) {
+                dateTime = ((LocalDate) value).atStartOfDay();
+            } else {
+                throw mismatch(value);
+            }
+            return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1000;
+        }
+
+        private IOException mismatch(Object value) {
+            return new IOException("列 " + name + " 的值无法按 " + kind + " 写出: " + value.getClass().getSimpleName());
+        }
+
+        private void writeInt(int value) {
+            writeIntLE(values, value);
+        }
+
+        private void writeLong(long value) {
+            writeIntLE(values, (int) value);
+            writeIntLE(values, (int) (value >>> 32));
+        }
+
+        private void writeBytes(byte[] bytes) {
+            writeIntLE(values, bytes.length);
+            values.write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * 按位存储的布尔序列，低位在前
+     */
+    private static final class BitBuffer {
+
+        private byte[] bytes = new byte[1024];
+
+        private int size;
+
+        void add(boolean bit) {
+            int index = size >>> 3;
+            if (index == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            if (bit) {
+                bytes[index] |= (byte) (1 << (size & 7));
+            }
+            size++;
+        }
+
+        int byteLength() {
+            return (size + 7) >>> 3;
+        }
+
+        void writeTo(ByteArrayOutputStream out, int length) {
+            out.write(bytes, 0, length);
+        }
+
+        void reset() {
+            Arrays.fill(bytes, 0, byteLength(), (byte) 0);
+            size = 0;
+        }
+    }
+}
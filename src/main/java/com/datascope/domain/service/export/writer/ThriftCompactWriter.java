@@ -0,0 +1,127 @@
+package com.datascope.domain.service.export.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Thrift Compact协议编码器，只实现Parquet元数据需要的结构、列表和基本类型
+ * <p>
+ * 字段需按编号递增的顺序写出。
+ */
+final class ThriftCompactWriter {
+
+    private static final int TYPE_TRUE = 1;
+    private static final int TYPE_FALSE = 2;
+    static final int TYPE_I32 = 5;
+    static final int TYPE_I64 = 6;
+    static final int TYPE_BINARY = 8;
+    private static final int TYPE_LIST = 9;
+    static final int TYPE_STRUCT = 12;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+
+    private final Deque<Integer> fieldIds = new ArrayDeque<>();
+
+    private int lastFieldId;
+
+    ThriftCompactWriter structBegin() {
+        fieldIds.push(lastFieldId);
+        lastFieldId = 0;
+        return this;
+    }
+
+    ThriftCompactWriter structEnd() {
+        buffer.write(0);
+        lastFieldId = fieldIds.pop();
+        return this;
+    }
+
+    ThriftCompactWriter fieldStructBegin(int id) {
+        fieldHeader(id, TYPE_STRUCT);
+        return structBegin();
+    }
+
+    ThriftCompactWriter fieldI32(int id, int value) {
+        fieldHeader(id, TYPE_I32);
+        return i32(value);
+    }
+
+    ThriftCompactWriter fieldI64(int id, long value) {
+        fieldHeader(id, TYPE_I64);
+        return i64(value);
+    }
+
+    ThriftCompactWriter fieldBool(int id, boolean value) {
+        fieldHeader(id, value ? TYPE_TRUE : TYPE_FALSE);
+        return this;
+    }
+
+    ThriftCompactWriter fieldString(int id, String value) {
+        fieldHeader(id, TYPE_BINARY);
+        return string(value);
+    }
+
+    /**
+     * 写出列表字段头，随后依次写出size个元素
+     */
+    ThriftCompactWriter fieldListBegin(int id, int elementType, int size) {
+        fieldHeader(id, TYPE_LIST);
+        if (size < 15) {
+            buffer.write(size << 4 | elementType);
+        } else {
+            buffer.write(0xF0 | elementType);
+            varint(size);
+        }
+        return this;
+    }
+
+    ThriftCompactWriter i32(int value) {
+        varint(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+        return this;
+    }
+
+    ThriftCompactWriter i64(long value) {
+        varint((value << 1) ^ (value >> 63));
+        return this;
+    }
+
+    ThriftCompactWriter string(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        varint(bytes.length);
+        buffer.write(bytes, 0, bytes.length);
+        return this;
+    }
+
+    /**
+     * 写出已编码的内容，如单独编码的结构
+     */
+    ThriftCompactWriter raw(byte[] bytes) {
+        buffer.write(bytes, 0, bytes.length);
+        return this;
+    }
+
+    byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    private void fieldHeader(int id, int type) {
+        int delta = id - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            buffer.write(delta << 4 | type);
+        } else {
+            buffer.write(type);
+            i32(id);
+        }
+        lastFieldId = id;
+    }
+
+    private void varint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer.write((int) value);
+    }
+}
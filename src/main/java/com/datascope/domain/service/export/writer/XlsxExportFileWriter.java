@@ -0,0 +1,403 @@
+package com.datascope.domain.service.export.writer;
+
+import com.datascope.domain.service.export.ExportColumn;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * XLSX写入器
+ * <p>
+ * 直接生成SpreadsheetML，工作表的XML在写入每一行时即压缩写出，不在内存中保留已写出的行。
+ * 文本优先写入共享字符串表去重，表的条目数和总字符数有上限，超出上限或过长的文本以内联字符串写出，
+ * 共享字符串表在所有工作表之后写出。单个工作表超过Excel的行数上限时自动续写到新工作表。
+ * 列宽取自列配置(像素)，表头加粗并冻结首行。
+ */
+public class XlsxExportFileWriter implements ExportFileWriter {
+
+    /**
+     * 单个工作表的最大行数(含表头)
+     */
+    static final int SHEET_MAX_ROWS = 1_048_576;
+
+    /**
+     * 共享字符串表的最大条目数
+     */
+    private static final int MAX_SHARED_STRINGS = 65_536;
+
+    /**
+     * 共享字符串表的最大总字符数
+     */
+    private static final long MAX_SHARED_CHARS = 4L * 1024 * 1024;
+
+    /**
+     * 超过该长度的文本不参与去重
+     */
+    private static final int MAX_SHARED_STRING_LENGTH = 256;
+
+    /**
+     * Excel单元格的最大字符数
+     */
+    private static final int MAX_CELL_LENGTH = 32_767;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ZipOutputStream zip;
+
+    private final Writer writer;
+
+    private final int sheetMaxRows;
+
+    private final Map<String, Integer> sharedStrings = new LinkedHashMap<>();
+
+    private long sharedChars;
+
+    private long sharedReferences;
+
+    private List<ExportColumn> columns;
+
+    private String[] columnNames;
+
+    private int sheetCount;
+
+    private int rowIndex;
+
+    public XlsxExportFileWriter(OutputStream outputStream) {
+        this(outputStream, SHEET_MAX_ROWS);
+    }
+
+    XlsxExportFileWriter(OutputStream outputStream, int sheetMaxRows) {
+        this.zip = new ZipOutputStream(outputStream, StandardCharsets.UTF_8);
+        // 导出量大时优先保证速度，XML的重复度高，最快压缩级别的压缩率也足够
+        this.zip.setLevel(Deflater.BEST_SPEED);
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.sheetMaxRows = sheetMaxRows;
+    }
+
+    @Override
+    public void writeHeader(List<ExportColumn> columns) throws IOException {
+        this.columns = columns;
+        this.columnNames = new String[columns.size()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = columnName(i);
+        }
+        startSheet();
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        if (rowIndex >= sheetMaxRows) {
+            endSheet();
+            startSheet();
+        }
+        rowIndex++;
+        writer.write("<row r=\"");
+        writer.write(Integer.toString(rowIndex));
+        writer.write("\">");
+        for (int i = 0; i < values.length; i++) {
+            writeCell(i, values[i], 0);
+        }
+        writer.write("</row>");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        endSheet();
+        writeSharedStrings();
+        writeEntry("xl/styles.xml", STYLES);
+        writeWorkbook();
+        writeEntry("[Content_Types].xml", contentTypes());
+        writeEntry("_rels/.rels", ROOT_RELS);
+        writer.flush();
+        // 只结束压缩流，不关闭底层输出流
+        zip.finish();
+    }
+
+    private void startSheet() throws IOException {
+        sheetCount++;
+        rowIndex = 0;
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetCount + ".xml"));
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        writer.write("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">");
+        // 冻结表头
+        writer.write("<sheetViews><sheetView workbookViewId=\"0\"><pane ySplit=\"1\" topLeftCell=\"A2\" "
+                + "activePane=\"bottomLeft\" state=\"frozen\"/></sheetView></sheetViews>");
+        writeColumnWidths();
+        writer.write("<sheetData>");
+
+        rowIndex++;
+        writer.write("<row r=\"1\">");
+        for (int i = 0; i < columns.size(); i++) {
+            writeCell(i, columns.get(i).getLabel(), 1);
+        }
+        writer.write("</row>");
+    }
+
+    private void endSheet() throws IOException {
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private void writeColumnWidths() throws IOException {
+        boolean started = false;
+        for (int i = 0; i < columns.size(); i++) {
+            Integer width = columns.get(i).getWidth();
+            if (width == null || width <= 0) {
+                continue;
+            }
+            if (!started) {
+                writer.write("<cols>");
+                started = true;
+            }
+            // 像素换算为字符宽度(默认字体的数字宽度为7像素，含5像素边距)
+            double characters = Math.max(1, Math.round((width - 5) / 7.0 * 100) / 100.0);
+            writer.write("<col min=\"" + (i + 1) + "\" max=\"" + (i + 1) + "\" width=\"" + characters
+                    + "\" customWidth=\"1\"/>");
+        }
+        if (started) {
+            writer.write("</cols>");
+        }
+    }
+
+    private void writeCell(int column, Object value, int style) throws IOException {
+        if (value == null) {
+            return;
+        }
+        writer.write("<c r=\"");
+        writer.write(columnNames[column]);
+        writer.write(Integer.toString(rowIndex));
+        writer.write('"');
+        if (style != 0) {
+            writer.write(" s=\"" + style + "\"");
+        }
+
+        String number = numberText(value);
+        if (number != null) {
+            writer.write("><v>");
+            writer.write(number);
+            writer.write("</v></c>");
+            return;
+        }
+        if (value instanceof Boolean) {
+            writer.write(" t=\"b\"><v>");
+            writer.write((Boolean) value ? "1" : "0");
+            writer.write("</v></c>");
+            return;
+        }
+
+        String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+        if (text.length() > MAX_CELL_LENGTH) {
+            // 不在代理对中间截断
+            int end = MAX_CELL_LENGTH;
+            if (Character.isHighSurrogate(text.charAt(end - 1))) {
+                end--;
+            }
+            text = text.substring(0, end);
+        }
+        Integer index = sharedIndex(text);
+        if (index != null) {
+            writer.write(" t=\"s\"><v>");
+            writer.write(Integer.toString(index));
+            writer.write("</v></c>");
+        } else {
+            writer.write(" t=\"inlineStr\"><is>");
+            writeText(text);
+            writer.write("</is></c>");
+        }
+    }
+
+    /**
+     * 数值的文本形式，非数值或Excel无法表示的数值返回null
+     */
+    private static String numberText(Object value) {
+        if (value instanceof BigDecimal) {
+            // Excel只保留15位有效数字，超出的小数按文本写出，避免金额等数值被舍入
+            BigDecimal number = (BigDecimal) value;
+            return number.stripTrailingZeros().precision() <= 15 ? number.toPlainString() : null;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            return Double.isNaN(number) || Double.isInfinite(number) ? null : value.toString();
+        }
+        if (value instanceof BigInteger) {
+            // 超出双精度的大整数按文本写出，避免丢失精度
+            return ((BigInteger) value).bitLength() < 53 ? value.toString() : null;
+        }
+        if (value instanceof Long) {
+            long number = (Long) value;
+            return Math.abs(number) < (1L << 53) ? value.toString() : null;
+        }
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        return null;
+    }
+
+    /**
+     * 共享字符串序号，表已满或文本过长时返回null
+     */
+    private Integer sharedIndex(String text) {
+        if (text.length() > MAX_SHARED_STRING_LENGTH) {
+            return null;
+        }
+        Integer index = sharedStrings.get(text);
+        if (index == null) {
+            if (sharedStrings.size() >= MAX_SHARED_STRINGS || sharedChars + text.length() > MAX_SHARED_CHARS) {
+                return null;
+            }
+            index = sharedStrings.size();
+            sharedStrings.put(text, index);
+            sharedChars += text.length();
+        }
+        sharedReferences++;
+        return index;
+    }
+
+    private void writeSharedStrings() throws IOException {
+        zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        writer.write("<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\""
+                + sharedReferences + "\" uniqueCount=\"" + sharedStrings.size() + "\">");
+        for (String text : sharedStrings.keySet()) {
+            writer.write("<si>");
+            writeText(text);
+            writer.write("</si>");
+        }
+        writer.write("</sst>");
+        writer.flush();
+        zip.closeEntry();
+        sharedStrings.clear();
+    }
+
+    private void writeWorkbook() throws IOException {
+        StringBuilder workbook = new StringBuilder();
+        StringBuilder rels = new StringBuilder();
+        workbook.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" ")
+                .append("xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>");
+        rels.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 1; i <= sheetCount; i++) {
+            workbook.append("<sheet name=\"Sheet").append(i).append("\" sheetId=\"").append(i)
+                    .append("\" r:id=\"rId").append(i).append("\"/>");
+            rels.append("<Relationship Id=\"rId").append(i)
+                    .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\"")
+                    .append(" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+        workbook.append("</sheets></workbook>");
+        rels.append("<Relationship Id=\"rId").append(sheetCount + 1)
+                .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\"")
+                .append(" Target=\"styles.xml\"/>")
+                .append("<Relationship Id=\"rId").append(sheetCount + 2)
+                .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/sharedStrings\"")
+                .append(" Target=\"sharedStrings.xml\"/>")
+                .append("</Relationships>");
+        writeEntry("xl/workbook.xml", workbook.toString());
+        writeEntry("xl/_rels/workbook.xml.rels", rels.toString());
+    }
+
+    private String contentTypes() {
+        StringBuilder types = new StringBuilder();
+        types.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>")
+                .append("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>");
+        for (int i = 1; i <= sheetCount; i++) {
+            types.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return types.append("</Types>").toString();
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    /**
+     * 写出文本节点，转义XML特殊字符并去掉XML不允许的字符(控制字符、U+FFFE、U+FFFF及不成对的代理字符)
+     */
+    private void writeText(String text) throws IOException {
+        boolean preserve = !text.isEmpty()
+                && (Character.isWhitespace(text.charAt(0)) || Character.isWhitespace(text.charAt(text.length() - 1)));
+        writer.write(preserve ? "<t xml:space=\"preserve\">" : "<t>");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                default:
+                    if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                            && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        writer.write(c);
+                        writer.write(text.charAt(++i));
+                    } else if (Character.isSurrogate(c) || c == '\uFFFE' || c == '\uFFFF') {
+                        break;
+                    } else if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write("</t>");
+    }
+
+    /**
+     * 列序号转换为列名，如 0 -> A, 26 -> AA
+     */
+    static String columnName(int index) {
+        StringBuilder name = new StringBuilder();
+        for (int n = index + 1; n > 0; n = (n - 1) / 26) {
+            name.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return name.toString();
+    }
+
+    private static final String ROOT_RELS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\""
+            + " Target=\"xl/workbook.xml\"/></Relationships>";
+
+    /**
+     * 样式：0为默认样式，1为加粗的表头样式
+     */
+    private static final String STYLES = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+            + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+            + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+            + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+            + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+            + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+            + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+            + "<cellXfs count=\"2\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+            + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/></cellXfs>"
+            + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+            + "</styleSheet>";
+}
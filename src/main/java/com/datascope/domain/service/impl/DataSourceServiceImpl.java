@@ -5,6 +5,7 @@ import com.datascope.domain.model.datasource.DataSourceStatus;
 import com.datascope.domain.model.datasource.DataSourceType;
 import com.datascope.domain.model.datasource.vo.DataSourceVO;
 import com.datascope.domain.repository.DataSourceRepository;
+import com.datascope.domain.service.datasource.DataSourceCircuitBreakerRegistry;
 import com.datascope.domain.service.datasource.DataSourceService;
 import com.datascope.infrastructure.config.DataSourceConfig;
 import com.zaxxer.hikari.HikariConfig;
@@ -29,6 +30,7 @@ public class DataSourceServiceImpl implements DataSourceService {
 
   private final DataSourceRepository dataSourceRepository;
   private final DataSourceConfig dataSourceConfig;
+  private final DataSourceCircuitBreakerRegistry circuitBreakers;
 
   // 缓存数据源连接池
   private final ConcurrentMap<String, HikariDataSource> dataSourceCache = new ConcurrentHashMap<>();
@@ -202,17 +204,40 @@ public class DataSourceServiceImpl implements DataSourceService {
     if (ds != null && !ds.isClosed()) {
       ds.close();
     }
+    circuitBreakers.remove(dataSourceId);
   }
 
-  /** 获取数据源连接 */
+  /** 获取数据源连接，经过数据源熔断器，熔断期间直接失败而不占用连接池等待 */
   public Connection getConnection(DataSource dataSource) throws SQLException {
+    return acquireConnection(dataSource, true);
+  }
+
+  /** 获取查询连接，获取成功不计入熔断统计，由查询结束时记录结果 */
+  @Override
+  public Connection getQueryConnection(DataSource dataSource) throws SQLException {
+    return acquireConnection(dataSource, false);
+  }
+
+  private Connection acquireConnection(DataSource dataSource, boolean recordSuccess)
+      throws SQLException {
+    circuitBreakers.acquirePermission(dataSource.getId());
+    long startTime = System.currentTimeMillis();
     try {
       // 获取或创建连接池
       HikariDataSource hikariDataSource = getOrCreateDataSource(dataSource);
-      return hikariDataSource.getConnection();
+      Connection connection = hikariDataSource.getConnection();
+      if (recordSuccess) {
+        circuitBreakers.onSuccess(dataSource.getId(), System.currentTimeMillis() - startTime);
+      }
+      return connection;
     } catch (SQLException e) {
+      circuitBreakers.onError(dataSource.getId(), System.currentTimeMillis() - startTime);
       log.error("获取数据源连接失败: {}", dataSource.getId(), e);
       throw e;
+    } catch (RuntimeException e) {
+      // 连接池创建失败同样计入熔断统计
+      circuitBreakers.onError(dataSource.getId(), System.currentTimeMillis() - startTime);
+      throw e;
     }
   }
 
@@ -1,5 +1,6 @@
 package com.datascope.domain.service.metadata;
 
+import com.datascope.domain.model.metadata.MetadataSyncResult;
 import com.datascope.domain.model.metadata.TableMetadata;
 import java.util.List;
 
@@ -17,6 +18,14 @@ public interface MetadataFetchService {
    */
   List<TableMetadata> fetchAndSaveAllMetadata(String dataSourceId);
 
+  /**
+   * 增量同步数据源的元数据，只重新提取新增和结构变化的表，删除已不存在的表
+   *
+   * @param dataSourceId 数据源ID
+   * @return 同步结果
+   */
+  MetadataSyncResult syncMetadata(String dataSourceId);
+
   /**
    * 获取并保存特定表的元数据
    *
@@ -2,6 +2,7 @@ package com.datascope.domain.service.metadata;
 
 import com.datascope.domain.model.metadata.TableMetadata;
 import java.util.List;
+import java.util.Map;
 
 /** 元数据存储服务接口，用于管理数据源的元数据信息. */
 public interface MetadataStorageService {
@@ -55,6 +56,24 @@ public interface MetadataStorageService {
    */
   List<String> getSchemas(String dataSourceId);
 
+  /**
+   * 获取数据源下已保存的表DDL指纹.
+   *
+   * @param dataSourceId 数据源ID
+   * @return schema名称到(表名到指纹)的映射，未记录指纹的表值为null
+   */
+  Map<String, Map<String, String>> getTableFingerprints(String dataSourceId);
+
+  /**
+   * 删除指定schema下的部分表元数据.
+   *
+   * @param dataSourceId 数据源ID
+   * @param schema schema名称
+   * @param tableNames 表名列表
+   * @return 删除的表数量
+   */
+  int deleteTableMetadata(String dataSourceId, String schema, List<String> tableNames);
+
   /**
    * 删除数据源的所有元数据.
    *
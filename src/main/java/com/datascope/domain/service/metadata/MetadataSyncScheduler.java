@@ -0,0 +1,329 @@
+package com.datascope.domain.service.metadata;
+
+import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.datasource.DataSourceStatus;
+import com.datascope.domain.model.metadata.MetadataSyncJobStatus;
+import com.datascope.domain.model.metadata.MetadataSyncResult;
+import com.datascope.domain.model.metadata.MetadataSyncRun;
+import com.datascope.domain.model.metadata.MetadataSyncRunStatus;
+import com.datascope.domain.model.metadata.MetadataSyncTrigger;
+import com.datascope.domain.repository.DataSourceRepository;
+import com.datascope.domain.repository.MetadataSyncRunRepository;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import com.datascope.infrastructure.config.InstanceIdentity;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 元数据定时同步
+ *
+ * <p>按数据源的同步间隔在后台执行增量同步(数据源属性 {@link #INTERVAL_PROPERTY} 可覆盖全局间隔，0表示不定时同步)，
+ * 只调度 {@link DataSourceStatus#ACTIVE} 状态的数据源。
+ * 首次调度和长时间未同步的数据源在错峰窗口内按数据源ID分散开始时间，之后以上次结束时间加间隔为下次时间；
+ * 所有数据源共享一个有界线程池，同时执行的同步不超过全局上限。每次同步记录到 metadata_sync_run。
+ * 调度状态保存在进程内，多节点部署时应只在一个节点开启定时同步。
+ */
+@Slf4j
+@Component
+public class MetadataSyncScheduler implements DisposableBean {
+
+  /** 数据源属性：同步间隔(分钟) */
+  public static final String INTERVAL_PROPERTY = "metadata.sync-interval-minutes";
+
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final DataSourceRepository dataSourceRepository;
+
+  private final MetadataFetchService metadataFetchService;
+
+  private final MetadataSyncRunRepository syncRunRepository;
+
+  private final InstanceIdentity instanceIdentity;
+
+  private final boolean enabled;
+
+  private final long defaultIntervalMinutes;
+
+  private final int maxConcurrent;
+
+  private final long staggerMillis;
+
+  private final long retentionDays;
+
+  private final ThreadPoolExecutor executor;
+
+  /** 数据源ID到下次定时同步时间(毫秒时间戳) */
+  private final Map<String, Long> nextRunAt = new ConcurrentHashMap<>();
+
+  /** 数据源ID到同步间隔(毫秒) */
+  private final Map<String, Long> intervals = new ConcurrentHashMap<>();
+
+  /** 排队或执行中的数据源 */
+  private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+  public MetadataSyncScheduler(
+      DataSourceRepository dataSourceRepository,
+      MetadataFetchService metadataFetchService,
+      MetadataSyncRunRepository syncRunRepository,
+      InstanceIdentity instanceIdentity,
+      @Value("${datascope.metadata.sync.enabled:true}") boolean enabled,
+      @Value("${datascope.metadata.sync.interval-minutes:60}") long defaultIntervalMinutes,
+      @Value("${datascope.metadata.sync.max-concurrent:2}") int maxConcurrent,
+      @Value("${datascope.metadata.sync.stagger-seconds:300}") long staggerSeconds,
+      @Value("${datascope.metadata.sync.run-retention-days:30}") long retentionDays) {
+    this.dataSourceRepository = dataSourceRepository;
+    this.metadataFetchService = metadataFetchService;
+    this.syncRunRepository = syncRunRepository;
+    this.instanceIdentity = instanceIdentity;
+    this.enabled = enabled;
+    this.defaultIntervalMinutes = defaultIntervalMinutes;
+    this.maxConcurrent = maxConcurrent;
+    this.staggerMillis = TimeUnit.SECONDS.toMillis(staggerSeconds);
+    this.retentionDays = retentionDays;
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            maxConcurrent,
+            maxConcurrent,
+            60L,
+            TimeUnit.SECONDS,
+            // 手动触发可以排队，定时调度只在有空闲线程时提交
+            new LinkedBlockingQueue<>(100),
+            runnable -> {
+              Thread thread = new Thread(runnable, "metadata-sync-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    pool.allowCoreThreadTimeOut(true);
+    this.executor = pool;
+  }
+
+  /**
+   * 启动时结束本节点上次运行遗留的未完成记录，关闭定时同步时手动触发的记录同样需要结束。
+   * 其他节点排队或执行中的同步由其自行结束
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void failInterruptedRuns() {
+    int count =
+        syncRunRepository.failUnfinished(
+            instanceIdentity.getId(),
+            List.of(MetadataSyncRunStatus.QUEUED, MetadataSyncRunStatus.RUNNING),
+            MetadataSyncRunStatus.FAILED,
+            "服务重启，同步中断",
+            LocalDateTime.now());
+    if (count > 0) {
+      log.info("结束被中断的元数据同步记录: {}", count);
+    }
+  }
+
+  /** 检查到期的数据源并提交同步 */
+  @Scheduled(
+      fixedDelayString = "${datascope.metadata.sync.check-interval-ms:30000}",
+      initialDelayString = "${datascope.metadata.sync.initial-delay-ms:60000}")
+  public void scheduleDueSyncs() {
+    if (!enabled) {
+      return;
+    }
+    List<DataSource> dataSources;
+    try {
+      dataSources = dataSourceRepository.findAllWithProperties();
+    } catch (Exception e) {
+      log.warn("加载数据源失败, 跳过本轮元数据同步调度: {}", e.getMessage());
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    Set<String> ids = new HashSet<>();
+    for (DataSource dataSource : dataSources) {
+      String id = dataSource.getId();
+      ids.add(id);
+      long interval = intervalMillis(dataSource);
+      if (interval <= 0 || dataSource.getStatus() != DataSourceStatus.ACTIVE) {
+        intervals.remove(id);
+        nextRunAt.remove(id);
+        continue;
+      }
+      intervals.put(id, interval);
+      long due = nextRunAt.computeIfAbsent(id, k -> initialRunAt(k, interval, now));
+      if (due > now || running.contains(id)) {
+        continue;
+      }
+      if (executor.getActiveCount() + executor.getQueue().size() >= maxConcurrent) {
+        // 全局并发已满，剩余的到期数据源下一轮再提交
+        break;
+      }
+      submit(id, MetadataSyncTrigger.SCHEDULED);
+    }
+    // 已删除的数据源不再调度
+    nextRunAt.keySet().retainAll(ids);
+    intervals.keySet().retainAll(ids);
+  }
+
+  /**
+   * 手动触发同步，在后台执行
+   *
+   * @param dataSourceId 数据源ID
+   * @return 同步记录，数据源已在同步时返回进行中的记录
+   */
+  public MetadataSyncRun trigger(String dataSourceId) {
+    if (!dataSourceRepository.existsById(dataSourceId)) {
+      throw new DataScopeException(ErrorCode.RESOURCE_NOT_FOUND, "数据源不存在");
+    }
+    MetadataSyncRun run = submit(dataSourceId, MetadataSyncTrigger.MANUAL);
+    if (run != null) {
+      return run;
+    }
+    return syncRunRepository.findTopByDataSourceIdOrderByStartedAtDesc(dataSourceId).orElse(null);
+  }
+
+  /**
+   * 获取数据源的同步状态
+   *
+   * @param dataSourceId 数据源ID
+   * @return 同步状态
+   */
+  public MetadataSyncJobStatus getStatus(String dataSourceId) {
+    MetadataSyncJobStatus status = new MetadataSyncJobStatus();
+    status.setDataSourceId(dataSourceId);
+    status.setRunning(running.contains(dataSourceId));
+    Long interval = intervals.get(dataSourceId);
+    status.setIntervalMinutes(interval != null ? TimeUnit.MILLISECONDS.toMinutes(interval) : 0);
+    Long next = nextRunAt.get(dataSourceId);
+    if (enabled && next != null) {
+      status.setNextRunAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(next), ZoneId.systemDefault()));
+    }
+    status.setRecentRuns(syncRunRepository.findTop20ByDataSourceIdOrderByStartedAtDesc(dataSourceId));
+    return status;
+  }
+
+  /** 清理过期的同步记录 */
+  @Scheduled(cron = "${datascope.metadata.sync.cleanup-cron:0 30 3 * * ?}")
+  public void cleanupRuns() {
+    int deleted = syncRunRepository.deleteStartedBefore(LocalDateTime.now().minusDays(retentionDays));
+    if (deleted > 0) {
+      log.info("清理过期的元数据同步记录: {}", deleted);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private MetadataSyncRun submit(String dataSourceId, MetadataSyncTrigger trigger) {
+    if (!running.add(dataSourceId)) {
+      return null;
+    }
+    MetadataSyncRun run = new MetadataSyncRun();
+    run.setDataSourceId(dataSourceId);
+    run.setTrigger(trigger);
+    run.setInstanceId(instanceIdentity.getId());
+    run.setStatus(MetadataSyncRunStatus.QUEUED);
+    run.setStartedAt(LocalDateTime.now());
+    try {
+      run = syncRunRepository.save(run);
+      MetadataSyncRun queued = run;
+      executor.execute(() -> execute(queued));
+      return run;
+    } catch (RejectedExecutionException e) {
+      running.remove(dataSourceId);
+      run.setStatus(MetadataSyncRunStatus.FAILED);
+      run.setErrorMessage("同步任务队列已满");
+      run.setFinishedAt(LocalDateTime.now());
+      return syncRunRepository.save(run);
+    } catch (RuntimeException e) {
+      running.remove(dataSourceId);
+      throw e;
+    }
+  }
+
+  private void execute(MetadataSyncRun run) {
+    String dataSourceId = run.getDataSourceId();
+    long startTime = System.currentTimeMillis();
+    try {
+      run.setStatus(MetadataSyncRunStatus.RUNNING);
+      run.setStartedAt(LocalDateTime.now());
+      syncRunRepository.save(run);
+
+      MetadataSyncResult result = metadataFetchService.syncMetadata(dataSourceId);
+      run.setAddedTables(result.getAddedTables());
+      run.setUpdatedTables(result.getUpdatedTables());
+      run.setDeletedTables(result.getDeletedTables());
+      run.setUnchangedTables(result.getUnchangedTables());
+      run.setStatus(MetadataSyncRunStatus.SUCCEEDED);
+    } catch (Exception e) {
+      log.warn("元数据同步失败: dataSourceId={}, trigger={}", dataSourceId, run.getTrigger(), e);
+      String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+      run.setErrorMessage(
+          message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+      run.setStatus(MetadataSyncRunStatus.FAILED);
+    } finally {
+      long finishTime = System.currentTimeMillis();
+      run.setFinishedAt(LocalDateTime.now());
+      run.setDurationMs(finishTime - startTime);
+      try {
+        syncRunRepository.save(run);
+      } catch (Exception e) {
+        log.warn("保存元数据同步记录失败: dataSourceId={}: {}", dataSourceId, e.getMessage());
+      }
+      // 下次定时同步从本次结束时开始计算，手动同步同样推迟定时同步
+      Long interval = intervals.get(dataSourceId);
+      if (interval != null) {
+        nextRunAt.put(dataSourceId, finishTime + interval);
+      }
+      running.remove(dataSourceId);
+    }
+  }
+
+  /** 首次调度时间：上次同步加间隔；已到期或没有同步记录时在错峰窗口内按数据源ID分散 */
+  private long initialRunAt(String dataSourceId, long interval, long now) {
+    long lastStart = 0;
+    try {
+      lastStart =
+          syncRunRepository
+              .findTopByDataSourceIdOrderByStartedAtDesc(dataSourceId)
+              .map(run -> run.getStartedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+              .orElse(0L);
+    } catch (Exception e) {
+      log.warn("读取元数据同步记录失败: dataSourceId={}: {}", dataSourceId, e.getMessage());
+    }
+    if (lastStart + interval > now) {
+      return lastStart + interval;
+    }
+    long window = Math.min(interval, staggerMillis);
+    return window > 0 ? now + Math.floorMod(dataSourceId.hashCode(), window) : now;
+  }
+
+  private long intervalMillis(DataSource dataSource) {
+    long minutes = defaultIntervalMinutes;
+    String value = dataSource.getProperties().get(INTERVAL_PROPERTY);
+    if (value != null && !value.isBlank()) {
+      try {
+        minutes = Long.parseLong(value.trim());
+      } catch (NumberFormatException e) {
+        log.warn("数据源同步间隔配置无效: dataSourceId={}, value={}", dataSource.getId(), value);
+      }
+    }
+    return TimeUnit.MINUTES.toMillis(Math.max(0, minutes));
+  }
+}
@@ -0,0 +1,225 @@
+package com.datascope.domain.service.metadata;
+
+import com.datascope.domain.model.metadata.ColumnMetadata;
+import com.datascope.domain.model.metadata.IndexMetadata;
+import com.datascope.domain.model.metadata.TableMetadata;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 表元数据缓存
+ *
+ * <p>两级缓存：进程内Caffeine缓存在前，Redis共享缓存在后，键为 数据源ID:schema:表名。元数据保存、删除或刷新时淘汰，
+ * 多节点部署时其他节点的进程内缓存最多在其过期时间内读到旧值。缓存的对象在调用方之间共享，调用方不应修改。
+ * Redis不可用时仅记录日志，退回进程内缓存。
+ */
+@Slf4j
+@Component
+public class TableMetadataCache {
+
+  private static final String KEY_PREFIX = "datascope:table-metadata:";
+
+  private static final String INDEX_PREFIX = KEY_PREFIX + "index:";
+
+  /** Redis访问失败后暂停使用Redis的时间 */
+  private static final long REDIS_RETRY_INTERVAL_MS = 30_000L;
+
+  private final StringRedisTemplate redisTemplate;
+
+  private final ObjectMapper objectMapper;
+
+  private final Duration ttl;
+
+  private final Cache<String, TableMetadata> localCache;
+
+  private volatile long redisRetryAt;
+
+  public TableMetadataCache(
+      StringRedisTemplate redisTemplate,
+      ObjectMapper objectMapper,
+      @Value("${datascope.cache.table-metadata-ttl:3600}") long ttlSeconds,
+      @Value("${datascope.cache.table-metadata-local-ttl:60}") long localTtlSeconds,
+      @Value("${datascope.cache.table-metadata-local-max-size:2000}") long localMaxSize) {
+    this.redisTemplate = redisTemplate;
+    this.objectMapper = objectMapper;
+    this.ttl = Duration.ofSeconds(ttlSeconds);
+    this.localCache =
+        Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(Duration.ofSeconds(Math.min(localTtlSeconds, ttlSeconds)))
+            .build();
+  }
+
+  /**
+   * 获取表元数据，未命中时加载并缓存
+   *
+   * @param dataSourceId 数据源ID
+   * @param schema schema名称
+   * @param tableName 表名
+   * @param loader 从元数据库加载，找不到时抛出异常(不缓存)
+   * @return 表元数据
+   */
+  public TableMetadata get(
+      String dataSourceId, String schema, String tableName, Supplier<TableMetadata> loader) {
+    String key = buildKey(dataSourceId, schema, tableName);
+    return localCache.get(
+        key,
+        k -> {
+          TableMetadata cached = redisGet(k);
+          if (cached != null) {
+            return cached;
+          }
+          TableMetadata loaded = loader.get();
+          if (loaded != null) {
+            redisPut(dataSourceId, k, loaded);
+          }
+          return loaded;
+        });
+  }
+
+  /**
+   * 淘汰单个表的缓存，在事务中调用时提交后再淘汰，避免并发读取把旧值重新放入缓存
+   *
+   * @param dataSourceId 数据源ID
+   * @param schema schema名称
+   * @param tableName 表名
+   */
+  public void evict(String dataSourceId, String schema, String tableName) {
+    String key = buildKey(dataSourceId, schema, tableName);
+    runAfterCommit(
+        () -> {
+          localCache.invalidate(key);
+          redisDelete(key);
+        });
+  }
+
+  /**
+   * 淘汰数据源下所有表的缓存
+   *
+   * @param dataSourceId 数据源ID
+   */
+  public void evictDataSource(String dataSourceId) {
+    String prefix = KEY_PREFIX + dataSourceId + ":";
+    runAfterCommit(
+        () -> {
+          localCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+          if (!isRedisAvailable()) {
+            return;
+          }
+          try {
+            String indexKey = INDEX_PREFIX + dataSourceId;
+            Set<String> keys = redisTemplate.opsForSet().members(indexKey);
+            if (keys != null && !keys.isEmpty()) {
+              redisTemplate.delete(keys);
+            }
+            redisTemplate.delete(indexKey);
+          } catch (Exception e) {
+            onRedisFailure("淘汰表元数据缓存失败", e);
+          }
+        });
+  }
+
+  private void runAfterCommit(Runnable action) {
+    // 提交前先淘汰一次，提交后再淘汰一次，清除事务进行期间重新加载的旧值
+    action.run();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    }
+  }
+
+  private String buildKey(String dataSourceId, String schema, String tableName) {
+    return KEY_PREFIX + dataSourceId + ":" + schema + ":" + tableName;
+  }
+
+  private TableMetadata redisGet(String key) {
+    if (!isRedisAvailable()) {
+      return null;
+    }
+    String json;
+    try {
+      json = redisTemplate.opsForValue().get(key);
+    } catch (Exception e) {
+      onRedisFailure("读取表元数据缓存失败", e);
+      return null;
+    }
+    if (json == null) {
+      return null;
+    }
+    try {
+      return relink(objectMapper.readValue(json, TableMetadata.class));
+    } catch (Exception e) {
+      log.warn("反序列化缓存的表元数据失败: key={}", key, e);
+      return null;
+    }
+  }
+
+  private void redisPut(String dataSourceId, String key, TableMetadata metadata) {
+    if (!isRedisAvailable()) {
+      return;
+    }
+    try {
+      String indexKey = INDEX_PREFIX + dataSourceId;
+      redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(metadata), ttl);
+      redisTemplate.opsForSet().add(indexKey, key);
+      redisTemplate.expire(indexKey, ttl);
+    } catch (Exception e) {
+      onRedisFailure("写入表元数据缓存失败", e);
+    }
+  }
+
+  private void redisDelete(String key) {
+    if (!isRedisAvailable()) {
+      return;
+    }
+    try {
+      redisTemplate.delete(key);
+    } catch (Exception e) {
+      onRedisFailure("淘汰表元数据缓存失败", e);
+    }
+  }
+
+  /** 反序列化后重建列映射和列、索引到表的引用 */
+  private TableMetadata relink(TableMetadata source) {
+    TableMetadata metadata = new TableMetadata();
+    metadata.setDataSourceId(source.getDataSourceId());
+    metadata.setSchema(source.getSchema());
+    metadata.setName(source.getName());
+    metadata.setComment(source.getComment());
+    metadata.setRowCount(source.getRowCount());
+    metadata.setDataSize(source.getDataSize());
+    metadata.setIndexSize(source.getIndexSize());
+    metadata.setDdlFingerprint(source.getDdlFingerprint());
+    for (ColumnMetadata column : source.getColumns()) {
+      metadata.addColumn(column);
+    }
+    for (IndexMetadata index : source.getIndices()) {
+      metadata.addIndex(index);
+    }
+    return metadata;
+  }
+
+  private boolean isRedisAvailable() {
+    return System.currentTimeMillis() >= redisRetryAt;
+  }
+
+  private void onRedisFailure(String message, Exception e) {
+    redisRetryAt = System.currentTimeMillis() + REDIS_RETRY_INTERVAL_MS;
+    log.warn("{}, {}秒内只使用进程内缓存: {}", message, REDIS_RETRY_INTERVAL_MS / 1000, e.getMessage());
+  }
+}
@@ -3,7 +3,10 @@ package com.datascope.domain.service.metadata.extractor;
 import com.datascope.domain.model.datasource.DataSource;
 import com.datascope.domain.model.metadata.TableMetadata;
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /** 元数据提取器接口 */
 public interface MetadataExtractor {
@@ -17,6 +20,38 @@ public interface MetadataExtractor {
    */
   List<TableMetadata> extractAll(DataSource dataSource, Connection connection);
 
+  /**
+   * 提取指定模式下所有表的元数据，默认逐表提取，支持批量查询系统目录的提取器应覆盖此方法
+   *
+   * @param dataSource 数据源
+   * @param connection 数据库连接
+   * @param schema 模式名
+   * @return 表元数据列表
+   */
+  default List<TableMetadata> extractSchema(
+      DataSource dataSource, Connection connection, String schema) throws SQLException {
+    List<TableMetadata> tables = new ArrayList<>();
+    for (String tableName : getTables(connection, schema)) {
+      TableMetadata table = extractTable(dataSource, connection, schema, tableName);
+      if (table != null) {
+        tables.add(table);
+      }
+    }
+    return tables;
+  }
+
+  /**
+   * 获取指定模式下各表的DDL指纹，列、索引或注释定义变化时指纹随之变化。只查询系统目录的汇总信息，不提取完整元数据
+   *
+   * @param connection 数据库连接
+   * @param schema 模式名
+   * @return 表名到指纹的映射，不支持时返回null，调用方退回全量提取
+   */
+  default Map<String, String> getFingerprints(Connection connection, String schema)
+      throws SQLException {
+    return null;
+  }
+
   /**
    * 提取指定表的元数据
    *
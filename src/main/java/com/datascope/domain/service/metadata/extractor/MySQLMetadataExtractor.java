@@ -1,18 +1,22 @@
 package com.datascope.domain.service.metadata.extractor;
 
+import com.datascope.common.exception.DataScopeException;
 import com.datascope.domain.model.datasource.DataSource;
 import com.datascope.domain.model.datasource.DataSourceType;
 import com.datascope.domain.model.metadata.ColumnMetadata;
 import com.datascope.domain.model.metadata.ColumnType;
 import com.datascope.domain.model.metadata.IndexMetadata;
 import com.datascope.domain.model.metadata.TableMetadata;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 
 /** MySQL元数据提取器实现 负责从MySQL数据源中提取表、列、索引等元数据信息 */
 @Slf4j
@@ -29,10 +33,67 @@ public class MySQLMetadataExtractor implements MetadataExtractor {
           + "FROM information_schema.statistics "
           + "WHERE table_schema = ? AND table_name = ?";
 
+  private static final String SELECT_SCHEMA_TABLES =
+      "SELECT table_name, table_comment, table_rows, data_length, index_length "
+          + "FROM information_schema.tables "
+          + "WHERE table_schema = ? AND table_type IN ('BASE TABLE', 'VIEW') "
+          + "ORDER BY table_name";
+
+  private static final String SELECT_SCHEMA_COLUMNS =
+      "SELECT table_name, column_name, data_type, column_type, character_maximum_length, "
+          + "numeric_precision, numeric_scale, datetime_precision, is_nullable, ordinal_position, "
+          + "column_default, column_comment, extra "
+          + "FROM information_schema.columns "
+          + "WHERE table_schema = ? "
+          + "ORDER BY table_name, ordinal_position";
+
+  private static final String SELECT_SCHEMA_INDEXES =
+      "SELECT table_name, index_name, non_unique, column_name, cardinality "
+          + "FROM information_schema.statistics "
+          + "WHERE table_schema = ? "
+          + "ORDER BY table_name, index_name, seq_in_index";
+
+  // information_schema.statistics 没有索引大小，从InnoDB持久化统计信息读取页数，分区表按分区汇总
+  // 分区后缀在不区分大小写的文件系统上为小写 #p#，统一后再截取
+  private static final String SELECT_SCHEMA_INDEX_SIZES =
+      "SELECT SUBSTRING_INDEX(REPLACE(table_name, '#p#', '#P#'), '#P#', 1) AS base_table, "
+          + "index_name, "
+          + "SUM(stat_value) * @@innodb_page_size AS index_length "
+          + "FROM mysql.innodb_index_stats "
+          + "WHERE database_name = ? AND stat_name = 'size' "
+          + "GROUP BY base_table, index_name";
+
+  private static final String SELECT_SCHEMA_PRIMARY_KEYS =
+      "SELECT table_name, column_name "
+          + "FROM information_schema.key_column_usage "
+          + "WHERE table_schema = ? AND constraint_name = 'PRIMARY'";
+
+  // 列和索引定义逐行取CRC32后求和，得到每张表一行的汇总，不受GROUP_CONCAT长度限制
+  private static final String SELECT_SCHEMA_FINGERPRINTS =
+      "SELECT t.table_name, t.create_time, t.table_comment, "
+          + "c.column_count, c.column_checksum, s.index_checksum "
+          + "FROM information_schema.tables t "
+          + "LEFT JOIN (SELECT table_name, COUNT(*) AS column_count, "
+          + "SUM(CRC32(CONCAT_WS('|', column_name, ordinal_position, column_type, is_nullable, "
+          + "IFNULL(column_default, ''), extra, column_comment))) AS column_checksum "
+          + "FROM information_schema.columns WHERE table_schema = ? GROUP BY table_name) c "
+          + "ON c.table_name = t.table_name "
+          + "LEFT JOIN (SELECT table_name, "
+          + "SUM(CRC32(CONCAT_WS('|', index_name, non_unique, seq_in_index, column_name))) "
+          + "AS index_checksum "
+          + "FROM information_schema.statistics WHERE table_schema = ? GROUP BY table_name) s "
+          + "ON s.table_name = t.table_name "
+          + "WHERE t.table_schema = ? AND t.table_type IN ('BASE TABLE', 'VIEW')";
+
   private static final String SHOW_DATABASES = "SHOW DATABASES";
 
   private static final String SHOW_TABLES = "SHOW TABLES FROM ?";
 
+  /**
+   * 按schema批量提取：每个schema只查询 information_schema 的 tables、columns、statistics 和
+   * key_column_usage 各一次，索引大小另从 mysql.innodb_index_stats 查询一次，在内存中组装表元数据，
+   * 不再对每张表分别查询
+   */
   @Override
   public List<TableMetadata> extractAll(DataSource dataSource, Connection connection) {
     List<TableMetadata> tables = new ArrayList<>();
@@ -43,27 +104,170 @@ public class MySQLMetadataExtractor implements MetadataExtractor {
         if (schema == null) {
           continue;
         }
-        
-        List<String> tableNames = getTables(connection, schema);
-        for (String tableName : tableNames) {
-          if (tableName == null) {
+
+        try {
+          tables.addAll(extractSchema(dataSource, connection, schema));
+        } catch (Exception e) {
+          log.error("Failed to extract metadata for schema {}", schema, e);
+        }
+      }
+    } catch (Exception e) {
+      log.error("Failed to extract all metadata", e);
+    }
+    return tables;
+  }
+
+  /**
+   * 批量提取schema下所有表的元数据
+   *
+   * @param dataSource 数据源
+   * @param connection 数据库连接
+   * @param schema 模式名
+   * @return 表元数据列表
+   */
+  @Override
+  public List<TableMetadata> extractSchema(
+      DataSource dataSource, Connection connection, String schema) throws SQLException {
+    // 表信息
+    Map<String, TableMetadata> tableMap = new LinkedHashMap<>();
+    try (PreparedStatement stmt = connection.prepareStatement(SELECT_SCHEMA_TABLES)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          String tableName = rs.getString("table_name");
+          if (tableName == null || isSystemTable(tableName)) {
+            continue;
+          }
+          TableMetadata table = new TableMetadata();
+          table.setDataSourceId(dataSource.getId());
+          table.setSchema(schema);
+          table.setName(tableName);
+          table.setComment(rs.getString("table_comment"));
+          table.setRowCount(getNullableLong(rs, "table_rows"));
+          table.setDataSize(getNullableLong(rs, "data_length"));
+          table.setIndexSize(getNullableLong(rs, "index_length"));
+          tableMap.put(tableName, table);
+        }
+      }
+    }
+    if (tableMap.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    // 列信息
+    try (PreparedStatement stmt = connection.prepareStatement(SELECT_SCHEMA_COLUMNS)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          TableMetadata table = tableMap.get(rs.getString("table_name"));
+          if (table != null) {
+            table.addColumn(extractSchemaColumn(rs));
+          }
+        }
+      }
+    }
+
+    // 主键信息
+    try (PreparedStatement stmt = connection.prepareStatement(SELECT_SCHEMA_PRIMARY_KEYS)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          TableMetadata table = tableMap.get(rs.getString("table_name"));
+          ColumnMetadata column = table != null ? table.getColumn(rs.getString("column_name")) : null;
+          if (column != null) {
+            column.setPrimaryKey(true);
+          }
+        }
+      }
+    }
+
+    // 索引信息，按 表、索引、列序号 排序，每行是索引中的一列
+    try (PreparedStatement stmt = connection.prepareStatement(SELECT_SCHEMA_INDEXES)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        IndexMetadata current = null;
+        while (rs.next()) {
+          TableMetadata table = tableMap.get(rs.getString("table_name"));
+          String indexName = rs.getString("index_name");
+          if (table == null || indexName == null) {
             continue;
           }
-          
-          try {
-            TableMetadata table = extractTable(dataSource, connection, schema, tableName);
-            if (table != null) {
-              tables.add(table);
+          if (current == null
+              || current.getTable() != table
+              || !indexName.equals(current.getName())) {
+            current = new IndexMetadata();
+            current.setName(indexName);
+            current.setUnique(rs.getInt("non_unique") == 0);
+            table.addIndex(current);
+          }
+          current.addColumn(rs.getString("column_name"));
+          // 最后一列的基数即整个索引的基数
+          current.setCardinality(getNullableLong(rs, "cardinality"));
+        }
+      }
+    }
+
+    readIndexSizes(connection, schema, tableMap);
+
+    return new ArrayList<>(tableMap.values());
+  }
+
+  /** 读取索引大小，没有mysql库的读取权限或不是InnoDB(如Doris)时跳过，索引大小留空 */
+  private void readIndexSizes(
+      Connection connection, String schema, Map<String, TableMetadata> tableMap) {
+    try (PreparedStatement stmt = connection.prepareStatement(SELECT_SCHEMA_INDEX_SIZES)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          TableMetadata table = tableMap.get(rs.getString("base_table"));
+          if (table == null) {
+            continue;
+          }
+          String indexName = rs.getString("index_name");
+          for (IndexMetadata index : table.getIndices()) {
+            if (index.getName().equals(indexName)) {
+              index.setIndexSize(getNullableLong(rs, "index_length"));
+              break;
             }
-          } catch (Exception e) {
-            log.error("Failed to extract metadata for table {}.{}", schema, tableName, e);
           }
         }
       }
-    } catch (Exception e) {
-      log.error("Failed to extract all metadata", e);
+    } catch (SQLException e) {
+      log.debug("Failed to read index sizes for schema {}: {}", schema, e.getMessage());
     }
-    return tables;
+  }
+
+  /**
+   * 表的创建时间、注释、列数和列、索引定义的校验和。不使用 update_time，它随数据修改变化而不是随表结构变化
+   */
+  @Override
+  public Map<String, String> getFingerprints(Connection connection, String schema)
+      throws SQLException {
+    Map<String, String> fingerprints = new HashMap<>();
+    try (PreparedStatement stmt = connection.prepareStatement(SELECT_SCHEMA_FINGERPRINTS)) {
+      stmt.setString(1, schema);
+      stmt.setString(2, schema);
+      stmt.setString(3, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          String tableName = rs.getString("table_name");
+          if (tableName == null || isSystemTable(tableName)) {
+            continue;
+          }
+          String summary =
+              String.join(
+                  "|",
+                  String.valueOf(rs.getTimestamp("create_time")),
+                  String.valueOf(rs.getString("table_comment")),
+                  String.valueOf(rs.getLong("column_count")),
+                  String.valueOf(rs.getString("column_checksum")),
+                  String.valueOf(rs.getString("index_checksum")));
+          fingerprints.put(
+              tableName, DigestUtils.md5DigestAsHex(summary.getBytes(StandardCharsets.UTF_8)));
+        }
+      }
+    }
+    return fingerprints;
   }
 
   @Override
@@ -187,7 +391,7 @@ public class MySQLMetadataExtractor implements MetadataExtractor {
         }
       }
     } catch (Exception e) {
-      log.error("Failed to get schemas", e);
+      throw new DataScopeException("Failed to get schemas", e);
     }
     return schemas;
   }
@@ -264,6 +468,63 @@ public class MySQLMetadataExtractor implements MetadataExtractor {
     };
   }
 
+  private ColumnMetadata extractSchemaColumn(ResultSet rs) throws SQLException {
+    ColumnMetadata column = new ColumnMetadata();
+    column.setName(rs.getString("column_name"));
+    column.setType(mapDataType(rs.getString("data_type"), rs.getString("column_type")));
+    // 与JDBC元数据的 COLUMN_SIZE、DECIMAL_DIGITS 含义一致
+    Long length = getNullableLong(rs, "character_maximum_length");
+    if (length == null) {
+      length = getNullableLong(rs, "numeric_precision");
+    }
+    if (length == null) {
+      length = getNullableLong(rs, "datetime_precision");
+    }
+    column.setLength(length != null ? (int) Math.min(length, Integer.MAX_VALUE) : null);
+    Long scale = getNullableLong(rs, "numeric_scale");
+    column.setPrecision(scale != null ? scale.intValue() : null);
+    column.setNullable("YES".equalsIgnoreCase(rs.getString("is_nullable")));
+    column.setOrdinalPosition(rs.getInt("ordinal_position"));
+    column.setDefaultValue(rs.getString("column_default"));
+    column.setComment(rs.getString("column_comment"));
+    String extra = rs.getString("extra");
+    column.setAutoIncrement(extra != null && extra.toLowerCase().contains("auto_increment"));
+    return column;
+  }
+
+  /** 将 information_schema.columns.data_type 映射为列类型，只有 bit(1) 视为布尔，更宽的 bit 为位串 */
+  private ColumnType mapDataType(String dataType, String columnType) {
+    if (dataType == null) {
+      return ColumnType.VARCHAR;
+    }
+    return switch (dataType.toLowerCase()) {
+      case "tinyint" -> ColumnType.TINYINT;
+      case "smallint" -> ColumnType.SMALLINT;
+      case "mediumint", "int", "integer" -> ColumnType.INTEGER;
+      case "bigint" -> ColumnType.BIGINT;
+      case "float" -> ColumnType.FLOAT;
+      case "double", "real" -> ColumnType.DOUBLE;
+      case "decimal", "numeric" -> ColumnType.DECIMAL;
+      case "char" -> ColumnType.CHAR;
+      case "tinytext", "text", "mediumtext", "longtext" -> ColumnType.TEXT;
+      case "date", "year" -> ColumnType.DATE;
+      case "time" -> ColumnType.TIME;
+      case "datetime", "timestamp" -> ColumnType.TIMESTAMP;
+      case "bit" -> "bit(1)".equalsIgnoreCase(columnType) ? ColumnType.BOOLEAN : ColumnType.BINARY;
+      case "bool", "boolean" -> ColumnType.BOOLEAN;
+      case "binary" -> ColumnType.BINARY;
+      case "varbinary" -> ColumnType.VARBINARY;
+      case "tinyblob", "blob", "mediumblob", "longblob" -> ColumnType.BLOB;
+      case "json" -> ColumnType.JSON;
+      default -> ColumnType.VARCHAR;
+    };
+  }
+
+  private Long getNullableLong(ResultSet rs, String column) throws SQLException {
+    long value = rs.getLong(column);
+    return rs.wasNull() ? null : value;
+  }
+
   /**
    * 判断是否是系统Schema
    *
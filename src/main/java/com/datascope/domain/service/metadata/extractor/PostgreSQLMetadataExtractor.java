@@ -11,6 +11,7 @@ import com.datascope.infrastructure.util.RetryUtil;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -71,22 +72,86 @@ public class PostgreSQLMetadataExtractor implements MetadataExtractor {
           + "WHERE n.nspname = ? AND t.relname = ? "
           + "ORDER BY i.relname, a.attnum";
 
+  // 以下为按schema批量提取的查询，只按命名空间过滤，结果按表名分组
+
+  private static final String SCHEMA_TABLE_QUERY =
+      "SELECT c.relname as table_name, "
+          + "obj_description(c.oid) as table_comment, "
+          + "pg_total_relation_size(c.oid) as total_bytes, "
+          + "pg_indexes_size(c.oid) as index_bytes, "
+          + "pg_stat_get_live_tuples(c.oid) as n_live_tup "
+          + "FROM pg_class c "
+          + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+          + "WHERE n.nspname = ? AND c.relkind IN ('r', 'p') "
+          + "ORDER BY c.relname";
+
+  private static final String SCHEMA_COLUMN_QUERY =
+      "SELECT c.relname as table_name, "
+          + "a.attname as column_name, "
+          + "pg_catalog.format_type(a.atttypid, a.atttypmod) as data_type, "
+          + "a.attnotnull as not_null, "
+          + "a.attnum as ordinal_position, "
+          + "pg_catalog.col_description(a.attrelid, a.attnum) as column_comment, "
+          + "pg_catalog.pg_get_expr(d.adbin, d.adrelid) as column_default, "
+          + "a.attidentity = 'a' as is_identity "
+          + "FROM pg_catalog.pg_attribute a "
+          + "JOIN pg_catalog.pg_class c ON c.oid = a.attrelid "
+          + "JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace "
+          + "LEFT JOIN pg_catalog.pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum "
+          + "WHERE n.nspname = ? AND c.relkind IN ('r', 'p') AND a.attnum > 0 AND NOT a.attisdropped "
+          + "ORDER BY c.relname, a.attnum";
+
+  private static final String SCHEMA_PRIMARY_KEY_QUERY =
+      "SELECT c.relname as table_name, a.attname as column_name "
+          + "FROM pg_index i "
+          + "JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = ANY(i.indkey) "
+          + "JOIN pg_class c ON c.oid = i.indrelid "
+          + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+          + "WHERE i.indisprimary AND n.nspname = ?";
+
+  private static final String SCHEMA_INDEX_QUERY =
+      "SELECT t.relname as table_name, "
+          + "i.relname as index_name, "
+          + "ix.indisunique as is_unique, "
+          + "a.attname as column_name, "
+          + "pg_relation_size(i.oid) as index_size, "
+          + "s.n_distinct as cardinality "
+          + "FROM pg_index ix "
+          + "JOIN pg_class i ON i.oid = ix.indexrelid "
+          + "JOIN pg_class t ON t.oid = ix.indrelid "
+          + "JOIN pg_namespace n ON n.oid = t.relnamespace "
+          + "JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = ANY(ix.indkey) "
+          + "LEFT JOIN pg_stats s ON s.schemaname = n.nspname "
+          + "AND s.tablename = t.relname AND s.attname = a.attname "
+          + "WHERE n.nspname = ? "
+          + "ORDER BY t.relname, i.relname, a.attnum";
+
+  // 注释、列定义和索引定义拼接后取md5，每张表一行
+  private static final String SCHEMA_FINGERPRINT_QUERY =
+      "SELECT c.relname as table_name, md5("
+          + "coalesce(obj_description(c.oid), '') || '|' || "
+          + "coalesce((SELECT string_agg(a.attname || ':' || format_type(a.atttypid, a.atttypmod) "
+          + "|| ':' || a.attnotnull || ':' || coalesce(pg_get_expr(d.adbin, d.adrelid), '') "
+          + "|| ':' || coalesce(col_description(a.attrelid, a.attnum), ''), ',' ORDER BY a.attnum) "
+          + "FROM pg_attribute a "
+          + "LEFT JOIN pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum "
+          + "WHERE a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped), '') || '|' || "
+          + "coalesce((SELECT string_agg(pg_get_indexdef(i.indexrelid), ',' ORDER BY i.indexrelid) "
+          + "FROM pg_index i WHERE i.indrelid = c.oid), '')) as fingerprint "
+          + "FROM pg_class c "
+          + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+          + "WHERE n.nspname = ? AND c.relkind IN ('r', 'p')";
+
   @Override
   public List<TableMetadata> extractAll(DataSource dataSource, Connection connection) {
     List<TableMetadata> tables = new ArrayList<>();
     try {
       List<String> schemas = getSchemas(connection);
       for (String schema : schemas) {
-        List<String> tableNames = getTables(connection, schema);
-        for (String tableName : tableNames) {
-          try {
-            TableMetadata table = extractTableWithRetry(dataSource, connection, schema, tableName);
-            if (table != null) {
-              tables.add(table);
-            }
-          } catch (Exception e) {
-            log.error("Failed to extract metadata for table {}.{}", schema, tableName, e);
-          }
+        try {
+          tables.addAll(extractSchemaWithRetry(dataSource, connection, schema));
+        } catch (Exception e) {
+          log.error("Failed to extract metadata for schema {}", schema, e);
         }
       }
     } catch (Exception e) {
@@ -96,17 +161,112 @@ public class PostgreSQLMetadataExtractor implements MetadataExtractor {
     return tables;
   }
 
-  private TableMetadata extractTableWithRetry(
-      DataSource dataSource, Connection connection, String schema, String tableName)
-      throws Exception {
+  private List<TableMetadata> extractSchemaWithRetry(
+      DataSource dataSource, Connection connection, String schema) throws Exception {
     return RetryUtil.retry(
-        () -> extractTable(dataSource, connection, schema, tableName),
+        () -> extractSchema(dataSource, connection, schema),
         3, // 最大重试次数
         e -> e instanceof SQLException, // 只对SQL异常进行重试
         1000 // 重试间隔1秒
         );
   }
 
+  /**
+   * 批量提取schema下所有表的元数据，查询次数与表的数量无关
+   *
+   * @param dataSource 数据源
+   * @param connection 数据库连接
+   * @param schema 模式名
+   * @return 表元数据列表
+   */
+  @Override
+  public List<TableMetadata> extractSchema(
+      DataSource dataSource, Connection connection, String schema) throws SQLException {
+    // 表信息
+    Map<String, TableMetadata> tableMap = new LinkedHashMap<>();
+    try (PreparedStatement stmt = connection.prepareStatement(SCHEMA_TABLE_QUERY)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          TableMetadata table = new TableMetadata();
+          table.setDataSourceId(dataSource.getId());
+          table.setName(rs.getString("table_name"));
+          table.setSchema(schema);
+          readTableInfo(rs, table);
+          tableMap.put(table.getName(), table);
+        }
+      }
+    }
+    if (tableMap.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    // 列信息
+    try (PreparedStatement stmt = connection.prepareStatement(SCHEMA_COLUMN_QUERY)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          TableMetadata table = tableMap.get(rs.getString("table_name"));
+          if (table != null) {
+            table.addColumn(readColumn(rs));
+          }
+        }
+      }
+    }
+
+    // 主键信息
+    try (PreparedStatement stmt = connection.prepareStatement(SCHEMA_PRIMARY_KEY_QUERY)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          TableMetadata table = tableMap.get(rs.getString("table_name"));
+          ColumnMetadata column = table != null ? table.getColumn(rs.getString("column_name")) : null;
+          if (column != null) {
+            column.setPrimaryKey(true);
+          }
+        }
+      }
+    }
+
+    // 索引信息，结果按表名排序，同一张表的行连续出现
+    try (PreparedStatement stmt = connection.prepareStatement(SCHEMA_INDEX_QUERY)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        TableMetadata currentTable = null;
+        Map<String, IndexMetadata> indexMap = new LinkedHashMap<>();
+        while (rs.next()) {
+          TableMetadata table = tableMap.get(rs.getString("table_name"));
+          if (table == null) {
+            continue;
+          }
+          if (table != currentTable) {
+            addIndexes(currentTable, indexMap);
+            currentTable = table;
+          }
+          readIndexColumn(rs, indexMap);
+        }
+        addIndexes(currentTable, indexMap);
+      }
+    }
+
+    return new ArrayList<>(tableMap.values());
+  }
+
+  @Override
+  public Map<String, String> getFingerprints(Connection connection, String schema)
+      throws SQLException {
+    Map<String, String> fingerprints = new HashMap<>();
+    try (PreparedStatement stmt = connection.prepareStatement(SCHEMA_FINGERPRINT_QUERY)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          fingerprints.put(rs.getString("table_name"), rs.getString("fingerprint"));
+        }
+      }
+    }
+    return fingerprints;
+  }
+
   @Override
   public TableMetadata extractTable(
       DataSource dataSource, Connection connection, String schema, String tableName) {
@@ -143,10 +303,7 @@ public class PostgreSQLMetadataExtractor implements MetadataExtractor {
       stmt.setString(2, tableName);
       try (ResultSet rs = stmt.executeQuery()) {
         if (rs.next()) {
-          table.setComment(rs.getString("table_comment"));
-          table.setDataSize(rs.getLong("total_bytes") - rs.getLong("index_bytes"));
-          table.setIndexSize(rs.getLong("index_bytes"));
-          table.setRowCount(rs.getLong("n_live_tup"));
+          readTableInfo(rs, table);
         }
       }
     } catch (SQLException e) {
@@ -163,15 +320,7 @@ public class PostgreSQLMetadataExtractor implements MetadataExtractor {
       stmt.setString(2, tableName);
       try (ResultSet rs = stmt.executeQuery()) {
         while (rs.next()) {
-          ColumnMetadata column = new ColumnMetadata();
-          column.setName(rs.getString("column_name"));
-          column.setType(mapPostgreSQLType(rs.getString("data_type")));
-          column.setNullable(!rs.getBoolean("not_null"));
-          column.setOrdinalPosition(rs.getInt("ordinal_position"));
-          column.setComment(rs.getString("column_comment"));
-          column.setDefaultValue(rs.getString("column_default"));
-          column.setAutoIncrement(rs.getBoolean("is_identity"));
-          table.addColumn(column);
+          table.addColumn(readColumn(rs));
         }
       }
     } catch (SQLException e) {
@@ -204,48 +353,68 @@ public class PostgreSQLMetadataExtractor implements MetadataExtractor {
   private void extractIndexInfo(
       Connection connection, String schema, String tableName, TableMetadata table)
       throws SQLException {
-    Map<String, IndexMetadata> indexMap = new HashMap<>();
+    Map<String, IndexMetadata> indexMap = new LinkedHashMap<>();
     try (PreparedStatement stmt = connection.prepareStatement(INDEX_METADATA_QUERY)) {
       stmt.setString(1, schema);
       stmt.setString(2, tableName);
       try (ResultSet rs = stmt.executeQuery()) {
         while (rs.next()) {
-          String indexName = rs.getString("index_name");
-          IndexMetadata index =
-              indexMap.computeIfAbsent(
-                  indexName,
-                  k -> {
-                    IndexMetadata idx = new IndexMetadata();
-                    try {
-                      idx.setName(k);
-                      idx.setUnique(rs.getBoolean("is_unique"));
-                      idx.setTable(table);
-                      idx.setIndexSize(rs.getLong("index_size"));
-                    } catch (SQLException e) {
-                      log.error("Error getting index metadata: {}", e.getMessage());
-                      throw new DataScopeException("Failed to get index metadata", e);
-                    }
-                    return idx;
-                  });
-
-          try {
-            index.addColumn(rs.getString("column_name"));
-            if (rs.getLong("cardinality") > 0) {
-              index.setCardinality(rs.getLong("cardinality"));
-            }
-          } catch (SQLException e) {
-            log.error("Error getting column metadata: {}", e.getMessage());
-            throw new DataScopeException("Failed to get column metadata", e);
-          }
+          readIndexColumn(rs, indexMap);
         }
       }
     } catch (SQLException e) {
       log.error("Failed to extract index info for {}.{}", schema, tableName, e);
       throw e;
     }
-    indexMap.values().forEach(table::addIndex);
+    addIndexes(table, indexMap);
   }
 
+  private void readTableInfo(ResultSet rs, TableMetadata table) throws SQLException {
+    table.setComment(rs.getString("table_comment"));
+    table.setDataSize(rs.getLong("total_bytes") - rs.getLong("index_bytes"));
+    table.setIndexSize(rs.getLong("index_bytes"));
+    table.setRowCount(rs.getLong("n_live_tup"));
+  }
+
+  private ColumnMetadata readColumn(ResultSet rs) throws SQLException {
+    ColumnMetadata column = new ColumnMetadata();
+    column.setName(rs.getString("column_name"));
+    column.setType(mapPostgreSQLType(rs.getString("data_type")));
+    column.setNullable(!rs.getBoolean("not_null"));
+    column.setOrdinalPosition(rs.getInt("ordinal_position"));
+    column.setComment(rs.getString("column_comment"));
+    column.setDefaultValue(rs.getString("column_default"));
+    column.setAutoIncrement(rs.getBoolean("is_identity"));
+    return column;
+  }
+
+  /** 读取索引中的一列，同名索引的多行合并为一个索引 */
+  private void readIndexColumn(ResultSet rs, Map<String, IndexMetadata> indexMap)
+      throws SQLException {
+    String indexName = rs.getString("index_name");
+    IndexMetadata index = indexMap.get(indexName);
+    if (index == null) {
+      index = new IndexMetadata();
+      index.setName(indexName);
+      index.setUnique(rs.getBoolean("is_unique"));
+      index.setIndexSize(rs.getLong("index_size"));
+      indexMap.put(indexName, index);
+    }
+    index.addColumn(rs.getString("column_name"));
+    long cardinality = rs.getLong("cardinality");
+    if (cardinality > 0) {
+      index.setCardinality(cardinality);
+    }
+  }
+
+  private void addIndexes(TableMetadata table, Map<String, IndexMetadata> indexMap) {
+    if (table != null) {
+      indexMap.values().forEach(table::addIndex);
+    }
+    indexMap.clear();
+  }
+
+
   @Override
   public List<String> getSchemas(Connection connection) {
     List<String> schemas = new ArrayList<>();
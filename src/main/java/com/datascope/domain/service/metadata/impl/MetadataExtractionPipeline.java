@@ -0,0 +1,333 @@
+package com.datascope.domain.service.metadata.impl;
+
+import com.datascope.common.exception.DataScopeException;
+import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.metadata.TableMetadata;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.domain.service.metadata.extractor.MetadataExtractor;
+import com.datascope.infrastructure.util.RetryUtil;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 元数据并行提取
+ *
+ * <p>按schema拆分任务，在共享的有界线程池上并行提取，支持全量提取和按DDL指纹的增量提取。每个工作线程从连接池取一个独立的连接，依次处理队列中的schema，
+ * 同一数据源同时使用的连接数不超过配置的并行度(并发刷新同一数据源时共享这一上限)。结果按schema顺序合并后交给调用方一次性批量写入。
+ * 单个schema提取失败时记录日志并跳过，与逐个schema提取时的行为一致。
+ */
+@Slf4j
+@Component
+public class MetadataExtractionPipeline implements DisposableBean {
+
+  private final DataSourceService dataSourceService;
+
+  private final int parallelism;
+
+  private final ExecutorService executor;
+
+  private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+  public MetadataExtractionPipeline(
+      DataSourceService dataSourceService,
+      @Value("${datascope.metadata.extract-threads:8}") int threads,
+      @Value("${datascope.metadata.extract-parallelism:4}") int parallelism) {
+    this.dataSourceService = dataSourceService;
+    this.parallelism = Math.max(1, parallelism);
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(threads * 16),
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "metadata-extract-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            // 队列满时由调用线程执行，退化为串行提取
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    pool.allowCoreThreadTimeOut(true);
+    this.executor = pool;
+  }
+
+  /**
+   * 并行提取数据源下所有表的元数据
+   *
+   * @param dataSource 数据源
+   * @param extractor 元数据提取器
+   * @return 表元数据列表，按schema顺序排列
+   */
+  public List<TableMetadata> extract(DataSource dataSource, MetadataExtractor extractor)
+      throws SQLException {
+    long startTime = System.currentTimeMillis();
+    List<String> schemas = listSchemas(dataSource, extractor);
+    Map<String, List<TableMetadata>> results =
+        runParallel(
+            dataSource,
+            schemas,
+            (connection, schema) -> {
+              // 先取指纹再提取，提取期间发生的变更会在下次增量同步时因指纹不一致被重新提取
+              Map<String, String> fingerprints = extractor.getFingerprints(connection, schema);
+              List<TableMetadata> tables = extractor.extractSchema(dataSource, connection, schema);
+              if (fingerprints != null) {
+                tables.forEach(table -> table.setDdlFingerprint(fingerprints.get(table.getName())));
+              }
+              return tables;
+            });
+
+    List<TableMetadata> tables = new ArrayList<>();
+    for (String schema : schemas) {
+      tables.addAll(results.getOrDefault(schema, List.of()));
+    }
+    log.info(
+        "并行提取元数据: dataSourceId={}, schemas={}, tables={}, cost={}ms",
+        dataSource.getId(),
+        schemas.size(),
+        tables.size(),
+        System.currentTimeMillis() - startTime);
+    return tables;
+  }
+
+  /**
+   * 增量提取：先比较各表的DDL指纹，只提取新增和结构变化的表，并找出已删除的表。
+   * 提取器不支持指纹时该schema退回全量提取。提取失败的schema不计算删除，避免误删。
+   *
+   * @param dataSource 数据源
+   * @param extractor 元数据提取器
+   * @param stored 已保存的指纹，schema名称到(表名到指纹)的映射
+   * @return 变更
+   */
+  public Changes extractChanges(
+      DataSource dataSource, MetadataExtractor extractor, Map<String, Map<String, String>> stored)
+      throws SQLException {
+    List<String> schemas = listSchemas(dataSource, extractor);
+    Map<String, Changes> results =
+        runParallel(
+            dataSource,
+            schemas,
+            (connection, schema) ->
+                diffSchema(
+                    dataSource,
+                    extractor,
+                    connection,
+                    schema,
+                    stored.getOrDefault(schema, Collections.emptyMap())));
+
+    Changes changes = new Changes();
+    for (String schema : schemas) {
+      Changes schemaChanges = results.get(schema);
+      if (schemaChanges != null) {
+        changes.changedTables.addAll(schemaChanges.changedTables);
+        changes.droppedTables.putAll(schemaChanges.droppedTables);
+        changes.unchangedTables += schemaChanges.unchangedTables;
+      }
+    }
+    // 已不存在的schema下的表全部删除；一个schema都没有列出时视为列举异常，不删除已有元数据
+    if (schemas.isEmpty() && !stored.isEmpty()) {
+      log.warn("数据源未列出任何schema，跳过已删除schema的清理: dataSourceId={}", dataSource.getId());
+      return changes;
+    }
+    stored.forEach(
+        (schema, tables) -> {
+          if (!schemas.contains(schema) && !tables.isEmpty()) {
+            changes.droppedTables.put(schema, new ArrayList<>(tables.keySet()));
+          }
+        });
+    return changes;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private Changes diffSchema(
+      DataSource dataSource,
+      MetadataExtractor extractor,
+      Connection connection,
+      String schema,
+      Map<String, String> stored)
+      throws SQLException {
+    Changes changes = new Changes();
+    Map<String, String> fingerprints = extractor.getFingerprints(connection, schema);
+    Set<String> liveTables = new HashSet<>();
+    if (fingerprints == null) {
+      for (TableMetadata table : extractor.extractSchema(dataSource, connection, schema)) {
+        liveTables.add(table.getName());
+        changes.changedTables.add(table);
+      }
+    } else {
+      liveTables.addAll(fingerprints.keySet());
+      Set<String> changed = new HashSet<>();
+      fingerprints.forEach(
+          (tableName, fingerprint) -> {
+            // 未记录指纹的表(同步前保存的)视为已变化
+            if (fingerprint == null || !fingerprint.equals(stored.get(tableName))) {
+              changed.add(tableName);
+            }
+          });
+      if (!changed.isEmpty()) {
+        // 提取器按schema批量查询，查询次数与变化的表数量无关，这里只保留变化的表
+        for (TableMetadata table : extractor.extractSchema(dataSource, connection, schema)) {
+          if (changed.contains(table.getName())) {
+            table.setDdlFingerprint(fingerprints.get(table.getName()));
+            changes.changedTables.add(table);
+          }
+        }
+      }
+      changes.unchangedTables = fingerprints.size() - changed.size();
+    }
+
+    List<String> dropped = new ArrayList<>();
+    for (String tableName : stored.keySet()) {
+      if (!liveTables.contains(tableName)) {
+        dropped.add(tableName);
+      }
+    }
+    if (!dropped.isEmpty()) {
+      changes.droppedTables.put(schema, dropped);
+    }
+    return changes;
+  }
+
+  private List<String> listSchemas(DataSource dataSource, MetadataExtractor extractor)
+      throws SQLException {
+    List<String> schemas = new ArrayList<>();
+    try (Connection connection = dataSourceService.getConnection(dataSource)) {
+      for (String schema : extractor.getSchemas(connection)) {
+        if (schema != null) {
+          schemas.add(schema);
+        }
+      }
+    }
+    return schemas;
+  }
+
+  /**
+   * 在共享线程池上并行处理schema，同一数据源的工作线程数不超过并行度
+   *
+   * @return schema名称到处理结果的映射，处理失败的schema不在其中
+   */
+  private <T> Map<String, T> runParallel(
+      DataSource dataSource, List<String> schemas, SchemaTask<T> task) {
+    Map<String, T> results = new ConcurrentHashMap<>();
+    if (schemas.isEmpty()) {
+      return results;
+    }
+    Queue<String> pending = new ConcurrentLinkedQueue<>(schemas);
+    Semaphore semaphore =
+        permits.computeIfAbsent(dataSource.getId(), k -> new Semaphore(parallelism));
+    int workers = Math.min(parallelism, schemas.size());
+    List<Future<?>> futures = new ArrayList<>(workers);
+    for (int i = 0; i < workers; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                runWorker(dataSource, task, semaphore, pending, results);
+                return null;
+              }));
+    }
+
+    Throwable failure = null;
+    try {
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          // 某个工作线程取不到连接时，其余线程继续处理队列
+          failure = e.getCause();
+          log.warn("元数据提取线程失败: dataSourceId={}, {}", dataSource.getId(), failure.getMessage());
+        }
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new DataScopeException("Metadata extraction interrupted", e);
+    }
+    if (!pending.isEmpty()) {
+      throw new DataScopeException(
+          "Failed to extract metadata for data source: " + dataSource.getId(), failure);
+    }
+    return results;
+  }
+
+  /** 工作线程：占用一个并行度名额和一个连接，依次处理队列中的schema */
+  private <T> void runWorker(
+      DataSource dataSource,
+      SchemaTask<T> task,
+      Semaphore semaphore,
+      Queue<String> pending,
+      Map<String, T> results)
+      throws InterruptedException, SQLException {
+    semaphore.acquire();
+    try (Connection connection = dataSourceService.getConnection(dataSource)) {
+      String schema;
+      while ((schema = pending.poll()) != null) {
+        String current = schema;
+        try {
+          results.put(
+              current,
+              RetryUtil.retry(
+                  () -> task.run(connection, current),
+                  3, // 最大重试次数
+                  e -> e instanceof SQLException, // 只对SQL异常进行重试
+                  1000 // 重试间隔1秒
+                  ));
+        } catch (InterruptedException e) {
+          throw e;
+        } catch (Exception e) {
+          log.error("Failed to extract metadata for schema {}", current, e);
+        }
+      }
+    } finally {
+      semaphore.release();
+    }
+  }
+
+  /** 单个schema的处理 */
+  @FunctionalInterface
+  private interface SchemaTask<T> {
+    T run(Connection connection, String schema) throws SQLException;
+  }
+
+  /** 增量提取得到的变更 */
+  @Getter
+  public static class Changes {
+
+    /** 新增或结构变化的表，已重新提取 */
+    private final List<TableMetadata> changedTables = new ArrayList<>();
+
+    /** 已删除的表，schema名称到表名列表的映射 */
+    private final Map<String, List<String>> droppedTables = new LinkedHashMap<>();
+
+    /** 未变化的表数量 */
+    private int unchangedTables;
+  }
+}
@@ -3,6 +3,7 @@ package com.datascope.domain.service.metadata.impl;
 import com.datascope.common.exception.DataScopeException;
 import com.datascope.domain.model.datasource.DataSource;
 import com.datascope.domain.model.datasource.vo.DataSourceVO;
+import com.datascope.domain.model.metadata.MetadataSyncResult;
 import com.datascope.domain.model.metadata.TableMetadata;
 import com.datascope.domain.service.datasource.DataSourceService;
 import com.datascope.domain.service.metadata.MetadataFetchService;
@@ -11,6 +12,7 @@ import com.datascope.domain.service.metadata.extractor.MetadataExtractor;
 import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,9 +30,10 @@ public class MetadataFetchServiceImpl implements MetadataFetchService {
   private final DataSourceService dataSourceService;
   private final MetadataStorageService metadataStorageService;
   private final List<MetadataExtractor> metadataExtractors;
+  private final MetadataExtractionPipeline extractionPipeline;
 
+  /** 提取期间不开启事务，提取结果由批量写入在一个事务中保存 */
   @Override
-  @Transactional
   public List<TableMetadata> fetchAndSaveAllMetadata(String dataSourceId) {
     try {
       // 获取数据源
@@ -43,23 +46,74 @@ public class MetadataFetchServiceImpl implements MetadataFetchService {
         throw new DataScopeException("Unsupported data source type: " + dataSource.getType());
       }
 
-      // 获取数据库连接
-      try (Connection connection = dataSourceService.getConnection(dataSource)) {
-        // 提取所有表的元数据
-        List<TableMetadata> tables = extractor.extractAll(dataSource, connection);
-        
-        // 保存元数据
-        metadataStorageService.saveTableMetadataBatch(tables);
-        
-        log.info("Successfully fetched and saved metadata for data source: {}", dataSourceId);
-        return tables;
-      }
+      // 并行提取所有表的元数据，每个工作线程使用独立的连接
+      List<TableMetadata> tables = extractionPipeline.extract(dataSource, extractor);
+
+      // 保存元数据
+      metadataStorageService.saveTableMetadataBatch(tables);
+
+      log.info("Successfully fetched and saved metadata for data source: {}", dataSourceId);
+      return tables;
     } catch (Exception e) {
       log.error("Failed to fetch metadata for data source: {}", dataSourceId, e);
       throw new DataScopeException("Failed to fetch metadata: " + e.getMessage(), e);
     }
   }
 
+  @Override
+  public MetadataSyncResult syncMetadata(String dataSourceId) {
+    long startTime = System.currentTimeMillis();
+    try {
+      DataSource dataSource = dataSourceService.get(dataSourceId).toEntity();
+      MetadataExtractor extractor = getMetadataExtractor(dataSource);
+      if (extractor == null) {
+        throw new DataScopeException("Unsupported data source type: " + dataSource.getType());
+      }
+
+      // 比较DDL指纹，只提取变化的表
+      Map<String, Map<String, String>> stored =
+          metadataStorageService.getTableFingerprints(dataSourceId);
+      MetadataExtractionPipeline.Changes changes =
+          extractionPipeline.extractChanges(dataSource, extractor, stored);
+
+      MetadataSyncResult result = new MetadataSyncResult();
+      result.setDataSourceId(dataSourceId);
+      for (TableMetadata table : changes.getChangedTables()) {
+        Map<String, String> schemaTables = stored.get(table.getSchema());
+        if (schemaTables != null && schemaTables.containsKey(table.getName())) {
+          result.setUpdatedTables(result.getUpdatedTables() + 1);
+        } else {
+          result.setAddedTables(result.getAddedTables() + 1);
+        }
+      }
+      result.setUnchangedTables(changes.getUnchangedTables());
+
+      metadataStorageService.saveTableMetadataBatch(changes.getChangedTables());
+      int deleted = 0;
+      for (Map.Entry<String, List<String>> entry : changes.getDroppedTables().entrySet()) {
+        deleted +=
+            metadataStorageService.deleteTableMetadata(
+                dataSourceId, entry.getKey(), entry.getValue());
+      }
+      result.setDeletedTables(deleted);
+      result.setDurationMs(System.currentTimeMillis() - startTime);
+
+      log.info(
+          "Synced metadata for data source {}: added={}, updated={}, deleted={}, unchanged={}, "
+              + "cost={}ms",
+          dataSourceId,
+          result.getAddedTables(),
+          result.getUpdatedTables(),
+          result.getDeletedTables(),
+          result.getUnchangedTables(),
+          result.getDurationMs());
+      return result;
+    } catch (Exception e) {
+      log.error("Failed to sync metadata for data source: {}", dataSourceId, e);
+      throw new DataScopeException("Failed to sync metadata: " + e.getMessage(), e);
+    }
+  }
+
   @Override
   @Transactional
   public TableMetadata fetchAndSaveTableMetadata(String dataSourceId, String schema, String tableName) {
@@ -11,7 +11,13 @@ import com.datascope.domain.repository.ColumnMetadataRepository;
 import com.datascope.domain.repository.IndexMetadataRepository;
 import com.datascope.domain.repository.TableMetadataRepository;
 import com.datascope.domain.service.metadata.MetadataStorageService;
+import com.datascope.domain.service.metadata.TableMetadataCache;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -25,12 +31,25 @@ public class MetadataStorageServiceImpl implements MetadataStorageService {
   private final TableMetadataRepository tableMetadataRepository;
   private final ColumnMetadataRepository columnMetadataRepository;
   private final IndexMetadataRepository indexMetadataRepository;
+  private final TableMetadataCache tableMetadataCache;
+  private final TableMetadataBatchWriter batchWriter;
 
   @Override
   @Transactional
   public void saveTableMetadata(TableMetadata tableMetadata) {
-    // 保存表元数据
+    // 保存表元数据，已存在的表原地更新并替换其列和索引
     final TableMetadataEntity tableEntity = convertToTableEntity(tableMetadata);
+    tableMetadataRepository
+        .findByDataSourceIdAndSchemaAndName(
+            tableMetadata.getDataSourceId(), tableMetadata.getSchema(), tableMetadata.getName())
+        .ifPresent(
+            existing -> {
+              tableEntity.setId(existing.getId());
+              tableEntity.setCreatedAt(existing.getCreatedAt());
+              tableEntity.setLastAnalyzed(LocalDateTime.now());
+              columnMetadataRepository.deleteByTableMetadataId(existing.getId());
+              indexMetadataRepository.deleteByTableMetadataId(existing.getId());
+            });
     final TableMetadataEntity savedTableEntity = tableMetadataRepository.save(tableEntity);
 
     // 保存列元数据
@@ -46,12 +65,23 @@ public class MetadataStorageServiceImpl implements MetadataStorageService {
             .map(index -> convertToIndexEntity(index, savedTableEntity.getId()))
             .collect(Collectors.toList());
     indexMetadataRepository.saveAll(indexEntities);
+
+    tableMetadataCache.evict(
+        tableMetadata.getDataSourceId(), tableMetadata.getSchema(), tableMetadata.getName());
   }
 
   @Override
-  @Transactional
   public void saveTableMetadataBatch(List<TableMetadata> tableMetadataList) {
-    tableMetadataList.forEach(this::saveTableMetadata);
+    // 按数据源分组，每个数据源一个事务批量写入
+    Map<String, List<TableMetadata>> byDataSource = new LinkedHashMap<>();
+    for (TableMetadata table : tableMetadataList) {
+      byDataSource.computeIfAbsent(table.getDataSourceId(), k -> new ArrayList<>()).add(table);
+    }
+    byDataSource.forEach(
+        (dataSourceId, tables) -> {
+          batchWriter.write(dataSourceId, tables);
+          tableMetadataCache.evictDataSource(dataSourceId);
+        });
   }
 
   @Override
@@ -70,8 +100,13 @@ public class MetadataStorageServiceImpl implements MetadataStorageService {
   }
 
   @Override
-  @Transactional(readOnly = true)
   public TableMetadata getTableMetadata(String dataSourceId, String schema, String tableName) {
+    // 不开启事务，命中缓存时不占用元数据库连接
+    return tableMetadataCache.get(
+        dataSourceId, schema, tableName, () -> loadTableMetadata(dataSourceId, schema, tableName));
+  }
+
+  private TableMetadata loadTableMetadata(String dataSourceId, String schema, String tableName) {
     final TableMetadataEntity tableEntity =
         tableMetadataRepository
             .findByDataSourceIdAndSchemaAndName(dataSourceId, schema, tableName)
@@ -85,6 +120,7 @@ public class MetadataStorageServiceImpl implements MetadataStorageService {
     metadata.setRowCount(tableEntity.getRowCount());
     metadata.setDataSize(tableEntity.getDataSize());
     metadata.setIndexSize(tableEntity.getIndexSize());
+    metadata.setDdlFingerprint(tableEntity.getDdlFingerprint());
 
     // 加载列信息
     final List<ColumnMetadataEntity> columnEntities =
@@ -113,6 +149,28 @@ public class MetadataStorageServiceImpl implements MetadataStorageService {
     return tableMetadataRepository.findSchemasByDataSourceId(dataSourceId);
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public Map<String, Map<String, String>> getTableFingerprints(String dataSourceId) {
+    Map<String, Map<String, String>> fingerprints = new HashMap<>();
+    for (TableMetadataEntity entity : tableMetadataRepository.findByDataSourceId(dataSourceId)) {
+      fingerprints
+          .computeIfAbsent(entity.getSchema(), k -> new HashMap<>())
+          .put(entity.getName(), entity.getDdlFingerprint());
+    }
+    return fingerprints;
+  }
+
+  @Override
+  public int deleteTableMetadata(String dataSourceId, String schema, List<String> tableNames) {
+    if (tableNames.isEmpty()) {
+      return 0;
+    }
+    int deleted = batchWriter.delete(dataSourceId, schema, tableNames);
+    tableNames.forEach(tableName -> tableMetadataCache.evict(dataSourceId, schema, tableName));
+    return deleted;
+  }
+
   @Override
   @Transactional
   public void deleteByDataSource(String dataSourceId) {
@@ -122,6 +180,7 @@ public class MetadataStorageServiceImpl implements MetadataStorageService {
       indexMetadataRepository.deleteByTableMetadataId(table.getId());
     }
     tableMetadataRepository.deleteByDataSourceId(dataSourceId);
+    tableMetadataCache.evictDataSource(dataSourceId);
   }
 
   private TableMetadataEntity convertToTableEntity(TableMetadata metadata) {
@@ -133,6 +192,7 @@ public class MetadataStorageServiceImpl implements MetadataStorageService {
     entity.setRowCount(metadata.getRowCount());
     entity.setDataSize(metadata.getDataSize());
     entity.setIndexSize(metadata.getIndexSize());
+    entity.setDdlFingerprint(metadata.getDdlFingerprint());
     return entity;
   }
 
@@ -173,6 +233,7 @@ public class MetadataStorageServiceImpl implements MetadataStorageService {
     metadata.setRowCount(entity.getRowCount());
     metadata.setDataSize(entity.getDataSize());
     metadata.setIndexSize(entity.getIndexSize());
+    metadata.setDdlFingerprint(entity.getDdlFingerprint());
 
     // 加载列信息
     final List<ColumnMetadataEntity> columnEntities =
@@ -0,0 +1,232 @@
+package com.datascope.domain.service.metadata.impl;
+
+import com.datascope.domain.model.metadata.ColumnMetadata;
+import com.datascope.domain.model.metadata.IndexMetadata;
+import com.datascope.domain.model.metadata.TableMetadata;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 表元数据批量写入
+ *
+ * <p>元数据实体使用自增主键，Hibernate 无法对其批量插入，整库同步时每张表、每列、每个索引都是一次往返。
+ * 这里直接使用 JDBC 批量语句：已存在的表原地更新(保留ID)，新表批量插入后一次查询取回ID，
+ * 列和索引先按表删除再批量插入。同一数据源的写入在一个事务中完成。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TableMetadataBatchWriter {
+
+  private static final String SELECT_TABLE_IDS =
+      "SELECT id, schema_name, table_name FROM table_metadata WHERE data_source_id = ?";
+
+  private static final String INSERT_TABLE =
+      "INSERT INTO table_metadata (data_source_id, schema_name, table_name, table_comment, row_count,"
+          + " data_size, index_size, ddl_fingerprint, last_analyzed, created_at, updated_at)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final int[] INSERT_TABLE_TYPES = {
+    Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT,
+    Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP, Types.TIMESTAMP
+  };
+
+  private static final String UPDATE_TABLE =
+      "UPDATE table_metadata SET table_comment = ?, row_count = ?, data_size = ?, index_size = ?,"
+          + " ddl_fingerprint = ?, last_analyzed = ?, updated_at = ? WHERE id = ?";
+
+  private static final int[] UPDATE_TABLE_TYPES = {
+    Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP,
+    Types.TIMESTAMP, Types.BIGINT
+  };
+
+  private static final String DELETE_TABLE = "DELETE FROM table_metadata WHERE id = ?";
+
+  private static final String DELETE_COLUMNS =
+      "DELETE FROM column_metadata WHERE table_metadata_id = ?";
+
+  private static final String DELETE_INDEXES =
+      "DELETE FROM index_metadata WHERE table_metadata_id = ?";
+
+  private static final String INSERT_COLUMN =
+      "INSERT INTO column_metadata (table_metadata_id, column_name, column_type, column_length,"
+          + " column_precision, is_nullable, is_primary_key, ordinal_position, default_value,"
+          + " column_comment, is_auto_increment, created_at, updated_at)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final int[] INSERT_COLUMN_TYPES = {
+    Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.BOOLEAN,
+    Types.BOOLEAN, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN, Types.TIMESTAMP,
+    Types.TIMESTAMP
+  };
+
+  private static final String INSERT_INDEX =
+      "INSERT INTO index_metadata (table_metadata_id, index_name, is_unique, cardinality,"
+          + " index_size, column_names, created_at, updated_at)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final int[] INSERT_INDEX_TYPES = {
+    Types.BIGINT, Types.VARCHAR, Types.BOOLEAN, Types.BIGINT, Types.BIGINT, Types.VARCHAR,
+    Types.TIMESTAMP, Types.TIMESTAMP
+  };
+
+  private static final int[] ID_TYPES = {Types.BIGINT};
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * 批量写入一个数据源的表元数据
+   *
+   * @param dataSourceId 数据源ID
+   * @param tables 该数据源下的表元数据
+   */
+  @Transactional
+  public void write(String dataSourceId, List<TableMetadata> tables) {
+    if (tables.isEmpty()) {
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+    // 区分已存在的表和新表
+    Map<String, Long> existingIds = loadTableIds(dataSourceId);
+    List<Object[]> updates = new ArrayList<>();
+    List<Object[]> inserts = new ArrayList<>();
+    List<Object[]> existing = new ArrayList<>();
+    for (TableMetadata table : tables) {
+      Long id = existingIds.get(tableKey(table.getSchema(), table.getName()));
+      if (id != null) {
+        updates.add(
+            new Object[] {
+              table.getComment(), table.getRowCount(), table.getDataSize(), table.getIndexSize(),
+              table.getDdlFingerprint(), now, now, id
+            });
+        existing.add(new Object[] {id});
+      } else {
+        inserts.add(
+            new Object[] {
+              dataSourceId, table.getSchema(), table.getName(), table.getComment(),
+              table.getRowCount(), table.getDataSize(), table.getIndexSize(),
+              table.getDdlFingerprint(), now, now, now
+            });
+      }
+    }
+    if (!updates.isEmpty()) {
+      jdbcTemplate.batchUpdate(UPDATE_TABLE, updates, UPDATE_TABLE_TYPES);
+      jdbcTemplate.batchUpdate(DELETE_COLUMNS, existing, ID_TYPES);
+      jdbcTemplate.batchUpdate(DELETE_INDEXES, existing, ID_TYPES);
+    }
+    Map<String, Long> tableIds = existingIds;
+    if (!inserts.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_TABLE, inserts, INSERT_TABLE_TYPES);
+      // 批量插入不能可靠地返回自增ID，插入后按表名取回
+      tableIds = loadTableIds(dataSourceId);
+    }
+
+    // 列和索引
+    List<Object[]> columns = new ArrayList<>();
+    List<Object[]> indexes = new ArrayList<>();
+    for (TableMetadata table : tables) {
+      Long tableId = tableIds.get(tableKey(table.getSchema(), table.getName()));
+      for (ColumnMetadata column : table.getColumns()) {
+        columns.add(
+            new Object[] {
+              tableId,
+              column.getName(),
+              column.getType() != null ? column.getType().name() : null,
+              column.getLength(),
+              column.getPrecision(),
+              column.isNullable(),
+              column.isPrimaryKey(),
+              column.getOrdinalPosition(),
+              column.getDefaultValue(),
+              column.getComment(),
+              column.isAutoIncrement(),
+              now,
+              now
+            });
+      }
+      for (IndexMetadata index : table.getIndices()) {
+        indexes.add(
+            new Object[] {
+              tableId,
+              index.getName(),
+              index.isUnique(),
+              index.getCardinality(),
+              index.getIndexSize(),
+              String.join(",", index.getColumns()),
+              now,
+              now
+            });
+      }
+    }
+    if (!columns.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_COLUMN, columns, INSERT_COLUMN_TYPES);
+    }
+    if (!indexes.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_INDEX, indexes, INSERT_INDEX_TYPES);
+    }
+
+    log.info(
+        "批量写入表元数据: dataSourceId={}, tables={}, columns={}, indexes={}, cost={}ms",
+        dataSourceId,
+        tables.size(),
+        columns.size(),
+        indexes.size(),
+        System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * 批量删除表元数据及其列和索引
+   *
+   * @param dataSourceId 数据源ID
+   * @param schema schema名称
+   * @param tableNames 表名
+   * @return 删除的表数量
+   */
+  @Transactional
+  public int delete(String dataSourceId, String schema, List<String> tableNames) {
+    Map<String, Long> existingIds = loadTableIds(dataSourceId);
+    List<Object[]> ids = new ArrayList<>();
+    for (String tableName : tableNames) {
+      Long id = existingIds.get(tableKey(schema, tableName));
+      if (id != null) {
+        ids.add(new Object[] {id});
+      }
+    }
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    jdbcTemplate.batchUpdate(DELETE_COLUMNS, ids, ID_TYPES);
+    jdbcTemplate.batchUpdate(DELETE_INDEXES, ids, ID_TYPES);
+    jdbcTemplate.batchUpdate(DELETE_TABLE, ids, ID_TYPES);
+    log.info(
+        "批量删除表元数据: dataSourceId={}, schema={}, tables={}", dataSourceId, schema, ids.size());
+    return ids.size();
+  }
+
+  private Map<String, Long> loadTableIds(String dataSourceId) {
+    Map<String, Long> ids = new HashMap<>();
+    jdbcTemplate.query(
+        SELECT_TABLE_IDS,
+        rs -> {
+          ids.put(tableKey(rs.getString("schema_name"), rs.getString("table_name")), rs.getLong("id"));
+        },
+        dataSourceId);
+    return ids;
+  }
+
+  private String tableKey(String schema, String tableName) {
+    return schema + "." + tableName;
+  }
+}
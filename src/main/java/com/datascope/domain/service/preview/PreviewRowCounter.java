@@ -0,0 +1,219 @@
+package com.datascope.domain.service.preview;
+
+import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.metadata.TableMetadata;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.domain.service.query.QueryExecutionContext;
+import com.datascope.infrastructure.dialect.SqlDialect;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 预览行数统计
+ *
+ * <p>没有过滤条件时优先使用估算值：先取元数据中保存的行数，没有时查询数据库系统目录
+ * (information_schema.tables.table_rows、pg_class.reltuples 等)，都不需要扫描表。
+ * 要求精确行数或带过滤条件时执行 COUNT(*)。访问数据库的统计在独立的连接上异步进行，
+ * 与采样查询并行，超过时间预算后取消语句，无过滤条件时退回元数据中的行数。
+ */
+@Slf4j
+@Component
+public class PreviewRowCounter implements DisposableBean {
+
+  private final DataSourceService dataSourceService;
+
+  private final long countTimeoutMs;
+
+  private final ExecutorService executor;
+
+  public PreviewRowCounter(
+      DataSourceService dataSourceService,
+      @Value("${datascope.preview.count-timeout-ms:3000}") long countTimeoutMs,
+      @Value("${datascope.preview.count-threads:4}") int countThreads) {
+    this.dataSourceService = dataSourceService;
+    this.countTimeoutMs = countTimeoutMs;
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            countThreads,
+            countThreads,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(countThreads * 16),
+            runnable -> {
+              Thread thread = new Thread(runnable, "preview-count-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    pool.allowCoreThreadTimeOut(true);
+    this.executor = pool;
+  }
+
+  /**
+   * 开始统计预览表的行数，统计在独立的连接上异步进行，不占用采样查询的连接
+   *
+   * @param dataSource 数据源
+   * @param dialect 数据源的SQL方言
+   * @param table 表元数据
+   * @param whereClause 过滤条件，可以为空
+   * @param exact 是否要求精确行数
+   * @return 进行中的统计
+   */
+  public PendingCount start(
+      DataSource dataSource,
+      SqlDialect dialect,
+      TableMetadata table,
+      String whereClause,
+      boolean exact) {
+    boolean filtered = StringUtils.hasText(whereClause);
+    // 超时或失败时的退回值，只有无过滤条件时元数据中的行数可用
+    RowCount fallback =
+        !filtered && table.getRowCount() != null
+            ? new RowCount(table.getRowCount(), false)
+            : RowCount.UNKNOWN;
+    if (!exact && fallback != RowCount.UNKNOWN) {
+      return new PendingCount(null, null, fallback);
+    }
+
+    QueryExecutionContext context = new QueryExecutionContext();
+    Callable<RowCount> task;
+    if (!exact && !filtered) {
+      if (dialect.rowCountEstimateSql() == null) {
+        // 没有可用的统计信息，退回精确统计
+        task = () -> new RowCount(executeCount(dataSource, countSql(dialect, table, null), context), true);
+      } else {
+        task = () -> estimate(dataSource, dialect, table);
+      }
+    } else {
+      String sql = countSql(dialect, table, whereClause);
+      task = () -> new RowCount(executeCount(dataSource, sql, context), true);
+    }
+
+    try {
+      return new PendingCount(executor.submit(task), context, fallback);
+    } catch (RejectedExecutionException e) {
+      log.warn("行数统计任务过多, 跳过统计: {}", dataSource.getId());
+      return new PendingCount(null, null, fallback);
+    }
+  }
+
+  /**
+   * 统计行数的时间预算(毫秒)
+   */
+  public long getCountTimeoutMs() {
+    return countTimeoutMs;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private String countSql(SqlDialect dialect, TableMetadata table, String whereClause) {
+    return dialect.countSql(dialect.qualifyTable(table.getSchema(), table.getName()), whereClause);
+  }
+
+  /** 从系统目录估算行数 */
+  private RowCount estimate(DataSource dataSource, SqlDialect dialect, TableMetadata table)
+      throws SQLException {
+    try (Connection conn = dataSourceService.getConnection(dataSource)) {
+      Long estimate = dialect.estimateRowCount(conn, table.getSchema(), table.getName());
+      return estimate != null ? new RowCount(estimate, false) : RowCount.UNKNOWN;
+    }
+  }
+
+  private Long executeCount(DataSource dataSource, String sql, QueryExecutionContext context)
+      throws SQLException {
+    try (Connection conn = dataSourceService.getConnection(dataSource);
+        PreparedStatement stmt = conn.prepareStatement(sql)) {
+      // 数据库侧的超时作为兜底，避免取消请求丢失时语句一直运行
+      stmt.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(countTimeoutMs) + 1));
+      context.register(stmt);
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? rs.getLong(1) : 0L;
+      } finally {
+        context.unregister();
+      }
+    }
+  }
+
+  /** 进行中的行数统计 */
+  @RequiredArgsConstructor
+  public static class PendingCount {
+
+    private final Future<RowCount> future;
+
+    private final QueryExecutionContext context;
+
+    private final RowCount fallback;
+
+    /**
+     * 等待统计结果，到达截止时间后取消统计语句
+     *
+     * @param deadline 截止时间(毫秒时间戳)
+     * @return 行数，超时或失败时返回退回值
+     */
+    public RowCount await(long deadline) {
+      if (future == null) {
+        return fallback;
+      }
+      try {
+        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+        return future.get(remaining, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        log.info("统计行数超过时间预算, 已取消");
+        cancel();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancel();
+      } catch (ExecutionException e) {
+        log.warn(
+            "统计行数失败: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+      }
+      return fallback;
+    }
+
+    /** 取消统计 */
+    public void cancel() {
+      if (future != null) {
+        context.cancel();
+        future.cancel(true);
+      }
+    }
+  }
+
+  /** 行数及其是否精确 */
+  @Getter
+  @RequiredArgsConstructor
+  public static class RowCount {
+
+    /** 无法得到行数 */
+    public static final RowCount UNKNOWN = new RowCount(null, false);
+
+    /** 行数 */
+    private final Long value;
+
+    /** 是否为精确值 */
+    private final boolean exact;
+  }
+}
@@ -0,0 +1,133 @@
+package com.datascope.domain.service.preview;
+
+import com.datascope.domain.model.metadata.ColumnMetadata;
+import com.datascope.domain.model.metadata.ColumnType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预览结果行读取器
+ *
+ * <p>每次预览编译一次：按列类型选定读取方法，读取时按列位置访问结果集，避免驱动对每个单元格按列名做大小写不敏感的查找。
+ * 要求查询的输出列与编译时的列顺序一致。
+ */
+public final class PreviewRowReader {
+
+  // 基本类型的读取方法在值为NULL时返回null，而不是0或false
+  private static final ColumnReader INT_READER =
+      (rs, index) -> {
+        int value = rs.getInt(index);
+        return rs.wasNull() ? null : value;
+      };
+
+  private static final ColumnReader LONG_READER =
+      (rs, index) -> {
+        long value = rs.getLong(index);
+        return rs.wasNull() ? null : value;
+      };
+
+  private static final ColumnReader FLOAT_READER =
+      (rs, index) -> {
+        float value = rs.getFloat(index);
+        return rs.wasNull() ? null : value;
+      };
+
+  private static final ColumnReader DOUBLE_READER =
+      (rs, index) -> {
+        double value = rs.getDouble(index);
+        return rs.wasNull() ? null : value;
+      };
+
+  private static final ColumnReader BOOLEAN_READER =
+      (rs, index) -> {
+        boolean value = rs.getBoolean(index);
+        return rs.wasNull() ? null : value;
+      };
+
+  private final List<String> columnNames;
+
+  private final ColumnReader[] readers;
+
+  private PreviewRowReader(List<String> columnNames, ColumnReader[] readers) {
+    this.columnNames = columnNames;
+    this.readers = readers;
+  }
+
+  /**
+   * 编译读取器
+   *
+   * @param columns 查询的输出列，顺序与SELECT列表一致
+   * @return 读取器
+   */
+  public static PreviewRowReader compile(List<ColumnMetadata> columns) {
+    List<String> names = new ArrayList<>(columns.size());
+    ColumnReader[] readers = new ColumnReader[columns.size()];
+    for (int i = 0; i < readers.length; i++) {
+      ColumnMetadata column = columns.get(i);
+      names.add(column.getName());
+      readers[i] = readerFor(column.getType());
+    }
+    return new PreviewRowReader(names, readers);
+  }
+
+  /** 列名 */
+  public List<String> getColumnNames() {
+    return columnNames;
+  }
+
+  /**
+   * 读取当前行
+   *
+   * @param rs 已定位到当前行的结果集
+   * @return 按列顺序排列的值
+   */
+  public Object[] read(ResultSet rs) throws SQLException {
+    Object[] row = new Object[readers.length];
+    for (int i = 0; i < readers.length; i++) {
+      row[i] = readers[i].read(rs, i + 1);
+    }
+    return row;
+  }
+
+  private static ColumnReader readerFor(ColumnType type) {
+    if (type == null) {
+      return ResultSet::getString;
+    }
+    switch (type) {
+      case TINYINT:
+      case SMALLINT:
+      case INTEGER:
+        return INT_READER;
+      case BIGINT:
+        return LONG_READER;
+      case FLOAT:
+        return FLOAT_READER;
+      case DOUBLE:
+        return DOUBLE_READER;
+      case DECIMAL:
+        return ResultSet::getBigDecimal;
+      case DATE:
+        return ResultSet::getDate;
+      case TIME:
+        return ResultSet::getTime;
+      case TIMESTAMP:
+        return ResultSet::getTimestamp;
+      case BOOLEAN:
+        return BOOLEAN_READER;
+      case BINARY:
+      case VARBINARY:
+      case BLOB:
+        return ResultSet::getBytes;
+      default:
+        return ResultSet::getString;
+    }
+  }
+
+  /** 单列读取方法 */
+  @FunctionalInterface
+  interface ColumnReader {
+    Object read(ResultSet rs, int index) throws SQLException;
+  }
+}
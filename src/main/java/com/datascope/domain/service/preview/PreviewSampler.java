@@ -0,0 +1,501 @@
+package com.datascope.domain.service.preview;
+
+import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.domain.model.metadata.ColumnMetadata;
+import com.datascope.domain.model.metadata.IndexMetadata;
+import com.datascope.domain.model.metadata.TableMetadata;
+import com.datascope.domain.model.preview.DataPreviewRequest;
+import com.datascope.domain.model.preview.SamplingMode;
+import com.datascope.domain.model.query.ResultRows;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.infrastructure.dialect.SqlDialect;
+import com.datascope.infrastructure.util.BoundSql;
+import com.datascope.infrastructure.util.SqlParameterType;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 预览采样
+ *
+ * <p>按请求的 {@link SamplingMode} 生成采样SQL并读取结果。数据块采样和主键区间采样只读取与样本大小相当的数据，
+ * 代价与表大小无关；蓄水池采样需要流式扫描，扫描行数受上限约束。请求的方式在当前数据源或表上不可用时退回HEAD。
+ * 非HEAD方式的排序在样本上进行，不会让数据库对整表排序。
+ */
+@Slf4j
+@Component
+public class PreviewSampler {
+
+  private final DataSourceService dataSourceService;
+
+  /** 数据块采样的过采样倍数，弥补数据块中行数分布不均 */
+  private final int blockOversample;
+
+  /** 主键区间采样每个区间读取的行数 */
+  private final int keyRangeChunkSize;
+
+  /** 蓄水池采样最多扫描的行数 */
+  private final long reservoirMaxScanRows;
+
+  /** 流式读取时的fetchSize */
+  private final int streamFetchSize;
+
+  public PreviewSampler(
+      DataSourceService dataSourceService,
+      @Value("${datascope.preview.block-oversample:3}") int blockOversample,
+      @Value("${datascope.preview.key-range-chunk-size:10}") int keyRangeChunkSize,
+      @Value("${datascope.preview.reservoir-max-scan-rows:1000000}") long reservoirMaxScanRows,
+      @Value("${datascope.query.stream-fetch-size:1000}") int streamFetchSize) {
+    this.dataSourceService = dataSourceService;
+    this.blockOversample = blockOversample;
+    this.keyRangeChunkSize = keyRangeChunkSize;
+    this.reservoirMaxScanRows = reservoirMaxScanRows;
+    this.streamFetchSize = streamFetchSize;
+  }
+
+  /**
+   * 采样
+   *
+   * @param dataSource 数据源
+   * @param dialect 数据源的SQL方言
+   * @param table 表元数据
+   * @param request 预览请求
+   * @param columns 预览的列
+   * @param deadline 截止时间(毫秒时间戳)
+   * @return 样本及实际使用的采样方式
+   */
+  public Sample sample(
+      DataSource dataSource,
+      SqlDialect dialect,
+      TableMetadata table,
+      DataPreviewRequest request,
+      List<ColumnMetadata> columns,
+      long deadline)
+      throws SQLException {
+    SamplingMode mode =
+        request.getSamplingMode() != null ? request.getSamplingMode() : SamplingMode.HEAD;
+    String qualifiedTable = dialect.qualifyTable(table.getSchema(), table.getName());
+    // 查询的输出列与预览列顺序一致，读取器按位置读取
+    PreviewRowReader reader = PreviewRowReader.compile(columns);
+
+    switch (mode) {
+      case BLOCK:
+        String sampledTable = blockSampledTable(dialect, table, qualifiedTable, request);
+        if (sampledTable != null) {
+          BoundSql sql = buildSelect(dialect, columns, sampledTable, request, true);
+          return new Sample(fetch(dataSource, dialect, sql, request, reader, deadline), SamplingMode.BLOCK);
+        }
+        break;
+      case KEY_RANGE:
+        ResultRows keyRangeRows =
+            keyRangeSample(
+                dataSource, dialect, table, qualifiedTable, request, columns, reader, deadline);
+        if (keyRangeRows != null) {
+          return new Sample(keyRangeRows, SamplingMode.KEY_RANGE);
+        }
+        break;
+      case RESERVOIR:
+        return new Sample(
+            reservoirSample(dataSource, dialect, qualifiedTable, request, columns, reader, deadline),
+            SamplingMode.RESERVOIR);
+      default:
+        break;
+    }
+
+    if (mode != SamplingMode.HEAD) {
+      log.debug("采样方式 {} 不可用, 退回HEAD: {}", mode, qualifiedTable);
+    }
+    BoundSql sql = buildSelect(dialect, columns, qualifiedTable, request, true);
+    return new Sample(fetch(dataSource, dialect, sql, request, reader, deadline), SamplingMode.HEAD);
+  }
+
+  /** 根据估算行数计算采样比例，生成带采样子句的表引用 */
+  private String blockSampledTable(
+      SqlDialect dialect, TableMetadata table, String qualifiedTable, DataPreviewRequest request) {
+    Long rowCount = table.getRowCount();
+    if (!dialect.supportsSampling() || rowCount == null || rowCount <= 0) {
+      return null;
+    }
+    double percent = request.getSampleSize() * (double) blockOversample * 100 / rowCount;
+    if (percent >= 100) {
+      // 表足够小，直接读取即可
+      return null;
+    }
+    // 保留4位小数并向上取整，避免比例过小时采样结果为空
+    percent = Math.max(0.0001, Math.ceil(percent * 10000) / 10000);
+    return dialect.sampleTable(qualifiedTable, percent);
+  }
+
+  /**
+   * 主键区间采样：读取主键的最小和最大值，在其间均匀选取若干起点，
+   * 每个起点沿主键索引读取一小段，多个区间用 UNION ALL 合并为一条语句
+   */
+  private ResultRows keyRangeSample(
+      DataSource dataSource,
+      SqlDialect dialect,
+      TableMetadata table,
+      String qualifiedTable,
+      DataPreviewRequest request,
+      List<ColumnMetadata> columns,
+      PreviewRowReader reader,
+      long deadline)
+      throws SQLException {
+    if (dataSource.getType() != DataSourceType.MYSQL
+        && dataSource.getType() != DataSourceType.POSTGRESQL) {
+      return null;
+    }
+    ColumnMetadata key = findIntegerKey(table);
+    int keyIndex = key != null ? columns.indexOf(key) : -1;
+    if (keyIndex < 0) {
+      return null;
+    }
+
+    String quotedKey = dialect.quoteIdentifier(key.getName());
+    long[] bounds =
+        queryBounds(
+            dataSource,
+            "SELECT MIN(" + quotedKey + "), MAX(" + quotedKey + ") FROM " + qualifiedTable,
+            deadline);
+    if (bounds == null) {
+      return null;
+    }
+
+    int sampleSize = request.getSampleSize();
+    int ranges = Math.max(1, (sampleSize + keyRangeChunkSize - 1) / keyRangeChunkSize);
+    long[] starts = new long[ranges];
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < ranges; i++) {
+      starts[i] = bounds[1] > bounds[0] ? random.nextLong(bounds[0], bounds[1]) : bounds[0];
+    }
+    Arrays.sort(starts);
+
+    // 每个区间: (SELECT ... WHERE pk >= ? [AND (条件)] ORDER BY pk LIMIT ?)
+    StringBuilder branchSql = new StringBuilder("(");
+    branchSql.append(selectColumns(dialect, columns)).append(" FROM ").append(qualifiedTable);
+    branchSql.append(" WHERE ").append(quotedKey).append(" >= ?");
+    if (StringUtils.hasText(request.getWhereClause())) {
+      branchSql.append(" AND (").append(request.getWhereClause()).append(')');
+    }
+    branchSql.append(" ORDER BY ").append(quotedKey).append(" LIMIT ?)");
+    String branch = branchSql.toString();
+    StringBuilder sql = new StringBuilder((branch.length() + 11) * ranges);
+    List<BoundSql.Parameter> parameters = new ArrayList<>(ranges * 2);
+    for (int i = 0; i < ranges; i++) {
+      if (i > 0) {
+        sql.append(" UNION ALL ");
+      }
+      sql.append(branch);
+      parameters.add(new BoundSql.Parameter(key.getName(), SqlParameterType.LONG, starts[i]));
+      parameters.add(new BoundSql.Parameter("limit", SqlParameterType.INTEGER, keyRangeChunkSize));
+    }
+
+    // 区间可能重叠，按主键去重
+    Set<Object> seen = new HashSet<>();
+    List<Object[]> rows = new ArrayList<>(sampleSize);
+    query(
+        dataSource,
+        new BoundSql(sql.toString(), parameters),
+        deadline,
+        0,
+        false,
+        rs -> {
+          Object[] row = reader.read(rs);
+          if (seen.add(row[keyIndex])) {
+            rows.add(row);
+          }
+          return rows.size() < sampleSize;
+        });
+    return toResultRows(rows, request, reader);
+  }
+
+  /** 蓄水池采样：流式扫描，保留均匀随机的N行 */
+  private ResultRows reservoirSample(
+      DataSource dataSource,
+      SqlDialect dialect,
+      String qualifiedTable,
+      DataPreviewRequest request,
+      List<ColumnMetadata> columns,
+      PreviewRowReader reader,
+      long deadline)
+      throws SQLException {
+    int sampleSize = request.getSampleSize();
+    List<Object[]> reservoir = new ArrayList<>(sampleSize);
+    long[] scanned = new long[1];
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    // 扫描上限下推为maxRows，数据库读到上限即结束，提前停止时不会有剩余的行需要读完
+    BoundSql sql = buildSelect(dialect, columns, qualifiedTable, request, false);
+    query(
+        dataSource,
+        sql,
+        deadline,
+        (int) Math.min(reservoirMaxScanRows, Integer.MAX_VALUE),
+        true,
+        rs -> {
+          long seen = scanned[0]++;
+          if (seen < sampleSize) {
+            reservoir.add(reader.read(rs));
+          } else {
+            long slot = random.nextLong(seen + 1);
+            if (slot < sampleSize) {
+              reservoir.set((int) slot, reader.read(rs));
+            }
+          }
+          return scanned[0] < reservoirMaxScanRows;
+        });
+    if (scanned[0] >= reservoirMaxScanRows) {
+      log.info("蓄水池采样达到扫描上限 {} 行: {}", reservoirMaxScanRows, qualifiedTable);
+    }
+    return toResultRows(reservoir, request, reader);
+  }
+
+  /** 查找单列整数主键(或非空唯一索引) */
+  private ColumnMetadata findIntegerKey(TableMetadata table) {
+    ColumnMetadata candidate = null;
+    for (IndexMetadata index : table.getIndices()) {
+      if (!index.isUnique() || index.getColumns().size() != 1) {
+        continue;
+      }
+      ColumnMetadata column = table.getColumn(index.getColumns().get(0));
+      if (column == null || column.isNullable() || !isInteger(column)) {
+        continue;
+      }
+      if (column.isPrimaryKey() || "PRIMARY".equalsIgnoreCase(index.getName())) {
+        return column;
+      }
+      if (candidate == null) {
+        candidate = column;
+      }
+    }
+    if (candidate != null) {
+      return candidate;
+    }
+
+    // 没有索引元数据时使用列上的主键标记
+    ColumnMetadata primaryKey = null;
+    for (ColumnMetadata column : table.getColumns()) {
+      if (column.isPrimaryKey()) {
+        if (primaryKey != null) {
+          // 复合主键
+          return null;
+        }
+        primaryKey = column;
+      }
+    }
+    return primaryKey != null && isInteger(primaryKey) ? primaryKey : null;
+  }
+
+  private boolean isInteger(ColumnMetadata column) {
+    if (column.getType() == null) {
+      return false;
+    }
+    switch (column.getType()) {
+      case TINYINT:
+      case SMALLINT:
+      case INTEGER:
+      case BIGINT:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private BoundSql buildSelect(
+      SqlDialect dialect,
+      List<ColumnMetadata> columns,
+      String fromClause,
+      DataPreviewRequest request,
+      boolean ordered) {
+    StringBuilder sql = new StringBuilder(selectColumns(dialect, columns));
+
+    // 添加表
+    sql.append(" FROM ").append(fromClause);
+
+    // 添加where条件
+    if (StringUtils.hasText(request.getWhereClause())) {
+      sql.append(" WHERE ").append(request.getWhereClause());
+    }
+
+    // 添加排序
+    if (ordered && StringUtils.hasText(request.getOrderBy())) {
+      sql.append(" ORDER BY ")
+          .append(dialect.quoteIdentifier(request.getOrderBy()))
+          .append(request.isDesc() ? " DESC" : " ASC");
+    }
+
+    return new BoundSql(sql.toString(), new ArrayList<>());
+  }
+
+  private String selectColumns(SqlDialect dialect, List<ColumnMetadata> columns) {
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(dialect.quoteIdentifier(columns.get(i).getName()));
+    }
+    return sql.toString();
+  }
+
+  /** 行数限制下推到数据库的采样查询 */
+  private ResultRows fetch(
+      DataSource dataSource,
+      SqlDialect dialect,
+      BoundSql sql,
+      DataPreviewRequest request,
+      PreviewRowReader reader,
+      long deadline)
+      throws SQLException {
+    ResultRows rows = new ResultRows(reader.getColumnNames(), request.getSampleSize());
+    query(
+        dataSource,
+        dialect.limit(sql, request.getSampleSize()),
+        deadline,
+        request.getSampleSize(),
+        false,
+        rs -> {
+          rows.addRow(reader.read(rs));
+          return rows.size() < request.getSampleSize();
+        });
+    return rows;
+  }
+
+  /** 在样本上排序后转换为结果行 */
+  private ResultRows toResultRows(
+      List<Object[]> rows, DataPreviewRequest request, PreviewRowReader reader) {
+    List<String> columnNames = reader.getColumnNames();
+    int orderIndex = -1;
+    if (StringUtils.hasText(request.getOrderBy())) {
+      for (int i = 0; i < columnNames.size(); i++) {
+        if (columnNames.get(i).equalsIgnoreCase(request.getOrderBy())) {
+          orderIndex = i;
+          break;
+        }
+      }
+    }
+    if (orderIndex >= 0) {
+      int index = orderIndex;
+      Comparator<Object[]> comparator =
+          Comparator.comparing(
+              (Object[] row) -> comparable(row[index]),
+              Comparator.nullsFirst(Comparator.naturalOrder()));
+      rows.sort(request.isDesc() ? comparator.reversed() : comparator);
+    }
+
+    ResultRows result = new ResultRows(columnNames, rows.size());
+    for (Object[] row : rows) {
+      result.addRow(row);
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Comparable<Object> comparable(Object value) {
+    if (value == null || value instanceof Comparable) {
+      return (Comparable<Object>) value;
+    }
+    // 二进制等不可比较的值按字符串比较
+    return (Comparable<Object>) (Object) String.valueOf(value);
+  }
+
+  private long[] queryBounds(DataSource dataSource, String sql, long deadline)
+      throws SQLException {
+    long[] bounds = new long[2];
+    boolean[] found = new boolean[1];
+    query(
+        dataSource,
+        new BoundSql(sql, new ArrayList<>()),
+        deadline,
+        1,
+        false,
+        rs -> {
+          bounds[0] = rs.getLong(1);
+          found[0] = !rs.wasNull();
+          bounds[1] = rs.getLong(2);
+          return false;
+        });
+    return found[0] ? bounds : null;
+  }
+
+  /** 执行查询并逐行处理，处理器返回false时停止读取 */
+  private void query(
+      DataSource dataSource,
+      BoundSql sql,
+      long deadline,
+      int maxRows,
+      boolean streaming,
+      RowHandler handler)
+      throws SQLException {
+    try (Connection conn = dataSourceService.getConnection(dataSource)) {
+      boolean autoCommit = conn.getAutoCommit();
+      try (PreparedStatement stmt =
+          conn.prepareStatement(sql.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+        sql.bind(stmt);
+        if (maxRows > 0) {
+          stmt.setMaxRows(maxRows);
+        }
+        long remainingMs = Math.max(1, deadline - System.currentTimeMillis());
+        stmt.setQueryTimeout((int) Math.max(1, (remainingMs + 999) / 1000));
+        if (streaming) {
+          configureStreaming(conn, stmt, dataSource.getType());
+        }
+        try (ResultSet rs = stmt.executeQuery()) {
+          // 不调用stmt.cancel()：连接归还连接池后取消可能落到下一条语句上
+          while (rs.next()) {
+            if (!handler.handle(rs)) {
+              break;
+            }
+          }
+        }
+      } finally {
+        if (conn.getAutoCommit() != autoCommit) {
+          conn.setAutoCommit(autoCommit);
+        }
+      }
+    }
+  }
+
+  /** 配置流式读取，避免驱动把整个结果集读入内存 */
+  private void configureStreaming(Connection conn, PreparedStatement stmt, DataSourceType type)
+      throws SQLException {
+    if (type == DataSourceType.MYSQL || type == DataSourceType.DORIS) {
+      // MySQL驱动只有在fetchSize为Integer.MIN_VALUE时才逐行读取
+      stmt.setFetchSize(Integer.MIN_VALUE);
+    } else {
+      // PostgreSQL等驱动需要关闭自动提交才会使用游标分批读取
+      conn.setAutoCommit(false);
+      stmt.setFetchSize(streamFetchSize);
+    }
+  }
+
+  /** 结果行处理器 */
+  @FunctionalInterface
+  private interface RowHandler {
+    boolean handle(ResultSet rs) throws SQLException;
+  }
+
+  /** 样本及实际使用的采样方式 */
+  @Getter
+  @RequiredArgsConstructor
+  public static class Sample {
+
+    private final ResultRows rows;
+
+    private final SamplingMode mode;
+  }
+}
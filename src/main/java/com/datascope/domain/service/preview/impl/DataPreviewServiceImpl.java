@@ -9,24 +9,44 @@ import com.datascope.domain.model.preview.DataPreviewResponse;
 import com.datascope.domain.service.datasource.DataSourceService;
 import com.datascope.domain.service.metadata.MetadataStorageService;
 import com.datascope.domain.service.preview.DataPreviewService;
-import java.sql.*;
+import com.datascope.domain.service.preview.PreviewRowCounter;
+import com.datascope.domain.service.preview.PreviewSampler;
+import com.datascope.infrastructure.dialect.SqlDialect;
+import com.datascope.infrastructure.dialect.SqlDialects;
 import java.util.*;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class DataPreviewServiceImpl implements DataPreviewService {
 
   private final DataSourceService dataSourceService;
   private final MetadataStorageService metadataStorageService;
+  private final PreviewRowCounter rowCounter;
+  private final PreviewSampler sampler;
+
+  /** 预览的总时间预算(毫秒)，采样查询和行数统计共享 */
+  private final long previewTimeoutMs;
+
+  public DataPreviewServiceImpl(
+      DataSourceService dataSourceService,
+      MetadataStorageService metadataStorageService,
+      PreviewRowCounter rowCounter,
+      PreviewSampler sampler,
+      @Value("${datascope.preview.timeout-ms:30000}") long previewTimeoutMs) {
+    this.dataSourceService = dataSourceService;
+    this.metadataStorageService = metadataStorageService;
+    this.rowCounter = rowCounter;
+    this.sampler = sampler;
+    this.previewTimeoutMs = previewTimeoutMs;
+  }
 
   @Override
   public DataPreviewResponse previewData(DataPreviewRequest request) {
     long startTime = System.currentTimeMillis();
+    long deadline = startTime + previewTimeoutMs;
     DataPreviewResponse response = new DataPreviewResponse();
 
     // 参数验证
@@ -48,7 +68,7 @@ public class DataPreviewServiceImpl implements DataPreviewService {
       DataSourceVO dataSourceVO = dataSourceService.get(request.getDataSourceId());
       DataSource dataSource = dataSourceVO.toEntity();
 
-      // 获取表元数据
+      // 获取表元数据(由元数据存储服务缓存)
       TableMetadata tableMetadata =
           metadataStorageService.getTableMetadata(
               request.getDataSourceId(), request.getSchema(), request.getTableName());
@@ -60,35 +80,35 @@ public class DataPreviewServiceImpl implements DataPreviewService {
       // 设置列信息
       response.setColumns(tableMetadata.getColumns());
 
-      // 构建SQL
-      String sql = buildPreviewSql(request, tableMetadata);
-
-      // 执行查询
-      try (Connection conn = dataSourceService.getConnection(dataSource);
-          PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-        stmt.setMaxRows(request.getSampleSize());
-        try (ResultSet rs = stmt.executeQuery()) {
-          // 获取总行数
-          response.setTotalRows(getTotalRows(conn, request, tableMetadata));
-
-          // 获取采样数据
-          List<Map<String, Object>> rows = new ArrayList<>();
-          while (rs.next() && rows.size() < request.getSampleSize()) {
-            Map<String, Object> row = new LinkedHashMap<>();
-            for (ColumnMetadata column : tableMetadata.getColumns()) {
-              if (!request.isIncludeSystemColumns() && isSystemColumn(column)) {
-                continue;
-              }
-              Object value = getColumnValue(rs, column);
-              row.put(column.getName(), value);
-            }
-            rows.add(row);
-          }
-          response.setRows(rows);
-        }
+      // 按数据源方言引用标识符、限制行数和采样
+      SqlDialect dialect = SqlDialects.of(dataSource.getType());
+
+      // 行数统计在独立连接上与采样查询并行
+      PreviewRowCounter.PendingCount pendingCount =
+          rowCounter.start(
+              dataSource, dialect, tableMetadata, request.getWhereClause(), request.isExactCount());
+      try {
+        PreviewSampler.Sample sample =
+            sampler.sample(
+                dataSource,
+                dialect,
+                tableMetadata,
+                request,
+                getPreviewColumns(request, tableMetadata),
+                deadline);
+        response.setRows(sample.getRows());
+        response.setSamplingMode(sample.getMode());
+      } catch (Exception e) {
+        pendingCount.cancel();
+        throw e;
       }
 
+      // 采样完成后，统计最多等到自身的时间预算用尽，超出后取消
+      PreviewRowCounter.RowCount rowCount =
+          pendingCount.await(Math.min(deadline, startTime + rowCounter.getCountTimeoutMs()));
+      response.setTotalRows(rowCount.getValue());
+      response.setTotalRowsExact(rowCount.getValue() != null ? rowCount.isExact() : null);
+
       response.setSampleSize(request.getSampleSize());
       response.setExecutionTime(System.currentTimeMillis() - startTime);
       return response;
@@ -99,63 +119,16 @@ public class DataPreviewServiceImpl implements DataPreviewService {
     }
   }
 
-  private String buildPreviewSql(DataPreviewRequest request, TableMetadata tableMetadata) {
-    StringBuilder sql = new StringBuilder();
-    sql.append("SELECT ");
-
-    // 添加列
-    List<String> columnNames = new ArrayList<>();
+  private List<ColumnMetadata> getPreviewColumns(
+      DataPreviewRequest request, TableMetadata tableMetadata) {
+    List<ColumnMetadata> columns = new ArrayList<>();
     for (ColumnMetadata column : tableMetadata.getColumns()) {
       if (!request.isIncludeSystemColumns() && isSystemColumn(column)) {
         continue;
       }
-      columnNames.add(quoteIdentifier(column.getName()));
-    }
-    sql.append(String.join(", ", columnNames));
-
-    // 添加表
-    sql.append(" FROM ")
-        .append(quoteIdentifier(request.getSchema()))
-        .append(".")
-        .append(quoteIdentifier(request.getTableName()));
-
-    // 添加where条件
-    if (StringUtils.hasText(request.getWhereClause())) {
-      sql.append(" WHERE ").append(request.getWhereClause());
-    }
-
-    // 添加排序
-    if (StringUtils.hasText(request.getOrderBy())) {
-      sql.append(" ORDER BY ")
-          .append(quoteIdentifier(request.getOrderBy()))
-          .append(request.isDesc() ? " DESC" : " ASC");
-    }
-
-    return sql.toString();
-  }
-
-  private Long getTotalRows(
-      Connection conn, DataPreviewRequest request, TableMetadata tableMetadata) {
-    StringBuilder sql = new StringBuilder();
-    sql.append("SELECT COUNT(*) FROM ")
-        .append(quoteIdentifier(request.getSchema()))
-        .append(".")
-        .append(quoteIdentifier(request.getTableName()));
-
-    if (StringUtils.hasText(request.getWhereClause())) {
-      sql.append(" WHERE ").append(request.getWhereClause());
-    }
-
-    try (PreparedStatement stmt = conn.prepareStatement(sql.toString());
-        ResultSet rs = stmt.executeQuery()) {
-      if (rs.next()) {
-        return rs.getLong(1);
-      }
-      return 0L;
-    } catch (SQLException e) {
-      log.error("Failed to get total rows", e);
-      return 0L;
+      columns.add(column);
     }
+    return columns;
   }
 
   private boolean isSystemColumn(ColumnMetadata column) {
@@ -167,48 +140,4 @@ public class DataPreviewServiceImpl implements DataPreviewService {
         || name.equals("created_by")
         || name.equals("updated_by");
   }
-
-  private String quoteIdentifier(String identifier) {
-    // 根据不同的数据库类型使用不同的标识符引用方式
-    // MySQL使用反引号，PostgreSQL使用双引号
-    return "`" + identifier.replace("`", "``") + "`";
-  }
-
-  private Object getColumnValue(ResultSet rs, ColumnMetadata column) throws SQLException {
-    switch (column.getType()) {
-      case TINYINT:
-      case SMALLINT:
-      case INTEGER:
-        return rs.getInt(column.getName());
-      case BIGINT:
-        return rs.getLong(column.getName());
-      case FLOAT:
-        return rs.getFloat(column.getName());
-      case DOUBLE:
-        return rs.getDouble(column.getName());
-      case DECIMAL:
-        return rs.getBigDecimal(column.getName());
-      case CHAR:
-      case VARCHAR:
-      case TEXT:
-        return rs.getString(column.getName());
-      case DATE:
-        return rs.getDate(column.getName());
-      case TIME:
-        return rs.getTime(column.getName());
-      case TIMESTAMP:
-        return rs.getTimestamp(column.getName());
-      case BOOLEAN:
-        return rs.getBoolean(column.getName());
-      case BINARY:
-      case VARBINARY:
-      case BLOB:
-        return rs.getBytes(column.getName());
-      case JSON:
-        String jsonStr = rs.getString(column.getName());
-        return jsonStr != null ? jsonStr : null;
-      default:
-        return rs.getString(column.getName());
-    }
-  }
 }
@@ -0,0 +1,195 @@
+package com.datascope.domain.service.query;
+
+import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.domain.model.datasource.vo.DataSourceVO;
+import com.datascope.domain.model.metadata.ColumnMetadata;
+import com.datascope.domain.model.metadata.IndexMetadata;
+import com.datascope.domain.model.metadata.TableMetadata;
+import com.datascope.domain.model.query.QueryConfig;
+import com.datascope.domain.model.query.QueryPagination;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.domain.service.metadata.MetadataStorageService;
+import com.datascope.infrastructure.util.SqlUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 键集分页排序键解析
+ * <p>
+ * 根据查询配置访问的表及其已保存的索引元数据确定能唯一确定一行的排序键：
+ * 指定的排序字段本身有唯一索引时直接使用，否则追加一个唯一索引(优先主键)的列作为第二排序键。
+ * 只有调用方传入分页游标或指定排序字段时才使用键集分页，否则保持查询模板自身的顺序；
+ * 查询不是简单单表查询、模板自带ORDER BY、表没有元数据、没有非空唯一索引或输出列不包含排序键时返回空列表，
+ * 调用方回退到偏移量分页。
+ */
+@Slf4j
+@Component
+public class KeysetPaginationResolver {
+
+    private final MetadataStorageService metadataStorageService;
+
+    private final DataSourceService dataSourceService;
+
+    /**
+     * 解析结果缓存，键为 查询配置ID:版本:排序字段
+     */
+    private final Cache<String, List<String>> cache;
+
+    public KeysetPaginationResolver(MetadataStorageService metadataStorageService,
+            DataSourceService dataSourceService,
+            @Value("${datascope.query.keyset-cache-seconds:300}") long cacheSeconds) {
+        this.metadataStorageService = metadataStorageService;
+        this.dataSourceService = dataSourceService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .build();
+    }
+
+    /**
+     * 解析排序键
+     *
+     * @param queryConfig 查询配置
+     * @param pagination 分页参数
+     * @return 排序键列名，无法使用键集分页时返回空列表
+     */
+    public List<String> resolve(QueryConfig queryConfig, QueryPagination pagination) {
+        String sortField = pagination.getSortField() != null ? pagination.getSortField().trim() : "";
+        if (sortField.isEmpty() && !StringUtils.hasText(pagination.getCursor())) {
+            return Collections.emptyList();
+        }
+        String key = queryConfig.getId() + ":" + queryConfig.getUpdatedAt() + ":" + sortField;
+        return cache.get(key, k -> doResolve(queryConfig, sortField.isEmpty() ? null : sortField));
+    }
+
+    private List<String> doResolve(QueryConfig queryConfig, String sortField) {
+        String sql = queryConfig.getSqlTemplate();
+        String[] tableName = SqlUtils.extractSingleTable(sql);
+        if (tableName == null) {
+            log.debug("查询不是简单单表查询, 使用偏移量分页: queryConfigId={}", queryConfig.getId());
+            return Collections.emptyList();
+        }
+
+        if (SqlUtils.hasTopLevelOrderBy(sql)) {
+            log.debug("查询模板自带排序, 使用偏移量分页: queryConfigId={}", queryConfig.getId());
+            return Collections.emptyList();
+        }
+
+        TableMetadata table = findTable(queryConfig.getDataSourceId(), tableName[0], tableName[1]);
+        if (table == null) {
+            log.debug("未找到表元数据, 使用偏移量分页: queryConfigId={}, table={}", queryConfig.getId(), tableName[1]);
+            return Collections.emptyList();
+        }
+
+        List<String> keyColumns = chooseKeyColumns(table, sortField);
+        for (String column : keyColumns) {
+            if (!SqlUtils.selectsColumn(sql, column)) {
+                log.debug("排序键不在查询输出列中, 使用偏移量分页: queryConfigId={}, column={}",
+                        queryConfig.getId(), column);
+                return Collections.emptyList();
+            }
+        }
+        return keyColumns;
+    }
+
+    /**
+     * 选择排序键：排序字段必须是非空列，并用唯一索引补足唯一性
+     */
+    private List<String> chooseKeyColumns(TableMetadata table, String sortField) {
+        List<IndexMetadata> uniqueIndexes = new ArrayList<>();
+        for (IndexMetadata index : table.getIndices()) {
+            if (index.isUnique() && !index.getColumns().isEmpty() && allNotNull(table, index.getColumns())) {
+                uniqueIndexes.add(index);
+            }
+        }
+        if (uniqueIndexes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // 主键优先，其次列数少的索引
+        uniqueIndexes.sort(Comparator
+                .comparing((IndexMetadata index) -> !isPrimaryKey(table, index))
+                .thenComparingInt(index -> index.getColumns().size()));
+
+        if (sortField == null) {
+            return new ArrayList<>(uniqueIndexes.get(0).getColumns());
+        }
+
+        ColumnMetadata sortColumn = findColumn(table, sortField);
+        if (sortColumn == null || sortColumn.isNullable()) {
+            return Collections.emptyList();
+        }
+        String sortName = sortColumn.getName();
+        for (IndexMetadata index : uniqueIndexes) {
+            if (index.getColumns().size() == 1 && index.getColumns().get(0).equals(sortName)) {
+                return Collections.singletonList(sortName);
+            }
+        }
+
+        List<String> keyColumns = new ArrayList<>();
+        keyColumns.add(sortName);
+        for (String column : uniqueIndexes.get(0).getColumns()) {
+            if (!column.equals(sortName)) {
+                keyColumns.add(column);
+            }
+        }
+        return keyColumns;
+    }
+
+    private boolean allNotNull(TableMetadata table, List<String> columns) {
+        for (String name : columns) {
+            ColumnMetadata column = table.getColumn(name);
+            if (column == null || column.isNullable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isPrimaryKey(TableMetadata table, IndexMetadata index) {
+        if ("PRIMARY".equalsIgnoreCase(index.getName()) || index.getName() != null && index.getName().endsWith("_pkey")) {
+            return true;
+        }
+        for (String name : index.getColumns()) {
+            ColumnMetadata column = table.getColumn(name);
+            if (column == null || !column.isPrimaryKey()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ColumnMetadata findColumn(TableMetadata table, String name) {
+        ColumnMetadata column = table.getColumn(name);
+        if (column != null) {
+            return column;
+        }
+        for (ColumnMetadata candidate : table.getColumns()) {
+            if (candidate.getName().equalsIgnoreCase(name)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private TableMetadata findTable(String dataSourceId, String schema, String tableName) {
+        try {
+            if (schema == null) {
+                DataSourceVO dataSource = dataSourceService.get(dataSourceId);
+                schema = dataSource.getType() == DataSourceType.POSTGRESQL ? "public" : dataSource.getDatabaseName();
+            }
+            return metadataStorageService.getTableMetadata(dataSourceId, schema, tableName);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
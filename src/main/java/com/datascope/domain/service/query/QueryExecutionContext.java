@@ -0,0 +1,68 @@
+package com.datascope.domain.service.query;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 查询执行上下文
+ * <p>
+ * 记录正在执行的Statement，使其他线程可以通过 {@link Statement#cancel()} 取消查询。
+ */
+@Slf4j
+public class QueryExecutionContext {
+
+    private volatile Statement statement;
+
+    private volatile boolean cancelled;
+
+    private volatile String historyId;
+
+    /**
+     * 登记正在执行的Statement，若已被取消则立即取消该Statement
+     *
+     * @param statement 正在执行的Statement
+     */
+    public void register(Statement statement) throws SQLException {
+        this.statement = statement;
+        if (cancelled) {
+            statement.cancel();
+        }
+    }
+
+    /**
+     * 解除登记
+     */
+    public void unregister() {
+        this.statement = null;
+    }
+
+    /**
+     * 取消查询
+     */
+    public void cancel() {
+        cancelled = true;
+        Statement current = statement;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.cancel();
+        } catch (SQLException e) {
+            log.warn("取消查询失败: {}", e.getMessage());
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public String getHistoryId() {
+        return historyId;
+    }
+
+    public void setHistoryId(String historyId) {
+        this.historyId = historyId;
+    }
+}
@@ -0,0 +1,55 @@
+package com.datascope.domain.service.query;
+
+import com.datascope.domain.model.query.QueryJob;
+import com.datascope.domain.model.query.QueryRequest;
+import com.datascope.domain.model.query.QueryResult;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步查询任务服务接口
+ */
+public interface QueryJobService {
+
+    /**
+     * 提交异步查询任务
+     *
+     * @param request 查询请求
+     * @return 查询任务
+     */
+    QueryJob submit(QueryRequest request);
+
+    /**
+     * 获取查询任务状态
+     *
+     * @param jobId 任务ID
+     * @return 查询任务
+     */
+    QueryJob getJob(String jobId);
+
+    /**
+     * 等待查询任务结束，超过等待时间时返回当前状态
+     *
+     * @param jobId 任务ID
+     * @param wait 最长等待时间
+     * @return 查询任务
+     */
+    CompletableFuture<QueryJob> awaitJob(String jobId, Duration wait);
+
+    /**
+     * 获取查询任务结果
+     *
+     * @param jobId 任务ID
+     * @return 查询结果
+     */
+    QueryResult getResult(String jobId);
+
+    /**
+     * 取消查询任务
+     *
+     * @param jobId 任务ID
+     * @return 查询任务
+     */
+    QueryJob cancel(String jobId);
+}
@@ -0,0 +1,386 @@
+package com.datascope.domain.service.query;
+
+import com.datascope.domain.model.query.QueryConfig;
+import com.datascope.domain.model.query.QueryPagination;
+import com.datascope.domain.model.query.QueryRequest;
+import com.datascope.domain.model.query.QueryResult;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 查询结果缓存
+ * <p>
+ * 两级缓存：进程内Caffeine缓存在前，Redis共享缓存在后。缓存键由查询配置ID、配置版本(更新时间)、
+ * 规范化后的参数和分页组成，配置修改后旧版本的结果不会再被命中。只缓存开启了缓存的查询配置，
+ * 超过行数或大小限制的结果不缓存。Redis不可用时仅记录日志，查询照常执行。
+ * <p>
+ * Redis中的结果与各列值的Java类型一起保存，读取时按类型还原，命中Redis时返回的值与直接查询一致，
+ * DECIMAL等数值不会因JSON反序列化而丢失精度。
+ */
+@Slf4j
+@Component
+public class QueryResultCache {
+
+    private static final String KEY_PREFIX = "datascope:query-result:";
+
+    private static final String INDEX_PREFIX = KEY_PREFIX + "index:";
+
+    /**
+     * Redis访问失败后暂停使用Redis的时间
+     */
+    private static final long REDIS_RETRY_INTERVAL_MS = 30_000L;
+
+    /**
+     * 读取时可以还原的列值类型，其余类型按JSON默认类型读取
+     */
+    private static final Map<String, Class<?>> VALUE_TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[]{String.class, Boolean.class, Byte.class, Short.class, Integer.class,
+                Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class, byte[].class,
+                java.sql.Date.class, Time.class, Timestamp.class, LocalDate.class, LocalTime.class,
+                LocalDateTime.class, OffsetDateTime.class}) {
+            VALUE_TYPES.put(type.getName(), type);
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 读取Redis中的结果使用的ObjectMapper，整数和小数分别读为Long和BigDecimal，不丢失精度
+     */
+    private final ObjectMapper typedMapper;
+
+    /**
+     * 参数规范化使用的序列化器，Map按键排序
+     */
+    private final ObjectWriter keyWriter;
+
+    private final Duration ttl;
+
+    private final int maxRows;
+
+    private final int maxBytes;
+
+    private final Cache<String, CachedResult> localCache;
+
+    private volatile long redisRetryAt;
+
+    public QueryResultCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+            @Value("${datascope.cache.query-result-ttl:300}") long ttlSeconds,
+            @Value("${datascope.cache.query-result-local-ttl:30}") long localTtlSeconds,
+            @Value("${datascope.cache.query-result-local-max-bytes:67108864}") long localMaxBytes,
+            @Value("${datascope.cache.query-result-max-rows:10000}") int maxRows,
+            @Value("${datascope.cache.query-result-max-bytes:4194304}") int maxBytes) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.typedMapper = objectMapper.copy()
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, DeserializationFeature.USE_LONG_FOR_INTS);
+        this.keyWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.localCache = Caffeine.newBuilder()
+                .maximumWeight(localMaxBytes)
+                .weigher((String key, CachedResult value) -> value.size)
+                .expireAfterWrite(Duration.ofSeconds(Math.min(localTtlSeconds, ttlSeconds)))
+                .build();
+    }
+
+    /**
+     * 获取缓存的查询结果
+     *
+     * @param queryConfig 查询配置
+     * @param request 查询请求
+     * @return 缓存的结果，未开启缓存或未命中时返回null
+     */
+    public QueryResult get(QueryConfig queryConfig, QueryRequest request) {
+        if (!isEnabled(queryConfig)) {
+            return null;
+        }
+
+        String key = buildKey(queryConfig, request);
+        CachedResult cached = localCache.getIfPresent(key);
+        if (cached == null) {
+            String json = redisGet(key);
+            if (json == null) {
+                return null;
+            }
+            try {
+                cached = new CachedResult(readTyped(json), utf8Length(json));
+            } catch (Exception e) {
+                log.warn("反序列化缓存的查询结果失败: key={}", key, e);
+                return null;
+            }
+            localCache.put(key, cached);
+        }
+
+        log.debug("命中查询结果缓存: queryConfigId={}", queryConfig.getId());
+        return copyOf(cached.result);
+    }
+
+    /**
+     * 缓存查询结果
+     *
+     * @param queryConfig 查询配置
+     * @param request 查询请求
+     * @param result 查询结果
+     */
+    public void put(QueryConfig queryConfig, QueryRequest request, QueryResult result) {
+        if (!isEnabled(queryConfig) || result.getRows() == null || result.getRows().size() > maxRows) {
+            return;
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(new TypedResult(valueTypes(result.getRows()), result));
+        } catch (Exception e) {
+            log.warn("序列化查询结果失败, 不缓存: queryConfigId={}", queryConfig.getId(), e);
+            return;
+        }
+        int size = utf8Length(json);
+        if (size > maxBytes) {
+            log.debug("查询结果超过缓存大小限制, 不缓存: queryConfigId={}, size={}", queryConfig.getId(), size);
+            return;
+        }
+
+        String key = buildKey(queryConfig, request);
+        localCache.put(key, new CachedResult(result, size));
+        redisPut(queryConfig.getId(), key, json);
+    }
+
+    /**
+     * 淘汰查询配置下的所有缓存结果
+     *
+     * @param queryConfigId 查询配置ID
+     */
+    public void evict(String queryConfigId) {
+        String prefix = KEY_PREFIX + queryConfigId + ":";
+        localCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+
+        if (!isRedisAvailable()) {
+            return;
+        }
+        try {
+            String indexKey = INDEX_PREFIX + queryConfigId;
+            Set<String> keys = redisTemplate.opsForSet().members(indexKey);
+            if (keys != null && !keys.isEmpty()) {
+                redisTemplate.delete(keys);
+            }
+            redisTemplate.delete(indexKey);
+        } catch (Exception e) {
+            onRedisFailure("淘汰查询结果缓存失败", e);
+        }
+    }
+
+    private boolean isEnabled(QueryConfig queryConfig) {
+        return Boolean.TRUE.equals(queryConfig.getCacheEnabled()) && !ttl.isZero();
+    }
+
+    /**
+     * 构建缓存键：配置ID + 版本 + 规范化参数及分页的摘要
+     */
+    private String buildKey(QueryConfig queryConfig, QueryRequest request) {
+        Map<String, Object> normalized = new LinkedHashMap<>();
+        normalized.put("parameters", request.getParameters() != null
+                ? new TreeMap<>(request.getParameters()) : null);
+        QueryPagination pagination = request.getPagination();
+        if (pagination != null) {
+            normalized.put("page", pagination.getPage());
+            normalized.put("size", pagination.getSize());
+            normalized.put("sortField", pagination.getSortField());
+            normalized.put("sortDirection", pagination.getSortDirection());
+            normalized.put("cursor", pagination.getCursor());
+        }
+
+        String digest;
+        try {
+            digest = DigestUtils.md5DigestAsHex(keyWriter.writeValueAsBytes(normalized));
+        } catch (Exception e) {
+            digest = DigestUtils.md5DigestAsHex(normalized.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        long version = queryConfig.getUpdatedAt() != null
+                ? queryConfig.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+        return KEY_PREFIX + queryConfig.getId() + ":" + version + ":" + digest;
+    }
+
+    private String redisGet(String key) {
+        if (!isRedisAvailable()) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            onRedisFailure("读取查询结果缓存失败", e);
+            return null;
+        }
+    }
+
+    private void redisPut(String queryConfigId, String key, String json) {
+        if (!isRedisAvailable()) {
+            return;
+        }
+        try {
+            String indexKey = INDEX_PREFIX + queryConfigId;
+            redisTemplate.opsForValue().set(key, json, ttl);
+            redisTemplate.opsForSet().add(indexKey, key);
+            redisTemplate.expire(indexKey, ttl);
+        } catch (Exception e) {
+            onRedisFailure("写入查询结果缓存失败", e);
+        }
+    }
+
+    private boolean isRedisAvailable() {
+        return System.currentTimeMillis() >= redisRetryAt;
+    }
+
+    private void onRedisFailure(String message, Exception e) {
+        redisRetryAt = System.currentTimeMillis() + REDIS_RETRY_INTERVAL_MS;
+        log.warn("{}, {}秒内只使用进程内缓存: {}", message, REDIS_RETRY_INTERVAL_MS / 1000, e.getMessage());
+    }
+
+    /**
+     * 各列值的Java类型，同一列的值类型不一致或不在可还原的类型中时不记录
+     */
+    private static Map<String, String> valueTypes(List<Map<String, Object>> rows) {
+        Map<String, String> types = new HashMap<>();
+        Set<String> mixed = new HashSet<>();
+        for (Map<String, Object> row : rows) {
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                Object value = entry.getValue();
+                if (value == null || mixed.contains(entry.getKey())) {
+                    continue;
+                }
+                String type = value.getClass().getName();
+                String previous = types.putIfAbsent(entry.getKey(), type);
+                if (previous != null && !previous.equals(type)) {
+                    types.remove(entry.getKey());
+                    mixed.add(entry.getKey());
+                }
+            }
+        }
+        types.values().removeIf(type -> !VALUE_TYPES.containsKey(type));
+        return types;
+    }
+
+    /**
+     * 读取Redis中的结果并按保存的类型还原各列的值
+     */
+    private QueryResult readTyped(String json) throws Exception {
+        TypedResult typed = typedMapper.readValue(json, TypedResult.class);
+        QueryResult result = typed.result;
+        if (result.getRows() == null || typed.types == null || typed.types.isEmpty()) {
+            return result;
+        }
+        for (Map<String, Object> row : result.getRows()) {
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                Class<?> type = VALUE_TYPES.get(typed.types.get(entry.getKey()));
+                if (type != null && entry.getValue() != null) {
+                    entry.setValue(typedMapper.convertValue(entry.getValue(), type));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 字符串按UTF-8编码后的字节数，即缓存在Redis中的大小
+     */
+    static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (Character.isSurrogate(c)) {
+                // 代理对两个char共4字节
+                bytes++;
+            } else if (c >= 0x800) {
+                bytes += 2;
+            } else if (c >= 0x80) {
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 返回浅拷贝，避免调用方修改缓存中的对象
+     */
+    private QueryResult copyOf(QueryResult result) {
+        return QueryResult.builder()
+                .columns(result.getColumns())
+                .rows(result.getRows())
+                .total(result.getTotal())
+                .executionTime(result.getExecutionTime())
+                .truncated(result.getTruncated())
+                .nextCursor(result.getNextCursor())
+                .cached(true)
+                .status(result.getStatus())
+                .errorMessage(result.getErrorMessage())
+                .build();
+    }
+
+    /**
+     * Redis中保存的结果：列名到值类型的映射及查询结果
+     */
+    private static class TypedResult {
+
+        public Map<String, String> types;
+
+        public QueryResult result;
+
+        public TypedResult() {
+        }
+
+        TypedResult(Map<String, String> types, QueryResult result) {
+            this.types = types;
+            this.result = result;
+        }
+    }
+
+    /**
+     * 缓存项及其序列化大小(UTF-8字节数)
+     */
+    private static class CachedResult {
+
+        private final QueryResult result;
+
+        private final int size;
+
+        private CachedResult(QueryResult result, int size) {
+            this.result = result;
+            this.size = size;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.datascope.domain.model.query.QueryResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -64,6 +65,26 @@ public interface QueryService {
      */
     QueryResult executeQuery(QueryRequest request);
 
+    /**
+     * 执行查询，执行中的Statement登记到上下文中以支持取消
+     *
+     * @param request 查询请求
+     * @param context 执行上下文
+     * @return 查询结果
+     */
+    QueryResult executeQuery(QueryRequest request, QueryExecutionContext context);
+
+    /**
+     * 流式执行查询，以NDJSON格式逐行写出结果
+     * <p>
+     * 开始写出后发生的错误不再抛出，末行写出status为FAILED的错误记录代替执行摘要。
+     *
+     * @param request 查询请求
+     * @param outputStream 输出流
+     * @return 写出的行数
+     */
+    long executeQueryStream(QueryRequest request, OutputStream outputStream);
+
     /**
      * 获取查询历史
      *
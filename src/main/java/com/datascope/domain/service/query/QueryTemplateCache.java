@@ -0,0 +1,153 @@
+package com.datascope.domain.service.query;
+
+import com.datascope.domain.model.query.QueryConfig;
+import com.datascope.domain.model.query.QueryPagination;
+import com.datascope.domain.model.query.QueryParameter;
+import com.datascope.infrastructure.dialect.SqlDialect;
+import com.datascope.infrastructure.util.BoundSql;
+import com.datascope.infrastructure.util.KeysetCursor;
+import com.datascope.infrastructure.util.SqlTemplate;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 已编译SQL模板缓存
+ * <p>
+ * 按查询配置ID缓存解析后的模板和参数定义，以配置的更新时间作为版本号，
+ * 版本不一致时重新编译；配置更新或删除时主动淘汰。
+ */
+@Slf4j
+@Component
+public class QueryTemplateCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, CompiledQuery> cache;
+
+    public QueryTemplateCache(ObjectMapper objectMapper,
+            @Value("${datascope.query.template-cache-size:1000}") long maximumSize) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * 获取查询配置对应的已编译模板，不存在或版本过期时重新编译
+     *
+     * @param queryConfig 查询配置
+     * @return 已编译模板
+     */
+    public CompiledQuery get(QueryConfig queryConfig) {
+        CompiledQuery compiled = cache.getIfPresent(queryConfig.getId());
+        if (compiled != null && Objects.equals(compiled.getVersion(), queryConfig.getUpdatedAt())) {
+            return compiled;
+        }
+
+        compiled = new CompiledQuery(
+                queryConfig.getUpdatedAt(),
+                SqlTemplate.compile(queryConfig.getSqlTemplate()),
+                parseParameterDefinitions(queryConfig));
+        cache.put(queryConfig.getId(), compiled);
+        return compiled;
+    }
+
+    /**
+     * 淘汰查询配置对应的已编译模板
+     *
+     * @param queryConfigId 查询配置ID
+     */
+    public void evict(String queryConfigId) {
+        cache.invalidate(queryConfigId);
+    }
+
+    /**
+     * 解析查询配置中的参数定义
+     */
+    private Map<String, QueryParameter> parseParameterDefinitions(QueryConfig queryConfig) {
+        String parameters = queryConfig.getParameters();
+        if (parameters == null || parameters.trim().isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            List<QueryParameter> definitions = objectMapper.readValue(parameters, new TypeReference<List<QueryParameter>>() {});
+            Map<String, QueryParameter> result = new HashMap<>();
+            for (QueryParameter definition : definitions) {
+                if (definition != null && definition.getName() != null) {
+                    result.put(definition.getName(), definition);
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            log.warn("解析查询参数定义失败, 按未声明类型处理: queryConfigId={}", queryConfig.getId(), e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 已编译的查询模板
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class CompiledQuery {
+
+        /**
+         * 版本(查询配置的更新时间)
+         */
+        private final LocalDateTime version;
+
+        /**
+         * 编译后的SQL模板
+         */
+        private final SqlTemplate template;
+
+        /**
+         * 参数定义，按名称索引
+         */
+        private final Map<String, QueryParameter> definitions;
+
+        /**
+         * 绑定参数及分页
+         *
+         * @param values 参数值
+         * @param pagination 分页参数
+         * @param dialect 数据源的SQL方言
+         * @return 绑定结果
+         */
+        public BoundSql bind(Map<String, Object> values, QueryPagination pagination, SqlDialect dialect) {
+            return template.bind(values, definitions, pagination, dialect);
+        }
+
+        /**
+         * 绑定参数及键集分页
+         *
+         * @param values 参数值
+         * @param keyColumns 排序键列名
+         * @param descending 是否降序
+         * @param cursor 上一页的游标，可以为空
+         * @param offset 没有游标时的偏移量
+         * @param size 每页大小
+         * @param dialect 数据源的SQL方言
+         * @return 绑定结果
+         */
+        public BoundSql bindKeyset(Map<String, Object> values, List<String> keyColumns, boolean descending,
+                KeysetCursor cursor, int offset, int size, SqlDialect dialect) {
+            return template.bindKeyset(values, definitions, keyColumns, descending, cursor, offset, size, dialect);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.datascope.domain.service.query.impl;
+
+import com.datascope.domain.model.query.QueryConfig;
+import com.datascope.domain.model.query.QueryJob;
+import com.datascope.domain.model.query.QueryRequest;
+import com.datascope.domain.model.query.QueryResult;
+import com.datascope.domain.model.query.QueryStatus;
+import com.datascope.domain.service.query.QueryExecutionContext;
+import com.datascope.domain.service.query.QueryJobService;
+import com.datascope.domain.service.query.QueryService;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步查询任务服务实现
+ * <p>
+ * 每个数据源使用独立的有界线程池执行查询，一个数据源的慢查询不会占满其他数据源的执行线程。
+ * 任务状态和结果保存在内存中，结束后保留一段时间供客户端获取，过期的任务定期清理。
+ */
+@Slf4j
+@Service
+public class QueryJobServiceImpl implements QueryJobService, DisposableBean {
+
+    private final QueryService queryService;
+
+    private final int poolSize;
+
+    private final int queueCapacity;
+
+    private final long retentionMillis;
+
+    private final long maxWaitMillis;
+
+    private final Map<String, JobHandle> jobs = new ConcurrentHashMap<>();
+
+    private final Map<String, ThreadPoolExecutor> executors = new ConcurrentHashMap<>();
+
+    public QueryJobServiceImpl(QueryService queryService,
+            @Value("${datascope.query.job.pool-size:4}") int poolSize,
+            @Value("${datascope.query.job.queue-capacity:50}") int queueCapacity,
+            @Value("${datascope.query.job.retention-seconds:600}") long retentionSeconds,
+            @Value("${datascope.query.job.max-wait-seconds:30}") long maxWaitSeconds) {
+        this.queryService = queryService;
+        this.poolSize = poolSize;
+        this.queueCapacity = queueCapacity;
+        this.retentionMillis = TimeUnit.SECONDS.toMillis(retentionSeconds);
+        this.maxWaitMillis = TimeUnit.SECONDS.toMillis(maxWaitSeconds);
+    }
+
+    @Override
+    public QueryJob submit(QueryRequest request) {
+        removeExpiredJobs();
+
+        // 校验查询配置是否存在
+        QueryConfig queryConfig = queryService.getQueryConfig(request.getQueryConfigId());
+
+        QueryJob job = QueryJob.builder()
+                .jobId(UUID.randomUUID().toString())
+                .queryConfigId(queryConfig.getId())
+                .dataSourceId(queryConfig.getDataSourceId())
+                .status(QueryStatus.PENDING)
+                .submittedAt(LocalDateTime.now())
+                .build();
+        JobHandle handle = new JobHandle(job, request);
+        jobs.put(job.getJobId(), handle);
+
+        ThreadPoolExecutor executor = getExecutor(queryConfig.getDataSourceId());
+        try {
+            handle.future = executor.submit(() -> run(handle));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            throw new DataScopeException(ErrorCode.OPERATION_FAILED, "数据源的查询任务队列已满，请稍后重试");
+        }
+
+        log.info("提交异步查询任务: jobId={}, queryConfigId={}", job.getJobId(), job.getQueryConfigId());
+        return handle.snapshot();
+    }
+
+    @Override
+    public QueryJob getJob(String jobId) {
+        return getHandle(jobId).snapshot();
+    }
+
+    @Override
+    public CompletableFuture<QueryJob> awaitJob(String jobId, Duration wait) {
+        JobHandle handle = getHandle(jobId);
+        long waitMillis = Math.min(wait.toMillis(), maxWaitMillis);
+        if (waitMillis <= 0 || handle.done.isDone()) {
+            return CompletableFuture.completedFuture(handle.snapshot());
+        }
+        return handle.done.copy()
+                .completeOnTimeout(null, waitMillis, TimeUnit.MILLISECONDS)
+                .thenApply(ignored -> handle.snapshot());
+    }
+
+    @Override
+    public QueryResult getResult(String jobId) {
+        JobHandle handle = getHandle(jobId);
+        QueryJob job = handle.snapshot();
+        switch (job.getStatus()) {
+            case COMPLETED:
+                return handle.result;
+            case PENDING:
+            case RUNNING:
+                throw new DataScopeException(ErrorCode.OPERATION_FAILED, "查询任务尚未完成");
+            case CANCELLED:
+                throw new DataScopeException(ErrorCode.OPERATION_FAILED, "查询任务已取消");
+            default:
+                throw new DataScopeException(ErrorCode.QUERY_EXECUTION_FAILED, job.getErrorMessage());
+        }
+    }
+
+    @Override
+    public QueryJob cancel(String jobId) {
+        JobHandle handle = getHandle(jobId);
+        if (handle.done.isDone()) {
+            return handle.snapshot();
+        }
+
+        log.info("取消异步查询任务: jobId={}", jobId);
+        handle.context.cancel();
+
+        // 尚未开始执行的任务直接从队列中移除
+        Future<?> future = handle.future;
+        ThreadPoolExecutor executor = executors.get(handle.dataSourceId());
+        if (future != null && executor != null && executor.remove((Runnable) future)) {
+            handle.finish(QueryStatus.CANCELLED, null, "查询已取消");
+        }
+        return handle.snapshot();
+    }
+
+    @Override
+    public void destroy() {
+        executors.values().forEach(ThreadPoolExecutor::shutdownNow);
+        jobs.values().forEach(handle -> handle.context.cancel());
+    }
+
+    private void run(JobHandle handle) {
+        if (!handle.start()) {
+            return;
+        }
+
+        try {
+            QueryResult result = queryService.executeQuery(handle.request, handle.context);
+            handle.finish(QueryStatus.COMPLETED, result, null);
+        } catch (Exception e) {
+            handle.finish(resolveFailureStatus(handle, e), null, e.getMessage());
+        }
+    }
+
+    private QueryStatus resolveFailureStatus(JobHandle handle, Exception e) {
+        if (handle.context.isCancelled()) {
+            return QueryStatus.CANCELLED;
+        }
+        if (e instanceof DataScopeException
+                && ((DataScopeException) e).getErrorCode() == ErrorCode.QUERY_TIMEOUT) {
+            return QueryStatus.TIMEOUT;
+        }
+        return QueryStatus.FAILED;
+    }
+
+    private JobHandle getHandle(String jobId) {
+        JobHandle handle = jobs.get(jobId);
+        if (handle != null && handle.isExpired(retentionMillis)) {
+            jobs.remove(jobId, handle);
+            handle = null;
+        }
+        if (handle == null) {
+            throw new DataScopeException(ErrorCode.RESOURCE_NOT_FOUND, "查询任务不存在或已过期");
+        }
+        return handle;
+    }
+
+    /**
+     * 定期清理过期的任务及其结果，没有新提交时结果也不会一直占用内存
+     */
+    @Scheduled(fixedDelayString = "${datascope.query.job.purge-interval-ms:60000}")
+    public void removeExpiredJobs() {
+        jobs.values().removeIf(handle -> handle.isExpired(retentionMillis));
+    }
+
+    private ThreadPoolExecutor getExecutor(String dataSourceId) {
+        return executors.computeIfAbsent(dataSourceId, id -> {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "query-job-" + id + "-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        });
+    }
+
+    /**
+     * 任务句柄，保存任务状态、执行上下文和结果
+     */
+    private static class JobHandle {
+
+        private final QueryJob job;
+
+        private final QueryRequest request;
+
+        private final QueryExecutionContext context = new QueryExecutionContext();
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private volatile Future<?> future;
+
+        private volatile QueryResult result;
+
+        private volatile long finishedAtMillis;
+
+        private JobHandle(QueryJob job, QueryRequest request) {
+            this.job = job;
+            this.request = request;
+        }
+
+        private String dataSourceId() {
+            return job.getDataSourceId();
+        }
+
+        /**
+         * 标记开始执行，任务已取消时返回false
+         */
+        private synchronized boolean start() {
+            if (job.getStatus() != QueryStatus.PENDING) {
+                return false;
+            }
+            if (context.isCancelled()) {
+                finish(QueryStatus.CANCELLED, null, "查询已取消");
+                return false;
+            }
+            job.setStatus(QueryStatus.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            return true;
+        }
+
+        /**
+         * 标记任务结束，重复调用时保留第一次的结果
+         */
+        private synchronized void finish(QueryStatus status, QueryResult queryResult, String errorMessage) {
+            if (done.isDone()) {
+                return;
+            }
+            job.setStatus(status);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setErrorMessage(errorMessage);
+            if (queryResult != null) {
+                job.setRowCount(queryResult.getRows() != null ? queryResult.getRows().size() : 0);
+                job.setExecutionTime(queryResult.getExecutionTime());
+            }
+            result = queryResult;
+            finishedAtMillis = System.currentTimeMillis();
+            done.complete(null);
+        }
+
+        private boolean isExpired(long retentionMillis) {
+            return done.isDone() && System.currentTimeMillis() - finishedAtMillis > retentionMillis;
+        }
+
+        private synchronized QueryJob snapshot() {
+            return QueryJob.builder()
+                    .jobId(job.getJobId())
+                    .queryConfigId(job.getQueryConfigId())
+                    .dataSourceId(job.getDataSourceId())
+                    .historyId(context.getHistoryId())
+                    .status(job.getStatus())
+                    .submittedAt(job.getSubmittedAt())
+                    .startedAt(job.getStartedAt())
+                    .finishedAt(job.getFinishedAt())
+                    .rowCount(job.getRowCount())
+                    .executionTime(job.getExecutionTime())
+                    .errorMessage(job.getErrorMessage())
+                    .build();
+        }
+    }
+}
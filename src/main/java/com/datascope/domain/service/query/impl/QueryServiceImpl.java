@@ -1,35 +1,57 @@
 package com.datascope.domain.service.query.impl;
 
 import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.datasource.DataSourceType;
 import com.datascope.domain.model.query.QueryConfig;
 import com.datascope.domain.model.query.QueryHistory;
+import com.datascope.domain.model.query.QueryPagination;
 import com.datascope.domain.model.query.QueryRequest;
 import com.datascope.domain.model.query.QueryResult;
 import com.datascope.domain.model.query.QueryResultColumn;
 import com.datascope.domain.model.query.QueryStatus;
+import com.datascope.domain.model.query.ResultRows;
 import com.datascope.domain.repository.query.QueryConfigRepository;
 import com.datascope.domain.repository.query.QueryHistoryRepository;
+import com.datascope.domain.service.datasource.DataSourceCircuitBreakerRegistry;
 import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.domain.service.query.KeysetPaginationResolver;
+import com.datascope.domain.service.query.QueryExecutionContext;
+import com.datascope.domain.service.query.QueryResultCache;
 import com.datascope.domain.service.query.QueryService;
+import com.datascope.domain.service.query.QueryTemplateCache;
 import com.datascope.infrastructure.common.exception.DataScopeException;
 import com.datascope.infrastructure.common.exception.ErrorCode;
-import com.datascope.infrastructure.util.SqlUtils;
+import com.datascope.infrastructure.dialect.SqlDialects;
+import com.datascope.infrastructure.util.BoundSql;
+import com.datascope.infrastructure.util.KeysetCursor;
+import com.datascope.infrastructure.util.SqlTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -47,6 +69,22 @@ public class QueryServiceImpl implements QueryService {
     private final QueryHistoryRepository queryHistoryRepository;
     private final DataSourceService dataSourceService;
     private final ObjectMapper objectMapper;
+    private final QueryTemplateCache templateCache;
+    private final QueryResultCache resultCache;
+    private final DataSourceCircuitBreakerRegistry circuitBreakers;
+    private final KeysetPaginationResolver keysetResolver;
+
+    /**
+     * 流式查询每批次从数据库读取的行数
+     */
+    @Value("${datascope.query.stream-fetch-size:1000}")
+    private int streamFetchSize;
+
+    /**
+     * 查询配置未设置超时时间时使用的默认值(秒)
+     */
+    @Value("${datascope.query.default-timeout:30}")
+    private int defaultTimeout;
 
     @Override
     @Transactional
@@ -86,10 +124,14 @@ public class QueryServiceImpl implements QueryService {
         existingConfig.setParameters(queryConfig.getParameters());
         existingConfig.setTimeout(queryConfig.getTimeout());
         existingConfig.setMaxRows(queryConfig.getMaxRows());
+        existingConfig.setCacheEnabled(Boolean.TRUE.equals(queryConfig.getCacheEnabled()));
         existingConfig.setUpdatedAt(LocalDateTime.now());
         existingConfig.setUpdatedBy(queryConfig.getUpdatedBy());
 
-        return queryConfigRepository.save(existingConfig);
+        QueryConfig saved = queryConfigRepository.save(existingConfig);
+        templateCache.evict(id);
+        resultCache.evict(id);
+        return saved;
     }
 
     @Override
@@ -99,6 +141,8 @@ public class QueryServiceImpl implements QueryService {
             throw new DataScopeException(ErrorCode.RESOURCE_NOT_FOUND, "查询配置不存在");
         }
         queryConfigRepository.deleteById(id);
+        templateCache.evict(id);
+        resultCache.evict(id);
     }
 
     @Override
@@ -115,43 +159,79 @@ public class QueryServiceImpl implements QueryService {
     @Override
     @Transactional
     public QueryResult executeQuery(QueryRequest request) {
-        String queryConfigId = request.getQueryConfigId();
+        return executeQuery(request, new QueryExecutionContext());
+    }
+
+    @Override
+    public QueryResult executeQuery(QueryRequest request, QueryExecutionContext context) {
+        // 获取查询配置
+        QueryConfig queryConfig = loadQueryConfig(request.getQueryConfigId());
         
-        // 验证查询配置ID
-        if (queryConfigId == null || queryConfigId.trim().isEmpty()) {
-            throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "查询配置ID不能为空");
+        // 开启了结果缓存的配置优先从缓存获取，命中时不访问数据源
+        long lookupStart = System.currentTimeMillis();
+        QueryResult cachedResult = resultCache.get(queryConfig, request);
+        if (cachedResult != null) {
+            cachedResult.setExecutionTime(System.currentTimeMillis() - lookupStart);
+            // 命中缓存同样记录查询历史
+            QueryHistory history = newQueryHistory(request, queryConfig);
+            context.setHistoryId(history.getId());
+            updateQueryHistorySuccess(history, cachedResult.getRows().size(), cachedResult.getExecutionTime());
+            return cachedResult;
         }
         
-        // 获取查询配置
-        QueryConfig queryConfig = queryConfigRepository.findById(queryConfigId)
-                .orElseThrow(() -> new DataScopeException(ErrorCode.RESOURCE_NOT_FOUND, "查询配置不存在"));
-        
         // 创建查询历史记录
         QueryHistory history = createQueryHistory(request, queryConfig);
+        context.setHistoryId(history.getId());
         
         try {
             // 开始计时
             long startTime = System.currentTimeMillis();
             
-            // 准备SQL语句（替换参数）
-            String sqlTemplate = queryConfig.getSqlTemplate();
-            String sql = SqlUtils.renderSqlTemplate(sqlTemplate, request.getParameters());
+            // 获取DataSource对象
+            DataSource dataSource = dataSourceService.get(queryConfig.getDataSourceId()).toEntity();
             
-            // 添加分页
-            sql = SqlUtils.applyPagination(sql, request.getPagination());
+            // 准备SQL语句（参数以占位符形式绑定，指定排序字段或游标且有唯一排序键时使用键集分页）
+            List<String> keyColumns = resolveKeyColumns(queryConfig, request.getPagination());
+            BoundSql boundSql = keyColumns.isEmpty()
+                    ? bindSql(queryConfig, request, dataSource)
+                    : bindKeysetSql(queryConfig, request, keyColumns, dataSource);
             
             // 执行查询
-            QueryResult result = executeQueryInternal(queryConfig.getDataSourceId(), sql, queryConfig.getMaxRows());
+            QueryResult result = executeQueryInternal(queryConfig, dataSource, boundSql, context);
+            if (!keyColumns.isEmpty()) {
+                result.setNextCursor(buildNextCursor(result, keyColumns, request.getPagination().getSize()));
+            }
             
             // 计算执行时间
             long executionTime = System.currentTimeMillis() - startTime;
             result.setExecutionTime(executionTime);
             
             // 更新查询历史
-            updateQueryHistorySuccess(history, result, executionTime);
+            updateQueryHistorySuccess(history, result.getRows().size(), executionTime);
+            
+            // 写入结果缓存
+            resultCache.put(queryConfig, request, result);
             
             return result;
+        } catch (DataScopeException e) {
+            // 参数缺失或不合法等请求错误保留原有错误码，不改为执行失败
+            log.warn("查询请求无效: {}", e.getMessage());
+            updateQueryHistoryFailed(history, e.getMessage());
+            throw e;
         } catch (Exception e) {
+            if (context.isCancelled()) {
+                log.info("查询已取消: historyId={}", history.getId());
+                updateQueryHistoryFinished(history, QueryStatus.CANCELLED, "查询已取消");
+                throw new DataScopeException(ErrorCode.OPERATION_FAILED, "查询已取消");
+            }
+            
+            if (isQueryTimeout(e)) {
+                log.warn("查询超时: historyId={}, timeout={}s", history.getId(), resolveTimeout(queryConfig));
+                updateQueryHistoryFinished(history, QueryStatus.TIMEOUT, e.getMessage());
+                throw new DataScopeException(ErrorCode.QUERY_TIMEOUT,
+                        "查询超过 " + resolveTimeout(queryConfig) + " 秒未完成，已取消");
+            }
+            
             log.error("执行查询失败: {}", e.getMessage(), e);
             
             // 更新查询历史为失败状态
@@ -162,6 +242,59 @@ public class QueryServiceImpl implements QueryService {
         }
     }
 
+    @Override
+    public long executeQueryStream(QueryRequest request, OutputStream outputStream) {
+        // 获取查询配置
+        QueryConfig queryConfig = loadQueryConfig(request.getQueryConfigId());
+        
+        // 创建查询历史记录
+        QueryHistory history = createQueryHistory(request, queryConfig);
+        long startTime = System.currentTimeMillis();
+        StreamSummary summary = new StreamSummary();
+        
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            // NDJSON每行一个JSON值，不使用默认的空格分隔符；出错时不自动补全未写完的行
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            
+            try {
+                // 准备SQL语句（参数以占位符形式绑定）
+                DataSource dataSource = dataSourceService.get(queryConfig.getDataSourceId()).toEntity();
+                BoundSql boundSql = bindSql(queryConfig, request, dataSource);
+                streamQueryInternal(queryConfig, dataSource, boundSql, generator, summary);
+                
+                // 写出结果摘要
+                long executionTime = System.currentTimeMillis() - startTime;
+                generator.writeStartObject();
+                generator.writeNumberField("rowCount", summary.rowCount);
+                generator.writeBooleanField("truncated", summary.truncated);
+                generator.writeNumberField("executionTime", executionTime);
+                generator.writeStringField("status", QueryStatus.COMPLETED.name());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                generator.flush();
+                
+                // 更新查询历史
+                updateQueryHistorySuccess(history, summary.rowCount, executionTime);
+            } catch (Exception e) {
+                // 响应已经开始写出，错误只以末行的错误记录告知客户端，不再抛出异常写出第二个响应体
+                String message = e instanceof IOException ? "写出查询结果失败: " + e.getMessage() : e.getMessage();
+                if (e instanceof IOException) {
+                    // 通常是客户端断开连接
+                    log.warn("写出查询结果失败: {}", e.getMessage());
+                } else {
+                    log.error("流式执行查询失败: {}", e.getMessage(), e);
+                }
+                updateQueryHistoryFinished(history,
+                        isQueryTimeout(e) ? QueryStatus.TIMEOUT : QueryStatus.FAILED, message);
+                writeStreamError(generator, outputStream, summary.rowCount, message);
+            }
+        } catch (IOException e) {
+            log.warn("关闭查询结果输出流失败: {}", e.getMessage());
+        }
+        return summary.rowCount;
+    }
+
     @Override
     public Page<QueryHistory> getQueryHistory(String queryConfigId, Pageable pageable) {
         return queryHistoryRepository.findByQueryConfigId(queryConfigId, pageable);
@@ -179,10 +312,133 @@ public class QueryServiceImpl implements QueryService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 获取并校验查询配置
+     */
+    private QueryConfig loadQueryConfig(String queryConfigId) {
+        // 验证查询配置ID
+        if (queryConfigId == null || queryConfigId.trim().isEmpty()) {
+            throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "查询配置ID不能为空");
+        }
+        
+        return queryConfigRepository.findById(queryConfigId)
+                .orElseThrow(() -> new DataScopeException(ErrorCode.RESOURCE_NOT_FOUND, "查询配置不存在"));
+    }
+    
+    /**
+     * 绑定参数、分页，模板从缓存中获取，分页子句按数据源类型生成
+     */
+    private BoundSql bindSql(QueryConfig queryConfig, QueryRequest request, DataSource dataSource) {
+        return templateCache.get(queryConfig)
+                .bind(request.getParameters(), request.getPagination(), SqlDialects.of(dataSource.getType()));
+    }
+    
+    /**
+     * 解析键集分页的排序键，未分页、未指定排序字段和游标或没有唯一排序键时返回空列表(使用偏移量分页)
+     */
+    private List<String> resolveKeyColumns(QueryConfig queryConfig, QueryPagination pagination) {
+        if (pagination == null || pagination.getSize() == null || pagination.getSize() < 1) {
+            return Collections.emptyList();
+        }
+        boolean hasCursor = StringUtils.hasText(pagination.getCursor());
+        if (!hasCursor && (pagination.getPage() == null || pagination.getPage() < 1)) {
+            return Collections.emptyList();
+        }
+        
+        List<String> keyColumns = keysetResolver.resolve(queryConfig, pagination);
+        if (keyColumns.isEmpty() && hasCursor) {
+            log.debug("查询没有唯一排序键, 忽略分页游标并按页码分页: queryConfigId={}", queryConfig.getId());
+        }
+        return keyColumns;
+    }
+    
+    /**
+     * 绑定参数及键集分页，有游标时从游标之后取一页，否则按页码计算偏移量
+     */
+    private BoundSql bindKeysetSql(QueryConfig queryConfig, QueryRequest request, List<String> keyColumns,
+            DataSource dataSource) {
+        QueryPagination pagination = request.getPagination();
+        KeysetCursor cursor = null;
+        if (StringUtils.hasText(pagination.getCursor())) {
+            cursor = KeysetCursor.decode(pagination.getCursor());
+            if (!cursor.matches(keyColumns)) {
+                throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "分页游标与当前排序字段不一致");
+            }
+        }
+        
+        int size = pagination.getSize();
+        int offset = cursor == null && pagination.getPage() != null && pagination.getPage() > 1
+                ? SqlTemplate.offset(pagination.getPage(), size) : 0;
+        boolean descending = "DESC".equalsIgnoreCase(pagination.getSortDirection());
+        return templateCache.get(queryConfig)
+                .bindKeyset(request.getParameters(), keyColumns, descending, cursor, offset, size,
+                        SqlDialects.of(dataSource.getType()));
+    }
+    
+    /**
+     * 根据本页最后一行的排序键生成下一页游标，不足一页时说明已是最后一页
+     */
+    private String buildNextCursor(QueryResult result, List<String> keyColumns, int size) {
+        List<Map<String, Object>> rows = result.getRows();
+        if (rows.isEmpty() || rows.size() < size && !Boolean.TRUE.equals(result.getTruncated())) {
+            return null;
+        }
+        
+        Map<String, Object> lastRow = rows.get(rows.size() - 1);
+        List<Object> values = new ArrayList<>(keyColumns.size());
+        for (String keyColumn : keyColumns) {
+            String name = null;
+            for (QueryResultColumn column : result.getColumns()) {
+                if (keyColumn.equalsIgnoreCase(column.getName())) {
+                    name = column.getName();
+                    break;
+                }
+            }
+            if (name == null) {
+                log.warn("查询结果中缺少排序键列, 无法生成分页游标: {}", keyColumn);
+                return null;
+            }
+            values.add(lastRow.get(name));
+        }
+        
+        KeysetCursor cursor = KeysetCursor.of(keyColumns, values);
+        return cursor != null ? cursor.encode() : null;
+    }
+    
+    /**
+     * 获取查询超时时间(秒)，未配置时使用默认值
+     */
+    private int resolveTimeout(QueryConfig queryConfig) {
+        Integer timeout = queryConfig.getTimeout();
+        return timeout != null && timeout > 0 ? timeout : defaultTimeout;
+    }
+    
+    /**
+     * 是否为语句超时
+     */
+    private boolean isQueryTimeout(Throwable e) {
+        if (e instanceof SQLTimeoutException) {
+            return true;
+        }
+        if (e instanceof SQLException) {
+            // 57014: PostgreSQL语句被取消；70100: MySQL查询被中断
+            String sqlState = ((SQLException) e).getSQLState();
+            return "57014".equals(sqlState) || "70100".equals(sqlState);
+        }
+        return false;
+    }
+    
     /**
      * 记录查询历史
      */
     private QueryHistory createQueryHistory(QueryRequest request, QueryConfig queryConfig) {
+        return queryHistoryRepository.save(newQueryHistory(request, queryConfig));
+    }
+    
+    /**
+     * 创建执行中状态的查询历史，不保存
+     */
+    private QueryHistory newQueryHistory(QueryRequest request, QueryConfig queryConfig) {
         String username = "admin"; // 暂时硬编码，后续从安全上下文获取
         
         QueryHistory history = new QueryHistory();
@@ -200,17 +456,17 @@ public class QueryServiceImpl implements QueryService {
         history.setStatus(QueryStatus.RUNNING);
         history.setCreatedBy(username);
         
-        return queryHistoryRepository.save(history);
+        return history;
     }
     
     /**
      * 更新查询历史为成功状态
      */
-    private void updateQueryHistorySuccess(QueryHistory history, QueryResult result, long executionTime) {
+    private void updateQueryHistorySuccess(QueryHistory history, long rowCount, long executionTime) {
         history.setEndTime(LocalDateTime.now());
         history.setDurationMs(executionTime);
         history.setStatus(QueryStatus.COMPLETED);
-        history.setRowCount(result.getRows().size());
+        history.setRowCount((int) Math.min(rowCount, Integer.MAX_VALUE));
         
         queryHistoryRepository.save(history);
     }
@@ -219,8 +475,17 @@ public class QueryServiceImpl implements QueryService {
      * 更新查询历史为失败状态
      */
     private void updateQueryHistoryFailed(QueryHistory history, String errorMessage) {
-        history.setEndTime(LocalDateTime.now());
-        history.setStatus(QueryStatus.FAILED);
+        updateQueryHistoryFinished(history, QueryStatus.FAILED, errorMessage);
+    }
+    
+    /**
+     * 更新查询历史为结束状态
+     */
+    private void updateQueryHistoryFinished(QueryHistory history, QueryStatus status, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        history.setEndTime(now);
+        history.setDurationMs(Duration.between(history.getStartTime(), now).toMillis());
+        history.setStatus(status);
         history.setErrorMessage(errorMessage);
         
         queryHistoryRepository.save(history);
@@ -229,19 +494,35 @@ public class QueryServiceImpl implements QueryService {
     /**
      * 执行查询
      */
-    private QueryResult executeQueryInternal(String dataSourceId, String sql, int maxRows) throws SQLException {
-        // 获取DataSource对象
-        DataSource dataSource = dataSourceService.get(dataSourceId).toEntity();
+    private QueryResult executeQueryInternal(QueryConfig queryConfig, DataSource dataSource, BoundSql boundSql,
+            QueryExecutionContext context) throws SQLException {
+        int maxRows = queryConfig.getMaxRows();
         
-        try (Connection connection = dataSourceService.getConnection(dataSource);
-             PreparedStatement statement = connection.prepareStatement(sql)) {
+        // 熔断器对每次查询只记录一次结果：获取连接失败时由数据源服务记录，其余在查询结束时记录
+        long startTime = System.currentTimeMillis();
+        Connection connection = dataSourceService.getQueryConnection(dataSource);
+        SQLException failure = null;
+        try (connection; PreparedStatement statement = connection.prepareStatement(boundSql.getSql())) {
+            
+            // 绑定参数
+            boundSql.bind(statement);
             
-            // 设置最大返回行数
+            // 设置最大返回行数和超时时间
             statement.setMaxRows(maxRows);
+            statement.setQueryTimeout(resolveTimeout(queryConfig));
             
+            context.register(statement);
             try (ResultSet resultSet = statement.executeQuery()) {
                 return processResultSet(resultSet, maxRows);
+            } finally {
+                context.unregister();
             }
+        } catch (SQLException e) {
+            // 用户取消不计为数据源失败
+            failure = context.isCancelled() ? null : e;
+            throw e;
+        } finally {
+            circuitBreakers.onQueryComplete(dataSource.getId(), System.currentTimeMillis() - startTime, failure);
         }
     }
     
@@ -254,6 +535,7 @@ public class QueryServiceImpl implements QueryService {
         
         // 创建列定义
         List<QueryResultColumn> columns = new ArrayList<>();
+        List<String> columnNames = new ArrayList<>(columnCount);
         for (int i = 1; i <= columnCount; i++) {
             QueryResultColumn column = new QueryResultColumn();
             column.setName(metaData.getColumnName(i));
@@ -262,10 +544,11 @@ public class QueryServiceImpl implements QueryService {
             column.setSortable(true); // 暂时默认所有列都可排序
             
             columns.add(column);
+            columnNames.add(column.getName());
         }
         
-        // 创建数据行
-        List<Map<String, Object>> rows = new ArrayList<>();
+        // 创建数据行，列名只保存一份，每行按列顺序存放值
+        ResultRows rows = new ResultRows(columnNames);
         boolean truncated = false;
         
         while (resultSet.next()) {
@@ -274,14 +557,12 @@ public class QueryServiceImpl implements QueryService {
                 break;
             }
             
-            Map<String, Object> row = new HashMap<>();
-            for (int i = 1; i <= columnCount; i++) {
-                String columnName = metaData.getColumnName(i);
-                Object value = resultSet.getObject(i);
-                row.put(columnName, value);
+            Object[] row = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                row[i] = resultSet.getObject(i + 1);
             }
             
-            rows.add(row);
+            rows.addRow(row);
         }
         
         // 构建查询结果
@@ -293,4 +574,144 @@ public class QueryServiceImpl implements QueryService {
                 .status(QueryStatus.COMPLETED)
                 .build();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 流式执行查询，逐行写出结果而不在内存中缓存结果集
+     */
+    private void streamQueryInternal(QueryConfig queryConfig, DataSource dataSource, BoundSql boundSql,
+            JsonGenerator generator, StreamSummary summary) throws SQLException, IOException {
+        int maxRows = queryConfig.getMaxRows();
+        
+        // 熔断器只统计到查询返回结果集为止的耗时，写出结果的耗时取决于客户端的读取速度，不计入慢调用
+        long startTime = System.currentTimeMillis();
+        long queryTime = -1;
+        Connection connection = dataSourceService.getQueryConnection(dataSource);
+        SQLException failure = null;
+        try (connection) {
+            boolean autoCommit = connection.getAutoCommit();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    boundSql.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                boundSql.bind(statement);
+                
+                // 设置最大返回行数(多取一行用于判断是否截断)和超时时间
+                statement.setMaxRows(maxRows < Integer.MAX_VALUE ? maxRows + 1 : maxRows);
+                statement.setQueryTimeout(resolveTimeout(queryConfig));
+                configureStreaming(connection, statement, dataSource.getType());
+                
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    queryTime = System.currentTimeMillis() - startTime;
+                    writeResultSet(resultSet, maxRows, generator, summary);
+                }
+            } finally {
+                if (connection.getAutoCommit() != autoCommit) {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+        } catch (SQLException e) {
+            failure = e;
+            throw e;
+        } finally {
+            long duration = queryTime >= 0 ? queryTime : System.currentTimeMillis() - startTime;
+            circuitBreakers.onQueryComplete(dataSource.getId(), duration, failure);
+        }
+    }
+    
+    /**
+     * 配置驱动的流式读取方式
+     */
+    private void configureStreaming(Connection connection, PreparedStatement statement, DataSourceType type)
+            throws SQLException {
+        if (type == DataSourceType.MYSQL || type == DataSourceType.DORIS) {
+            // MySQL驱动仅在fetchSize为Integer.MIN_VALUE时逐行读取，否则会一次性加载全部结果
+            statement.setFetchSize(Integer.MIN_VALUE);
+        } else {
+            // PostgreSQL等驱动需要关闭自动提交才会使用服务端游标分批读取
+            connection.setAutoCommit(false);
+            statement.setFetchSize(streamFetchSize);
+        }
+    }
+    
+    /**
+     * 将结果集以NDJSON格式写出：首行为列定义，之后每行一个数组，最后一行为摘要
+     */
+    private void writeResultSet(ResultSet resultSet, int maxRows, JsonGenerator generator, StreamSummary summary)
+            throws SQLException, IOException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        
+        // 写出列定义
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("columns");
+        for (int i = 1; i <= columnCount; i++) {
+            generator.writeStartObject();
+            generator.writeStringField("name", metaData.getColumnName(i));
+            generator.writeStringField("label", metaData.getColumnLabel(i));
+            generator.writeStringField("type", metaData.getColumnTypeName(i));
+            generator.writeBooleanField("sortable", true);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        
+        // 逐行写出数据，值的序列化沿用ObjectMapper的配置
+        ObjectWriter valueWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // 一行的值全部读取成功后再写出，读取出错时不会留下写了一半的行
+        Object[] values = new Object[columnCount];
+        while (resultSet.next()) {
+            if (summary.rowCount >= maxRows) {
+                summary.truncated = true;
+                break;
+            }
+            
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = resultSet.getObject(i + 1);
+            }
+            generator.writeStartArray();
+            for (Object value : values) {
+                valueWriter.writeValue(generator, value);
+            }
+            generator.writeEndArray();
+            generator.writeRaw('\n');
+            summary.rowCount++;
+            
+            // 按批次刷新，让客户端尽早收到数据
+            if (summary.rowCount % streamFetchSize == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+    }
+    
+    /**
+     * 在输出流中写出错误信息行
+     */
+    private void writeStreamError(JsonGenerator generator, OutputStream outputStream, long rowCount,
+            String errorMessage) {
+        try {
+            // 出错时可能正写到一行中间，先结束该行，错误记录单独成行
+            generator.flush();
+            if (!generator.getOutputContext().inRoot()) {
+                outputStream.write('\n');
+            }
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("rowCount", rowCount);
+            record.put("status", QueryStatus.FAILED.name());
+            record.put("errorMessage", errorMessage);
+            outputStream.write(objectMapper.writeValueAsBytes(record));
+            outputStream.write('\n');
+            outputStream.flush();
+        } catch (IOException ioException) {
+            log.warn("写出错误信息失败: {}", ioException.getMessage());
+        }
+    }
+    
+    /**
+     * 流式查询摘要
+     */
+    private static class StreamSummary {
+        private long rowCount;
+        private boolean truncated;
+    }
+}
@@ -1,6 +1,7 @@
 package com.datascope.facade.controller;
 
 import com.datascope.domain.model.export.ExportConfigVO;
+import com.datascope.domain.model.export.ExportFile;
 import com.datascope.domain.model.export.ExportHistoryVO;
 import com.datascope.domain.model.export.ExportStatus;
 import com.datascope.domain.service.export.ExportService;
@@ -10,20 +11,26 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
-import java.net.URLEncoder;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
 import java.util.List;
 
 /**
@@ -37,6 +44,14 @@ import java.util.List;
 @Tag(name = "数据导出", description = "数据导出相关接口")
 public class ExportController {
 
+    /**
+     * Tomcat sendfile请求属性
+     */
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
     private final ExportService exportService;
 
     /**
@@ -127,7 +142,7 @@ public class ExportController {
      * @return 导出任务信息
      */
     @PostMapping("/execute/{configId}")
-    @Operation(summary = "执行导出", description = "根据配置ID执行数据导出")
+    @Operation(summary = "执行导出", description = "根据配置ID提交导出任务，任务在后台排队执行，通过导出历史查询进度")
     public R<ExportHistoryVO> executeExport(@PathVariable String configId) {
         return R.ok(exportService.executeExport(configId));
     }
@@ -177,24 +192,73 @@ public class ExportController {
 
     /**
      * 下载导出文件
+     * <p>
+     * 以文件资源返回，内容从磁盘流式写出，支持Range分段下载；客户端接受gzip且没有Range请求时
+     * 返回预先压缩的副本。容器支持sendfile(Tomcat NIO)时整个文件交给容器零拷贝发送。
      *
      * @param id 历史ID
+     * @param request 请求
      * @return 文件资源
      */
     @GetMapping("/download/{id}")
-    @Operation(summary = "下载导出文件", description = "根据历史ID下载导出文件")
-    public ResponseEntity<Resource> downloadExportFile(@PathVariable String id) {
-        ExportHistoryVO history = exportService.getExportHistory(id);
-        byte[] fileData = exportService.downloadExportFile(id);
-        
-        ByteArrayResource resource = new ByteArrayResource(fileData);
-        
+    @Operation(summary = "下载导出文件", description = "根据历史ID下载导出文件，支持Range分段下载和gzip")
+    public ResponseEntity<Resource> downloadExportFile(@PathVariable String id, HttpServletRequest request) {
+        ExportFile exportFile = exportService.getExportFile(id);
+        boolean ranged = request.getHeader(HttpHeaders.RANGE) != null;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(exportFile.getFileName(), StandardCharsets.UTF_8)
+                .build());
+        Path path = exportFile.getPath();
+        if (exportFile.getGzipPath() != null) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            // 压缩副本的字节偏移与原文件不同，Range请求始终使用原文件
+            if (!ranged && acceptsGzip(request)) {
+                path = exportFile.getGzipPath();
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+        }
+        MediaType contentType = MediaTypeFactory.getMediaType(exportFile.getFileName())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        if (!ranged && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            try {
+                long length = Files.size(path);
+                request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, path.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+                request.setAttribute(SENDFILE_END_ATTRIBUTE, length);
+                headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+                return ResponseEntity.ok()
+                        .headers(headers)
+                        .contentType(contentType)
+                        .contentLength(length)
+                        .build();
+            } catch (IOException e) {
+                log.warn("读取导出文件大小失败，改为流式下载: {}", e.getMessage());
+            }
+        }
+
+        // Content-Length、Accept-Ranges及206分段响应由资源消息转换器处理
         return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .header(HttpHeaders.CONTENT_DISPOSITION, 
-                        "attachment; filename=\"" + URLEncoder.encode(history.getFileName(), StandardCharsets.UTF_8) + "\"")
-                .contentLength(fileData.length)
-                .body(resource);
+                .headers(headers)
+                .contentType(contentType)
+                .body(new FileSystemResource(path));
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> values = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (values != null && values.hasMoreElements()) {
+            for (String coding : values.nextElement().split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                    continue;
+                }
+                // gzip;q=0 表示不接受
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 
     /**
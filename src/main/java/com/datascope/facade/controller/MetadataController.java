@@ -1,8 +1,12 @@
 package com.datascope.facade.controller;
 
+import com.datascope.domain.model.metadata.MetadataSyncJobStatus;
+import com.datascope.domain.model.metadata.MetadataSyncResult;
+import com.datascope.domain.model.metadata.MetadataSyncRun;
 import com.datascope.domain.model.metadata.TableMetadata;
 import com.datascope.domain.service.metadata.MetadataFetchService;
 import com.datascope.domain.service.metadata.MetadataStorageService;
+import com.datascope.domain.service.metadata.MetadataSyncScheduler;
 import com.datascope.infrastructure.common.response.R;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -25,6 +29,7 @@ public class MetadataController {
 
   private final MetadataStorageService metadataStorageService;
   private final MetadataFetchService metadataFetchService;
+  private final MetadataSyncScheduler metadataSyncScheduler;
 
   /**
    * 获取数据源的所有表元数据
@@ -72,6 +77,45 @@ public class MetadataController {
     return R.ok();
   }
 
+  /**
+   * 增量同步数据源的元数据
+   *
+   * @param datasourceId 数据源ID
+   * @return 同步结果
+   */
+  @PostMapping("/datasources/{datasourceId}/sync")
+  @Operation(summary = "增量同步数据源元数据", description = "只重新加载结构发生变化的表，并删除已不存在的表")
+  public R<MetadataSyncResult> syncMetadata(
+      @PathVariable("datasourceId") @NotNull String datasourceId) {
+    return R.ok(metadataFetchService.syncMetadata(datasourceId));
+  }
+
+  /**
+   * 在后台触发元数据同步
+   *
+   * @param datasourceId 数据源ID
+   * @return 同步记录
+   */
+  @PostMapping("/datasources/{datasourceId}/sync-jobs")
+  @Operation(summary = "后台同步数据源元数据", description = "提交增量同步任务，数据源正在同步时返回进行中的记录")
+  public R<MetadataSyncRun> triggerSync(
+      @PathVariable("datasourceId") @NotNull String datasourceId) {
+    return R.ok(metadataSyncScheduler.trigger(datasourceId));
+  }
+
+  /**
+   * 获取数据源的元数据同步状态
+   *
+   * @param datasourceId 数据源ID
+   * @return 同步状态和最近的同步记录
+   */
+  @GetMapping("/datasources/{datasourceId}/sync-jobs")
+  @Operation(summary = "获取元数据同步状态", description = "获取定时同步间隔、下次同步时间和最近的同步记录")
+  public R<MetadataSyncJobStatus> getSyncStatus(
+      @PathVariable("datasourceId") @NotNull String datasourceId) {
+    return R.ok(metadataSyncScheduler.getStatus(datasourceId));
+  }
+
   /**
    * 刷新指定表的元数据
    *
@@ -2,8 +2,10 @@ package com.datascope.facade.controller;
 
 import com.datascope.domain.model.query.QueryConfig;
 import com.datascope.domain.model.query.QueryHistory;
+import com.datascope.domain.model.query.QueryJob;
 import com.datascope.domain.model.query.QueryRequest;
 import com.datascope.domain.model.query.QueryResult;
+import com.datascope.domain.service.query.QueryJobService;
 import com.datascope.domain.service.query.QueryService;
 import com.datascope.infrastructure.common.response.R;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,15 +17,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 查询管理接口
@@ -36,7 +43,10 @@ import java.util.Map;
 @Tag(name = "查询管理", description = "查询配置和执行相关接口")
 public class QueryController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final QueryService queryService;
+    private final QueryJobService queryJobService;
 
     @PostMapping
     @Operation(summary = "创建查询配置", description = "创建新的SQL查询配置")
@@ -126,6 +136,68 @@ public class QueryController {
         return R.ok(result);
     }
     
+    @PostMapping(value = "/{id}/execute/stream", produces = NDJSON_VALUE)
+    @Operation(summary = "流式执行查询", description = "以NDJSON格式逐行返回查询结果：首行为列定义，之后每行一条记录，末行为执行摘要；执行失败时末行为status为FAILED的错误记录")
+    public ResponseEntity<StreamingResponseBody> executeQueryStream(
+            @Parameter(description = "查询配置ID") @PathVariable @NotBlank String id,
+            @RequestBody @Valid QueryRequest request) {
+        
+        log.info("流式执行查询: id={}", id);
+        
+        // 使用路径中的ID，强制覆盖请求中的ID，确保一致性
+        request.setQueryConfigId(id);
+        
+        // 在开始输出前校验配置是否存在，以便返回正常的错误响应
+        queryService.getQueryConfig(id);
+        
+        StreamingResponseBody body = outputStream -> queryService.executeQueryStream(request, outputStream);
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+    
+    @PostMapping("/{id}/jobs")
+    @Operation(summary = "提交异步查询", description = "提交异步查询任务，立即返回任务ID，查询在数据源的执行线程池中运行")
+    public R<QueryJob> submitQueryJob(
+            @Parameter(description = "查询配置ID") @PathVariable @NotBlank String id,
+            @RequestBody @Valid QueryRequest request) {
+        
+        log.info("提交异步查询: id={}", id);
+        
+        // 使用路径中的ID，强制覆盖请求中的ID，确保一致性
+        request.setQueryConfigId(id);
+        
+        return R.ok(queryJobService.submit(request));
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "查询任务状态", description = "获取异步查询任务状态，指定wait时最多等待该毫秒数直到任务结束(长轮询)")
+    public CompletableFuture<R<QueryJob>> getQueryJob(
+            @Parameter(description = "任务ID") @PathVariable @NotBlank String jobId,
+            @Parameter(description = "最长等待时间(毫秒)") @RequestParam(defaultValue = "0") @Min(0) Long wait) {
+        
+        return queryJobService.awaitJob(jobId, Duration.ofMillis(wait)).thenApply(R::ok);
+    }
+    
+    @GetMapping("/jobs/{jobId}/result")
+    @Operation(summary = "查询任务结果", description = "获取已完成的异步查询任务的结果")
+    public R<QueryResult> getQueryJobResult(
+            @Parameter(description = "任务ID") @PathVariable @NotBlank String jobId) {
+        
+        return R.ok(queryJobService.getResult(jobId));
+    }
+    
+    @PostMapping("/jobs/{jobId}/cancel")
+    @Operation(summary = "取消查询任务", description = "取消排队中或执行中的异步查询任务")
+    public R<QueryJob> cancelQueryJob(
+            @Parameter(description = "任务ID") @PathVariable @NotBlank String jobId) {
+        
+        log.info("取消异步查询: jobId={}", jobId);
+        
+        return R.ok(queryJobService.cancel(jobId));
+    }
+    
     @GetMapping("/{id}/history")
     @Operation(summary = "查询历史记录", description = "获取指定查询配置的执行历史记录")
     public R<Page<QueryHistory>> getQueryHistory(
@@ -0,0 +1,43 @@
+package com.datascope.infrastructure.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * 当前节点的实例标识
+ * <p>
+ * 多节点共用数据库时，后台任务记录上保存执行节点的标识，重启后每个节点只结束自己中断的任务。
+ * 标识需要在重启后保持不变，默认使用主机名，可通过 datascope.instance-id 指定。
+ */
+@Slf4j
+@Component
+public class InstanceIdentity {
+
+    private final String id;
+
+    public InstanceIdentity(@Value("${datascope.instance-id:}") String instanceId) {
+        this.id = StringUtils.hasText(instanceId) ? instanceId.trim() : hostName();
+        log.info("当前节点实例标识: {}", id);
+    }
+
+    /**
+     * 获取实例标识
+     */
+    public String getId() {
+        return id;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            log.warn("获取主机名失败, 使用默认实例标识: {}", e.getMessage());
+            return "localhost";
+        }
+    }
+}
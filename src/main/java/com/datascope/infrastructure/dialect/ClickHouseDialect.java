@@ -0,0 +1,14 @@
+package com.datascope.infrastructure.dialect;
+
+/**
+ * ClickHouse方言：语法与MySQL相同，从system.tables获取行数
+ * <p>
+ * ClickHouse的SAMPLE子句要求建表时声明采样键，这里不提供通用的采样子句。
+ */
+public class ClickHouseDialect extends MySqlDialect {
+
+    @Override
+    public String rowCountEstimateSql() {
+        return "SELECT total_rows FROM system.tables WHERE database = ? AND name = ?";
+    }
+}
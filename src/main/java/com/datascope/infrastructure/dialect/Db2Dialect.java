@@ -0,0 +1,39 @@
+package com.datascope.infrastructure.dialect;
+
+import com.datascope.infrastructure.util.BoundSql;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * DB2方言：双引号引用标识符，FETCH FIRST限制行数，TABLESAMPLE SYSTEM采样，从syscat.tables估算行数
+ */
+public class Db2Dialect implements SqlDialect {
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public BoundSql limit(BoundSql sql, int maxRows) {
+        return sql.append(" FETCH FIRST ? ROWS ONLY", Collections.singletonList(SqlDialects.rows("limit", maxRows)));
+    }
+
+    @Override
+    public BoundSql paginate(BoundSql sql, int offset, int size) {
+        return sql.append(" OFFSET ? ROWS FETCH FIRST ? ROWS ONLY", Arrays.asList(
+                SqlDialects.rows("offset", offset), SqlDialects.rows("size", size)));
+    }
+
+    @Override
+    public String sampleTable(String qualifiedTable, double percent) {
+        return qualifiedTable + " TABLESAMPLE SYSTEM (" + SqlDialects.formatPercent(percent) + ")";
+    }
+
+    @Override
+    public String rowCountEstimateSql() {
+        // 未收集统计信息时card为-1
+        return "SELECT card FROM syscat.tables WHERE tabschema = ? AND tabname = ?";
+    }
+}
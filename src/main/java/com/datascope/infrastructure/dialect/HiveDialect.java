@@ -0,0 +1,17 @@
+package com.datascope.infrastructure.dialect;
+
+/**
+ * Hive方言：语法与MySQL相同，支持按比例采样，没有可用的行数估算
+ */
+public class HiveDialect extends MySqlDialect {
+
+    @Override
+    public String sampleTable(String qualifiedTable, double percent) {
+        return qualifiedTable + " TABLESAMPLE (" + SqlDialects.formatPercent(percent) + " PERCENT)";
+    }
+
+    @Override
+    public String rowCountEstimateSql() {
+        return null;
+    }
+}
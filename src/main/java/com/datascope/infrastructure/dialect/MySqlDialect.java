@@ -0,0 +1,33 @@
+package com.datascope.infrastructure.dialect;
+
+import com.datascope.infrastructure.util.BoundSql;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * MySQL方言，同样适用于Doris：反引号引用标识符，LIMIT分页，从information_schema估算行数
+ */
+public class MySqlDialect implements SqlDialect {
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    @Override
+    public BoundSql limit(BoundSql sql, int maxRows) {
+        return sql.append(" LIMIT ?", Collections.singletonList(SqlDialects.rows("limit", maxRows)));
+    }
+
+    @Override
+    public BoundSql paginate(BoundSql sql, int offset, int size) {
+        return sql.append(" LIMIT ?, ?", Arrays.asList(
+                SqlDialects.rows("offset", offset), SqlDialects.rows("size", size)));
+    }
+
+    @Override
+    public String rowCountEstimateSql() {
+        return "SELECT table_rows FROM information_schema.tables WHERE table_schema = ? AND table_name = ?";
+    }
+}
@@ -0,0 +1,39 @@
+package com.datascope.infrastructure.dialect;
+
+import com.datascope.infrastructure.util.BoundSql;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Oracle方言(12c及以上)：双引号引用标识符，FETCH FIRST限制行数，OFFSET ... FETCH NEXT 分页，
+ * SAMPLE子句采样，从all_tables估算行数
+ */
+public class OracleDialect implements SqlDialect {
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public BoundSql limit(BoundSql sql, int maxRows) {
+        return sql.append(" FETCH FIRST ? ROWS ONLY", Collections.singletonList(SqlDialects.rows("limit", maxRows)));
+    }
+
+    @Override
+    public BoundSql paginate(BoundSql sql, int offset, int size) {
+        return sql.append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", Arrays.asList(
+                SqlDialects.rows("offset", offset), SqlDialects.rows("size", size)));
+    }
+
+    @Override
+    public String sampleTable(String qualifiedTable, double percent) {
+        return qualifiedTable + " SAMPLE (" + SqlDialects.formatPercent(percent) + ")";
+    }
+
+    @Override
+    public String rowCountEstimateSql() {
+        return "SELECT num_rows FROM all_tables WHERE owner = ? AND table_name = ?";
+    }
+}
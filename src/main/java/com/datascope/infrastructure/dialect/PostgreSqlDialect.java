@@ -0,0 +1,40 @@
+package com.datascope.infrastructure.dialect;
+
+import com.datascope.infrastructure.util.BoundSql;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * PostgreSQL方言：双引号引用标识符，LIMIT/OFFSET分页，TABLESAMPLE SYSTEM采样，从pg_class.reltuples估算行数
+ */
+public class PostgreSqlDialect implements SqlDialect {
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public BoundSql limit(BoundSql sql, int maxRows) {
+        return sql.append(" LIMIT ?", Collections.singletonList(SqlDialects.rows("limit", maxRows)));
+    }
+
+    @Override
+    public BoundSql paginate(BoundSql sql, int offset, int size) {
+        return sql.append(" LIMIT ? OFFSET ?", Arrays.asList(
+                SqlDialects.rows("size", size), SqlDialects.rows("offset", offset)));
+    }
+
+    @Override
+    public String sampleTable(String qualifiedTable, double percent) {
+        return qualifiedTable + " TABLESAMPLE SYSTEM (" + SqlDialects.formatPercent(percent) + ")";
+    }
+
+    @Override
+    public String rowCountEstimateSql() {
+        // 从未ANALYZE过的表reltuples为-1(PostgreSQL 14+)或0
+        return "SELECT c.reltuples::bigint FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                + "WHERE n.nspname = ? AND c.relname = ?";
+    }
+}
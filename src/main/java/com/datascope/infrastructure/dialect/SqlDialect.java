@@ -0,0 +1,126 @@
+package com.datascope.infrastructure.dialect;
+
+import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.infrastructure.util.BoundSql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * SQL方言
+ * <p>
+ * 封装不同数据库在标识符引用、行数限制、分页、采样和行数估算上的语法差异，
+ * 由 {@link SqlDialects#of(DataSourceType)} 根据数据源类型选择。
+ * 行数限制和分页以占位符形式绑定，同一查询翻页时SQL文本保持不变。
+ */
+public interface SqlDialect {
+
+    /**
+     * 引用标识符
+     *
+     * @param identifier 标识符
+     * @return 引用后的标识符
+     */
+    String quoteIdentifier(String identifier);
+
+    /**
+     * 生成带schema的表名
+     *
+     * @param schema schema名称，可以为空
+     * @param table 表名
+     * @return 引用后的表名
+     */
+    default String qualifyTable(String schema, String table) {
+        if (schema == null || schema.isEmpty()) {
+            return quoteIdentifier(table);
+        }
+        return quoteIdentifier(schema) + "." + quoteIdentifier(table);
+    }
+
+    /**
+     * 限制返回行数
+     *
+     * @param sql 原始SQL
+     * @param maxRows 最大行数
+     * @return 带行数限制的SQL
+     */
+    BoundSql limit(BoundSql sql, int maxRows);
+
+    /**
+     * 分页，偏移量和大小始终以参数形式绑定
+     *
+     * @param sql 原始SQL
+     * @param offset 偏移量
+     * @param size 每页大小
+     * @return 带分页的SQL
+     */
+    BoundSql paginate(BoundSql sql, int offset, int size);
+
+    /**
+     * 生成按比例采样的表引用，用于FROM子句
+     *
+     * @param qualifiedTable 引用后的表名
+     * @param percent 采样比例(0-100)
+     * @return 带采样子句的表引用，不支持采样时返回null
+     */
+    default String sampleTable(String qualifiedTable, double percent) {
+        return null;
+    }
+
+    /**
+     * 是否支持按比例采样
+     */
+    default boolean supportsSampling() {
+        return sampleTable("t", 1) != null;
+    }
+
+    /**
+     * 从系统目录估算表行数的SQL，参数依次为schema和表名
+     *
+     * @return 估算SQL，不支持时返回null
+     */
+    default String rowCountEstimateSql() {
+        return null;
+    }
+
+    /**
+     * 从系统目录估算表行数，代价远低于 COUNT(*)，但结果可能过时
+     *
+     * @param connection 数据库连接
+     * @param schema schema名称
+     * @param table 表名
+     * @return 估算行数，不支持或没有统计信息时返回null
+     */
+    default Long estimateRowCount(Connection connection, String schema, String table) throws SQLException {
+        String sql = rowCountEstimateSql();
+        if (sql == null) {
+            return null;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, schema);
+            statement.setString(2, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                long rowCount = resultSet.getLong(1);
+                // 未收集统计信息时部分数据库返回空值或负数
+                return resultSet.wasNull() || rowCount < 0 ? null : rowCount;
+            }
+        }
+    }
+
+    /**
+     * 统计行数的SQL
+     *
+     * @param qualifiedTable 引用后的表名
+     * @param whereClause 过滤条件，可以为空
+     * @return 统计SQL
+     */
+    default String countSql(String qualifiedTable, String whereClause) {
+        String sql = "SELECT COUNT(*) FROM " + qualifiedTable;
+        return whereClause == null || whereClause.trim().isEmpty() ? sql : sql + " WHERE " + whereClause;
+    }
+}
@@ -0,0 +1,63 @@
+package com.datascope.infrastructure.dialect;
+
+import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.infrastructure.util.BoundSql;
+import com.datascope.infrastructure.util.SqlParameterType;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * SQL方言注册表，按数据源类型获取方言，方言实现无状态，全局共享
+ */
+public final class SqlDialects {
+
+    /**
+     * 默认方言(MySQL)
+     */
+    public static final SqlDialect DEFAULT = new MySqlDialect();
+
+    private static final Map<DataSourceType, SqlDialect> DIALECTS = new EnumMap<>(DataSourceType.class);
+
+    static {
+        DIALECTS.put(DataSourceType.MYSQL, DEFAULT);
+        DIALECTS.put(DataSourceType.DORIS, DEFAULT);
+        DIALECTS.put(DataSourceType.POSTGRESQL, new PostgreSqlDialect());
+        DIALECTS.put(DataSourceType.ORACLE, new OracleDialect());
+        DIALECTS.put(DataSourceType.SQLSERVER, new SqlServerDialect());
+        DIALECTS.put(DataSourceType.DB2, new Db2Dialect());
+        DIALECTS.put(DataSourceType.HIVE, new HiveDialect());
+        DIALECTS.put(DataSourceType.CLICKHOUSE, new ClickHouseDialect());
+    }
+
+    private SqlDialects() {
+    }
+
+    /**
+     * 获取数据源类型对应的方言
+     *
+     * @param type 数据源类型，为空时返回默认方言
+     * @return SQL方言
+     */
+    public static SqlDialect of(DataSourceType type) {
+        if (type == null) {
+            return DEFAULT;
+        }
+        return DIALECTS.getOrDefault(type, DEFAULT);
+    }
+
+    /**
+     * 格式化采样比例，避免科学计数法
+     */
+    static String formatPercent(double percent) {
+        return BigDecimal.valueOf(percent).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * 创建行数类参数
+     */
+    static BoundSql.Parameter rows(String name, int value) {
+        return new BoundSql.Parameter(name, SqlParameterType.INTEGER, value);
+    }
+}
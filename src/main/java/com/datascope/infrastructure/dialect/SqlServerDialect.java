@@ -0,0 +1,53 @@
+package com.datascope.infrastructure.dialect;
+
+import com.datascope.infrastructure.util.BoundSql;
+import com.datascope.infrastructure.util.SqlUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * SQL Server方言：方括号引用标识符，OFFSET ... FETCH NEXT 限制行数和分页，
+ * TABLESAMPLE采样，从sys.partitions估算行数
+ * <p>
+ * OFFSET子句必须跟在ORDER BY之后，原始SQL没有排序时补充 ORDER BY (SELECT NULL)。
+ */
+public class SqlServerDialect implements SqlDialect {
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return "[" + identifier.replace("]", "]]") + "]";
+    }
+
+    @Override
+    public BoundSql limit(BoundSql sql, int maxRows) {
+        return withOrderBy(sql).append(" OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY",
+                Collections.singletonList(SqlDialects.rows("limit", maxRows)));
+    }
+
+    @Override
+    public BoundSql paginate(BoundSql sql, int offset, int size) {
+        return withOrderBy(sql).append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", Arrays.asList(
+                SqlDialects.rows("offset", offset), SqlDialects.rows("size", size)));
+    }
+
+    @Override
+    public String sampleTable(String qualifiedTable, double percent) {
+        return qualifiedTable + " TABLESAMPLE (" + SqlDialects.formatPercent(percent) + " PERCENT)";
+    }
+
+    @Override
+    public String rowCountEstimateSql() {
+        return "SELECT SUM(p.rows) FROM sys.partitions p "
+                + "JOIN sys.tables t ON t.object_id = p.object_id "
+                + "JOIN sys.schemas s ON s.schema_id = t.schema_id "
+                + "WHERE s.name = ? AND t.name = ? AND p.index_id IN (0, 1)";
+    }
+
+    private BoundSql withOrderBy(BoundSql sql) {
+        if (SqlUtils.hasTopLevelOrderBy(sql.getSql())) {
+            return sql;
+        }
+        return sql.append(" ORDER BY (SELECT NULL)", Collections.emptyList());
+    }
+}
@@ -0,0 +1,77 @@
+package com.datascope.infrastructure.util;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 绑定参数后的SQL，包含带 ? 占位符的语句及按顺序排列的参数
+ */
+@Getter
+@RequiredArgsConstructor
+public class BoundSql {
+
+    /**
+     * 带占位符的SQL
+     */
+    private final String sql;
+
+    /**
+     * 按占位符顺序排列的参数
+     */
+    private final List<Parameter> parameters;
+
+    /**
+     * 在SQL末尾追加片段及其参数，返回新的绑定结果
+     *
+     * @param fragment SQL片段
+     * @param appended 片段中占位符对应的参数
+     * @return 新的绑定结果
+     */
+    public BoundSql append(String fragment, List<Parameter> appended) {
+        List<Parameter> merged = new ArrayList<>(parameters.size() + appended.size());
+        merged.addAll(parameters);
+        merged.addAll(appended);
+        return new BoundSql(sql + fragment, merged);
+    }
+
+    /**
+     * 将参数依次绑定到预编译语句
+     *
+     * @param statement 预编译语句
+     */
+    public void bind(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            Parameter parameter = parameters.get(i);
+            parameter.getType().bind(statement, i + 1, parameter.getName(), parameter.getValue());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return sql + " " + parameters;
+    }
+
+    /**
+     * 单个绑定参数
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Parameter {
+
+        private final String name;
+
+        private final SqlParameterType type;
+
+        private final Object value;
+
+        @Override
+        public String toString() {
+            return name + "=" + value;
+        }
+    }
+}
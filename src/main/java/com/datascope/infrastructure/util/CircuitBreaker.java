@@ -0,0 +1,175 @@
+package com.datascope.infrastructure.util;
+
+/**
+ * 基于计数滑动窗口的熔断器
+ * <p>
+ * 关闭状态下记录最近 windowSize 次调用的结果，调用数达到 minimumCalls 后，
+ * 失败率或慢调用率超过阈值即打开熔断器；打开状态下拒绝调用，openDurationMs 后进入半开状态，
+ * 放行 halfOpenCalls 次试探调用，全部结果未超过阈值则关闭，否则重新打开。
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+
+    private final int windowSize;
+
+    private final int minimumCalls;
+
+    private final int failureRateThreshold;
+
+    private final long slowCallDurationMs;
+
+    private final int slowCallRateThreshold;
+
+    private final long openDurationMs;
+
+    private final int halfOpenCalls;
+
+    private final boolean[] failures;
+
+    private final boolean[] slowCalls;
+
+    private State state = State.CLOSED;
+
+    private int position;
+
+    private int recordedCalls;
+
+    private int failureCount;
+
+    private int slowCallCount;
+
+    private long openUntil;
+
+    private int halfOpenPermits;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+            long slowCallDurationMs, int slowCallRateThreshold, long openDurationMs, int halfOpenCalls) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallDurationMs = slowCallDurationMs;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenCalls = halfOpenCalls;
+        this.failures = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    /**
+     * 申请调用许可
+     *
+     * @return 是否允许调用
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() < openUntil) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits <= 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    /**
+     * 记录成功调用
+     *
+     * @param durationMs 调用耗时(毫秒)
+     */
+    public void onSuccess(long durationMs) {
+        record(false, durationMs);
+    }
+
+    /**
+     * 记录失败调用
+     *
+     * @param durationMs 调用耗时(毫秒)
+     */
+    public void onError(long durationMs) {
+        record(true, durationMs);
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntil) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private synchronized void record(boolean failed, long durationMs) {
+        if (state == State.OPEN) {
+            // 打开前已放行的调用，结果不再计入
+            return;
+        }
+
+        boolean slow = durationMs >= slowCallDurationMs;
+        if (recordedCalls == windowSize) {
+            // 窗口已满，移除最早的结果
+            if (failures[position]) {
+                failureCount--;
+            }
+            if (slowCalls[position]) {
+                slowCallCount--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        failures[position] = failed;
+        slowCalls[position] = slow;
+        if (failed) {
+            failureCount++;
+        }
+        if (slow) {
+            slowCallCount++;
+        }
+        position = (position + 1) % windowSize;
+
+        int required = state == State.HALF_OPEN ? halfOpenCalls : minimumCalls;
+        if (recordedCalls < required) {
+            return;
+        }
+        if (exceedsThreshold()) {
+            transitionTo(State.OPEN);
+        } else if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    private boolean exceedsThreshold() {
+        return failureCount * 100 >= failureRateThreshold * recordedCalls
+                || slowCallCount * 100 >= slowCallRateThreshold * recordedCalls;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        position = 0;
+        recordedCalls = 0;
+        failureCount = 0;
+        slowCallCount = 0;
+        if (newState == State.OPEN) {
+            openUntil = System.currentTimeMillis() + openDurationMs;
+        } else if (newState == State.HALF_OPEN) {
+            halfOpenPermits = halfOpenCalls;
+        }
+    }
+}
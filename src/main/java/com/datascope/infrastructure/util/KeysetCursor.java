@@ -0,0 +1,182 @@
+package com.datascope.infrastructure.util;
+
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 键集分页游标
+ * <p>
+ * 记录上一页最后一行的排序键值及其类型，编码为URL安全的Base64字符串返回给客户端，
+ * 下一页以此为起点按排序键向后查找，不再需要跳过前面的行。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    /**
+     * 排序键列名
+     */
+    private List<String> columns;
+
+    /**
+     * 排序键值的绑定类型
+     */
+    private List<SqlParameterType> types;
+
+    /**
+     * 排序键值，日期时间类型以字符串保存
+     */
+    private List<Object> values;
+
+    /**
+     * 根据一行中排序键的值创建游标
+     *
+     * @param columns 排序键列名
+     * @param rowValues 排序键值，顺序与列名一致
+     * @return 游标，存在空值时返回null(空值无法作为查找起点)
+     */
+    public static KeysetCursor of(List<String> columns, List<Object> rowValues) {
+        List<SqlParameterType> types = new ArrayList<>(rowValues.size());
+        List<Object> values = new ArrayList<>(rowValues.size());
+        for (Object value : rowValues) {
+            if (value == null) {
+                return null;
+            }
+            SqlParameterType type = typeOf(value);
+            types.add(type);
+            values.add(normalize(type, value));
+        }
+        return new KeysetCursor(new ArrayList<>(columns), types, values);
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param token 游标字符串
+     * @return 游标
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            KeysetCursor cursor = MAPPER.readValue(Base64.getUrlDecoder().decode(token), KeysetCursor.class);
+            if (cursor.columns == null || cursor.types == null || cursor.values == null
+                    || cursor.columns.size() != cursor.values.size()
+                    || cursor.types.size() != cursor.values.size()) {
+                throw new IllegalArgumentException("incomplete cursor");
+            }
+            return cursor;
+        } catch (Exception e) {
+            throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "无效的分页游标");
+        }
+    }
+
+    /**
+     * 编码为游标字符串
+     *
+     * @return 游标字符串
+     */
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(this));
+        } catch (Exception e) {
+            throw new IllegalStateException("编码分页游标失败", e);
+        }
+    }
+
+    /**
+     * 游标的排序键是否与当前排序键一致
+     *
+     * @param keyColumns 当前排序键列名
+     * @return 是否一致
+     */
+    public boolean matches(List<String> keyColumns) {
+        if (columns.size() != keyColumns.size()) {
+            return false;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (!columns.get(i).equalsIgnoreCase(keyColumns.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static SqlParameterType typeOf(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return SqlParameterType.INTEGER;
+        }
+        if (value instanceof Long) {
+            return SqlParameterType.LONG;
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return SqlParameterType.DECIMAL;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return SqlParameterType.DOUBLE;
+        }
+        if (value instanceof Boolean) {
+            return SqlParameterType.BOOLEAN;
+        }
+        if (value instanceof java.sql.Date || value instanceof LocalDate) {
+            return SqlParameterType.DATE;
+        }
+        if (value instanceof Time || value instanceof LocalTime) {
+            return SqlParameterType.TIME;
+        }
+        if (value instanceof Timestamp || value instanceof LocalDateTime || value instanceof OffsetDateTime) {
+            return SqlParameterType.TIMESTAMP;
+        }
+        return SqlParameterType.STRING;
+    }
+
+    /**
+     * 转换为可以无损写入JSON的值
+     */
+    private static Object normalize(SqlParameterType type, Object value) {
+        switch (type) {
+            case INTEGER:
+            case LONG:
+            case DOUBLE:
+            case BOOLEAN:
+                return value;
+            case DECIMAL:
+                return value.toString();
+            case DATE:
+                return value instanceof java.sql.Date ? ((java.sql.Date) value).toLocalDate().toString() : value.toString();
+            case TIME:
+                return value instanceof Time ? ((Time) value).toLocalTime().toString() : value.toString();
+            case TIMESTAMP:
+                if (value instanceof Timestamp) {
+                    return ((Timestamp) value).toLocalDateTime().toString();
+                }
+                if (value instanceof OffsetDateTime) {
+                    return ((OffsetDateTime) value).toLocalDateTime().toString();
+                }
+                return value.toString();
+            default:
+                return value instanceof byte[]
+                        ? new String((byte[]) value, StandardCharsets.UTF_8) : value.toString();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.datascope.infrastructure.util;
+
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.Locale;
+
+/**
+ * SQL参数类型，根据查询参数定义中的类型将值绑定到PreparedStatement
+ */
+public enum SqlParameterType {
+
+    STRING(Types.VARCHAR) {
+        @Override
+        protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setString(index, value.toString());
+        }
+    },
+
+    INTEGER(Types.INTEGER) {
+        @Override
+        protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setInt(index, value instanceof Number
+                    ? ((Number) value).intValue() : Integer.parseInt(value.toString().trim()));
+        }
+    },
+
+    LONG(Types.BIGINT) {
+        @Override
+        protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setLong(index, value instanceof Number
+                    ? ((Number) value).longValue() : Long.parseLong(value.toString().trim()));
+        }
+    },
+
+    DECIMAL(Types.DECIMAL) {
+        @Override
+        protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setBigDecimal(index, value instanceof BigDecimal
+                    ? (BigDecimal) value : new BigDecimal(value.toString().trim()));
+        }
+    },
+
+    DOUBLE(Types.DOUBLE) {
+        @Override
+        protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setDouble(index, value instanceof Number
+                    ? ((Number) value).doubleValue() : Double.parseDouble(value.toString().trim()));
+        }
+    },
+
+    BOOLEAN(Types.BOOLEAN) {
+        @Override
+        protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+            if (value instanceof Boolean) {
+                statement.setBoolean(index, (Boolean) value);
+            } else if (value instanceof Number) {
+                statement.setBoolean(index, ((Number) value).intValue() != 0);
+            } else {
+                String text = value.toString().trim();
+                statement.setBoolean(index, "true".equalsIgnoreCase(text) || "1".equals(text));
+            }
+        }
+    },
+
+    DATE(Types.DATE) {
+        @Override
+        protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+            LocalDate date;
+            if (value instanceof LocalDate) {
+                date = (LocalDate) value;
+            } else if (value instanceof java.util.Date) {
+                date = new Date(((java.util.Date) value).getTime()).toLocalDate();
+            } else {
+                String text = value.toString().trim();
+                date = text.length() > 10 ? parseDateTime(text).toLocalDate() : LocalDate.parse(text);
+            }
+            statement.setDate(index, Date.valueOf(date));
+        }
+    },
+
+    TIME(Types.TIME) {
+        @Override
+        protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+            LocalTime time = value instanceof LocalTime ? (LocalTime) value : LocalTime.parse(value.toString().trim());
+            statement.setTime(index, Time.valueOf(time));
+        }
+    },
+
+    TIMESTAMP(Types.TIMESTAMP) {
+        @Override
+        protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+            Timestamp timestamp;
+            if (value instanceof LocalDateTime) {
+                timestamp = Timestamp.valueOf((LocalDateTime) value);
+            } else if (value instanceof java.util.Date) {
+                timestamp = new Timestamp(((java.util.Date) value).getTime());
+            } else if (value instanceof Number) {
+                timestamp = Timestamp.from(Instant.ofEpochMilli(((Number) value).longValue()));
+            } else {
+                timestamp = Timestamp.valueOf(parseDateTime(value.toString().trim()));
+            }
+            statement.setTimestamp(index, timestamp);
+        }
+    },
+
+    /**
+     * 未声明类型时由驱动根据Java类型推断
+     */
+    OBJECT(Types.OTHER) {
+        @Override
+        protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setObject(index, value);
+        }
+
+        @Override
+        protected void bindNull(PreparedStatement statement, int index) throws SQLException {
+            statement.setNull(index, Types.NULL);
+        }
+    };
+
+    /**
+     * 支持 "yyyy-MM-dd HH:mm:ss" 和 ISO-8601 两种日期时间格式，日期部分单独出现时视为零点
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .optionalStart()
+            .appendLiteral(' ')
+            .optionalEnd()
+            .optionalStart()
+            .appendLiteral('T')
+            .optionalEnd()
+            .optionalStart()
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .optionalEnd()
+            .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+            .toFormatter(Locale.ROOT);
+
+    private final int sqlType;
+
+    SqlParameterType(int sqlType) {
+        this.sqlType = sqlType;
+    }
+
+    /**
+     * 绑定参数值
+     *
+     * @param statement 预编译语句
+     * @param index 参数位置(从1开始)
+     * @param name 参数名称，用于错误提示
+     * @param value 参数值
+     */
+    public void bind(PreparedStatement statement, int index, String name, Object value) throws SQLException {
+        if (value == null) {
+            bindNull(statement, index);
+            return;
+        }
+        try {
+            bindValue(statement, index, value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new DataScopeException(ErrorCode.INVALID_PARAMETER,
+                    "参数 " + name + " 的值 " + value + " 不是有效的 " + name().toLowerCase(Locale.ROOT) + " 类型");
+        }
+    }
+
+    protected abstract void bindValue(PreparedStatement statement, int index, Object value) throws SQLException;
+
+    protected void bindNull(PreparedStatement statement, int index) throws SQLException {
+        statement.setNull(index, sqlType);
+    }
+
+    /**
+     * 根据查询参数定义中的类型名称解析参数类型，无法识别时返回OBJECT
+     *
+     * @param type 参数类型名称
+     * @return 参数类型
+     */
+    public static SqlParameterType of(String type) {
+        if (type == null) {
+            return OBJECT;
+        }
+        switch (type.trim().toLowerCase(Locale.ROOT)) {
+            case "string":
+            case "text":
+            case "char":
+            case "varchar":
+                return STRING;
+            case "int":
+            case "integer":
+            case "smallint":
+            case "tinyint":
+                return INTEGER;
+            case "long":
+            case "bigint":
+                return LONG;
+            case "number":
+            case "numeric":
+            case "decimal":
+                return DECIMAL;
+            case "float":
+            case "double":
+                return DOUBLE;
+            case "bool":
+            case "boolean":
+                return BOOLEAN;
+            case "date":
+                return DATE;
+            case "time":
+                return TIME;
+            case "datetime":
+            case "timestamp":
+                return TIMESTAMP;
+            default:
+                return OBJECT;
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String text) {
+        return LocalDateTime.parse(text, DATE_TIME_FORMATTER);
+    }
+}
@@ -0,0 +1,263 @@
+package com.datascope.infrastructure.util;
+
+import com.datascope.domain.model.query.QueryPagination;
+import com.datascope.domain.model.query.QueryParameter;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import com.datascope.infrastructure.dialect.SqlDialect;
+import com.datascope.infrastructure.dialect.SqlDialects;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的SQL模板
+ * <p>
+ * 模板中的 {{param}} 在编译时被替换为 ? 占位符，执行时按参数定义的类型通过 PreparedStatement 绑定，
+ * 相同模板在不同参数值下生成的SQL文本一致，便于驱动和数据库复用预编译语句及执行计划。
+ * 集合类型的参数会展开为多个占位符，用于 IN 条件。分页子句由数据源对应的 {@link SqlDialect} 生成，
+ * 偏移量和大小同样以参数形式绑定。
+ */
+public class SqlTemplate {
+
+    private static final Pattern PARAM_PATTERN = Pattern.compile("\\{\\{([^}]+)\\}\\}");
+
+    /**
+     * 占位符之间的SQL片段，数量比参数多一个
+     */
+    private final String[] fragments;
+
+    /**
+     * 按出现顺序排列的参数名称
+     */
+    private final String[] parameterNames;
+
+    /**
+     * 参数均为单值时使用的SQL
+     */
+    private final String sql;
+
+    private SqlTemplate(String[] fragments, String[] parameterNames) {
+        this.fragments = fragments;
+        this.parameterNames = parameterNames;
+        this.sql = String.join("?", fragments);
+    }
+
+    /**
+     * 编译SQL模板
+     *
+     * @param sqlTemplate SQL模板
+     * @return 编译后的模板
+     */
+    public static SqlTemplate compile(String sqlTemplate) {
+        if (sqlTemplate == null) {
+            return new SqlTemplate(new String[]{""}, new String[0]);
+        }
+
+        List<String> fragments = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        Matcher matcher = PARAM_PATTERN.matcher(sqlTemplate);
+        int position = 0;
+        while (matcher.find()) {
+            fragments.add(sqlTemplate.substring(position, matcher.start()));
+            names.add(matcher.group(1).trim());
+            position = matcher.end();
+        }
+        fragments.add(sqlTemplate.substring(position));
+
+        return new SqlTemplate(fragments.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    /**
+     * 获取模板中引用的参数名称(按出现顺序，可能重复)
+     */
+    public List<String> getParameterNames() {
+        return Collections.unmodifiableList(Arrays.asList(parameterNames));
+    }
+
+    /**
+     * 绑定参数
+     *
+     * @param values 参数值
+     * @param definitions 参数定义，按名称索引，可以为空
+     * @return 绑定结果
+     */
+    public BoundSql bind(Map<String, Object> values, Map<String, QueryParameter> definitions) {
+        return bind(values, definitions, null);
+    }
+
+    /**
+     * 按默认方言(MySQL)绑定参数及分页
+     *
+     * @param values 参数值
+     * @param definitions 参数定义，按名称索引，可以为空
+     * @param pagination 分页参数，可以为空
+     * @return 绑定结果
+     */
+    public BoundSql bind(Map<String, Object> values, Map<String, QueryParameter> definitions,
+            QueryPagination pagination) {
+        return bind(values, definitions, pagination, SqlDialects.DEFAULT);
+    }
+
+    /**
+     * 绑定参数及分页，偏移量和大小同样以参数形式绑定，翻页时SQL文本保持不变
+     *
+     * @param values 参数值
+     * @param definitions 参数定义，按名称索引，可以为空
+     * @param pagination 分页参数，可以为空
+     * @param dialect 生成分页子句的SQL方言
+     * @return 绑定结果
+     */
+    public BoundSql bind(Map<String, Object> values, Map<String, QueryParameter> definitions,
+            QueryPagination pagination, SqlDialect dialect) {
+        boolean paginated = isValidPagination(pagination);
+        List<BoundSql.Parameter> parameters = new ArrayList<>(parameterNames.length + (paginated ? 2 : 0));
+        StringBuilder expanded = null;
+
+        for (int i = 0; i < parameterNames.length; i++) {
+            String name = parameterNames[i];
+            QueryParameter definition = definitions != null ? definitions.get(name) : null;
+            Object value = resolveValue(name, values, definition);
+            SqlParameterType type = SqlParameterType.of(definition != null ? definition.getType() : null);
+
+            List<Object> elements = asElements(value);
+            if (elements == null) {
+                parameters.add(new BoundSql.Parameter(name, type, value));
+                if (expanded != null) {
+                    expanded.append('?').append(fragments[i + 1]);
+                }
+                continue;
+            }
+
+            // 集合参数展开为多个占位符，SQL文本随元素个数变化
+            if (expanded == null) {
+                expanded = new StringBuilder(sql.length() + elements.size() * 3);
+                for (int j = 0; j < i; j++) {
+                    expanded.append(fragments[j]).append('?');
+                }
+                expanded.append(fragments[i]);
+            }
+            if (elements.isEmpty()) {
+                // 空集合，IN (NULL) 不匹配任何行
+                expanded.append("NULL");
+            }
+            for (int j = 0; j < elements.size(); j++) {
+                expanded.append(j == 0 ? "?" : ", ?");
+                parameters.add(new BoundSql.Parameter(name, type, elements.get(j)));
+            }
+            expanded.append(fragments[i + 1]);
+        }
+
+        BoundSql bound = new BoundSql(expanded != null ? expanded.toString() : sql, parameters);
+        if (!paginated) {
+            return bound;
+        }
+
+        int size = pagination.getSize();
+        return dialect.paginate(bound, offset(pagination.getPage(), size), size);
+    }
+
+    /**
+     * 计算分页偏移量，超出int范围时视为非法参数，避免溢出为负数
+     *
+     * @param page 页码，从1开始
+     * @param size 每页大小
+     * @return 偏移量
+     * @throws DataScopeException 偏移量超出范围
+     */
+    public static int offset(int page, int size) {
+        long offset = ((long) page - 1) * size;
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw new DataScopeException(ErrorCode.INVALID_PARAMETER,
+                    "分页参数超出范围: page=" + page + ", size=" + size);
+        }
+        return (int) offset;
+    }
+
+    /**
+     * 绑定参数及键集分页，原始查询作为派生表按排序键排序，有游标时从游标之后取一页，
+     * 否则从偏移量处开始取
+     *
+     * @param values 参数值
+     * @param definitions 参数定义，按名称索引，可以为空
+     * @param keyColumns 排序键列名，必须唯一确定一行
+     * @param descending 是否降序
+     * @param cursor 上一页的游标，可以为空
+     * @param offset 没有游标时的偏移量
+     * @param size 每页大小
+     * @param dialect 引用排序键、生成行数限制和分页子句的SQL方言
+     * @return 绑定结果
+     */
+    public BoundSql bindKeyset(Map<String, Object> values, Map<String, QueryParameter> definitions,
+            List<String> keyColumns, boolean descending, KeysetCursor cursor, int offset, int size,
+            SqlDialect dialect) {
+        BoundSql base = bind(values, definitions, null);
+        boolean seek = cursor != null;
+
+        int keyCount = keyColumns.size();
+        List<BoundSql.Parameter> parameters = new ArrayList<>(
+                base.getParameters().size() + keyCount * (keyCount + 1) / 2);
+        parameters.addAll(base.getParameters());
+        if (seek) {
+            // 与 SqlUtils.applyKeysetPagination 生成的条件顺序一致：第i个条件依次引用前i+1个键
+            for (int i = 0; i < keyCount; i++) {
+                for (int j = 0; j <= i; j++) {
+                    parameters.add(new BoundSql.Parameter(
+                            keyColumns.get(j), cursor.getTypes().get(j), cursor.getValues().get(j)));
+                }
+            }
+        }
+
+        BoundSql ordered = new BoundSql(
+                SqlUtils.applyKeysetPagination(base.getSql(), keyColumns, descending, seek, dialect),
+                parameters);
+        return seek || offset == 0 ? dialect.limit(ordered, size) : dialect.paginate(ordered, offset, size);
+    }
+
+    private boolean isValidPagination(QueryPagination pagination) {
+        if (pagination == null) {
+            return false;
+        }
+        Integer page = pagination.getPage();
+        Integer size = pagination.getSize();
+        return page != null && size != null && page >= 1 && size >= 1;
+    }
+
+    private Object resolveValue(String name, Map<String, Object> values, QueryParameter definition) {
+        Object value = values != null ? values.get(name) : null;
+        if (value == null && definition != null) {
+            value = definition.getDefaultValue();
+            if (value == null && Boolean.TRUE.equals(definition.getRequired())) {
+                throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "缺少必填参数: " + name);
+            }
+        }
+        return value;
+    }
+
+    private List<Object> asElements(Object value) {
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        if (value != null && value.getClass().isArray() && !(value instanceof byte[])) {
+            int length = Array.getLength(value);
+            List<Object> elements = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                elements.add(Array.get(value, i));
+            }
+            return elements;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
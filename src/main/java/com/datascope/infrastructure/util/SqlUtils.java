@@ -3,8 +3,11 @@ package com.datascope.infrastructure.util;
 import com.datascope.domain.model.query.QueryPagination;
 import com.datascope.infrastructure.common.exception.DataScopeException;
 import com.datascope.infrastructure.common.exception.ErrorCode;
+import com.datascope.infrastructure.dialect.SqlDialect;
 import org.springframework.util.StringUtils;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -16,6 +19,29 @@ public class SqlUtils {
 
     private static final Pattern PARAM_PATTERN = Pattern.compile("\\{\\{([^}]+)\\}\\}");
 
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*");
+
+    private static final Pattern FROM_PATTERN = Pattern.compile(
+            "\\bFROM\\s+([`\"]?[\\w$]+[`\"]?(?:\\s*\\.\\s*[`\"]?[\\w$]+[`\"]?)?)"
+                    + "(?:\\s+(?:AS\\s+)?[\\w$]+)?\\s*(,)?",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern FROM_KEYWORD_PATTERN = Pattern.compile("\\bFROM\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 出现这些关键字的查询不是简单的单表查询
+     */
+    private static final Pattern COMPLEX_QUERY_PATTERN = Pattern.compile(
+            "\\b(JOIN|UNION|INTERSECT|EXCEPT|GROUP\\s+BY|HAVING|DISTINCT)\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern SELECT_LIST_PATTERN = Pattern.compile(
+            "^\\s*SELECT\\s+(.*?)\\s+FROM\\b", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /**
+     * 键集分页时包裹原始查询的派生表别名
+     */
+    private static final String KEYSET_ALIAS = "keyset_page";
+
     /**
      * 渲染SQL模板，替换其中的参数
      *
@@ -79,4 +105,194 @@ public class SqlUtils {
         // 默认使用MySQL的分页语法
         return sql + " LIMIT " + offset + ", " + size;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 应用键集分页到SQL语句
+     * <p>
+     * 原始查询作为派生表，按排序键排序后从游标位置向后查找：
+     * 排序键 (k1, k2) 升序时条件为 k1 > ? OR (k1 = ? AND k2 > ?)，
+     * 数据库可以直接沿排序键上的唯一索引定位起点，翻到任何一页的代价都与第一页相同。
+     * 排序键列名按数据源方言加引号，行数限制由调用方按数据源方言追加。
+     *
+     * @param sql 原始SQL
+     * @param keyColumns 排序键列名，必须唯一确定一行
+     * @param descending 是否降序
+     * @param seek 是否带游标条件，条件中的参数按列依次展开，共 n(n+1)/2 个
+     * @param dialect 数据源方言
+     * @return 添加了游标条件和排序的SQL
+     */
+    public static String applyKeysetPagination(String sql, List<String> keyColumns, boolean descending,
+            boolean seek, SqlDialect dialect) {
+        String[] columns = new String[keyColumns.size()];
+        for (int i = 0; i < columns.length; i++) {
+            String column = keyColumns.get(i);
+            if (!StringUtils.hasText(column)) {
+                throw new DataScopeException(ErrorCode.INVALID_PARAMETER, "无效的排序字段: " + column);
+            }
+            columns[i] = KEYSET_ALIAS + "." + dialect.quoteIdentifier(column);
+        }
+
+        String inner = stripTrailingSemicolon(sql);
+        StringBuilder result = new StringBuilder(inner.length() + 64 * columns.length);
+        result.append("SELECT * FROM (").append(inner);
+        // 原始SQL以行注释结尾时，右括号必须另起一行
+        if (inner.contains("--")) {
+            result.append('\n');
+        }
+        result.append(") ").append(KEYSET_ALIAS);
+
+        if (seek) {
+            String comparison = descending ? " < ?" : " > ?";
+            result.append(" WHERE ");
+            for (int i = 0; i < keyColumns.size(); i++) {
+                if (i > 0) {
+                    result.append(" OR ");
+                }
+                result.append('(');
+                for (int j = 0; j < i; j++) {
+                    result.append(columns[j]).append(" = ? AND ");
+                }
+                result.append(columns[i]).append(comparison).append(')');
+            }
+        }
+
+        result.append(" ORDER BY ");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(columns[i]).append(descending ? " DESC" : " ASC");
+        }
+        return result.toString();
+    }
+
+    /**
+     * 判断最外层查询是否带有ORDER BY(忽略括号内的子查询、字符串常量、引用标识符和注释)
+     *
+     * @param sql SQL语句
+     * @return 是否带有ORDER BY
+     */
+    public static boolean hasTopLevelOrderBy(String sql) {
+        String upper = sql.toUpperCase(Locale.ROOT);
+        int depth = 0;
+        for (int i = 0; i < upper.length(); i++) {
+            int end = skipQuotedOrComment(upper, i);
+            if (end > i) {
+                i = end - 1;
+                continue;
+            }
+            char c = upper.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && upper.startsWith("ORDER", i)
+                    && (i == 0 || !Character.isLetterOrDigit(upper.charAt(i - 1)))
+                    && upper.substring(i + 5).trim().startsWith("BY")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解析简单单表查询的表名
+     *
+     * @param sql SQL语句
+     * @return [schema, table]，未指定schema时schema为null；不是简单单表查询时返回null
+     */
+    public static String[] extractSingleTable(String sql) {
+        if (sql == null || COMPLEX_QUERY_PATTERN.matcher(sql).find()) {
+            return null;
+        }
+
+        // 子查询会出现多个FROM
+        Matcher keywordMatcher = FROM_KEYWORD_PATTERN.matcher(sql);
+        int fromCount = 0;
+        while (keywordMatcher.find()) {
+            fromCount++;
+        }
+        Matcher matcher = FROM_PATTERN.matcher(sql);
+        if (fromCount != 1 || !matcher.find() || matcher.group(2) != null) {
+            return null;
+        }
+
+        String[] parts = matcher.group(1).split("\\.");
+        if (parts.length == 1) {
+            return new String[]{null, unquote(parts[0])};
+        }
+        return new String[]{unquote(parts[0]), unquote(parts[1])};
+    }
+
+    /**
+     * 判断查询的输出列是否包含指定列
+     * <p>
+     * 只做词法判断：SELECT * 或 SELECT t.* 视为包含所有列，否则要求列名作为独立的一项出现在选择列表中。
+     *
+     * @param sql SQL语句
+     * @param column 列名
+     * @return 是否包含
+     */
+    public static boolean selectsColumn(String sql, String column) {
+        Matcher matcher = SELECT_LIST_PATTERN.matcher(sql);
+        if (!matcher.find()) {
+            return false;
+        }
+        String selectList = matcher.group(1).trim();
+        if (selectList.equals("*") || selectList.endsWith(".*")) {
+            return true;
+        }
+        // 列必须以原名单独出现(可带表别名前缀)，带别名或参与表达式时输出列名会变化
+        Pattern columnPattern = Pattern.compile(
+                "(^|,)\\s*(?:[`\"]?[\\w$]+[`\"]?\\s*\\.\\s*)?[`\"]?" + Pattern.quote(column) + "[`\"]?\\s*(,|$)",
+                Pattern.CASE_INSENSITIVE);
+        return columnPattern.matcher(selectList).find();
+    }
+
+    /**
+     * 是否为不需要引号的普通标识符
+     */
+    public static boolean isIdentifier(String name) {
+        return name != null && IDENTIFIER_PATTERN.matcher(name).matches();
+    }
+
+    /**
+     * 跳过从指定位置开始的字符串常量、引用标识符或注释
+     *
+     * @return 其后第一个字符的位置；该位置不是常量或注释的开头时原样返回
+     */
+    private static int skipQuotedOrComment(String sql, int start) {
+        char c = sql.charAt(start);
+        String close;
+        if (c == '\'' || c == '"' || c == '`') {
+            // 连续两个引号的转义视为先结束再开始，结果相同
+            close = String.valueOf(c);
+        } else if (c == '[') {
+            close = "]";
+        } else if (sql.startsWith("--", start)) {
+            close = "\n";
+        } else if (sql.startsWith("/*", start)) {
+            close = "*/";
+        } else {
+            return start;
+        }
+        int end = sql.indexOf(close, start + (close.equals("*/") ? 2 : 1));
+        return end < 0 ? sql.length() : end + close.length();
+    }
+
+    private static String unquote(String identifier) {
+        String trimmed = identifier.trim();
+        if (trimmed.length() >= 2 && (trimmed.startsWith("`") || trimmed.startsWith("\""))) {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    private static String stripTrailingSemicolon(String sql) {
+        String trimmed = sql.trim();
+        while (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+}
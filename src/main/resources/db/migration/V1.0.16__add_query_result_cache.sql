@@ -0,0 +1,3 @@
+-- 查询配置增加结果缓存开关
+ALTER TABLE `query_config`
+    ADD COLUMN `cache_enabled` TINYINT(1) NOT NULL DEFAULT 0 COMMENT '是否缓存查询结果' AFTER `max_rows`;
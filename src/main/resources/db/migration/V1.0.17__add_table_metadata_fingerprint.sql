@@ -0,0 +1,4 @@
+-- 表元数据增加DDL指纹，增量同步时据此判断表结构是否变化
+ALTER TABLE `table_metadata`
+    ADD COLUMN `ddl_fingerprint` VARCHAR(64) DEFAULT NULL COMMENT 'DDL指纹' AFTER `index_size`,
+    ADD KEY `idx_table_metadata_ds_schema` (`data_source_id`, `schema_name`);
@@ -0,0 +1,19 @@
+-- 创建元数据同步记录表
+CREATE TABLE IF NOT EXISTS `metadata_sync_run` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `data_source_id` VARCHAR(36) NOT NULL COMMENT '数据源ID',
+    `trigger_type` VARCHAR(20) NOT NULL COMMENT '触发方式',
+    `status` VARCHAR(20) NOT NULL COMMENT '状态',
+    `started_at` DATETIME NOT NULL COMMENT '开始时间',
+    `finished_at` DATETIME DEFAULT NULL COMMENT '结束时间',
+    `duration_ms` BIGINT DEFAULT NULL COMMENT '耗时(毫秒)',
+    `added_tables` INT DEFAULT NULL COMMENT '新增的表数量',
+    `updated_tables` INT DEFAULT NULL COMMENT '更新的表数量',
+    `deleted_tables` INT DEFAULT NULL COMMENT '删除的表数量',
+    `unchanged_tables` INT DEFAULT NULL COMMENT '未变化的表数量',
+    `error_message` VARCHAR(1000) DEFAULT NULL COMMENT '错误信息',
+    PRIMARY KEY (`id`),
+    KEY `idx_metadata_sync_run_ds_started` (`data_source_id`, `started_at`),
+    KEY `idx_metadata_sync_run_started` (`started_at`),
+    CONSTRAINT `fk_metadata_sync_run_data_source` FOREIGN KEY (`data_source_id`) REFERENCES `data_source` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='元数据同步记录表';
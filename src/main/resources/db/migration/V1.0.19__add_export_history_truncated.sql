@@ -0,0 +1,3 @@
+-- 导出历史增加截断标记，导出行数超过上限时只写出上限内的数据
+ALTER TABLE `export_history`
+    ADD COLUMN `truncated` TINYINT(1) DEFAULT NULL COMMENT '是否超过行数上限被截断' AFTER `row_count`;
@@ -0,0 +1,4 @@
+-- 导出历史增加执行节点标识，重启时每个节点只结束自己中断的导出
+ALTER TABLE `export_history`
+    ADD COLUMN `instance_id` VARCHAR(100) DEFAULT NULL COMMENT '执行导出的节点实例标识' AFTER `status`,
+    ADD KEY `idx_export_history_instance_status` (`instance_id`, `status`);
@@ -0,0 +1,4 @@
+-- 元数据同步记录增加执行节点标识，重启时每个节点只结束自己中断的同步
+ALTER TABLE `metadata_sync_run`
+    ADD COLUMN `instance_id` VARCHAR(100) DEFAULT NULL COMMENT '执行同步的节点实例标识' AFTER `status`,
+    ADD KEY `idx_metadata_sync_run_instance_status` (`instance_id`, `status`);
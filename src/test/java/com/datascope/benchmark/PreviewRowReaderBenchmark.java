@@ -0,0 +1,198 @@
+package com.datascope.benchmark;
+
+import com.datascope.domain.model.metadata.ColumnMetadata;
+import com.datascope.domain.model.metadata.ColumnType;
+import com.datascope.domain.service.preview.PreviewRowReader;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 预览结果读取基准测试：对比逐单元格按列名读取(每行判断系统列)与预编译的按位置读取。
+ *
+ * <p>结果集为模拟实现，按列名访问时与 JDBC 驱动一样先做大小写不敏感的列名查找，两种方式的其余开销相同。
+ * 每次调用读取 {@link #ROWS} 行，运行方式同 {@link SqlTemplateBenchmark}。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreviewRowReaderBenchmark {
+
+  private static final int ROWS = 1000;
+
+  private List<ColumnMetadata> columns;
+
+  private PreviewRowReader reader;
+
+  private ResultSet resultSet;
+
+  private int[] cursor;
+
+  @Setup
+  public void setUp() {
+    columns = new ArrayList<>();
+    columns.add(column("id", ColumnType.BIGINT));
+    columns.add(column("order_no", ColumnType.VARCHAR));
+    columns.add(column("customer_id", ColumnType.INTEGER));
+    columns.add(column("amount", ColumnType.DECIMAL));
+    columns.add(column("discount", ColumnType.DOUBLE));
+    columns.add(column("status", ColumnType.VARCHAR));
+    columns.add(column("paid", ColumnType.BOOLEAN));
+    columns.add(column("remark", ColumnType.TEXT));
+    columns.add(column("region", ColumnType.CHAR));
+    columns.add(column("quantity", ColumnType.SMALLINT));
+    columns.add(column("paid_at", ColumnType.TIMESTAMP));
+    columns.add(column("shipped_at", ColumnType.TIMESTAMP));
+
+    reader = PreviewRowReader.compile(columns);
+    cursor = new int[1];
+    resultSet = resultSet(columns, cursor);
+  }
+
+  @Benchmark
+  public int byName() throws SQLException {
+    cursor[0] = 0;
+    int cells = 0;
+    while (resultSet.next()) {
+      List<Object> row = new ArrayList<>();
+      for (ColumnMetadata column : columns) {
+        if (isSystemColumn(column)) {
+          continue;
+        }
+        row.add(getColumnValue(resultSet, column));
+      }
+      cells += row.size();
+    }
+    return cells;
+  }
+
+  @Benchmark
+  public int precompiled() throws SQLException {
+    cursor[0] = 0;
+    int cells = 0;
+    while (resultSet.next()) {
+      cells += reader.read(resultSet).length;
+    }
+    return cells;
+  }
+
+  private static ColumnMetadata column(String name, ColumnType type) {
+    ColumnMetadata column = new ColumnMetadata();
+    column.setName(name);
+    column.setType(type);
+    return column;
+  }
+
+  /** 模拟结果集：按位置读取直接取值，按列名读取先经过驱动式的列名查找 */
+  private static ResultSet resultSet(List<ColumnMetadata> columns, int[] cursor) {
+    Map<String, Integer> columnIndex = new HashMap<>();
+    Object[] values = new Object[columns.size()];
+    for (int i = 0; i < columns.size(); i++) {
+      columnIndex.put(columns.get(i).getName().toLowerCase(Locale.ROOT), i);
+      values[i] = sampleValue(columns.get(i).getType());
+    }
+    return (ResultSet)
+        Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class},
+            (proxy, method, args) -> {
+              if ("next".equals(method.getName())) {
+                return ++cursor[0] <= ROWS;
+              }
+              if ("wasNull".equals(method.getName())) {
+                return false;
+              }
+              Object column = args[0];
+              int index =
+                  column instanceof Integer
+                      ? (Integer) column - 1
+                      : columnIndex.get(((String) column).toLowerCase(Locale.ROOT));
+              return values[index];
+            });
+  }
+
+  private static Object sampleValue(ColumnType type) {
+    switch (type) {
+      case BIGINT:
+        return 1234567L;
+      case INTEGER:
+        return 42;
+      case SMALLINT:
+        return 3;
+      case DECIMAL:
+        return new BigDecimal("199.90");
+      case DOUBLE:
+        return 0.85d;
+      case BOOLEAN:
+        return Boolean.TRUE;
+      case TIMESTAMP:
+        return new Timestamp(1700000000000L);
+      default:
+        return "value";
+    }
+  }
+
+  // 以下为改造前 DataPreviewServiceImpl 的读取方式
+
+  private static boolean isSystemColumn(ColumnMetadata column) {
+    String name = column.getName().toLowerCase();
+    return name.startsWith("sys_")
+        || name.equals("created_at")
+        || name.equals("updated_at")
+        || name.equals("created_by")
+        || name.equals("updated_by");
+  }
+
+  private static Object getColumnValue(ResultSet rs, ColumnMetadata column) throws SQLException {
+    switch (column.getType()) {
+      case TINYINT:
+      case SMALLINT:
+      case INTEGER:
+        return rs.getInt(column.getName());
+      case BIGINT:
+        return rs.getLong(column.getName());
+      case FLOAT:
+        return rs.getFloat(column.getName());
+      case DOUBLE:
+        return rs.getDouble(column.getName());
+      case DECIMAL:
+        return rs.getBigDecimal(column.getName());
+      case TIMESTAMP:
+        return rs.getTimestamp(column.getName());
+      case BOOLEAN:
+        return rs.getBoolean(column.getName());
+      default:
+        return rs.getString(column.getName());
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(PreviewRowReaderBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
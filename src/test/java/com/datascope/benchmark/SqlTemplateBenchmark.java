@@ -0,0 +1,105 @@
+package com.datascope.benchmark;
+
+import com.datascope.domain.model.query.QueryConfig;
+import com.datascope.domain.model.query.QueryPagination;
+import com.datascope.domain.service.query.QueryTemplateCache;
+import com.datascope.infrastructure.dialect.SqlDialects;
+import com.datascope.infrastructure.util.BoundSql;
+import com.datascope.infrastructure.util.SqlTemplate;
+import com.datascope.infrastructure.util.SqlUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * SQL模板渲染基准测试：对比 SqlUtils 字面量拼接、每次编译模板、以及从缓存获取已编译模板三种方式。
+ *
+ * <p>运行方式：mvn test-compile 后执行本类的 main 方法（或 java -cp 测试类路径 org.openjdk.jmh.Main
+ * SqlTemplateBenchmark），可附加 -prof gc 查看每次调用的内存分配。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlTemplateBenchmark {
+
+  private static final String SQL_TEMPLATE =
+      "SELECT o.id, o.order_no, o.amount, o.status, c.name AS customer_name, o.created_at"
+          + " FROM orders o JOIN customer c ON c.id = o.customer_id"
+          + " WHERE o.status = {{status}} AND o.amount >= {{minAmount}}"
+          + " AND o.created_at BETWEEN {{startTime}} AND {{endTime}}"
+          + " AND c.region = {{region}} ORDER BY o.created_at DESC";
+
+  private static final String PARAMETER_DEFINITIONS =
+      "[{\"name\":\"status\",\"type\":\"string\"},{\"name\":\"minAmount\",\"type\":\"decimal\"},"
+          + "{\"name\":\"startTime\",\"type\":\"datetime\"},{\"name\":\"endTime\",\"type\":\"datetime\"},"
+          + "{\"name\":\"region\",\"type\":\"string\"}]";
+
+  private Map<String, Object> parameters;
+
+  private QueryPagination pagination;
+
+  private QueryConfig queryConfig;
+
+  private QueryTemplateCache templateCache;
+
+  @Setup
+  public void setUp() {
+    parameters = new HashMap<>();
+    parameters.put("status", "PAID");
+    parameters.put("minAmount", 100);
+    parameters.put("startTime", "2024-01-01 00:00:00");
+    parameters.put("endTime", "2024-12-31 23:59:59");
+    parameters.put("region", "East China");
+
+    pagination = QueryPagination.builder().page(3).size(50).build();
+
+    queryConfig = new QueryConfig();
+    queryConfig.setId("benchmark-query");
+    queryConfig.setSqlTemplate(SQL_TEMPLATE);
+    queryConfig.setParameters(PARAMETER_DEFINITIONS);
+    queryConfig.setUpdatedAt(LocalDateTime.now());
+
+    templateCache = new QueryTemplateCache(new ObjectMapper(), 1000);
+    templateCache.get(queryConfig);
+  }
+
+  @Benchmark
+  public String sqlUtilsRender() {
+    String sql = SqlUtils.renderSqlTemplate(SQL_TEMPLATE, parameters);
+    return SqlUtils.applyPagination(sql, pagination);
+  }
+
+  @Benchmark
+  public BoundSql compileAndBind() {
+    return SqlTemplate.compile(SQL_TEMPLATE).bind(parameters, null, pagination);
+  }
+
+  @Benchmark
+  public BoundSql cachedBind() {
+    return templateCache.get(queryConfig).bind(parameters, pagination, SqlDialects.DEFAULT);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(SqlTemplateBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
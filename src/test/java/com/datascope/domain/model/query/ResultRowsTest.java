@@ -0,0 +1,64 @@
+package com.datascope.domain.model.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ResultRowsTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void testSerializeSameShapeAsMapRows() throws Exception {
+    ResultRows rows = new ResultRows(Arrays.asList("id", "name", "score"));
+    rows.addRow(new Object[] {1L, "alice", 9.5});
+    rows.addRow(new Object[] {2L, null, 7.0});
+
+    Map<String, Object> first = new LinkedHashMap<>();
+    first.put("id", 1L);
+    first.put("name", "alice");
+    first.put("score", 9.5);
+    Map<String, Object> second = new LinkedHashMap<>();
+    second.put("id", 2L);
+    second.put("name", null);
+    second.put("score", 7.0);
+    List<Map<String, Object>> expected = Arrays.asList(first, second);
+
+    assertEquals(objectMapper.writeValueAsString(expected), objectMapper.writeValueAsString(rows));
+    assertEquals(expected, rows);
+  }
+
+  @Test
+  void testSerializeAsQueryResultField() throws Exception {
+    ResultRows rows = new ResultRows(Arrays.asList("id"));
+    rows.addRow(new Object[] {42});
+    QueryResult result = QueryResult.builder().rows(rows).build();
+
+    String json = objectMapper.writeValueAsString(result);
+
+    assertEquals(
+        objectMapper.readTree("[{\"id\":42}]"), objectMapper.readTree(json).get("rows"));
+  }
+
+  @Test
+  void testDuplicateColumnNamesKeepLastValue() {
+    ResultRows rows = new ResultRows(Arrays.asList("id", "id"));
+    rows.addRow(new Object[] {1, 2});
+
+    assertEquals(1, rows.get(0).size());
+    assertEquals(2, rows.get(0).get("id"));
+  }
+
+  @Test
+  void testRowWidthMismatch() {
+    ResultRows rows = new ResultRows(Arrays.asList("id", "name"));
+
+    assertThrows(IllegalArgumentException.class, () -> rows.addRow(new Object[] {1}));
+  }
+}
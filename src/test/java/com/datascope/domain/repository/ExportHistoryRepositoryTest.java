@@ -0,0 +1,100 @@
+package com.datascope.domain.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.datascope.domain.model.export.ExportHistory;
+import com.datascope.domain.model.export.ExportStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExportHistoryRepositoryTest {
+
+  private static final List<ExportStatus> UNFINISHED =
+      List.of(ExportStatus.PENDING, ExportStatus.PROCESSING);
+
+  @Autowired private ExportHistoryRepository exportHistoryRepository;
+
+  @Test
+  void cancelAfterFinish_ShouldKeepCompletedStatus() {
+    String id = save(ExportStatus.PENDING);
+    LocalDateTime now = LocalDateTime.now();
+    assertEquals(
+        1, exportHistoryRepository.start(id, ExportStatus.PENDING, ExportStatus.PROCESSING, now));
+
+    assertEquals(1, finish(id, ExportStatus.COMPLETED, 2048L));
+    // 完成后到达的取消请求不生效
+    assertEquals(0, finish(id, ExportStatus.CANCELLED, null));
+
+    ExportHistory history = exportHistoryRepository.findById(id).orElseThrow();
+    assertEquals(ExportStatus.COMPLETED, history.getStatus());
+    assertEquals(2048L, history.getFileSize());
+  }
+
+  @Test
+  void finishAfterCancel_ShouldKeepCancelledStatus() {
+    String id = save(ExportStatus.PENDING);
+
+    assertEquals(1, finish(id, ExportStatus.CANCELLED, null));
+    // 已取消的导出不会再开始，也不会被标记为完成
+    assertEquals(
+        0,
+        exportHistoryRepository.start(
+            id, ExportStatus.PENDING, ExportStatus.PROCESSING, LocalDateTime.now()));
+    assertEquals(0, finish(id, ExportStatus.COMPLETED, 2048L));
+
+    ExportHistory history = exportHistoryRepository.findById(id).orElseThrow();
+    assertEquals(ExportStatus.CANCELLED, history.getStatus());
+    assertNull(history.getFileSize());
+  }
+
+  @Test
+  void failUnfinished_ShouldOnlyFailExportsOfInstance() {
+    String local = save(ExportStatus.PROCESSING, "node-a");
+    String other = save(ExportStatus.PROCESSING, "node-b");
+    LocalDateTime now = LocalDateTime.now();
+
+    assertEquals(
+        1,
+        exportHistoryRepository.failUnfinished(
+            "node-a", UNFINISHED, ExportStatus.FAILED, "服务重启，导出中断", now));
+
+    ExportHistory failed = exportHistoryRepository.findById(local).orElseThrow();
+    assertEquals(ExportStatus.FAILED, failed.getStatus());
+    assertNotNull(failed.getEndTime());
+    // 其他节点执行中的导出不受影响
+    assertEquals(
+        ExportStatus.PROCESSING, exportHistoryRepository.findById(other).orElseThrow().getStatus());
+  }
+
+  private String save(ExportStatus status) {
+    return save(status, null);
+  }
+
+  private String save(ExportStatus status, String instanceId) {
+    ExportHistory history =
+        ExportHistory.builder()
+            .id(UUID.randomUUID().toString())
+            .exportConfigId(UUID.randomUUID().toString())
+            .fileName("orders.csv")
+            .startTime(LocalDateTime.now())
+            .status(status)
+            .instanceId(instanceId)
+            .createdBy("tester")
+            .build();
+    return exportHistoryRepository.save(history).getId();
+  }
+
+  private int finish(String id, ExportStatus status, Long fileSize) {
+    return exportHistoryRepository.finish(
+        id, UNFINISHED, status, fileSize, null, null, null, LocalDateTime.now());
+  }
+}
@@ -0,0 +1,59 @@
+package com.datascope.domain.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.datascope.domain.model.metadata.MetadataSyncRun;
+import com.datascope.domain.model.metadata.MetadataSyncRunStatus;
+import com.datascope.domain.model.metadata.MetadataSyncTrigger;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MetadataSyncRunRepositoryTest {
+
+  @Autowired private MetadataSyncRunRepository syncRunRepository;
+
+  @Test
+  void failUnfinished_ShouldOnlyFailRunsOfInstance() {
+    Long local = save("node-a", MetadataSyncRunStatus.RUNNING);
+    Long queued = save("node-a", MetadataSyncRunStatus.QUEUED);
+    Long other = save("node-b", MetadataSyncRunStatus.RUNNING);
+    LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    assertEquals(
+        2,
+        syncRunRepository.failUnfinished(
+            "node-a",
+            List.of(MetadataSyncRunStatus.QUEUED, MetadataSyncRunStatus.RUNNING),
+            MetadataSyncRunStatus.FAILED,
+            "服务重启，同步中断",
+            now));
+
+    for (Long id : List.of(local, queued)) {
+      MetadataSyncRun run = syncRunRepository.findById(id).orElseThrow();
+      assertEquals(MetadataSyncRunStatus.FAILED, run.getStatus());
+      assertEquals(now, run.getFinishedAt());
+    }
+    // 其他节点执行中的同步不受影响
+    MetadataSyncRun running = syncRunRepository.findById(other).orElseThrow();
+    assertEquals(MetadataSyncRunStatus.RUNNING, running.getStatus());
+    assertNull(running.getFinishedAt());
+  }
+
+  private Long save(String instanceId, MetadataSyncRunStatus status) {
+    MetadataSyncRun run = new MetadataSyncRun();
+    run.setDataSourceId(UUID.randomUUID().toString());
+    run.setTrigger(MetadataSyncTrigger.MANUAL);
+    run.setInstanceId(instanceId);
+    run.setStatus(status);
+    run.setStartedAt(LocalDateTime.now());
+    return syncRunRepository.save(run).getId();
+  }
+}
@@ -9,6 +9,7 @@ import com.datascope.domain.model.datasource.DataSourceStatus;
 import com.datascope.domain.model.datasource.DataSourceType;
 import com.datascope.domain.model.datasource.vo.DataSourceVO;
 import com.datascope.domain.repository.DataSourceRepository;
+import com.datascope.domain.service.datasource.DataSourceCircuitBreakerRegistry;
 import com.datascope.domain.service.impl.DataSourceServiceImpl;
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +27,8 @@ class DataSourceServiceTest {
 
   @Mock private DataSourceRepository dataSourceRepository;
 
+  @Mock private DataSourceCircuitBreakerRegistry circuitBreakers;
+
   @InjectMocks private DataSourceServiceImpl dataSourceService;
 
   private DataSourceVO dataSourceVO;
@@ -0,0 +1,60 @@
+package com.datascope.domain.service.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.datascope.infrastructure.util.CircuitBreaker;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class DataSourceCircuitBreakerRegistryTest {
+
+  private DataSourceCircuitBreakerRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new DataSourceCircuitBreakerRegistry();
+    ReflectionTestUtils.setField(registry, "enabled", true);
+    ReflectionTestUtils.setField(registry, "windowSize", 10);
+    ReflectionTestUtils.setField(registry, "minimumCalls", 4);
+    ReflectionTestUtils.setField(registry, "failureRateThreshold", 50);
+    ReflectionTestUtils.setField(registry, "slowCallDurationMs", 60_000L);
+    ReflectionTestUtils.setField(registry, "slowCallRateThreshold", 100);
+    ReflectionTestUtils.setField(registry, "openDurationMs", 100L);
+    ReflectionTestUtils.setField(registry, "halfOpenCalls", 1);
+  }
+
+  @Test
+  void testQueryTimeoutsOpenCircuit() throws Exception {
+    // 每次查询只记录一次结果，连接获取成功不会抵消超时
+    for (int i = 0; i < 4; i++) {
+      registry.acquirePermission("ds");
+      registry.onQueryComplete("ds", 30_000, new SQLTimeoutException("timeout"));
+    }
+
+    assertEquals(CircuitBreaker.State.OPEN, registry.getState("ds"));
+    assertThrows(SQLTransientConnectionException.class, () -> registry.acquirePermission("ds"));
+    assertEquals(CircuitBreaker.State.CLOSED, registry.getState("other"));
+
+    // 半开后试探查询成功即关闭
+    Thread.sleep(120);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, registry.getState("ds"));
+    registry.acquirePermission("ds");
+    registry.onQueryComplete("ds", 10, null);
+    assertEquals(CircuitBreaker.State.CLOSED, registry.getState("ds"));
+  }
+
+  @Test
+  void testSqlErrorsDoNotOpenCircuit() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      registry.acquirePermission("ds");
+      registry.onQueryComplete("ds", 10, new SQLSyntaxErrorException("bad sql", "42000"));
+    }
+
+    assertEquals(CircuitBreaker.State.CLOSED, registry.getState("ds"));
+  }
+}
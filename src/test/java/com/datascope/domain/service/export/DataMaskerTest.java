@@ -0,0 +1,40 @@
+package com.datascope.domain.service.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import com.datascope.domain.model.export.MaskConfig;
+import com.datascope.domain.model.export.MaskType;
+
+/**
+ * 数据掩码单元测试
+ */
+public class DataMaskerTest {
+
+    @Test
+    public void testMaskTypes() {
+        assertNull(DataMasker.of(MaskConfig.builder().type(MaskType.NONE).build()));
+        assertEquals("z****@example.com", mask(MaskType.EMAIL, "zhang@example.com"));
+        assertEquals("310101********1234", mask(MaskType.ID_CARD, "310101199001011234"));
+        assertEquals("6222********1234", mask(MaskType.BANK_CARD, "6222021234561234"));
+        assertEquals("张**", mask(MaskType.NAME, "张三丰"));
+        // 值长度不足以保留首尾时只保留第一个字符
+        assertEquals("1***", mask(MaskType.PHONE, "1234"));
+    }
+
+    @Test
+    public void testFixedAndRegexMask() {
+        DataMasker fixed = DataMasker.of(MaskConfig.builder().type(MaskType.FIXED).start(2).end(5).maskChar("#").build());
+        assertEquals("ab###fg", fixed.mask("abcdefg"));
+        assertEquals("a", fixed.mask("a"));
+
+        DataMasker regex = DataMasker.of(MaskConfig.builder().type(MaskType.REGEX).pattern("\\d{3}").build());
+        assertEquals("order-***-***9", regex.mask("order-123-4569"));
+    }
+
+    private static String mask(MaskType type, String value) {
+        return DataMasker.of(MaskConfig.builder().type(type).build()).mask(value);
+    }
+}
@@ -0,0 +1,158 @@
+package com.datascope.domain.service.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.domain.model.datasource.vo.DataSourceVO;
+import com.datascope.domain.model.export.ColumnConfig;
+import com.datascope.domain.model.export.ExportConfig;
+import com.datascope.domain.model.export.ExportType;
+import com.datascope.domain.model.export.FilterCondition;
+import com.datascope.domain.model.export.FilterConfig;
+import com.datascope.domain.model.export.MaskConfig;
+import com.datascope.domain.model.export.MaskType;
+import com.datascope.domain.repository.query.QueryConfigRepository;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.domain.service.query.QueryTemplateCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 导出引擎单元测试
+ */
+public class ExportEngineTest {
+
+    private DataSourceService dataSourceService;
+
+    private Connection connection;
+
+    private PreparedStatement statement;
+
+    private ResultSet resultSet;
+
+    private ExportEngine exportEngine;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        dataSourceService = mock(DataSourceService.class);
+        exportEngine = new ExportEngine(dataSourceService, mock(QueryConfigRepository.class),
+                mock(QueryTemplateCache.class), new ObjectMapper());
+        ReflectionTestUtils.setField(exportEngine, "maxRows", 2);
+        ReflectionTestUtils.setField(exportEngine, "timeout", 60);
+        ReflectionTestUtils.setField(exportEngine, "streamFetchSize", 500);
+
+        DataSourceVO dataSource = new DataSourceVO();
+        dataSource.setId("ds-1");
+        dataSource.setType(DataSourceType.POSTGRESQL);
+        when(dataSourceService.get("ds-1")).thenReturn(dataSource);
+
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        resultSet = mock(ResultSet.class);
+        when(dataSourceService.getConnection(any())).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt()))
+                .thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(3);
+        when(metaData.getColumnLabel(1)).thenReturn("phone");
+        when(metaData.getColumnLabel(2)).thenReturn("created_at");
+        when(metaData.getColumnLabel(3)).thenReturn("amount");
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        // 三行数据，超过上限的第三行不写出
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(resultSet.getObject(1)).thenReturn("13812345678", "=cmd()");
+        when(resultSet.getObject(2)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2024, 3, 5, 10, 30)), null);
+        when(resultSet.getObject(3)).thenReturn(new BigDecimal("1234.5"), new BigDecimal("7"));
+    }
+
+    @Test
+    public void testExportAppliesColumnRulesAndRowLimit() throws Exception {
+        ExportConfig config = ExportConfig.builder()
+                .id("export-1")
+                .dataSourceId("ds-1")
+                .tableName("sales.orders")
+                .exportType(ExportType.CSV)
+                .columnConfig(List.of(
+                        ColumnConfig.builder().field("phone").label("手机号").order(2)
+                                .maskConfig(MaskConfig.builder().type(MaskType.PHONE).build()).build(),
+                        ColumnConfig.builder().field("created_at").label("创建时间").order(1)
+                                .format("yyyy/MM/dd").build(),
+                        ColumnConfig.builder().field("amount").label("金额").format("#,##0.00").build(),
+                        ColumnConfig.builder().field("remark").export(false).build()))
+                .filterConfig(FilterConfig.builder()
+                        .conditions(List.of(
+                                FilterCondition.builder().field("status").operator("in").value(List.of("A", "B")).build(),
+                                FilterCondition.builder().field("deleted_at").operator("is null").build()))
+                        .build())
+                .build();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExportEngine.ExportSummary summary = exportEngine.export(config, output);
+
+        assertEquals(2, summary.getRowCount());
+        assertTrue(summary.isTruncated());
+        verify(connection).prepareStatement(
+                "SELECT \"phone\", \"created_at\", \"amount\" FROM \"sales\".\"orders\" "
+                        + "WHERE \"status\" IN (?, ?) AND \"deleted_at\" IS NULL",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        verify(statement).setMaxRows(3);
+        verify(statement).setFetchSize(500);
+        verify(connection).setAutoCommit(false);
+
+        // 按order排序，未设置order的排在最后；公式字符开头的文本加单引号
+        assertEquals("\uFEFF创建时间,手机号,金额\r\n"
+                        + "2024/03/05,138****5678,\"1,234.50\"\r\n"
+                        + ",'=*****,7.00\r\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testJsonExportKeepsNumbers() throws Exception {
+        ExportConfig config = ExportConfig.builder()
+                .dataSourceId("ds-1")
+                .tableName("orders")
+                .exportType(ExportType.JSON)
+                .build();
+        when(resultSet.next()).thenReturn(true, false);
+        // 行数上限为Integer.MAX_VALUE时不再多取一行，避免溢出
+        ReflectionTestUtils.setField(exportEngine, "maxRows", Integer.MAX_VALUE);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExportEngine.ExportSummary summary = exportEngine.export(config, output);
+
+        assertEquals(1, summary.getRowCount());
+        assertFalse(summary.isTruncated());
+        verify(connection).prepareStatement("SELECT * FROM \"orders\"",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        verify(statement).setMaxRows(Integer.MAX_VALUE);
+        List<?> rows = new ObjectMapper().readValue(output.toByteArray(), List.class);
+        assertEquals(Map.of("phone", "13812345678", "created_at", "2024-03-05 10:30:00", "amount", 1234.5),
+                rows.get(0));
+    }
+}
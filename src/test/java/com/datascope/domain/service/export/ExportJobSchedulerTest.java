@@ -0,0 +1,135 @@
+package com.datascope.domain.service.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.datascope.domain.service.query.QueryExecutionContext;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+
+/**
+ * 导出任务调度器单元测试
+ */
+public class ExportJobSchedulerTest {
+
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    private ExportJobScheduler scheduler;
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.destroy();
+    }
+
+    @Test
+    public void testUsersTakeTurns() throws Exception {
+        scheduler = new ExportJobScheduler(1, 10, 10, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(5);
+
+        scheduler.submit("a1", "alice", "ds", blocking("a1", release, finished));
+        scheduler.submit("a2", "alice", "ds", record("a2", finished));
+        scheduler.submit("a3", "alice", "ds", record("a3", finished));
+        scheduler.submit("a4", "alice", "ds", record("a4", finished));
+        scheduler.submit("b1", "bob", "ds", record("b1", finished));
+        release.countDown();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a1", "a2", "b1", "a3", "a4"), executed);
+    }
+
+    @Test
+    public void testDataSourceLimit() throws Exception {
+        scheduler = new ExportJobScheduler(2, 10, 1, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(2);
+
+        scheduler.submit("x1", "alice", "ds1", blocking("x1", release, finished));
+        scheduler.submit("x2", "bob", "ds1", record("x2", finished));
+        scheduler.submit("y1", "bob", "ds2", record("y1", otherDone));
+
+        // 另一个数据源的任务不受影响，同一数据源的任务等待前一个结束
+        assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+        assertFalse(executed.contains("x2"));
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("y1", "x1", "x2"), executed);
+    }
+
+    @Test
+    public void testUserLimit() throws Exception {
+        scheduler = new ExportJobScheduler(2, 1, 10, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(2);
+
+        scheduler.submit("a1", "alice", "ds1", blocking("a1", release, finished));
+        scheduler.submit("a2", "alice", "ds2", record("a2", finished));
+        scheduler.submit("b1", "bob", "ds1", record("b1", otherDone));
+
+        // 空闲线程留给其他用户，同一用户的任务等待前一个结束
+        assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+        assertFalse(executed.contains("a2"));
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("b1", "a1", "a2"), executed);
+    }
+
+    @Test
+    public void testCancelAndQueueCapacity() throws Exception {
+        scheduler = new ExportJobScheduler(1, 1, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        List<QueryExecutionContext> contexts = new ArrayList<>();
+
+        scheduler.submit("a1", "alice", "ds", context -> {
+            contexts.add(context);
+            started.countDown();
+            // 模拟执行中的查询，取消后结束
+            while (!context.isCancelled()) {
+                Thread.onSpinWait();
+            }
+            finished.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        scheduler.submit("a2", "alice", "ds", record("a2", finished));
+        assertThrows(DataScopeException.class, () -> scheduler.submit("a3", "alice", "ds", record("a3", finished)));
+
+        assertTrue(scheduler.cancel("a2"));
+        assertFalse(scheduler.cancel("a1"));
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertTrue(contexts.get(0).isCancelled());
+        assertTrue(executed.isEmpty());
+    }
+
+    private Consumer<QueryExecutionContext> record(String id, CountDownLatch finished) {
+        return context -> {
+            executed.add(id);
+            finished.countDown();
+        };
+    }
+
+    private Consumer<QueryExecutionContext> blocking(String id, CountDownLatch release, CountDownLatch finished) {
+        return context -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executed.add(id);
+            finished.countDown();
+        };
+    }
+}
@@ -0,0 +1,404 @@
+package com.datascope.domain.service.export.writer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.datascope.domain.model.export.ExportType;
+import com.datascope.domain.service.export.ExportColumn;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Parquet及压缩格式写入器单元测试
+ */
+public class ParquetExportFileWriterTest {
+
+    @Test
+    public void testWritesPlainPageAndFooter() throws Exception {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(1);
+        when(metaData.getColumnLabel(1)).thenReturn("id");
+        when(metaData.getColumnType(1)).thenReturn(Types.BIGINT);
+        List<ExportColumn> columns = ExportColumn.resolve(null, metaData);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ParquetExportFileWriter writer = new ParquetExportFileWriter(output);
+        writer.writeHeader(columns);
+        writer.writeRow(new Object[]{7L});
+        writer.writeRow(new Object[]{null});
+        writer.writeRow(new Object[]{9L});
+        writer.finish();
+
+        byte[] bytes = output.toByteArray();
+        byte[] magic = "PAR1".getBytes(StandardCharsets.US_ASCII);
+        assertArrayEquals(magic, Arrays.copyOfRange(bytes, 0, 4));
+        assertArrayEquals(magic, Arrays.copyOfRange(bytes, bytes.length - 4, bytes.length));
+
+        // 只有一个行组一个列，数据页之后紧接文件尾的元数据
+        int[] page = pageBounds(bytes);
+        int footerLength = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt(bytes.length - 8);
+        assertEquals(bytes.length - 8 - footerLength, page[0] + page[1]);
+
+        // 定义级别：长度2，bit-packed 1组，第1、3行非空；随后是两个int64值
+        ByteBuffer expected = ByteBuffer.allocate(4 + 2 + 16).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(2).put((byte) 0x03).put((byte) 0b101).putLong(7L).putLong(9L);
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes, page[0], page[1]))) {
+            assertArrayEquals(expected.array(), input.readAllBytes());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUnsignedBigintWritesBinaryDecimal() throws Exception {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnLabel(1)).thenReturn("id");
+        when(metaData.getColumnType(1)).thenReturn(Types.BIGINT);
+        // MySQL的BIGINT UNSIGNED精度为20
+        when(metaData.getPrecision(1)).thenReturn(20);
+        when(metaData.getColumnLabel(2)).thenReturn("name");
+        when(metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+        List<ExportColumn> columns = ExportColumn.resolve(null, metaData);
+
+        BigInteger max = new BigInteger("18446744073709551615");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ParquetExportFileWriter writer = new ParquetExportFileWriter(output);
+        writer.writeHeader(columns);
+        writer.writeRow(new Object[]{max, "a"});
+        writer.writeRow(new Object[]{null, "b"});
+        writer.writeRow(new Object[]{BigInteger.valueOf(5), null});
+        writer.finish();
+
+        // 解码文件尾的FileMetaData
+        byte[] bytes = output.toByteArray();
+        int footerLength = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt(bytes.length - 8);
+        Map<Integer, Object> footer = new CompactReader(bytes, bytes.length - 8 - footerLength).readStruct();
+        assertEquals(1L, footer.get(1));
+        assertEquals(3L, footer.get(3));
+        assertEquals("DataScope", footer.get(6));
+
+        List<Map<Integer, Object>> schema = (List<Map<Integer, Object>>) footer.get(2);
+        assertEquals(3, schema.size());
+        assertEquals(2L, schema.get(0).get(5));
+        // id: BYTE_ARRAY + DECIMAL(20, 0)，逻辑类型同样为DECIMAL
+        Map<Integer, Object> id = schema.get(1);
+        assertEquals("id", id.get(4));
+        assertEquals(6L, id.get(1));
+        assertEquals(5L, id.get(6));
+        assertEquals(0L, id.get(7));
+        assertEquals(20L, id.get(8));
+        Map<Integer, Object> decimal = (Map<Integer, Object>) ((Map<Integer, Object>) id.get(10)).get(5);
+        assertEquals(Map.of(1, 0L, 2, 20L), decimal);
+        Map<Integer, Object> name = schema.get(2);
+        assertEquals("name", name.get(4));
+        assertEquals(6L, name.get(1));
+        assertEquals(0L, name.get(6));
+
+        List<Map<Integer, Object>> rowGroups = (List<Map<Integer, Object>>) footer.get(4);
+        assertEquals(1, rowGroups.size());
+        assertEquals(3L, rowGroups.get(0).get(3));
+        List<Map<Integer, Object>> chunks = (List<Map<Integer, Object>>) rowGroups.get(0).get(1);
+        assertEquals(2, chunks.size());
+        Map<Integer, Object> idMeta = (Map<Integer, Object>) chunks.get(0).get(3);
+        assertEquals(6L, idMeta.get(1));
+        assertEquals(List.of("id"), idMeta.get(3));
+        assertEquals(3L, idMeta.get(5));
+
+        // 按列元数据中的偏移读取数据页：定义级别第1、3行非空，值为长度前缀的大端补码
+        CompactReader pageReader = new CompactReader(bytes, (int) (long) (Long) idMeta.get(9));
+        Map<Integer, Object> pageHeader = pageReader.readStruct();
+        int compressedSize = (int) (long) (Long) pageHeader.get(3);
+        byte[] maxBytes = max.toByteArray();
+        ByteBuffer expected = ByteBuffer.allocate(4 + 2 + 4 + maxBytes.length + 4 + 1).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(2).put((byte) 0x03).put((byte) 0b101)
+                .putInt(maxBytes.length).put(maxBytes).putInt(1).put((byte) 5);
+        try (GZIPInputStream input = new GZIPInputStream(
+                new ByteArrayInputStream(bytes, pageReader.position[0], compressedSize))) {
+            assertArrayEquals(expected.array(), input.readAllBytes());
+        }
+    }
+
+    /**
+     * 用parquet-hadoop读回导出文件，覆盖所有物理/逻辑类型、空值和多个行组
+     */
+    @Test
+    public void testReadableByParquetHadoop(@TempDir java.nio.file.Path directory) throws Exception {
+        String[] labels = {"flag", "small", "qty", "big_id", "amount", "ratio", "day", "created_at", "payload",
+                "name"};
+        int[] types = {Types.BOOLEAN, Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.DECIMAL, Types.DOUBLE,
+                Types.DATE, Types.TIMESTAMP, Types.VARBINARY, Types.VARCHAR};
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+            when(metaData.getColumnType(i + 1)).thenReturn(types[i]);
+        }
+        // BIGINT UNSIGNED按字节数组存储的DECIMAL写出，DECIMAL(10, 2)按int64存储
+        when(metaData.getPrecision(4)).thenReturn(20);
+        when(metaData.getPrecision(5)).thenReturn(10);
+        when(metaData.getScale(5)).thenReturn(2);
+        List<ExportColumn> columns = ExportColumn.resolve(null, metaData);
+
+        int rowCount = 200;
+        java.nio.file.Path file = directory.resolve("export.parquet");
+        try (OutputStream output = Files.newOutputStream(file)) {
+            // 行组上限很小，写出多个行组
+            ParquetExportFileWriter writer = new ParquetExportFileWriter(output, 1024);
+            writer.writeHeader(columns);
+            for (int row = 0; row < rowCount; row++) {
+                writer.writeRow(row(row, labels.length));
+            }
+            writer.finish();
+        }
+
+        Configuration conf = new Configuration();
+        Path path = new Path(file.toUri());
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(path, conf))) {
+            assertTrue(reader.getRowGroups().size() > 1);
+            assertEquals(rowCount, reader.getRecordCount());
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            assertEquals(LogicalTypeAnnotation.decimalType(0, 20),
+                    schema.getType("big_id").getLogicalTypeAnnotation());
+            assertEquals(LogicalTypeAnnotation.decimalType(2, 10),
+                    schema.getType("amount").getLogicalTypeAnnotation());
+            assertEquals(LogicalTypeAnnotation.dateType(), schema.getType("day").getLogicalTypeAnnotation());
+            assertEquals(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MICROS),
+                    schema.getType("created_at").getLogicalTypeAnnotation());
+            assertEquals(LogicalTypeAnnotation.stringType(), schema.getType("name").getLogicalTypeAnnotation());
+            assertNull(schema.getType("payload").getLogicalTypeAnnotation());
+        }
+
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), path)
+                .withConf(conf).build()) {
+            for (int row = 0; row < rowCount; row++) {
+                Group group = reader.read();
+                Object[] expected = row(row, labels.length);
+                for (int i = 0; i < labels.length; i++) {
+                    if (expected[i] == null) {
+                        assertEquals(0, group.getFieldRepetitionCount(labels[i]), labels[i] + "@" + row);
+                    } else {
+                        assertEquals(1, group.getFieldRepetitionCount(labels[i]), labels[i] + "@" + row);
+                    }
+                }
+                if (expected[0] != null) {
+                    assertEquals(expected[0], group.getBoolean("flag", 0));
+                }
+                if (expected[1] != null) {
+                    assertEquals(expected[1], group.getInteger("small", 0));
+                }
+                if (expected[2] != null) {
+                    assertEquals(expected[2], group.getLong("qty", 0));
+                }
+                if (expected[3] != null) {
+                    assertEquals(expected[3], new BigInteger(group.getBinary("big_id", 0).getBytes()));
+                }
+                if (expected[4] != null) {
+                    assertEquals(expected[4], BigDecimal.valueOf(group.getLong("amount", 0), 2));
+                }
+                if (expected[5] != null) {
+                    assertEquals(expected[5], group.getDouble("ratio", 0));
+                }
+                if (expected[6] != null) {
+                    assertEquals(expected[6], LocalDate.ofEpochDay(group.getInteger("day", 0)));
+                }
+                if (expected[7] != null) {
+                    long micros = group.getLong("created_at", 0);
+                    assertEquals(expected[7], LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                            (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC));
+                }
+                if (expected[8] != null) {
+                    assertArrayEquals((byte[]) expected[8], group.getBinary("payload", 0).getBytes());
+                }
+                if (expected[9] != null) {
+                    assertEquals(expected[9], group.getString("name", 0));
+                }
+            }
+            assertNull(reader.read());
+        }
+    }
+
+    /**
+     * 第row行的测试数据，每列每7行有一个空值
+     */
+    private static Object[] row(int row, int columnCount) {
+        Object[] values = {
+                row % 2 == 0,
+                row - 100,
+                row * 1000L,
+                new BigInteger("18446744073709551615").subtract(BigInteger.valueOf(row)),
+                BigDecimal.valueOf(row * 137L - 5000, 2),
+                row / 3.0,
+                // 覆盖1970年之前的日期和时间
+                LocalDate.of(1969, 12, 25).plusDays(row),
+                LocalDateTime.of(1969, 12, 31, 23, 59, 0, 123456000).plusMinutes(row),
+                new byte[]{(byte) row, (byte) 0xFF},
+                "名称-" + row
+        };
+        for (int i = 0; i < columnCount; i++) {
+            if ((row + i) % 7 == 0) {
+                values[i] = null;
+            }
+        }
+        return values;
+    }
+
+    @Test
+    public void testNdjsonGzip() throws Exception {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnLabel(1)).thenReturn("id");
+        when(metaData.getColumnLabel(2)).thenReturn("name");
+        List<ExportColumn> columns = ExportColumn.resolve(null, metaData);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExportFileWriter writer = ExportFileWriters.create(ExportType.NDJSON_GZIP, output, new ObjectMapper());
+        writer.writeHeader(columns);
+        writer.writeRow(new Object[]{1, "a"});
+        writer.writeRow(new Object[]{2, null});
+        writer.finish();
+
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            assertEquals("{\"id\":1,\"name\":\"a\"}\n{\"id\":2,\"name\":null}\n",
+                    new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(".ndjson.gz", ExportFileWriters.extension(ExportType.NDJSON_GZIP));
+    }
+
+    /**
+     * 第一个数据页的起始位置和压缩后大小，页头按Thrift Compact协议解析
+     */
+    private static int[] pageBounds(byte[] bytes) {
+        int[] position = {4};
+        int compressedSize = 0;
+        int lastField = 0;
+        while (true) {
+            int header = bytes[position[0]++] & 0xFF;
+            if (header == 0) {
+                return new int[]{position[0], compressedSize};
+            }
+            lastField += header >>> 4;
+            if ((header & 0x0F) == ThriftCompactWriter.TYPE_STRUCT) {
+                // 数据页头子结构只包含i32字段
+                while (bytes[position[0]++] != 0) {
+                    readVarint(bytes, position);
+                }
+                continue;
+            }
+            long value = readVarint(bytes, position);
+            if (lastField == 3) {
+                compressedSize = (int) (value >>> 1);
+            }
+        }
+    }
+
+    /**
+     * Thrift Compact协议的最小解码器，结构解码为 字段ID -> 值 的映射，整数为Long，二进制为字符串
+     */
+    private static final class CompactReader {
+
+        private final byte[] bytes;
+
+        private final int[] position;
+
+        private CompactReader(byte[] bytes, int offset) {
+            this.bytes = bytes;
+            this.position = new int[]{offset};
+        }
+
+        Map<Integer, Object> readStruct() {
+            Map<Integer, Object> fields = new HashMap<>();
+            int fieldId = 0;
+            while (true) {
+                int header = bytes[position[0]++] & 0xFF;
+                if (header == 0) {
+                    return fields;
+                }
+                int delta = header >>> 4;
+                fieldId = delta != 0 ? fieldId + delta : (int) zigzag(readVarint(bytes, position));
+                int type = header & 0x0F;
+                // 字段中的布尔值编码在类型里
+                fields.put(fieldId, type == 1 || type == 2 ? Boolean.valueOf(type == 1) : readValue(type));
+            }
+        }
+
+        private Object readValue(int type) {
+            switch (type) {
+                case 1:
+                case 2:
+                    return bytes[position[0]++] == 1;
+                case 4:
+                case 5:
+                case 6:
+                    return zigzag(readVarint(bytes, position));
+                case 8:
+                    int length = (int) readVarint(bytes, position);
+                    String value = new String(bytes, position[0], length, StandardCharsets.UTF_8);
+                    position[0] += length;
+                    return value;
+                case 9:
+                    int header = bytes[position[0]++] & 0xFF;
+                    int size = header >>> 4 == 15 ? (int) readVarint(bytes, position) : header >>> 4;
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue(header & 0x0F));
+                    }
+                    return list;
+                case 12:
+                    return readStruct();
+                default:
+                    throw new IllegalStateException("不支持的Thrift类型: " + type);
+            }
+        }
+
+        private static long zigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+    }
+}
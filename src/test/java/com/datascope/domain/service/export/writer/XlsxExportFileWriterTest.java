@@ -0,0 +1,116 @@
+package com.datascope.domain.service.export.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSetMetaData;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.datascope.domain.model.export.ColumnConfig;
+import com.datascope.domain.service.export.ExportColumn;
+
+/**
+ * XLSX写入器单元测试
+ */
+public class XlsxExportFileWriterTest {
+
+    @Test
+    public void testWritesSharedStringsWidthsAndRollsOverSheets() throws Exception {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnLabel(1)).thenReturn("name");
+        when(metaData.getColumnLabel(2)).thenReturn("amount");
+        List<ExportColumn> columns = ExportColumn.resolve(List.of(
+                ColumnConfig.builder().field("name").label("名称").width(145).build(),
+                ColumnConfig.builder().field("amount").label("金额").build()), metaData);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        // 每个工作表最多3行(含表头)
+        XlsxExportFileWriter writer = new XlsxExportFileWriter(output, 3);
+        writer.writeHeader(columns);
+        writer.writeRow(new Object[]{"a<b", new BigDecimal("1.50")});
+        writer.writeRow(new Object[]{"a<b", 2});
+        writer.writeRow(new Object[]{" x\u0001", null});
+        writer.finish();
+
+        Map<String, String> parts = unzip(output.toByteArray());
+        assertTrue(parts.containsKey("[Content_Types].xml"));
+        assertTrue(parts.get("xl/workbook.xml").contains("<sheet name=\"Sheet2\" sheetId=\"2\" r:id=\"rId2\"/>"));
+
+        String sheet1 = parts.get("xl/worksheets/sheet1.xml");
+        assertTrue(sheet1.contains("<col min=\"1\" max=\"1\" width=\"20.0\" customWidth=\"1\"/>"));
+        assertFalse(sheet1.contains("<col min=\"2\""));
+        assertTrue(sheet1.contains("<row r=\"2\"><c r=\"A2\" t=\"s\"><v>2</v></c><c r=\"B2\"><v>1.50</v></c></row>"));
+        assertTrue(sheet1.contains("<row r=\"3\"><c r=\"A3\" t=\"s\"><v>2</v></c><c r=\"B3\"><v>2</v></c></row>"));
+
+        // 续写的工作表重复表头
+        String sheet2 = parts.get("xl/worksheets/sheet2.xml");
+        assertTrue(sheet2.contains("<row r=\"1\"><c r=\"A1\" s=\"1\" t=\"s\"><v>0</v></c>"));
+        assertTrue(sheet2.contains("<row r=\"2\"><c r=\"A2\" t=\"s\"><v>3</v></c></row>"));
+
+        assertEquals("<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"7\" uniqueCount=\"4\">"
+                        + "<si><t>名称</t></si><si><t>金额</t></si><si><t>a&lt;b</t></si>"
+                        + "<si><t xml:space=\"preserve\"> x</t></si></sst>",
+                parts.get("xl/sharedStrings.xml").substring(parts.get("xl/sharedStrings.xml").indexOf("<sst")));
+    }
+
+    @Test
+    public void testWritesLongDecimalsAsTextAndDropsInvalidCharacters() throws Exception {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(1);
+        when(metaData.getColumnLabel(1)).thenReturn("value");
+        List<ExportColumn> columns = ExportColumn.resolve(List.of(), metaData);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        XlsxExportFileWriter writer = new XlsxExportFileWriter(output, 100);
+        writer.writeHeader(columns);
+        writer.writeRow(new Object[]{new BigDecimal("123456789012345678.12")});
+        writer.writeRow(new Object[]{new BigDecimal("1234567890.12300")});
+        writer.writeRow(new Object[]{"a\uFFFEb\uD800c\uD83D\uDE00\uDC00"});
+        // 截断位置落在代理对中间时整个字符舍去
+        writer.writeRow(new Object[]{"x".repeat(32766) + "\uD83D\uDE00"});
+        writer.finish();
+
+        Map<String, String> parts = unzip(output.toByteArray());
+        String sheet = parts.get("xl/worksheets/sheet1.xml");
+        String sharedStrings = parts.get("xl/sharedStrings.xml");
+        // 超过15位有效数字的小数按文本写出
+        assertTrue(sheet.contains("<c r=\"A2\" t=\"s\">"));
+        assertTrue(sharedStrings.contains("<t>123456789012345678.12</t>"));
+        assertTrue(sheet.contains("<c r=\"A3\"><v>1234567890.12300</v></c>"));
+        assertTrue(sharedStrings.contains("<t>abc\uD83D\uDE00</t>"));
+        assertTrue(sheet.contains("x".repeat(32766) + "</t>"));
+    }
+
+    @Test
+    public void testColumnName() {
+        assertEquals("A", XlsxExportFileWriter.columnName(0));
+        assertEquals("Z", XlsxExportFileWriter.columnName(25));
+        assertEquals("AA", XlsxExportFileWriter.columnName(26));
+        assertEquals("XFD", XlsxExportFileWriter.columnName(16383));
+    }
+
+    private static Map<String, String> unzip(byte[] bytes) throws Exception {
+        Map<String, String> parts = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                parts.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return parts;
+    }
+}
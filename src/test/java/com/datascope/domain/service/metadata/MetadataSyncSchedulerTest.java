@@ -0,0 +1,208 @@
+package com.datascope.domain.service.metadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.datasource.DataSourceStatus;
+import com.datascope.domain.model.metadata.MetadataSyncJobStatus;
+import com.datascope.domain.model.metadata.MetadataSyncResult;
+import com.datascope.domain.model.metadata.MetadataSyncRun;
+import com.datascope.domain.model.metadata.MetadataSyncRunStatus;
+import com.datascope.domain.model.metadata.MetadataSyncTrigger;
+import com.datascope.domain.repository.DataSourceRepository;
+import com.datascope.domain.repository.MetadataSyncRunRepository;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import com.datascope.infrastructure.config.InstanceIdentity;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MetadataSyncSchedulerTest {
+
+  private DataSourceRepository dataSourceRepository;
+
+  private MetadataFetchService metadataFetchService;
+
+  private MetadataSyncRunRepository syncRunRepository;
+
+  private MetadataSyncScheduler scheduler;
+
+  /** 每次保存时的状态快照 */
+  private final List<MetadataSyncRunStatus> savedStatuses = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    dataSourceRepository = mock(DataSourceRepository.class);
+    metadataFetchService = mock(MetadataFetchService.class);
+    syncRunRepository = mock(MetadataSyncRunRepository.class);
+    when(syncRunRepository.save(any(MetadataSyncRun.class)))
+        .thenAnswer(
+            invocation -> {
+              MetadataSyncRun run = invocation.getArgument(0);
+              savedStatuses.add(run.getStatus());
+              return run;
+            });
+    when(syncRunRepository.findTopByDataSourceIdOrderByStartedAtDesc(anyString()))
+        .thenReturn(Optional.empty());
+    when(dataSourceRepository.existsById("ds-1")).thenReturn(true);
+    // 错峰窗口为0，首次检查即到期
+    scheduler =
+        new MetadataSyncScheduler(
+            dataSourceRepository,
+            metadataFetchService,
+            syncRunRepository,
+            new InstanceIdentity("node-1"),
+            true,
+            60,
+            1,
+            0,
+            30);
+  }
+
+  @AfterEach
+  void tearDown() {
+    scheduler.destroy();
+  }
+
+  @Test
+  void trigger_ShouldRecordSucceededRun() {
+    MetadataSyncResult result = new MetadataSyncResult();
+    result.setAddedTables(2);
+    result.setUnchangedTables(5);
+    when(metadataFetchService.syncMetadata("ds-1")).thenReturn(result);
+
+    MetadataSyncRun run = scheduler.trigger("ds-1");
+
+    assertNotNull(run);
+    assertEquals(MetadataSyncTrigger.MANUAL, run.getTrigger());
+    verify(metadataFetchService, timeout(1000)).syncMetadata("ds-1");
+    waitFinished("ds-1");
+    assertEquals(
+        List.of(
+            MetadataSyncRunStatus.QUEUED,
+            MetadataSyncRunStatus.RUNNING,
+            MetadataSyncRunStatus.SUCCEEDED),
+        savedStatuses);
+    assertEquals(2, run.getAddedTables());
+    assertEquals(5, run.getUnchangedTables());
+    assertNotNull(run.getDurationMs());
+  }
+
+  @Test
+  void trigger_ShouldRecordFailedRun() {
+    when(metadataFetchService.syncMetadata("ds-1"))
+        .thenThrow(new IllegalStateException("connection refused"));
+
+    MetadataSyncRun run = scheduler.trigger("ds-1");
+
+    waitFinished("ds-1");
+    assertEquals(MetadataSyncRunStatus.FAILED, run.getStatus());
+    assertEquals("connection refused", run.getErrorMessage());
+    assertNotNull(run.getFinishedAt());
+  }
+
+  @Test
+  void trigger_ShouldRejectUnknownDataSource() {
+    DataScopeException exception =
+        assertThrows(DataScopeException.class, () -> scheduler.trigger("ds-missing"));
+
+    assertEquals(ErrorCode.RESOURCE_NOT_FOUND, exception.getErrorCode());
+    verify(syncRunRepository, never()).save(any(MetadataSyncRun.class));
+  }
+
+  @Test
+  void scheduleDueSyncs_ShouldOnlyScheduleActiveDataSources() {
+    DataSource disabled = dataSource("ds-disabled", DataSourceStatus.ACTIVE);
+    disabled.getProperties().put(MetadataSyncScheduler.INTERVAL_PROPERTY, "0");
+    DataSource maintaining = dataSource("ds-maintaining", DataSourceStatus.MAINTAINING);
+    DataSource inactive = dataSource("ds-inactive", DataSourceStatus.INACTIVE);
+    DataSource active = dataSource("ds-active", DataSourceStatus.ACTIVE);
+    when(dataSourceRepository.findAllWithProperties())
+        .thenReturn(List.of(disabled, maintaining, inactive, active));
+    when(metadataFetchService.syncMetadata(anyString())).thenReturn(new MetadataSyncResult());
+
+    scheduler.scheduleDueSyncs();
+
+    verify(metadataFetchService, timeout(1000)).syncMetadata("ds-active");
+    verify(metadataFetchService, never()).syncMetadata("ds-disabled");
+    verify(metadataFetchService, never()).syncMetadata("ds-maintaining");
+    verify(metadataFetchService, never()).syncMetadata("ds-inactive");
+    waitFinished("ds-active");
+    MetadataSyncJobStatus status = scheduler.getStatus("ds-active");
+    assertEquals(60, status.getIntervalMinutes());
+    // 同步结束后按间隔安排下一次
+    assertTrue(status.getNextRunAt().isAfter(LocalDateTime.now().plusMinutes(59)));
+    assertNull(scheduler.getStatus("ds-disabled").getNextRunAt());
+    assertNull(scheduler.getStatus("ds-inactive").getNextRunAt());
+  }
+
+  @Test
+  void failInterruptedRuns_ShouldRunWhenSchedulingDisabled() {
+    MetadataSyncScheduler disabled =
+        new MetadataSyncScheduler(
+            dataSourceRepository,
+            metadataFetchService,
+            syncRunRepository,
+            new InstanceIdentity("node-1"),
+            false,
+            60,
+            1,
+            0,
+            30);
+    try {
+      disabled.failInterruptedRuns();
+    } finally {
+      disabled.destroy();
+    }
+
+    verify(syncRunRepository)
+        .failUnfinished(
+            eq("node-1"),
+            eq(List.of(MetadataSyncRunStatus.QUEUED, MetadataSyncRunStatus.RUNNING)),
+            eq(MetadataSyncRunStatus.FAILED),
+            eq("服务重启，同步中断"),
+            any(LocalDateTime.class));
+  }
+
+  private void waitFinished(String dataSourceId) {
+    long deadline = System.currentTimeMillis() + 1000;
+    while (System.currentTimeMillis() < deadline
+        && (savedStatuses.isEmpty()
+            || !isFinished(savedStatuses.get(savedStatuses.size() - 1)))) {
+      Thread.onSpinWait();
+    }
+    // running 标记在保存记录之后清除
+    deadline = System.currentTimeMillis() + 1000;
+    while (System.currentTimeMillis() < deadline && scheduler.getStatus(dataSourceId).isRunning()) {
+      Thread.onSpinWait();
+    }
+  }
+
+  private static boolean isFinished(MetadataSyncRunStatus status) {
+    return status == MetadataSyncRunStatus.SUCCEEDED || status == MetadataSyncRunStatus.FAILED;
+  }
+
+  private static DataSource dataSource(String id, DataSourceStatus status) {
+    DataSource dataSource = new DataSource();
+    dataSource.setId(id);
+    dataSource.setStatus(status);
+    return dataSource;
+  }
+}
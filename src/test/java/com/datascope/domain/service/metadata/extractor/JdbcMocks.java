@@ -0,0 +1,21 @@
+package com.datascope.domain.service.metadata.extractor;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/** 提取器测试共用的JDBC模拟对象 */
+final class JdbcMocks {
+
+  private JdbcMocks() {}
+
+  /** 执行查询时返回指定结果集的语句 */
+  static PreparedStatement preparedStatement(ResultSet resultSet) throws SQLException {
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(statement.executeQuery()).thenReturn(resultSet);
+    return statement;
+  }
+}
@@ -1,5 +1,6 @@
 package com.datascope.domain.service.metadata.extractor;
 
+import static com.datascope.domain.service.metadata.extractor.JdbcMocks.preparedStatement;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -10,6 +11,8 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,6 +32,7 @@ import org.mockito.MockitoAnnotations;
 
 import com.datascope.domain.model.datasource.DataSource;
 import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.domain.model.metadata.ColumnType;
 import com.datascope.domain.model.metadata.TableMetadata;
 
 public class MySQLMetadataExtractorTest {
@@ -331,20 +335,93 @@ public class MySQLMetadataExtractorTest {
 
   @Test
   public void testExtractAll() throws SQLException {
+    // 每个schema只查询 information_schema 四次，另查询一次索引大小
+    ResultSet tablesInfo = mock(ResultSet.class);
+    when(tablesInfo.next()).thenReturn(true, true, false);
+    when(tablesInfo.getString("table_name")).thenReturn("users", "orders");
+    when(tablesInfo.getString("table_comment")).thenReturn("用户表", "订单表");
+    when(tablesInfo.getLong("table_rows")).thenReturn(100L, 200L);
+
+    ResultSet columnsInfo = mock(ResultSet.class);
+    when(columnsInfo.next()).thenReturn(true, true, true, true, true, false);
+    when(columnsInfo.getString("table_name"))
+        .thenReturn("orders", "orders", "orders", "users", "users");
+    when(columnsInfo.getString("column_name")).thenReturn("id", "paid", "flags", "id", "name");
+    when(columnsInfo.getString("data_type")).thenReturn("bigint", "bit", "bit", "int", "varchar");
+    when(columnsInfo.getString("column_type"))
+        .thenReturn("bigint", "bit(1)", "bit(8)", "int", "varchar(64)");
+    when(columnsInfo.getString("is_nullable")).thenReturn("NO", "NO", "NO", "NO", "YES");
+    when(columnsInfo.getString("extra")).thenReturn("auto_increment", "", "", "auto_increment", "");
+
+    ResultSet primaryKeysInfo = mock(ResultSet.class);
+    when(primaryKeysInfo.next()).thenReturn(true, true, false);
+    when(primaryKeysInfo.getString("table_name")).thenReturn("orders", "users");
+    when(primaryKeysInfo.getString("column_name")).thenReturn("id", "id");
+
+    ResultSet indexesInfo = mock(ResultSet.class);
+    when(indexesInfo.next()).thenReturn(true, true, false);
+    when(indexesInfo.getString("table_name")).thenReturn("users", "users");
+    when(indexesInfo.getString("index_name")).thenReturn("PRIMARY", "idx_name");
+    when(indexesInfo.getInt("non_unique")).thenReturn(0, 1);
+    when(indexesInfo.getString("column_name")).thenReturn("id", "name");
+
+    ResultSet indexSizesInfo = mock(ResultSet.class);
+    when(indexSizesInfo.next()).thenReturn(true, true, false);
+    when(indexSizesInfo.getString("base_table")).thenReturn("users", "users");
+    when(indexSizesInfo.getString("index_name")).thenReturn("idx_name", "PRIMARY");
+    when(indexSizesInfo.getLong("index_length")).thenReturn(16384L, 32768L);
+
+    PreparedStatement tablesStmt = preparedStatement(tablesInfo);
+    PreparedStatement columnsStmt = preparedStatement(columnsInfo);
+    PreparedStatement primaryKeysStmt = preparedStatement(primaryKeysInfo);
+    PreparedStatement indexesStmt = preparedStatement(indexesInfo);
+    PreparedStatement indexSizesStmt = preparedStatement(indexSizesInfo);
+    when(mockConnection.prepareStatement(contains("information_schema.tables"))).thenReturn(tablesStmt);
+    when(mockConnection.prepareStatement(contains("information_schema.columns"))).thenReturn(columnsStmt);
+    when(mockConnection.prepareStatement(contains("information_schema.key_column_usage")))
+        .thenReturn(primaryKeysStmt);
+    when(mockConnection.prepareStatement(contains("information_schema.statistics")))
+        .thenReturn(indexesStmt);
+    // 分区后缀大小写不同的分区也归并到同一张表
+    when(mockConnection.prepareStatement(
+            contains("SUBSTRING_INDEX(REPLACE(table_name, '#p#', '#P#'), '#P#', 1)")))
+        .thenReturn(indexSizesStmt);
+
     // 调用extractAll方法
     List<TableMetadata> tables = extractor.extractAll(mockDataSource, mockConnection);
-    
+
     // 验证调用了getSchemas方法
     verify(mockConnection).createStatement();
-    
-    // 必须至少返回一个表的元数据
-    assertFalse(tables.isEmpty());
+
+    // 验证只执行了五次批量查询，没有按表查询
+    verify(mockConnection, times(5)).prepareStatement(anyString());
+    verify(tablesStmt).setString(1, "test_db");
+    verify(mockDatabaseMetaData, never()).getColumns(any(), any(), any(), any());
+
     assertEquals(2, tables.size());
-    
+
     // 验证第一个表是users
     TableMetadata firstTable = tables.get(0);
     assertEquals("users", firstTable.getName());
     assertEquals("test_db", firstTable.getSchema());
+    assertEquals(100L, firstTable.getRowCount());
+    assertEquals(2, firstTable.getColumns().size());
+    assertEquals(ColumnType.INTEGER, firstTable.getColumn("id").getType());
+    assertTrue(firstTable.getColumn("id").isPrimaryKey());
+    assertTrue(firstTable.getColumn("id").isAutoIncrement());
+    assertTrue(firstTable.getColumn("name").isNullable());
+    assertEquals(2, firstTable.getIndices().size());
+    assertTrue(firstTable.getIndices().get(0).isUnique());
+    assertFalse(firstTable.getIndices().get(1).isUnique());
+    assertEquals(32768L, firstTable.getIndices().get(0).getIndexSize());
+    assertEquals(16384L, firstTable.getIndices().get(1).getIndexSize());
+
+    TableMetadata secondTable = tables.get(1);
+    assertEquals("orders", secondTable.getName());
+    assertEquals(ColumnType.BIGINT, secondTable.getColumn("id").getType());
+    assertEquals(ColumnType.BOOLEAN, secondTable.getColumn("paid").getType());
+    assertEquals(ColumnType.BINARY, secondTable.getColumn("flags").getType());
+    assertTrue(secondTable.getIndices().isEmpty());
   }
 
   @Test
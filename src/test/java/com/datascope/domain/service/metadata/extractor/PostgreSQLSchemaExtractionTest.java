@@ -0,0 +1,146 @@
+package com.datascope.domain.service.metadata.extractor;
+
+import static com.datascope.domain.service.metadata.extractor.JdbcMocks.preparedStatement;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.metadata.ColumnType;
+import com.datascope.domain.model.metadata.IndexMetadata;
+import com.datascope.domain.model.metadata.TableMetadata;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** PostgreSQL按schema批量提取元数据的测试，使用模拟结果集统计查询次数 */
+class PostgreSQLSchemaExtractionTest {
+
+  private PostgreSQLMetadataExtractor extractor;
+
+  private DataSource dataSource;
+
+  private Connection connection;
+
+  @BeforeEach
+  void setUp() {
+    extractor = new PostgreSQLMetadataExtractor();
+    dataSource = new DataSource();
+    dataSource.setId("1");
+    connection = mock(Connection.class);
+  }
+
+  @Test
+  void testExtractAllUsesConstantQueries() throws SQLException {
+    ResultSet schemas = mock(ResultSet.class);
+    when(schemas.next()).thenReturn(true, false);
+    when(schemas.getString("nspname")).thenReturn("public");
+    Statement statement = mock(Statement.class);
+    when(statement.executeQuery(anyString())).thenReturn(schemas);
+    when(connection.createStatement()).thenReturn(statement);
+
+    ResultSet tablesInfo = mock(ResultSet.class);
+    when(tablesInfo.next()).thenReturn(true, true, true, false);
+    when(tablesInfo.getString("table_name")).thenReturn("orders", "products", "users");
+    when(tablesInfo.getString("table_comment")).thenReturn("订单表", null, "用户表");
+    when(tablesInfo.getLong("total_bytes")).thenReturn(8192L, 4096L, 16384L);
+    when(tablesInfo.getLong("index_bytes")).thenReturn(2048L, 0L, 4096L);
+    when(tablesInfo.getLong("n_live_tup")).thenReturn(200L, 0L, 100L);
+
+    ResultSet columnsInfo = mock(ResultSet.class);
+    when(columnsInfo.next()).thenReturn(true, true, true, true, false);
+    when(columnsInfo.getString("table_name")).thenReturn("orders", "products", "users", "users");
+    when(columnsInfo.getString("column_name")).thenReturn("id", "sku", "id", "email");
+    when(columnsInfo.getString("data_type"))
+        .thenReturn("bigint", "character varying(64)", "integer", "text");
+    when(columnsInfo.getBoolean("not_null")).thenReturn(true, true, true, false);
+    when(columnsInfo.getInt("ordinal_position")).thenReturn(1, 1, 1, 2);
+    when(columnsInfo.getBoolean("is_identity")).thenReturn(true, false, true, false);
+
+    ResultSet primaryKeysInfo = mock(ResultSet.class);
+    when(primaryKeysInfo.next()).thenReturn(true, true, false);
+    when(primaryKeysInfo.getString("table_name")).thenReturn("orders", "users");
+    when(primaryKeysInfo.getString("column_name")).thenReturn("id", "id");
+
+    ResultSet indexesInfo = mock(ResultSet.class);
+    when(indexesInfo.next()).thenReturn(true, true, true, false);
+    when(indexesInfo.getString("table_name")).thenReturn("orders", "users", "users");
+    when(indexesInfo.getString("index_name")).thenReturn("orders_pkey", "users_pkey", "idx_email");
+    when(indexesInfo.getBoolean("is_unique")).thenReturn(true, true, false);
+    when(indexesInfo.getString("column_name")).thenReturn("id", "id", "email");
+    when(indexesInfo.getLong("index_size")).thenReturn(2048L, 2048L, 2048L);
+    when(indexesInfo.getLong("cardinality")).thenReturn(-1L, -1L, 90L);
+
+    PreparedStatement tablesStmt = preparedStatement(tablesInfo);
+    PreparedStatement columnsStmt = preparedStatement(columnsInfo);
+    PreparedStatement primaryKeysStmt = preparedStatement(primaryKeysInfo);
+    PreparedStatement indexesStmt = preparedStatement(indexesInfo);
+    when(connection.prepareStatement(contains("pg_stat_get_live_tuples"))).thenReturn(tablesStmt);
+    when(connection.prepareStatement(contains("pg_attrdef"))).thenReturn(columnsStmt);
+    when(connection.prepareStatement(contains("indisprimary"))).thenReturn(primaryKeysStmt);
+    when(connection.prepareStatement(contains("pg_stats"))).thenReturn(indexesStmt);
+
+    List<TableMetadata> tables = extractor.extractAll(dataSource, connection);
+
+    // 三张表共四次查询，与表的数量无关
+    verify(connection, times(4)).prepareStatement(anyString());
+    verify(tablesStmt).setString(1, "public");
+    verify(columnsStmt).setString(1, "public");
+    verify(primaryKeysStmt).setString(1, "public");
+    verify(indexesStmt).setString(1, "public");
+
+    assertEquals(3, tables.size());
+
+    TableMetadata orders = tables.get(0);
+    assertEquals("orders", orders.getName());
+    assertEquals("public", orders.getSchema());
+    assertEquals("1", orders.getDataSourceId());
+    assertEquals(6144L, orders.getDataSize());
+    assertEquals(200L, orders.getRowCount());
+    assertEquals(ColumnType.INTEGER, orders.getColumn("id").getType());
+    assertTrue(orders.getColumn("id").isPrimaryKey());
+    assertEquals(1, orders.getIndices().size());
+
+    TableMetadata products = tables.get(1);
+    assertEquals("products", products.getName());
+    assertEquals(ColumnType.VARCHAR, products.getColumn("sku").getType());
+    assertFalse(products.getColumn("sku").isPrimaryKey());
+    assertTrue(products.getIndices().isEmpty());
+
+    TableMetadata users = tables.get(2);
+    assertEquals(2, users.getColumns().size());
+    assertTrue(users.getColumn("id").isAutoIncrement());
+    assertTrue(users.getColumn("email").isNullable());
+    assertEquals(2, users.getIndices().size());
+    IndexMetadata emailIndex = users.getIndices().get(1);
+    assertEquals("idx_email", emailIndex.getName());
+    assertFalse(emailIndex.isUnique());
+    assertEquals(List.of("email"), emailIndex.getColumns());
+    assertEquals(90L, emailIndex.getCardinality());
+  }
+
+  @Test
+  void testExtractSchemaWithoutTables() throws SQLException {
+    ResultSet tablesInfo = mock(ResultSet.class);
+    when(tablesInfo.next()).thenReturn(false);
+    PreparedStatement tablesStmt = preparedStatement(tablesInfo);
+    when(connection.prepareStatement(anyString())).thenReturn(tablesStmt);
+
+    List<TableMetadata> tables = extractor.extractSchema(dataSource, connection, "empty");
+
+    // 没有表时不再查询列、主键和索引
+    assertTrue(tables.isEmpty());
+    verify(connection, times(1)).prepareStatement(anyString());
+  }
+}
@@ -0,0 +1,176 @@
+package com.datascope.domain.service.metadata.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datascope.common.exception.DataScopeException;
+import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.metadata.TableMetadata;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.domain.service.metadata.extractor.MetadataExtractor;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MetadataExtractionPipelineTest {
+
+  private DataSourceService dataSourceService;
+
+  private MetadataExtractor extractor;
+
+  private MetadataExtractionPipeline pipeline;
+
+  private DataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    dataSourceService = mock(DataSourceService.class);
+    extractor = mock(MetadataExtractor.class);
+    pipeline = new MetadataExtractionPipeline(dataSourceService, 4, 2);
+    dataSource = new DataSource();
+    dataSource.setId("ds-1");
+  }
+
+  @AfterEach
+  void tearDown() {
+    pipeline.destroy();
+  }
+
+  @Test
+  void extract_ShouldFanOutSchemasWithinParallelismCap() throws Exception {
+    Connection schemaConnection = mock(Connection.class);
+    when(dataSourceService.getConnection(dataSource))
+        .thenReturn(schemaConnection, mock(Connection.class), mock(Connection.class));
+    when(extractor.getSchemas(schemaConnection)).thenReturn(List.of("s1", "s2", "s3", "s4", "s5"));
+
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    AtomicBoolean sharedConnection = new AtomicBoolean();
+    when(extractor.extractSchema(any(DataSource.class), any(Connection.class), anyString()))
+        .thenAnswer(
+            invocation -> {
+              // 工作线程使用自己的连接，不复用获取schema列表的连接
+              if (invocation.getArgument(1) == schemaConnection) {
+                sharedConnection.set(true);
+              }
+              maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              running.decrementAndGet();
+              TableMetadata table = new TableMetadata();
+              table.setSchema(invocation.getArgument(2));
+              table.setName("t");
+              return List.of(table);
+            });
+
+    List<TableMetadata> tables = pipeline.extract(dataSource, extractor);
+
+    // 结果按schema顺序合并
+    assertEquals(5, tables.size());
+    for (int i = 0; i < tables.size(); i++) {
+      assertEquals("s" + (i + 1), tables.get(i).getSchema());
+    }
+    assertTrue(maxRunning.get() <= 2);
+    assertFalse(sharedConnection.get());
+    // 一个连接获取schema列表，两个工作线程各一个连接
+    verify(dataSourceService, times(3)).getConnection(dataSource);
+  }
+
+  @Test
+  void extractChanges_ShouldExtractChangedTablesAndFindDroppedOnes() throws Exception {
+    when(dataSourceService.getConnection(dataSource)).thenAnswer(invocation -> mock(Connection.class));
+    when(extractor.getSchemas(any(Connection.class))).thenReturn(List.of("s1", "s2"));
+    Map<String, String> liveFingerprints = new HashMap<>();
+    liveFingerprints.put("a", "fp-a");
+    liveFingerprints.put("b", "fp-b2");
+    liveFingerprints.put("c", "fp-c");
+    when(extractor.getFingerprints(any(Connection.class), eq("s1"))).thenReturn(liveFingerprints);
+    // s2 不支持指纹，退回全量提取
+    when(extractor.getFingerprints(any(Connection.class), eq("s2"))).thenReturn(null);
+    when(extractor.extractSchema(any(DataSource.class), any(Connection.class), eq("s1")))
+        .thenReturn(List.of(table("s1", "a"), table("s1", "b"), table("s1", "c")));
+    when(extractor.extractSchema(any(DataSource.class), any(Connection.class), eq("s2")))
+        .thenReturn(List.of(table("s2", "d")));
+
+    Map<String, Map<String, String>> stored = new HashMap<>();
+    Map<String, String> s1Stored = new HashMap<>();
+    s1Stored.put("a", "fp-a");
+    s1Stored.put("b", "fp-b1");
+    s1Stored.put("gone", "fp-gone");
+    stored.put("s1", s1Stored);
+    stored.put("old_schema", Map.of("t", "fp-t"));
+
+    MetadataExtractionPipeline.Changes changes =
+        pipeline.extractChanges(dataSource, extractor, stored);
+
+    List<String> changed =
+        changes.getChangedTables().stream()
+            .map(table -> table.getSchema() + "." + table.getName())
+            .sorted()
+            .collect(Collectors.toList());
+    assertEquals(List.of("s1.b", "s1.c", "s2.d"), changed);
+    assertEquals(1, changes.getUnchangedTables());
+    assertEquals(List.of("gone"), changes.getDroppedTables().get("s1"));
+    assertEquals(List.of("t"), changes.getDroppedTables().get("old_schema"));
+    // 重新提取的表带上本次的指纹
+    TableMetadata b =
+        changes.getChangedTables().stream()
+            .filter(table -> "b".equals(table.getName()))
+            .findFirst()
+            .orElseThrow();
+    assertEquals("fp-b2", b.getDdlFingerprint());
+  }
+
+  @Test
+  void extract_ShouldThrowWhenNoWorkerGetsConnection() throws Exception {
+    Connection schemaConnection = mock(Connection.class);
+    when(dataSourceService.getConnection(dataSource))
+        .thenReturn(schemaConnection)
+        .thenThrow(new SQLException("pool exhausted"));
+    when(extractor.getSchemas(schemaConnection)).thenReturn(List.of("s1", "s2"));
+
+    assertThrows(DataScopeException.class, () -> pipeline.extract(dataSource, extractor));
+  }
+
+  @Test
+  void extractChanges_ShouldKeepStoredSchemasWhenListingFails() throws Exception {
+    when(dataSourceService.getConnection(dataSource)).thenAnswer(invocation -> mock(Connection.class));
+    when(extractor.getSchemas(any(Connection.class)))
+        .thenThrow(new DataScopeException("Failed to get schemas"))
+        .thenReturn(List.of());
+    Map<String, Map<String, String>> stored = Map.of("s1", Map.of("t", "fp-t"));
+
+    // 列举失败时同步中止，不产生任何删除
+    assertThrows(
+        DataScopeException.class, () -> pipeline.extractChanges(dataSource, extractor, stored));
+
+    // 列举结果为空而已存储的schema不为空时，同样不删除
+    MetadataExtractionPipeline.Changes changes =
+        pipeline.extractChanges(dataSource, extractor, stored);
+    assertTrue(changes.getDroppedTables().isEmpty());
+    assertTrue(changes.getChangedTables().isEmpty());
+  }
+
+  private static TableMetadata table(String schema, String name) {
+    TableMetadata table = new TableMetadata();
+    table.setSchema(schema);
+    table.setName(name);
+    return table;
+  }
+}
@@ -10,6 +10,7 @@ import com.datascope.common.exception.DataScopeException;
 import com.datascope.domain.model.datasource.DataSource;
 import com.datascope.domain.model.datasource.DataSourceType;
 import com.datascope.domain.model.datasource.vo.DataSourceVO;
+import com.datascope.domain.model.metadata.MetadataSyncResult;
 import com.datascope.domain.model.metadata.TableMetadata;
 import com.datascope.domain.service.datasource.DataSourceService;
 import com.datascope.domain.service.metadata.MetadataStorageService;
@@ -19,6 +20,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -41,6 +43,9 @@ class MetadataFetchServiceImplTest {
   @Mock
   private MetadataExtractor metadataExtractor;
 
+  @Mock
+  private MetadataExtractionPipeline extractionPipeline;
+
   @Mock
   private Connection connection;
 
@@ -72,7 +77,7 @@ class MetadataFetchServiceImplTest {
     metadataExtractors = new ArrayList<>();
     metadataExtractors.add(metadataExtractor);
     metadataFetchService = new MetadataFetchServiceImpl(
-        dataSourceService, metadataStorageService, metadataExtractors);
+        dataSourceService, metadataStorageService, metadataExtractors, extractionPipeline);
   }
 
   @Test
@@ -83,8 +88,7 @@ class MetadataFetchServiceImplTest {
     // 设置Mock行为
     when(dataSourceService.get(dataSourceId)).thenReturn(dataSourceVO);
     when(metadataExtractor.supports(any(DataSource.class))).thenReturn(true);
-    when(dataSourceService.getConnection(any(DataSource.class))).thenReturn(connection);
-    when(metadataExtractor.extractAll(any(DataSource.class), any(Connection.class))).thenReturn(tables);
+    when(extractionPipeline.extract(any(DataSource.class), eq(metadataExtractor))).thenReturn(tables);
     doNothing().when(metadataStorageService).saveTableMetadataBatch(tables);
 
     // 执行测试
@@ -94,8 +98,7 @@ class MetadataFetchServiceImplTest {
     assertNotNull(result);
     assertEquals(1, result.size());
     verify(dataSourceService, times(1)).get(dataSourceId);
-    verify(dataSourceService, times(1)).getConnection(any(DataSource.class));
-    verify(metadataExtractor, times(1)).extractAll(any(DataSource.class), any(Connection.class));
+    verify(extractionPipeline, times(1)).extract(any(DataSource.class), eq(metadataExtractor));
     verify(metadataStorageService, times(1)).saveTableMetadataBatch(tables);
   }
 
@@ -114,6 +117,43 @@ class MetadataFetchServiceImplTest {
     verify(dataSourceService, times(1)).get(dataSourceId);
     verify(metadataExtractor, times(1)).supports(any(DataSource.class));
     verify(dataSourceService, never()).getConnection(any(DataSource.class));
+    verify(extractionPipeline, never()).extract(any(DataSource.class), any(MetadataExtractor.class));
+  }
+
+  @Test
+  void syncMetadata_ShouldSaveChangedTablesAndDeleteDroppedOnes() throws SQLException {
+    // 准备测试数据：一张表结构变化，一张新表，一张已删除
+    TableMetadata changedTable = new TableMetadata();
+    changedTable.setSchema(schema);
+    changedTable.setName(tableName);
+    TableMetadata newTable = new TableMetadata();
+    newTable.setSchema(schema);
+    newTable.setName("new_table");
+    Map<String, Map<String, String>> stored =
+        Map.of(schema, Map.of(tableName, "old-fingerprint", "dropped_table", "fingerprint"));
+    MetadataExtractionPipeline.Changes changes = new MetadataExtractionPipeline.Changes();
+    changes.getChangedTables().add(changedTable);
+    changes.getChangedTables().add(newTable);
+    changes.getDroppedTables().put(schema, List.of("dropped_table"));
+
+    // 设置Mock行为
+    when(dataSourceService.get(dataSourceId)).thenReturn(dataSourceVO);
+    when(metadataExtractor.supports(any(DataSource.class))).thenReturn(true);
+    when(metadataStorageService.getTableFingerprints(dataSourceId)).thenReturn(stored);
+    when(extractionPipeline.extractChanges(any(DataSource.class), eq(metadataExtractor), eq(stored)))
+        .thenReturn(changes);
+    when(metadataStorageService.deleteTableMetadata(dataSourceId, schema, List.of("dropped_table")))
+        .thenReturn(1);
+
+    // 执行测试
+    MetadataSyncResult result = metadataFetchService.syncMetadata(dataSourceId);
+
+    // 验证结果
+    assertEquals(1, result.getAddedTables());
+    assertEquals(1, result.getUpdatedTables());
+    assertEquals(1, result.getDeletedTables());
+    verify(metadataStorageService, times(1)).saveTableMetadataBatch(changes.getChangedTables());
+    verify(extractionPipeline, never()).extract(any(DataSource.class), any(MetadataExtractor.class));
   }
 
   @Test
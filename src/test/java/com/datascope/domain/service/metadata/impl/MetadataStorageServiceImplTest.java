@@ -5,7 +5,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -19,11 +22,13 @@ import com.datascope.domain.model.metadata.TableMetadata;
 import com.datascope.domain.repository.ColumnMetadataRepository;
 import com.datascope.domain.repository.IndexMetadataRepository;
 import com.datascope.domain.repository.TableMetadataRepository;
+import com.datascope.domain.service.metadata.TableMetadataCache;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -43,6 +48,12 @@ class MetadataStorageServiceImplTest {
   @Mock
   private IndexMetadataRepository indexMetadataRepository;
 
+  @Mock
+  private TableMetadataCache tableMetadataCache;
+
+  @Mock
+  private TableMetadataBatchWriter batchWriter;
+
   @InjectMocks
   private MetadataStorageServiceImpl metadataStorageService;
 
@@ -148,6 +159,7 @@ class MetadataStorageServiceImplTest {
   @Test
   void getTableMetadata_ShouldReturnTableMetadata() {
     // 设置Mock行为
+    mockCacheMiss();
     when(tableMetadataRepository.findByDataSourceIdAndSchemaAndName(dataSourceId, schema, tableName))
         .thenReturn(Optional.of(tableMetadataEntity));
     when(columnMetadataRepository.findByTableMetadataId(tableMetadataEntity.getId())).thenReturn(columnMetadataEntities);
@@ -168,6 +180,7 @@ class MetadataStorageServiceImplTest {
   @Test
   void getTableMetadata_ShouldThrowException_WhenTableNotFound() {
     // 设置Mock行为
+    mockCacheMiss();
     when(tableMetadataRepository.findByDataSourceIdAndSchemaAndName(dataSourceId, schema, tableName))
         .thenReturn(Optional.empty());
 
@@ -190,23 +203,59 @@ class MetadataStorageServiceImplTest {
     // 验证结果
     verify(tableMetadataRepository, times(1)).save(any(TableMetadataEntity.class));
     verify(columnMetadataRepository, times(1)).saveAll(anyList());
+    verify(tableMetadataCache, times(1)).evict(dataSourceId, schema, tableName);
   }
 
   @Test
-  void saveTableMetadataBatch_ShouldSaveAllTablesAndColumns() {
-    // 准备测试数据
-    List<TableMetadata> tables = Collections.singletonList(tableMetadata);
+  void saveTableMetadata_ShouldReplaceExistingTable() {
+    // 设置Mock行为 - 表已存在
+    when(tableMetadataRepository.findByDataSourceIdAndSchemaAndName(dataSourceId, schema, tableName))
+        .thenReturn(Optional.of(tableMetadataEntity));
+    when(tableMetadataRepository.save(any(TableMetadataEntity.class))).thenReturn(tableMetadataEntity);
 
+    // 执行测试
+    metadataStorageService.saveTableMetadata(tableMetadata);
+
+    // 验证结果：原地更新已有的表，替换其列和索引，不插入重复记录
+    verify(columnMetadataRepository, times(1)).deleteByTableMetadataId(tableMetadataEntity.getId());
+    verify(indexMetadataRepository, times(1)).deleteByTableMetadataId(tableMetadataEntity.getId());
+    verify(tableMetadataRepository, times(1))
+        .save(argThat(entity -> tableMetadataEntity.getId().equals(entity.getId())));
+  }
+
+  @Test
+  void deleteTableMetadata_ShouldDeleteInBatchAndEvict() {
     // 设置Mock行为
-    when(tableMetadataRepository.save(any(TableMetadataEntity.class))).thenReturn(tableMetadataEntity);
-    when(columnMetadataRepository.saveAll(anyList())).thenReturn(columnMetadataEntities);
+    List<String> tableNames = Arrays.asList(tableName, "dropped_table");
+    when(batchWriter.delete(dataSourceId, schema, tableNames)).thenReturn(2);
 
     // 执行测试
-    metadataStorageService.saveTableMetadataBatch(tables);
+    int deleted = metadataStorageService.deleteTableMetadata(dataSourceId, schema, tableNames);
 
     // 验证结果
-    verify(tableMetadataRepository, times(1)).save(any(TableMetadataEntity.class));
-    verify(columnMetadataRepository, times(1)).saveAll(anyList());
+    assertEquals(2, deleted);
+    verify(tableMetadataCache, times(1)).evict(dataSourceId, schema, tableName);
+    verify(tableMetadataCache, times(1)).evict(dataSourceId, schema, "dropped_table");
+  }
+
+  @Test
+  void saveTableMetadataBatch_ShouldWriteInBatchPerDataSource() {
+    // 准备测试数据
+    TableMetadata otherTable = new TableMetadata();
+    otherTable.setDataSourceId("other-datasource-id");
+    otherTable.setSchema(schema);
+    otherTable.setName("other_table");
+    List<TableMetadata> tables = Arrays.asList(tableMetadata, otherTable);
+
+    // 执行测试
+    metadataStorageService.saveTableMetadataBatch(tables);
+
+    // 验证结果：每个数据源批量写入一次，不逐条调用JPA保存
+    verify(batchWriter, times(1)).write(dataSourceId, Collections.singletonList(tableMetadata));
+    verify(batchWriter, times(1)).write("other-datasource-id", Collections.singletonList(otherTable));
+    verify(tableMetadataRepository, never()).save(any(TableMetadataEntity.class));
+    verify(columnMetadataRepository, never()).saveAll(anyList());
+    verify(tableMetadataCache, times(1)).evictDataSource(dataSourceId);
   }
 
   @Test
@@ -228,5 +277,12 @@ class MetadataStorageServiceImplTest {
     verify(columnMetadataRepository, times(1)).deleteByTableMetadataId(tableMetadataEntity.getId());
     verify(indexMetadataRepository, times(1)).deleteByTableMetadataId(tableMetadataEntity.getId());
     verify(tableMetadataRepository, times(1)).deleteByDataSourceId(dataSourceId);
+    verify(tableMetadataCache, times(1)).evictDataSource(dataSourceId);
+  }
+
+  /** 缓存未命中，直接调用加载方法 */
+  private void mockCacheMiss() {
+    when(tableMetadataCache.get(eq(dataSourceId), eq(schema), eq(tableName), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<TableMetadata>>getArgument(3).get());
   }
 } 
\ No newline at end of file
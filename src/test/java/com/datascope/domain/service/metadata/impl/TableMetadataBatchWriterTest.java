@@ -0,0 +1,125 @@
+package com.datascope.domain.service.metadata.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.datascope.domain.entity.ColumnMetadataEntity;
+import com.datascope.domain.entity.TableMetadataEntity;
+import com.datascope.domain.model.metadata.ColumnMetadata;
+import com.datascope.domain.model.metadata.ColumnType;
+import com.datascope.domain.model.metadata.IndexMetadata;
+import com.datascope.domain.model.metadata.TableMetadata;
+import com.datascope.domain.repository.ColumnMetadataRepository;
+import com.datascope.domain.repository.IndexMetadataRepository;
+import com.datascope.domain.repository.TableMetadataRepository;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TableMetadataBatchWriterTest {
+
+  @Autowired private TableMetadataBatchWriter batchWriter;
+
+  @Autowired private TableMetadataRepository tableMetadataRepository;
+
+  @Autowired private ColumnMetadataRepository columnMetadataRepository;
+
+  @Autowired private IndexMetadataRepository indexMetadataRepository;
+
+  private String dataSourceId;
+
+  @BeforeEach
+  void setUp() {
+    dataSourceId = UUID.randomUUID().toString();
+  }
+
+  @Test
+  void write_ShouldInsertThenUpdateInPlace() {
+    TableMetadata orders = table("orders", 100L, "id", "amount");
+    orders.getIndices().add(index("PRIMARY", "id"));
+    batchWriter.write(dataSourceId, List.of(orders, table("users", 5L, "id")));
+
+    TableMetadataEntity inserted = find("orders");
+    Long ordersId = inserted.getId();
+    Long usersId = find("users").getId();
+    assertEquals(100L, inserted.getRowCount());
+    assertEquals(List.of("id", "amount"), columnNames(ordersId));
+    assertEquals(1, indexMetadataRepository.findByTableMetadataId(ordersId).size());
+
+    // 第二次写入：已存在的表原地更新，列和索引整体替换，新表插入
+    TableMetadata changed = table("orders", 120L, "id", "total");
+    batchWriter.write(
+        dataSourceId, List.of(changed, table("users", 6L, "id"), table("items", 1L, "sku")));
+
+    TableMetadataEntity updated = find("orders");
+    assertEquals(ordersId, updated.getId());
+    assertEquals(120L, updated.getRowCount());
+    assertEquals(List.of("id", "total"), columnNames(ordersId));
+    assertTrue(indexMetadataRepository.findByTableMetadataId(ordersId).isEmpty());
+    assertEquals(usersId, find("users").getId());
+    assertEquals(List.of("sku"), columnNames(find("items").getId()));
+    assertEquals(3, tableMetadataRepository.findByDataSourceId(dataSourceId).size());
+  }
+
+  @Test
+  void delete_ShouldRemoveTablesWithColumnsAndIndexes() {
+    TableMetadata orders = table("orders", 100L, "id");
+    orders.getIndices().add(index("PRIMARY", "id"));
+    batchWriter.write(dataSourceId, List.of(orders, table("users", 5L, "id")));
+    Long ordersId = find("orders").getId();
+
+    assertEquals(1, batchWriter.delete(dataSourceId, "test", List.of("orders", "missing")));
+
+    assertTrue(
+        tableMetadataRepository
+            .findByDataSourceIdAndSchemaAndName(dataSourceId, "test", "orders")
+            .isEmpty());
+    assertTrue(columnMetadataRepository.findByTableMetadataId(ordersId).isEmpty());
+    assertTrue(indexMetadataRepository.findByTableMetadataId(ordersId).isEmpty());
+    assertEquals(1, tableMetadataRepository.findByDataSourceId(dataSourceId).size());
+  }
+
+  private TableMetadataEntity find(String tableName) {
+    return tableMetadataRepository
+        .findByDataSourceIdAndSchemaAndName(dataSourceId, "test", tableName)
+        .orElseThrow();
+  }
+
+  private List<String> columnNames(Long tableId) {
+    return columnMetadataRepository.findByTableMetadataId(tableId).stream()
+        .sorted(Comparator.comparing(ColumnMetadataEntity::getOrdinalPosition))
+        .map(ColumnMetadataEntity::getName)
+        .collect(Collectors.toList());
+  }
+
+  private static TableMetadata table(String name, Long rowCount, String... columnNames) {
+    TableMetadata table = new TableMetadata();
+    table.setSchema("test");
+    table.setName(name);
+    table.setRowCount(rowCount);
+    for (int i = 0; i < columnNames.length; i++) {
+      ColumnMetadata column = new ColumnMetadata();
+      column.setName(columnNames[i]);
+      column.setType(ColumnType.BIGINT);
+      column.setOrdinalPosition(i + 1);
+      table.addColumn(column);
+    }
+    return table;
+  }
+
+  private static IndexMetadata index(String name, String column) {
+    IndexMetadata index = new IndexMetadata();
+    index.setName(name);
+    index.setUnique(true);
+    index.getColumns().add(column);
+    return index;
+  }
+}
@@ -0,0 +1,196 @@
+package com.datascope.domain.service.preview;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.metadata.TableMetadata;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.domain.service.preview.PreviewRowCounter.RowCount;
+import com.datascope.infrastructure.dialect.HiveDialect;
+import com.datascope.infrastructure.dialect.MySqlDialect;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PreviewRowCounterTest {
+
+  private DataSourceService dataSourceService;
+
+  private Connection connection;
+
+  private PreparedStatement statement;
+
+  private PreviewRowCounter counter;
+
+  private DataSource dataSource;
+
+  private TableMetadata table;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    dataSourceService = mock(DataSourceService.class);
+    connection = mock(Connection.class);
+    statement = mock(PreparedStatement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(dataSourceService.getConnection(any())).thenReturn(connection);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(statement.executeQuery()).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true);
+    when(resultSet.getLong(1)).thenReturn(42L);
+    counter = new PreviewRowCounter(dataSourceService, 3000, 1);
+
+    dataSource = new DataSource();
+    dataSource.setId("ds-1");
+    table = new TableMetadata();
+    table.setSchema("test");
+    table.setName("users");
+  }
+
+  @AfterEach
+  void tearDown() {
+    counter.destroy();
+  }
+
+  @Test
+  void start_ShouldUseMetadataRowCountWithoutQuery() throws Exception {
+    table.setRowCount(100L);
+
+    RowCount count = await(counter.start(dataSource, new MySqlDialect(), table, null, false));
+
+    assertEquals(100L, count.getValue());
+    assertFalse(count.isExact());
+    verify(dataSourceService, never()).getConnection(any());
+  }
+
+  @Test
+  void start_ShouldEstimateFromCatalogWhenMetadataHasNoRowCount() throws Exception {
+    RowCount count = await(counter.start(dataSource, new MySqlDialect(), table, null, false));
+
+    assertEquals(42L, count.getValue());
+    assertFalse(count.isExact());
+    verify(connection).prepareStatement(new MySqlDialect().rowCountEstimateSql());
+  }
+
+  @Test
+  void start_ShouldCountExactlyWithoutCatalogEstimate() throws Exception {
+    RowCount count = await(counter.start(dataSource, new HiveDialect(), table, null, false));
+
+    assertEquals(42L, count.getValue());
+    assertTrue(count.isExact());
+    verify(connection).prepareStatement("SELECT COUNT(*) FROM `test`.`users`");
+  }
+
+  @Test
+  void start_ShouldCountExactlyWithFilter() throws Exception {
+    table.setRowCount(100L);
+
+    RowCount count =
+        await(counter.start(dataSource, new MySqlDialect(), table, "age > 18", false));
+
+    assertEquals(42L, count.getValue());
+    assertTrue(count.isExact());
+    verify(connection).prepareStatement("SELECT COUNT(*) FROM `test`.`users` WHERE age > 18");
+  }
+
+  @Test
+  void start_ShouldFallBackToMetadataWhenExactCountFails() throws Exception {
+    table.setRowCount(100L);
+    when(statement.executeQuery()).thenThrow(new SQLException("access denied"));
+
+    RowCount count = await(counter.start(dataSource, new MySqlDialect(), table, null, true));
+    assertEquals(100L, count.getValue());
+    assertFalse(count.isExact());
+
+    // 带过滤条件时元数据中的行数不可用
+    RowCount filtered =
+        await(counter.start(dataSource, new MySqlDialect(), table, "age > 18", true));
+    assertNull(filtered.getValue());
+  }
+
+  @Test
+  void start_ShouldFallBackWhenTasksAreRejected() throws Exception {
+    table.setRowCount(100L);
+    CountDownLatch release = new CountDownLatch(1);
+    when(dataSourceService.getConnection(any()))
+        .thenAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return connection;
+            });
+
+    try {
+      // 单线程的队列容量为16：1个执行中，16个排队，之后的任务被拒绝
+      for (int i = 0; i < 17; i++) {
+        counter.start(dataSource, new MySqlDialect(), table, null, true);
+      }
+      PreviewRowCounter.PendingCount rejected =
+          counter.start(dataSource, new MySqlDialect(), table, null, true);
+
+      RowCount count = rejected.await(System.currentTimeMillis());
+      assertEquals(100L, count.getValue());
+      assertFalse(count.isExact());
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  void await_ShouldCancelCountAfterDeadline() throws Exception {
+    table.setRowCount(100L);
+    CountDownLatch cancelled = new CountDownLatch(1);
+    when(statement.executeQuery())
+        .thenAnswer(
+            invocation -> {
+              // 模拟慢查询，语句被取消后失败
+              cancelled.await(5, TimeUnit.SECONDS);
+              throw new SQLException("statement cancelled");
+            });
+    doAnswer(
+            invocation -> {
+              cancelled.countDown();
+              return null;
+            })
+        .when(statement)
+        .cancel();
+
+    PreviewRowCounter.PendingCount pending =
+        counter.start(dataSource, new MySqlDialect(), table, null, true);
+    RowCount count = pending.await(System.currentTimeMillis() + 100);
+
+    assertEquals(100L, count.getValue());
+    assertFalse(count.isExact());
+    assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void await_ShouldReturnFinishedCountAfterDeadline() {
+    PreviewRowCounter.PendingCount pending =
+        counter.start(dataSource, new MySqlDialect(), table, null, true);
+    assertEquals(42L, await(pending).getValue());
+
+    // 截止时间已过，但统计已经完成时仍返回结果
+    RowCount count = pending.await(System.currentTimeMillis() - 1000);
+    assertEquals(42L, count.getValue());
+    assertTrue(count.isExact());
+  }
+
+  private static RowCount await(PreviewRowCounter.PendingCount pending) {
+    return pending.await(System.currentTimeMillis() + 5000);
+  }
+}
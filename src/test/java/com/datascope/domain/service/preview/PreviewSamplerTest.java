@@ -0,0 +1,102 @@
+package com.datascope.domain.service.preview;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datascope.domain.model.datasource.DataSource;
+import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.domain.model.metadata.ColumnMetadata;
+import com.datascope.domain.model.metadata.ColumnType;
+import com.datascope.domain.model.metadata.TableMetadata;
+import com.datascope.domain.model.preview.DataPreviewRequest;
+import com.datascope.domain.model.preview.SamplingMode;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.infrastructure.dialect.SqlDialects;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PreviewSamplerTest {
+
+  private PreviewSampler sampler;
+
+  private PreparedStatement statement;
+
+  private ResultSet resultSet;
+
+  private DataSource dataSource;
+
+  private TableMetadata table;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    DataSourceService dataSourceService = mock(DataSourceService.class);
+    Connection connection = mock(Connection.class);
+    statement = mock(PreparedStatement.class);
+    resultSet = mock(ResultSet.class);
+    when(dataSourceService.getConnection(any())).thenReturn(connection);
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+    when(statement.executeQuery()).thenReturn(resultSet);
+    // 模拟的结果集不受maxRows限制，总有更多的行
+    when(resultSet.next()).thenReturn(true);
+    when(resultSet.getLong(1)).thenReturn(1L, 2L, 3L, 4L, 5L);
+    sampler = new PreviewSampler(dataSourceService, 3, 10, 3, 1000);
+
+    dataSource = new DataSource();
+    dataSource.setType(DataSourceType.MYSQL);
+    table = new TableMetadata();
+    table.setSchema("test");
+    table.setName("users");
+    ColumnMetadata id = new ColumnMetadata();
+    id.setName("id");
+    id.setType(ColumnType.BIGINT);
+    table.addColumn(id);
+  }
+
+  @Test
+  void reservoir_ShouldPushScanLimitDownWithoutCancelling() throws Exception {
+    PreviewSampler.Sample sample = sample(SamplingMode.RESERVOIR, 2);
+
+    assertEquals(SamplingMode.RESERVOIR, sample.getMode());
+    assertEquals(2, sample.getRows().size());
+    // 扫描上限由数据库执行，提前结束时不取消池化连接上的语句
+    verify(statement).setMaxRows(3);
+    verify(statement).setFetchSize(Integer.MIN_VALUE);
+    verify(statement, never()).cancel();
+    verify(resultSet).close();
+  }
+
+  @Test
+  void keyRange_ShouldFallBackToHeadWithoutIntegerKey() throws Exception {
+    table.getColumns().get(0).setType(ColumnType.VARCHAR);
+
+    PreviewSampler.Sample sample = sample(SamplingMode.KEY_RANGE, 2);
+
+    assertEquals(SamplingMode.HEAD, sample.getMode());
+    assertEquals(2, sample.getRows().size());
+    verify(statement).setMaxRows(2);
+    verify(statement, never()).cancel();
+  }
+
+  private PreviewSampler.Sample sample(SamplingMode mode, int sampleSize) throws Exception {
+    DataPreviewRequest request = new DataPreviewRequest();
+    request.setSamplingMode(mode);
+    request.setSampleSize(sampleSize);
+    return sampler.sample(
+        dataSource,
+        SqlDialects.of(DataSourceType.MYSQL),
+        table,
+        request,
+        table.getColumns(),
+        System.currentTimeMillis() + 30_000);
+  }
+}
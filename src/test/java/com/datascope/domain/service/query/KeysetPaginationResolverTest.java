@@ -0,0 +1,103 @@
+package com.datascope.domain.service.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datascope.domain.model.metadata.ColumnMetadata;
+import com.datascope.domain.model.metadata.IndexMetadata;
+import com.datascope.domain.model.metadata.TableMetadata;
+import com.datascope.domain.model.query.QueryConfig;
+import com.datascope.domain.model.query.QueryPagination;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.domain.service.metadata.MetadataStorageService;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KeysetPaginationResolverTest {
+
+  private MetadataStorageService metadataStorageService;
+
+  private KeysetPaginationResolver resolver;
+
+  @BeforeEach
+  void setUp() {
+    metadataStorageService = mock(MetadataStorageService.class);
+    resolver =
+        new KeysetPaginationResolver(metadataStorageService, mock(DataSourceService.class), 300);
+    when(metadataStorageService.getTableMetadata("ds-1", "shop", "orders")).thenReturn(orders());
+  }
+
+  @Test
+  void resolve_ShouldUseOffsetWithoutSortFieldOrCursor() {
+    QueryPagination pagination = QueryPagination.builder().page(3).size(20).build();
+
+    assertTrue(resolver.resolve(config("SELECT * FROM shop.orders"), pagination).isEmpty());
+    verify(metadataStorageService, never()).getTableMetadata(anyString(), anyString(), anyString());
+  }
+
+  @Test
+  void resolve_ShouldUseKeysetForSortFieldOrCursor() {
+    QueryConfig config = config("SELECT * FROM shop.orders");
+
+    QueryPagination sorted =
+        QueryPagination.builder().page(2).size(20).sortField("created_at").build();
+    assertEquals(List.of("created_at", "id"), resolver.resolve(config, sorted));
+    QueryPagination withCursor = QueryPagination.builder().size(20).cursor("c").build();
+    assertEquals(List.of("id"), resolver.resolve(config, withCursor));
+  }
+
+  @Test
+  void resolve_ShouldKeepTemplateOrderBy() {
+    QueryPagination pagination =
+        QueryPagination.builder().page(2).size(20).sortField("id").build();
+
+    // 模板自带排序时不改写排序，子查询中的ORDER BY不受影响
+    assertTrue(
+        resolver
+            .resolve(config("SELECT * FROM shop.orders ORDER BY created_at DESC"), pagination)
+            .isEmpty());
+    assertEquals(
+        List.of("id"),
+        resolver.resolve(
+            config("SELECT * FROM shop.orders WHERE note = '(order by)'"), pagination));
+    assertEquals(
+        List.of("id"),
+        resolver.resolve(
+            config("SELECT * FROM shop.orders WHERE note <> 'x order by y' -- order by id"),
+            pagination));
+  }
+
+  private static QueryConfig config(String sql) {
+    QueryConfig config = new QueryConfig();
+    config.setId(sql);
+    config.setDataSourceId("ds-1");
+    config.setSqlTemplate(sql);
+    config.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+    return config;
+  }
+
+  private static TableMetadata orders() {
+    TableMetadata table = new TableMetadata();
+    table.setSchema("shop");
+    table.setName("orders");
+    for (String name : List.of("id", "created_at")) {
+      ColumnMetadata column = new ColumnMetadata();
+      column.setName(name);
+      column.setPrimaryKey("id".equals(name));
+      table.addColumn(column);
+    }
+    IndexMetadata primary = new IndexMetadata();
+    primary.setName("PRIMARY");
+    primary.setUnique(true);
+    primary.addColumn("id");
+    table.addIndex(primary);
+    return table;
+  }
+}
@@ -0,0 +1,166 @@
+package com.datascope.domain.service.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datascope.domain.model.query.QueryConfig;
+import com.datascope.domain.model.query.QueryPagination;
+import com.datascope.domain.model.query.QueryRequest;
+import com.datascope.domain.model.query.QueryResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+class QueryResultCacheTest {
+
+  private static final int MAX_BYTES = 2000;
+
+  private QueryResultCache cache;
+
+  private QueryConfig queryConfig;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+    when(redisTemplate.opsForSet()).thenReturn(mock(SetOperations.class));
+    cache = new QueryResultCache(redisTemplate, new ObjectMapper(), 300, 30, 1 << 20, 100, MAX_BYTES);
+    queryConfig = new QueryConfig();
+    queryConfig.setId("query-1");
+    queryConfig.setCacheEnabled(true);
+    queryConfig.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+  }
+
+  @Test
+  void get_ShouldHitAfterPutAndMissOtherwise() {
+    QueryRequest request = request(Map.of("status", "PAID"), 1);
+    assertNull(cache.get(queryConfig, request));
+
+    cache.put(queryConfig, request, result("alice"));
+
+    QueryResult cached = cache.get(queryConfig, request);
+    assertNotNull(cached);
+    assertTrue(cached.getCached());
+    assertEquals("alice", cached.getRows().get(0).get("name"));
+    // 未开启缓存的配置不读取缓存
+    queryConfig.setCacheEnabled(false);
+    assertNull(cache.get(queryConfig, request));
+  }
+
+  @Test
+  void buildKey_ShouldNormalizeParametersAndSeparatePages() {
+    Map<String, Object> first = new LinkedHashMap<>();
+    first.put("a", 1);
+    first.put("b", "x");
+    Map<String, Object> second = new LinkedHashMap<>();
+    second.put("b", "x");
+    second.put("a", 1);
+    cache.put(queryConfig, request(first, 1), result("alice"));
+
+    // 参数顺序不影响缓存键，页码和配置版本不同时不命中
+    assertNotNull(cache.get(queryConfig, request(second, 1)));
+    assertNull(cache.get(queryConfig, request(second, 2)));
+    queryConfig.setUpdatedAt(queryConfig.getUpdatedAt().plusSeconds(1));
+    assertNull(cache.get(queryConfig, request(first, 1)));
+  }
+
+  @Test
+  void put_ShouldMeasureSizeInUtf8Bytes() {
+    // 1000个汉字：字符数未超过限制，UTF-8字节数超过
+    QueryRequest request = request(new HashMap<>(), 1);
+    cache.put(queryConfig, request, result("数".repeat(1000)));
+    assertNull(cache.get(queryConfig, request));
+
+    cache.put(queryConfig, request, result("a".repeat(1000)));
+    assertNotNull(cache.get(queryConfig, request));
+
+    String text = "a中é😀";
+    assertEquals(text.getBytes(StandardCharsets.UTF_8).length, QueryResultCache.utf8Length(text));
+  }
+
+  @Test
+  void evict_ShouldRemoveResultsOfQueryConfig() {
+    QueryRequest request = request(new HashMap<>(), 1);
+    cache.put(queryConfig, request, result("alice"));
+    QueryConfig other = new QueryConfig();
+    other.setId("query-2");
+    other.setCacheEnabled(true);
+    cache.put(other, request, result("bob"));
+
+    cache.evict("query-1");
+
+    assertNull(cache.get(queryConfig, request));
+    assertNotNull(cache.get(other, request));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void get_ShouldRestoreValueTypesFromRedis() {
+    // 以Map模拟Redis，新建的缓存实例没有进程内缓存，只能从Redis读取
+    Map<String, String> store = new HashMap<>();
+    ValueOperations<String, String> values = mock(ValueOperations.class);
+    doAnswer(invocation -> store.put(invocation.getArgument(0), invocation.getArgument(1)))
+        .when(values)
+        .set(anyString(), anyString(), any(Duration.class));
+    when(values.get(anyString())).thenAnswer(invocation -> store.get(invocation.getArgument(0)));
+    StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    when(redisTemplate.opsForValue()).thenReturn(values);
+    when(redisTemplate.opsForSet()).thenReturn(mock(SetOperations.class));
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    Map<String, Object> row = new HashMap<>();
+    row.put("amount", new BigDecimal("12345678901234567.89"));
+    row.put("id", 5_000_000_000L);
+    row.put("quantity", 7);
+    row.put("ratio", 0.5d);
+    row.put("paid_at", Timestamp.valueOf("2024-03-05 10:30:00"));
+    row.put("name", "alice");
+    row.put("remark", null);
+    QueryResult original = QueryResult.builder().rows(List.of(row)).total(1L).build();
+    QueryRequest request = request(new HashMap<>(), 1);
+    new QueryResultCache(redisTemplate, objectMapper, 300, 30, 1 << 20, 100, MAX_BYTES)
+        .put(queryConfig, request, original);
+
+    QueryResult cached =
+        new QueryResultCache(redisTemplate, objectMapper, 300, 30, 1 << 20, 100, MAX_BYTES)
+            .get(queryConfig, request);
+
+    assertNotNull(cached);
+    assertEquals(row, cached.getRows().get(0));
+    assertEquals(Integer.class, cached.getRows().get(0).get("quantity").getClass());
+  }
+
+  private static QueryRequest request(Map<String, Object> parameters, int page) {
+    QueryRequest request = new QueryRequest();
+    request.setQueryConfigId("query-1");
+    request.setParameters(parameters);
+    request.setPagination(QueryPagination.builder().page(page).size(20).build());
+    return request;
+  }
+
+  private static QueryResult result(String name) {
+    Map<String, Object> row = new HashMap<>();
+    row.put("name", name);
+    return QueryResult.builder().rows(List.of(row)).total(1L).build();
+  }
+}
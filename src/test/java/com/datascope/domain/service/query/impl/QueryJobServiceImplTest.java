@@ -0,0 +1,123 @@
+package com.datascope.domain.service.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.datascope.domain.model.query.QueryConfig;
+import com.datascope.domain.model.query.QueryJob;
+import com.datascope.domain.model.query.QueryRequest;
+import com.datascope.domain.model.query.QueryResult;
+import com.datascope.domain.model.query.QueryStatus;
+import com.datascope.domain.service.query.QueryExecutionContext;
+import com.datascope.domain.service.query.QueryService;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+
+/**
+ * 异步查询任务服务单元测试
+ */
+public class QueryJobServiceImplTest {
+
+    private QueryService queryService;
+
+    private QueryJobServiceImpl jobService;
+
+    @BeforeEach
+    public void setup() {
+        queryService = mock(QueryService.class);
+        QueryConfig queryConfig = QueryConfig.builder().id("query-1").dataSourceId("ds-1").build();
+        when(queryService.getQueryConfig("query-1")).thenReturn(queryConfig);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jobService.destroy();
+    }
+
+    @Test
+    public void testSubmitAndGetResult() throws Exception {
+        jobService = new QueryJobServiceImpl(queryService, 1, 10, 600, 30);
+        QueryResult result = QueryResult.builder().rows(List.of(Map.of("id", 1))).executionTime(5L).build();
+        when(queryService.executeQuery(any(QueryRequest.class), any(QueryExecutionContext.class))).thenReturn(result);
+
+        QueryJob submitted = jobService.submit(request());
+        QueryJob finished = jobService.awaitJob(submitted.getJobId(), Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(QueryStatus.COMPLETED, finished.getStatus());
+        assertEquals(1, finished.getRowCount());
+        assertEquals(QueryStatus.COMPLETED, jobService.getJob(submitted.getJobId()).getStatus());
+        assertSame(result, jobService.getResult(submitted.getJobId()));
+    }
+
+    @Test
+    public void testCancelRunningAndQueuedJobs() throws Exception {
+        jobService = new QueryJobServiceImpl(queryService, 1, 10, 600, 30);
+        CountDownLatch started = new CountDownLatch(1);
+        when(queryService.executeQuery(any(QueryRequest.class), any(QueryExecutionContext.class)))
+                .thenAnswer(invocation -> {
+                    QueryExecutionContext context = invocation.getArgument(1);
+                    started.countDown();
+                    // 模拟执行中的查询，取消后失败
+                    while (!context.isCancelled()) {
+                        Thread.sleep(5);
+                    }
+                    throw new DataScopeException(ErrorCode.OPERATION_FAILED, "查询已取消");
+                });
+
+        String running = jobService.submit(request()).getJobId();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        String queued = jobService.submit(request()).getJobId();
+        assertEquals(QueryStatus.PENDING, jobService.getJob(queued).getStatus());
+
+        // 排队中的任务直接结束，执行中的任务在查询中断后结束
+        assertEquals(QueryStatus.CANCELLED, jobService.cancel(queued).getStatus());
+        jobService.cancel(running);
+        QueryJob cancelled = jobService.awaitJob(running, Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+        assertEquals(QueryStatus.CANCELLED, cancelled.getStatus());
+        DataScopeException exception = assertThrows(DataScopeException.class, () -> jobService.getResult(running));
+        assertEquals(ErrorCode.OPERATION_FAILED, exception.getErrorCode());
+    }
+
+    @Test
+    public void testExpiredJobsArePurged() throws Exception {
+        jobService = new QueryJobServiceImpl(queryService, 1, 10, 0, 30);
+        when(queryService.executeQuery(any(QueryRequest.class), any(QueryExecutionContext.class)))
+                .thenReturn(QueryResult.builder().rows(List.of()).build());
+
+        String first = jobService.submit(request()).getJobId();
+        String second = jobService.submit(request()).getJobId();
+        jobService.awaitJob(first, Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+        jobService.awaitJob(second, Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+        Thread.sleep(10);
+
+        // 读取过期任务时移除，其余过期任务由定时清理移除
+        DataScopeException exception = assertThrows(DataScopeException.class, () -> jobService.getJob(first));
+        assertEquals(ErrorCode.RESOURCE_NOT_FOUND, exception.getErrorCode());
+        Map<?, ?> jobs = (Map<?, ?>) ReflectionTestUtils.getField(jobService, "jobs");
+        assertEquals(1, jobs.size());
+        jobService.removeExpiredJobs();
+        assertTrue(jobs.isEmpty());
+    }
+
+    private QueryRequest request() {
+        QueryRequest request = new QueryRequest();
+        request.setQueryConfigId("query-1");
+        return request;
+    }
+}
@@ -0,0 +1,219 @@
+package com.datascope.domain.service.query.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.domain.model.datasource.vo.DataSourceVO;
+import com.datascope.domain.model.query.QueryConfig;
+import com.datascope.domain.model.query.QueryHistory;
+import com.datascope.domain.model.query.QueryPagination;
+import com.datascope.domain.model.query.QueryRequest;
+import com.datascope.domain.model.query.QueryStatus;
+import com.datascope.domain.repository.query.QueryConfigRepository;
+import com.datascope.domain.repository.query.QueryHistoryRepository;
+import com.datascope.domain.service.datasource.DataSourceCircuitBreakerRegistry;
+import com.datascope.domain.service.datasource.DataSourceService;
+import com.datascope.domain.service.query.KeysetPaginationResolver;
+import com.datascope.domain.service.query.QueryResultCache;
+import com.datascope.domain.service.query.QueryTemplateCache;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import com.datascope.infrastructure.util.CircuitBreaker;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 流式查询单元测试
+ */
+public class QueryServiceImplStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<QueryStatus> historyStatuses = new ArrayList<>();
+
+    private QueryConfig queryConfig;
+
+    private PreparedStatement statement;
+
+    private ResultSet resultSet;
+
+    private DataSourceCircuitBreakerRegistry circuitBreakers;
+
+    private QueryServiceImpl queryService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        queryConfig = QueryConfig.builder()
+                .id("query-1")
+                .dataSourceId("ds-1")
+                .sqlTemplate("SELECT id, name FROM users")
+                .maxRows(Integer.MAX_VALUE)
+                .updatedAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+        QueryConfigRepository queryConfigRepository = mock(QueryConfigRepository.class);
+        when(queryConfigRepository.findById("query-1")).thenReturn(Optional.of(queryConfig));
+        QueryHistoryRepository queryHistoryRepository = mock(QueryHistoryRepository.class);
+        when(queryHistoryRepository.save(any(QueryHistory.class))).thenAnswer(invocation -> {
+            QueryHistory history = invocation.getArgument(0);
+            historyStatuses.add(history.getStatus());
+            return history;
+        });
+
+        DataSourceService dataSourceService = mock(DataSourceService.class);
+        DataSourceVO dataSource = new DataSourceVO();
+        dataSource.setId("ds-1");
+        dataSource.setType(DataSourceType.POSTGRESQL);
+        when(dataSourceService.get("ds-1")).thenReturn(dataSource);
+        Connection connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        resultSet = mock(ResultSet.class);
+        when(dataSourceService.getQueryConnection(any())).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnName(1)).thenReturn("id");
+        when(metaData.getColumnName(2)).thenReturn("name");
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.getObject(1)).thenReturn(1, 2);
+        when(resultSet.getObject(2)).thenReturn("alice", "bob");
+
+        // 一次超过50毫秒的调用即打开熔断器
+        circuitBreakers = new DataSourceCircuitBreakerRegistry();
+        ReflectionTestUtils.setField(circuitBreakers, "enabled", true);
+        ReflectionTestUtils.setField(circuitBreakers, "windowSize", 10);
+        ReflectionTestUtils.setField(circuitBreakers, "minimumCalls", 1);
+        ReflectionTestUtils.setField(circuitBreakers, "failureRateThreshold", 50);
+        ReflectionTestUtils.setField(circuitBreakers, "slowCallDurationMs", 50L);
+        ReflectionTestUtils.setField(circuitBreakers, "slowCallRateThreshold", 50);
+        ReflectionTestUtils.setField(circuitBreakers, "openDurationMs", 60_000L);
+        ReflectionTestUtils.setField(circuitBreakers, "halfOpenCalls", 1);
+
+        queryService = new QueryServiceImpl(queryConfigRepository, queryHistoryRepository, dataSourceService,
+                objectMapper, new QueryTemplateCache(objectMapper, 10), mock(QueryResultCache.class),
+                circuitBreakers, mock(KeysetPaginationResolver.class));
+        ReflectionTestUtils.setField(queryService, "streamFetchSize", 1000);
+        ReflectionTestUtils.setField(queryService, "defaultTimeout", 30);
+    }
+
+    @Test
+    public void testStreamWritesRowsAndSummary() throws Exception {
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(2, queryService.executeQueryStream(request(), output));
+
+        List<JsonNode> lines = lines(output);
+        assertEquals(4, lines.size());
+        assertEquals("[1,\"alice\"]", lines.get(1).toString());
+        assertEquals("COMPLETED", lines.get(3).get("status").asText());
+        assertEquals(2, lines.get(3).get("rowCount").asInt());
+        // 行数上限为Integer.MAX_VALUE时多取一行不会溢出
+        verify(statement).setMaxRows(Integer.MAX_VALUE);
+        assertEquals(List.of(QueryStatus.RUNNING, QueryStatus.COMPLETED), historyStatuses);
+    }
+
+    @Test
+    public void testMidStreamFailureEndsWithErrorRecord() throws Exception {
+        when(resultSet.next()).thenReturn(true, true).thenThrow(new SQLException("connection reset", "08S01"));
+
+        // 响应已经开始写出，失败不再抛出异常
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(2, queryService.executeQueryStream(request(), output));
+
+        List<JsonNode> lines = lines(output);
+        assertEquals(4, lines.size());
+        assertEquals("[2,\"bob\"]", lines.get(2).toString());
+        JsonNode error = lines.get(3);
+        assertEquals("FAILED", error.get("status").asText());
+        assertEquals(2, error.get("rowCount").asInt());
+        assertEquals("connection reset", error.get("errorMessage").asText());
+        assertEquals(List.of(QueryStatus.RUNNING, QueryStatus.FAILED), historyStatuses);
+    }
+
+    @Test
+    public void testSlowConsumerDoesNotOpenCircuit() throws Exception {
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        // 客户端读取缓慢，每次刷新都要等待
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void flush() throws IOException {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        assertEquals(2, queryService.executeQueryStream(request(), output));
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakers.getState("ds-1"));
+    }
+
+    @Test
+    public void testMidStreamConnectionFailureOpensCircuit() throws Exception {
+        when(resultSet.next()).thenReturn(true).thenThrow(new SQLException("connection reset", "08S01"));
+
+        queryService.executeQueryStream(request(), new ByteArrayOutputStream());
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.getState("ds-1"));
+    }
+
+    @Test
+    public void testInvalidPaginationKeepsErrorCode() {
+        QueryRequest request = request();
+        request.setPagination(QueryPagination.builder().page(Integer.MAX_VALUE).size(100).build());
+
+        // 请求参数错误不改为执行失败
+        DataScopeException exception = assertThrows(DataScopeException.class,
+                () -> queryService.executeQuery(request));
+        assertEquals(ErrorCode.INVALID_PARAMETER, exception.getErrorCode());
+        assertEquals(List.of(QueryStatus.RUNNING, QueryStatus.FAILED), historyStatuses);
+    }
+
+    private QueryRequest request() {
+        QueryRequest request = new QueryRequest();
+        request.setQueryConfigId("query-1");
+        return request;
+    }
+
+    /**
+     * 按行解析NDJSON输出，每行必须是完整的JSON值
+     */
+    private List<JsonNode> lines(ByteArrayOutputStream output) throws Exception {
+        String content = output.toString(StandardCharsets.UTF_8);
+        assertEquals('\n', content.charAt(content.length() - 1));
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
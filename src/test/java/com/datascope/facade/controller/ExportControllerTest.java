@@ -0,0 +1,103 @@
+package com.datascope.facade.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.datascope.domain.model.export.ExportFile;
+import com.datascope.domain.service.export.ExportService;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class ExportControllerTest {
+
+  private static final String CSV = "id,name\r\n1,alice\r\n2,bob\r\n";
+
+  @TempDir Path tempDir;
+
+  private MockMvc mockMvc;
+
+  private Path file;
+
+  private byte[] gzipBytes;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    file = tempDir.resolve("history-1.csv");
+    Files.write(file, CSV.getBytes(StandardCharsets.UTF_8));
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(CSV.getBytes(StandardCharsets.UTF_8));
+    }
+    gzipBytes = compressed.toByteArray();
+    Path gzipFile = tempDir.resolve("history-1.csv.gz");
+    Files.write(gzipFile, gzipBytes);
+
+    ExportService exportService = mock(ExportService.class);
+    when(exportService.getExportFile("history-1"))
+        .thenReturn(
+            ExportFile.builder().fileName("订单.csv").path(file).gzipPath(gzipFile).build());
+    mockMvc = MockMvcBuilders.standaloneSetup(new ExportController(exportService)).build();
+  }
+
+  @Test
+  void download_ShouldServeRangeFromOriginalFile() throws Exception {
+    mockMvc
+        .perform(
+            get("/v1/exports/download/history-1")
+                .header(HttpHeaders.RANGE, "bytes=9-15")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 9-15/" + CSV.length()))
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(content().string("1,alice"));
+  }
+
+  @Test
+  void download_ShouldServePrecompressedFileWhenClientAcceptsGzip() throws Exception {
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/v1/exports/download/history-1")
+                    .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, gzipBytes.length))
+            .andReturn();
+    assertArrayEquals(gzipBytes, result.getResponse().getContentAsByteArray());
+  }
+
+  @Test
+  void download_ShouldHandOverToSendfileWhenSupported() throws Exception {
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/v1/exports/download/history-1")
+                    .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE))
+            .andExpect(status().isOk())
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CSV.length()))
+            .andReturn();
+    // 响应体由容器直接从文件发送
+    assertEquals(0, result.getResponse().getContentAsByteArray().length);
+    assertEquals(
+        file.toAbsolutePath().toString(),
+        result.getRequest().getAttribute("org.apache.tomcat.sendfile.filename"));
+    assertEquals((long) CSV.length(), result.getRequest().getAttribute("org.apache.tomcat.sendfile.end"));
+  }
+}
@@ -10,6 +10,7 @@ import static org.mockito.Mockito.when;
 import com.datascope.domain.model.metadata.TableMetadata;
 import com.datascope.domain.service.metadata.MetadataFetchService;
 import com.datascope.domain.service.metadata.MetadataStorageService;
+import com.datascope.domain.service.metadata.MetadataSyncScheduler;
 import com.datascope.infrastructure.common.response.R;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -30,6 +31,9 @@ class MetadataControllerTest {
   @Mock
   private MetadataFetchService metadataFetchService;
 
+  @Mock
+  private MetadataSyncScheduler metadataSyncScheduler;
+
   @InjectMocks
   private MetadataController metadataController;
 
@@ -0,0 +1,92 @@
+package com.datascope.infrastructure.dialect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.infrastructure.util.BoundSql;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+
+class SqlDialectTest {
+
+  private static BoundSql select(String sql) {
+    return new BoundSql(sql, new ArrayList<>());
+  }
+
+  @Test
+  void testQuoteIdentifier() {
+    assertEquals("`my``col`", SqlDialects.of(DataSourceType.MYSQL).quoteIdentifier("my`col"));
+    assertEquals("\"a\"\"b\"", SqlDialects.of(DataSourceType.POSTGRESQL).quoteIdentifier("a\"b"));
+    assertEquals("[a]]b]", SqlDialects.of(DataSourceType.SQLSERVER).quoteIdentifier("a]b"));
+    assertEquals(
+        "\"HR\".\"EMP\"", SqlDialects.of(DataSourceType.ORACLE).qualifyTable("HR", "EMP"));
+  }
+
+  @Test
+  void testPaginateParameterOrder() {
+    BoundSql mysql = SqlDialects.of(DataSourceType.MYSQL).paginate(select("SELECT * FROM t"), 40, 20);
+    assertEquals("SELECT * FROM t LIMIT ?, ?", mysql.getSql());
+    assertEquals(40, mysql.getParameters().get(0).getValue());
+
+    BoundSql postgres =
+        SqlDialects.of(DataSourceType.POSTGRESQL).paginate(select("SELECT * FROM t"), 40, 20);
+    assertEquals("SELECT * FROM t LIMIT ? OFFSET ?", postgres.getSql());
+    assertEquals(20, postgres.getParameters().get(0).getValue());
+
+    assertEquals(
+        "SELECT * FROM t OFFSET ? ROWS FETCH FIRST ? ROWS ONLY",
+        SqlDialects.of(DataSourceType.DB2).paginate(select("SELECT * FROM t"), 40, 20).getSql());
+  }
+
+  @Test
+  void testOracleLimitAndPaginateUseFetch() {
+    // 行数限制和分页使用同样的12c语法
+    SqlDialect dialect = SqlDialects.of(DataSourceType.ORACLE);
+    assertEquals(
+        "SELECT * FROM t ORDER BY id FETCH FIRST ? ROWS ONLY",
+        dialect.limit(select("SELECT * FROM t ORDER BY id"), 10).getSql());
+    assertEquals(
+        "SELECT * FROM t ORDER BY id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+        dialect.paginate(select("SELECT * FROM t ORDER BY id"), 40, 20).getSql());
+  }
+
+  @Test
+  void testSqlServerAddsOrderByWhenMissing() {
+    SqlDialect dialect = SqlDialects.of(DataSourceType.SQLSERVER);
+
+    assertEquals(
+        "SELECT * FROM t ORDER BY (SELECT NULL) OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY",
+        dialect.limit(select("SELECT * FROM t"), 10).getSql());
+    assertEquals(
+        "SELECT * FROM t WHERE id IN (SELECT id FROM s ORDER BY id) ORDER BY name"
+            + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+        dialect
+            .paginate(
+                select("SELECT * FROM t WHERE id IN (SELECT id FROM s ORDER BY id) ORDER BY name"),
+                0,
+                10)
+            .getSql());
+    // 字符串常量、引用标识符和注释中的 ORDER BY 不算
+    assertEquals(
+        "SELECT [order by] FROM t WHERE note = 'order by' /* order by */"
+            + " ORDER BY (SELECT NULL) OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY",
+        dialect
+            .limit(select("SELECT [order by] FROM t WHERE note = 'order by' /* order by */"), 10)
+            .getSql());
+  }
+
+  @Test
+  void testSamplingAndEstimates() {
+    assertEquals(
+        "\"public\".\"t\" TABLESAMPLE SYSTEM (1.5)",
+        SqlDialects.of(DataSourceType.POSTGRESQL).sampleTable("\"public\".\"t\"", 1.5));
+    assertFalse(SqlDialects.of(DataSourceType.MYSQL).supportsSampling());
+    assertTrue(SqlDialects.of(DataSourceType.HIVE).supportsSampling());
+    assertNull(SqlDialects.of(DataSourceType.HIVE).rowCountEstimateSql());
+    assertSame(SqlDialects.DEFAULT, SqlDialects.of(DataSourceType.DORIS));
+  }
+}
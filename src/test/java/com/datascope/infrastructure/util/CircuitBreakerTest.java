@@ -0,0 +1,69 @@
+package com.datascope.infrastructure.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static final long OPEN_DURATION_MS = 100;
+
+  @Test
+  void testOpensAndClosesThroughHalfOpen() throws Exception {
+    CircuitBreaker breaker = breaker();
+
+    // 未达到最小调用数时不打开
+    breaker.onError(10);
+    breaker.onError(10);
+    breaker.onSuccess(10);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    breaker.onError(10);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquirePermission());
+
+    // 打开时长过后只放行半开试探调用
+    Thread.sleep(OPEN_DURATION_MS + 20);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    assertTrue(breaker.tryAcquirePermission());
+    assertTrue(breaker.tryAcquirePermission());
+    assertFalse(breaker.tryAcquirePermission());
+
+    breaker.onSuccess(10);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    breaker.onSuccess(10);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    assertTrue(breaker.tryAcquirePermission());
+  }
+
+  @Test
+  void testHalfOpenFailureReopens() throws Exception {
+    CircuitBreaker breaker = breaker();
+    for (int i = 0; i < 4; i++) {
+      breaker.onError(10);
+    }
+    Thread.sleep(OPEN_DURATION_MS + 20);
+    assertTrue(breaker.tryAcquirePermission());
+    assertTrue(breaker.tryAcquirePermission());
+
+    breaker.onSuccess(10);
+    breaker.onError(10);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquirePermission());
+  }
+
+  @Test
+  void testSlowCallsOpen() {
+    CircuitBreaker breaker = breaker();
+    for (int i = 0; i < 4; i++) {
+      breaker.onSuccess(1000);
+    }
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+  }
+
+  /** 窗口8次，至少4次调用后失败率50%或慢调用率75%打开，半开试探2次 */
+  private static CircuitBreaker breaker() {
+    return new CircuitBreaker("test", 8, 4, 50, 500, 75, OPEN_DURATION_MS, 2);
+  }
+}
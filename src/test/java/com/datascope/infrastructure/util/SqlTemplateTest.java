@@ -0,0 +1,234 @@
+package com.datascope.infrastructure.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.datascope.domain.model.datasource.DataSourceType;
+import com.datascope.domain.model.query.QueryPagination;
+import com.datascope.domain.model.query.QueryParameter;
+import com.datascope.infrastructure.common.exception.DataScopeException;
+import com.datascope.infrastructure.common.exception.ErrorCode;
+import com.datascope.infrastructure.dialect.SqlDialects;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class SqlTemplateTest {
+
+  private static final String TEMPLATE =
+      "SELECT * FROM orders WHERE status = {{status}} AND amount > {{ minAmount }}"
+          + " AND created_date >= {{since}}";
+
+  @Test
+  void testCompileReplacesPlaceholders() {
+    SqlTemplate template = SqlTemplate.compile(TEMPLATE);
+
+    assertEquals(
+        "SELECT * FROM orders WHERE status = ? AND amount > ? AND created_date >= ?",
+        template.bind(Collections.emptyMap(), Collections.emptyMap()).getSql());
+    assertEquals(Arrays.asList("status", "minAmount", "since"), template.getParameterNames());
+  }
+
+  @Test
+  void testSameSqlForDifferentValues() {
+    SqlTemplate template = SqlTemplate.compile(TEMPLATE);
+    Map<String, Object> first = new HashMap<>();
+    first.put("status", "PAID");
+    Map<String, Object> second = new HashMap<>();
+    second.put("status", "O'Brien");
+
+    assertEquals(
+        template.bind(first, null).getSql(), template.bind(second, null).getSql());
+  }
+
+  @Test
+  void testBindTypedParameters() throws Exception {
+    Map<String, QueryParameter> definitions = new HashMap<>();
+    definitions.put("status", QueryParameter.builder().name("status").type("string").build());
+    definitions.put("minAmount", QueryParameter.builder().name("minAmount").type("decimal").build());
+    definitions.put(
+        "since",
+        QueryParameter.builder().name("since").type("date").defaultValue("2024-01-01").build());
+    Map<String, Object> values = new HashMap<>();
+    values.put("status", "PAID");
+    values.put("minAmount", "10.50");
+
+    BoundSql boundSql = SqlTemplate.compile(TEMPLATE).bind(values, definitions);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    boundSql.bind(statement);
+
+    verify(statement).setString(1, "PAID");
+    verify(statement).setBigDecimal(2, new BigDecimal("10.50"));
+    verify(statement).setDate(3, Date.valueOf(LocalDate.of(2024, 1, 1)));
+  }
+
+  @Test
+  void testBindNullUsesDeclaredType() throws Exception {
+    Map<String, QueryParameter> definitions = new HashMap<>();
+    definitions.put("id", QueryParameter.builder().name("id").type("long").build());
+
+    BoundSql boundSql =
+        SqlTemplate.compile("SELECT * FROM t WHERE id = {{id}}")
+            .bind(Collections.emptyMap(), definitions);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    boundSql.bind(statement);
+
+    verify(statement).setNull(1, Types.BIGINT);
+  }
+
+  @Test
+  void testCollectionExpandsToPlaceholders() throws Exception {
+    Map<String, Object> values = new HashMap<>();
+    values.put("ids", Arrays.asList(1, 2, 3));
+    values.put("name", "a");
+
+    BoundSql boundSql =
+        SqlTemplate.compile("SELECT * FROM t WHERE id IN ({{ids}}) AND name = {{name}}")
+            .bind(values, null);
+
+    assertEquals("SELECT * FROM t WHERE id IN (?, ?, ?) AND name = ?", boundSql.getSql());
+    assertEquals(4, boundSql.getParameters().size());
+  }
+
+  @Test
+  void testPaginationAfterExpandedCollection() {
+    Map<String, Object> values = new HashMap<>();
+    values.put("ids", new int[] {1, 2});
+
+    BoundSql boundSql =
+        SqlTemplate.compile("SELECT * FROM t WHERE id IN ({{ids}})")
+            .bind(values, null, QueryPagination.builder().page(1).size(10).build());
+
+    assertEquals("SELECT * FROM t WHERE id IN (?, ?) LIMIT ?, ?", boundSql.getSql());
+    assertEquals(4, boundSql.getParameters().size());
+  }
+
+  @Test
+  void testRequiredParameterMissing() {
+    Map<String, QueryParameter> definitions = new HashMap<>();
+    definitions.put("id", QueryParameter.builder().name("id").required(true).build());
+
+    assertThrows(
+        DataScopeException.class,
+        () -> SqlTemplate.compile("SELECT * FROM t WHERE id = {{id}}").bind(null, definitions));
+  }
+
+  @Test
+  void testPaginationIsBound() throws Exception {
+    BoundSql boundSql =
+        SqlTemplate.compile("SELECT * FROM t")
+            .bind(null, null, QueryPagination.builder().page(3).size(20).build());
+
+    assertEquals("SELECT * FROM t LIMIT ?, ?", boundSql.getSql());
+    PreparedStatement statement = mock(PreparedStatement.class);
+    boundSql.bind(statement);
+    verify(statement).setInt(1, 40);
+    verify(statement).setInt(2, 20);
+  }
+
+  @Test
+  void testPaginationOffsetOverflowRejected() {
+    SqlTemplate template = SqlTemplate.compile("SELECT * FROM t");
+    QueryPagination pagination = QueryPagination.builder().page(Integer.MAX_VALUE).size(100).build();
+
+    // 偏移量超出int范围时不会溢出为负数
+    DataScopeException exception =
+        assertThrows(DataScopeException.class, () -> template.bind(null, null, pagination));
+    assertEquals(ErrorCode.INVALID_PARAMETER, exception.getErrorCode());
+    assertEquals(Integer.MAX_VALUE - 1, SqlTemplate.offset(Integer.MAX_VALUE, 1));
+  }
+
+  @Test
+  void testKeysetSeekBindsCursorValues() throws Exception {
+    KeysetCursor cursor =
+        KeysetCursor.decode(
+            KeysetCursor.of(
+                    Arrays.asList("created_at", "id"),
+                    Arrays.asList(Timestamp.valueOf("2024-01-02 03:04:05"), 42L))
+                .encode());
+    Map<String, Object> values = new HashMap<>();
+    values.put("status", "PAID");
+
+    BoundSql boundSql =
+        SqlTemplate.compile("SELECT * FROM orders WHERE status = {{status}}")
+            .bindKeyset(
+                values,
+                null,
+                Arrays.asList("created_at", "id"),
+                false,
+                cursor,
+                0,
+                50,
+                SqlDialects.DEFAULT);
+
+    assertEquals(
+        "SELECT * FROM (SELECT * FROM orders WHERE status = ?) keyset_page"
+            + " WHERE (keyset_page.`created_at` > ?)"
+            + " OR (keyset_page.`created_at` = ? AND keyset_page.`id` > ?)"
+            + " ORDER BY keyset_page.`created_at` ASC, keyset_page.`id` ASC LIMIT ?",
+        boundSql.getSql());
+    PreparedStatement statement = mock(PreparedStatement.class);
+    boundSql.bind(statement);
+    verify(statement).setString(1, "PAID");
+    verify(statement).setTimestamp(2, Timestamp.valueOf("2024-01-02 03:04:05"));
+    verify(statement).setTimestamp(3, Timestamp.valueOf("2024-01-02 03:04:05"));
+    verify(statement).setLong(4, 42L);
+    verify(statement).setInt(5, 50);
+  }
+
+  @Test
+  void testKeysetWithoutCursorUsesOffset() {
+    BoundSql boundSql =
+        SqlTemplate.compile("SELECT * FROM t;")
+            .bindKeyset(
+                null,
+                null,
+                Collections.singletonList("id"),
+                true,
+                null,
+                40,
+                20,
+                SqlDialects.DEFAULT);
+
+    assertEquals(
+        "SELECT * FROM (SELECT * FROM t) keyset_page ORDER BY keyset_page.`id` DESC LIMIT ?, ?",
+        boundSql.getSql());
+    assertEquals(2, boundSql.getParameters().size());
+  }
+
+  @Test
+  void testKeysetQuotesKeyColumnsForDialect() {
+    // 区分大小写的列名和保留字按方言加引号，模板末尾的行注释不会吞掉右括号
+    BoundSql boundSql =
+        SqlTemplate.compile("SELECT * FROM t -- all rows")
+            .bindKeyset(
+                null,
+                null,
+                Arrays.asList("CreatedAt", "order"),
+                false,
+                null,
+                0,
+                20,
+                SqlDialects.of(DataSourceType.POSTGRESQL));
+
+    assertEquals(
+        "SELECT * FROM (SELECT * FROM t -- all rows\n) keyset_page"
+            + " ORDER BY keyset_page.\"CreatedAt\" ASC, keyset_page.\"order\" ASC LIMIT ?",
+        boundSql.getSql());
+  }
+
+  @Test
+  void testInvalidCursorRejected() {
+    assertThrows(DataScopeException.class, () -> KeysetCursor.decode("not-a-cursor"));
+  }
+}